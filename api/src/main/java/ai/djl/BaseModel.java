@@ -16,6 +16,7 @@ import ai.djl.inference.Predictor;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.internal.ByteBufferDataInputStream;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
@@ -36,9 +37,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -338,8 +342,7 @@ public abstract class BaseModel implements Model {
     protected boolean readParameters(Path paramFile, Map<String, ?> options)
             throws IOException, MalformedModelException {
         logger.debug("Try to load model from {}", paramFile);
-        try (DataInputStream dis =
-                new DataInputStream(new BufferedInputStream(Files.newInputStream(paramFile)))) {
+        try (DataInputStream dis = openParameters(paramFile)) {
             byte[] buf = new byte[4];
             dis.readFully(buf);
             if (!"DJL@".equals(new String(buf, StandardCharsets.US_ASCII))) {
@@ -376,4 +379,18 @@ public abstract class BaseModel implements Model {
         }
         return true;
     }
+
+    private static DataInputStream openParameters(Path paramFile) throws IOException {
+        try (FileChannel fc = FileChannel.open(paramFile, StandardOpenOption.READ)) {
+            long size = fc.size();
+            if (size <= Integer.MAX_VALUE) {
+                // the parameters are copied from the mapped file into the engine directly, the
+                // mapping stays valid after the channel is closed
+                MappedByteBuffer buf = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                return new ByteBufferDataInputStream(buf);
+            }
+        }
+        // a single mapping is limited to 2GB
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(paramFile)));
+    }
 }
@@ -0,0 +1,453 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread-safe wrapper of {@link Predictor} that aggregates concurrent single requests into
+ * batches.
+ *
+ * <p>Each call to {@link #predict(Object)} is queued. A single worker thread collects queued
+ * requests until either {@code maxBatchSize} requests are available or the oldest request has
+ * waited for {@code maxDelayMillis}, and then runs them through {@link
+ * Predictor#batchPredict(List)}. The batch is created with the {@link ai.djl.translate.Batchifier}
+ * of the {@link ai.djl.translate.Translator} used by the wrapped predictor. A translator without a
+ * batchifier still works, but each request is then processed individually.
+ *
+ * <p>For variable length inputs batched with a padding batchifier such as {@link
+ * ai.djl.translate.PaddingStackBatchifier}, the requests can be grouped by length with {@link
+ * Builder#optBuckets(ToIntFunction, int...)}. Each bucket collects its own batch, so that short
+ * requests are not padded to the length of long ones. A batch can additionally be split into
+ * smaller batches to keep the padding below {@link Builder#optMaxPaddingRatio(float)}.
+ *
+ * <p>The following metrics are recorded when {@link #setMetrics(Metrics)} is used:
+ *
+ * <ul>
+ *   <li>BatchSize - the number of requests in each batch
+ *   <li>QueueWait - the time each request spent in the queue, in microseconds
+ *   <li>PaddingRatio - the percentage of padding in each batch, when buckets are used
+ * </ul>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class BatchingPredictor<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingPredictor.class);
+
+    private Predictor<I, O> predictor;
+    private int maxBatchSize;
+    private long maxDelayNanos;
+    private ToIntFunction<? super I> lengthFunction;
+    private int[] bucketKeys;
+    private float maxPaddingRatio;
+    private BlockingQueue<Job<I, O>> queue;
+    private AtomicInteger pending;
+    private Thread worker;
+    private Metrics metrics;
+    private AtomicBoolean closed;
+    private AtomicBoolean stopped;
+
+    /**
+     * Constructs a new {@code BatchingPredictor} instance.
+     *
+     * <p>The {@code BatchingPredictor} takes ownership of the given {@link Predictor}, and closes
+     * it when the {@code BatchingPredictor} is closed.
+     *
+     * @param predictor the {@link Predictor} used to run the batches
+     * @param maxBatchSize the maximum number of requests in a batch
+     * @param maxDelayMillis the maximum time in milliseconds a request waits for the batch to fill
+     */
+    public BatchingPredictor(Predictor<I, O> predictor, int maxBatchSize, long maxDelayMillis) {
+        this(builder(predictor).optMaxBatchSize(maxBatchSize).optMaxDelayMillis(maxDelayMillis));
+    }
+
+    BatchingPredictor(Builder<I, O> builder) {
+        if (builder.maxBatchSize < 1) {
+            throw new IllegalArgumentException(
+                    "maxBatchSize must be positive: " + builder.maxBatchSize);
+        }
+        if (builder.maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelayMillis must not be negative.");
+        }
+        predictor = builder.predictor;
+        maxBatchSize = builder.maxBatchSize;
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxDelayMillis);
+        lengthFunction = builder.lengthFunction;
+        bucketKeys = builder.bucketKeys;
+        maxPaddingRatio = builder.maxPaddingRatio;
+        queue = new LinkedBlockingQueue<>();
+        pending = new AtomicInteger();
+        closed = new AtomicBoolean();
+        stopped = new AtomicBoolean();
+        worker = new Thread(this::run, "batching-predictor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Creates a builder to build a {@code BatchingPredictor}.
+     *
+     * <p>The {@code BatchingPredictor} takes ownership of the given {@link Predictor}, and closes
+     * it when the {@code BatchingPredictor} is closed.
+     *
+     * @param predictor the {@link Predictor} used to run the batches
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a new builder
+     */
+    public static <I, O> Builder<I, O> builder(Predictor<I, O> predictor) {
+        return new Builder<>(predictor);
+    }
+
+    /**
+     * Queues an item for inference.
+     *
+     * @param input the input
+     * @return a {@code CompletableFuture} that completes with the output object defined by the
+     *     user, or exceptionally with a {@link TranslateException}
+     */
+    public CompletableFuture<O> predict(I input) {
+        int length = lengthFunction == null ? 0 : lengthFunction.applyAsInt(input);
+        Job<I, O> job = new Job<>(input, length, getBucket(length));
+        if (isStopped()) {
+            job.future.completeExceptionally(
+                    new IllegalStateException("BatchingPredictor is closed."));
+            return job.future;
+        }
+        queue.add(job);
+        // the worker fails the queued jobs after it stops, except the ones added concurrently
+        if (isStopped() && queue.remove(job)) {
+            job.future.completeExceptionally(
+                    new IllegalStateException("BatchingPredictor is closed."));
+        }
+        return job.future;
+    }
+
+    /**
+     * Attaches a Metrics param to use for benchmark.
+     *
+     * <p>The metrics are also attached to the wrapped {@link Predictor}.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        predictor.setMetrics(metrics);
+    }
+
+    /**
+     * Returns the number of requests that are waiting to be batched.
+     *
+     * @return the number of requests that are waiting to be batched
+     */
+    public int getQueueSize() {
+        return queue.size() + pending.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Job<I, O>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Job<I, O> job : remaining) {
+            job.future.completeExceptionally(
+                    new IllegalStateException("BatchingPredictor is closed."));
+        }
+        predictor.close();
+    }
+
+    private void run() {
+        List<Deque<Job<I, O>>> buckets = new ArrayList<>(bucketKeys.length + 1);
+        for (int i = 0; i <= bucketKeys.length; ++i) {
+            buckets.add(new ArrayDeque<>());
+        }
+        try {
+            while (!closed.get()) {
+                long deadline = Long.MAX_VALUE;
+                for (Deque<Job<I, O>> bucket : buckets) {
+                    if (!bucket.isEmpty()) {
+                        deadline = Math.min(deadline, bucket.peekFirst().begin + maxDelayNanos);
+                    }
+                }
+                Job<I, O> job;
+                if (deadline == Long.MAX_VALUE) {
+                    job = queue.take();
+                } else {
+                    long timeout = deadline - System.nanoTime();
+                    if (timeout > 0) {
+                        job = queue.poll(timeout, TimeUnit.NANOSECONDS);
+                    } else {
+                        job = queue.poll();
+                    }
+                }
+                while (job != null) {
+                    Deque<Job<I, O>> bucket = buckets.get(job.bucket);
+                    bucket.addLast(job);
+                    pending.incrementAndGet();
+                    if (bucket.size() >= maxBatchSize) {
+                        dispatch(bucket);
+                    }
+                    job = queue.poll();
+                }
+                long now = System.nanoTime();
+                for (Deque<Job<I, O>> bucket : buckets) {
+                    if (!bucket.isEmpty() && now - bucket.peekFirst().begin >= maxDelayNanos) {
+                        dispatch(bucket);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.trace("BatchingPredictor worker interrupted.");
+        } finally {
+            // no job is accepted anymore, the pending ones are failed whatever the exit path
+            stopped.set(true);
+            List<Job<I, O>> remaining = new ArrayList<>();
+            for (Deque<Job<I, O>> bucket : buckets) {
+                remaining.addAll(bucket);
+                bucket.clear();
+            }
+            queue.drainTo(remaining);
+            pending.set(0);
+            for (Job<I, O> job : remaining) {
+                job.future.completeExceptionally(
+                        new IllegalStateException("BatchingPredictor is closed."));
+            }
+        }
+    }
+
+    private boolean isStopped() {
+        return closed.get() || stopped.get();
+    }
+
+    private int getBucket(int length) {
+        int index = Arrays.binarySearch(bucketKeys, length);
+        // lengths above the last key go to an overflow bucket
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void dispatch(Deque<Job<I, O>> bucket) {
+        int batchSize = Math.min(bucket.size(), maxBatchSize);
+        List<Job<I, O>> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; ++i) {
+            batch.add(bucket.pollFirst());
+        }
+        pending.addAndGet(-batchSize);
+        if (lengthFunction == null) {
+            runBatch(batch);
+            return;
+        }
+
+        // greedily splits the batch sorted by length whenever the next request would push the
+        // padding of the current batch above the maximum padding ratio
+        batch.sort(Comparator.comparingInt(j -> j.length));
+        List<Job<I, O>> current = new ArrayList<>(batchSize);
+        long total = 0;
+        for (Job<I, O> job : batch) {
+            long newTotal = total + job.length;
+            long padded = (long) job.length * (current.size() + 1);
+            if (!current.isEmpty()
+                    && padded > 0
+                    && 1 - (float) newTotal / padded > maxPaddingRatio) {
+                runBatch(current);
+                current = new ArrayList<>(batchSize);
+                newTotal = job.length;
+            }
+            current.add(job);
+            total = newTotal;
+        }
+        runBatch(current);
+    }
+
+    private void runBatch(List<Job<I, O>> batch) {
+        int batchSize = batch.size();
+        List<I> inputs = new ArrayList<>(batchSize);
+        long now = System.nanoTime();
+        for (Job<I, O> job : batch) {
+            inputs.add(job.input);
+            if (metrics != null) {
+                metrics.addMetric("QueueWait", (now - job.begin) / 1000, Unit.MICROSECONDS);
+            }
+        }
+        if (metrics != null) {
+            metrics.addMetric("BatchSize", batchSize, Unit.COUNT);
+            if (lengthFunction != null) {
+                long total = 0;
+                int max = 0;
+                for (Job<I, O> job : batch) {
+                    total += job.length;
+                    max = Math.max(max, job.length);
+                }
+                long padded = (long) max * batchSize;
+                float ratio = padded == 0 ? 0 : 1 - (float) total / padded;
+                metrics.addMetric("PaddingRatio", ratio * 100, Unit.PERCENT);
+            }
+        }
+
+        try {
+            List<O> outputs = predictor.batchPredict(inputs);
+            for (int i = 0; i < batchSize; ++i) {
+                batch.get(i).future.complete(outputs.get(i));
+            }
+        } catch (TranslateException | RuntimeException e) {
+            for (Job<I, O> job : batch) {
+                job.future.completeExceptionally(e);
+            }
+        } finally {
+            // an Error stops the worker, but must not leave the batch hanging
+            for (Job<I, O> job : batch) {
+                if (!job.future.isDone()) {
+                    job.future.completeExceptionally(
+                            new IllegalStateException("The batch was not completed."));
+                }
+            }
+        }
+    }
+
+    private static final class Job<I, O> {
+
+        I input;
+        int length;
+        int bucket;
+        long begin;
+        CompletableFuture<O> future;
+
+        Job(I input, int length, int bucket) {
+            this.input = input;
+            this.length = length;
+            this.bucket = bucket;
+            begin = System.nanoTime();
+            future = new CompletableFuture<>();
+        }
+    }
+
+    /** The Builder to construct a {@link BatchingPredictor}. */
+    public static final class Builder<I, O> {
+
+        Predictor<I, O> predictor;
+        int maxBatchSize = 32;
+        long maxDelayMillis = 10;
+        ToIntFunction<? super I> lengthFunction;
+        int[] bucketKeys = {};
+        float maxPaddingRatio = 1;
+
+        Builder(Predictor<I, O> predictor) {
+            this.predictor = predictor;
+        }
+
+        /**
+         * Sets the maximum number of requests in a batch.
+         *
+         * @param maxBatchSize the maximum number of requests in a batch
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time in milliseconds a request waits for its batch to fill.
+         *
+         * @param maxDelayMillis the maximum time in milliseconds a request waits
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Sets the length buckets the requests are grouped by.
+         *
+         * <p>A request goes to the first bucket whose key is greater than or equal to its length,
+         * requests longer than the last key share an overflow bucket. For example, the keys {@code
+         * 32, 64, 128} create the buckets {@code [0, 32]}, {@code (32, 64]}, {@code (64, 128]} and
+         * {@code (128, ...)}.
+         *
+         * @param lengthFunction the function that returns the length of a request, for example the
+         *     number of tokens
+         * @param bucketKeys the upper bounds of the buckets, in increasing order
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optBuckets(
+                ToIntFunction<? super I> lengthFunction, int... bucketKeys) {
+            for (int i = 1; i < bucketKeys.length; ++i) {
+                if (bucketKeys[i] <= bucketKeys[i - 1]) {
+                    throw new IllegalArgumentException("bucketKeys must be in increasing order.");
+                }
+            }
+            this.lengthFunction = lengthFunction;
+            this.bucketKeys = bucketKeys.clone();
+            return this;
+        }
+
+        /**
+         * Sets the maximum fraction of padding in a batch, which is {@code 1 - sum(length) /
+         * (batchSize * max(length))}.
+         *
+         * <p>A batch that would have more padding is split into several smaller batches. It
+         * requires {@link #optBuckets(ToIntFunction, int...)}, and defaults to 1, which never
+         * splits a batch.
+         *
+         * @param maxPaddingRatio the maximum fraction of padding in a batch, between 0 and 1
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optMaxPaddingRatio(float maxPaddingRatio) {
+            if (maxPaddingRatio < 0 || maxPaddingRatio > 1) {
+                throw new IllegalArgumentException("maxPaddingRatio must be between 0 and 1.");
+            }
+            this.maxPaddingRatio = maxPaddingRatio;
+            return this;
+        }
+
+        /**
+         * Builds a {@link BatchingPredictor} with the specified configuration.
+         *
+         * @return a new {@link BatchingPredictor}
+         */
+        public BatchingPredictor<I, O> build() {
+            if (maxPaddingRatio < 1 && lengthFunction == null) {
+                throw new IllegalArgumentException("maxPaddingRatio requires optBuckets.");
+            }
+            return new BatchingPredictor<>(this);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDList;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Predictor} that overlaps preprocessing, inference and postprocessing of consecutive
+ * batches.
+ *
+ * <p>The inputs of {@link #batchPredict(List)} are split into batches of at most {@code batchSize}
+ * items. Each batch goes through three stages, each running on its own threads:
+ *
+ * <ol>
+ *   <li>{@link Translator#processInput} and {@link Batchifier#batchify} on a pool of preprocess
+ *       workers
+ *   <li>{@link ai.djl.nn.Block#forward} on a single inference thread
+ *   <li>{@link Batchifier#unbatchify} and {@link Translator#processOutput} on a pool of postprocess
+ *       workers
+ * </ol>
+ *
+ * <p>While batch N is running on the inference thread, batch N+1 can be preprocessed and batch N-1
+ * postprocessed. The stages are connected by bounded queues, so a slow stage blocks the stage in
+ * front of it instead of buffering an unbounded number of batches. When the preprocess queue is
+ * full, {@link #batchPredict} waits for room in the queue, while {@link #batchPredictAsync} fails
+ * the batch with a {@link RejectedExecutionException}. Batches from concurrent callers share the
+ * same pipeline.
+ *
+ * <p>When metrics are attached, the time each batch spends in a stage is recorded with the
+ * "Preprocess", "Inference" and "Postprocess" metric names, and the end-to-end latency with
+ * "Total". When a batch is handed to a stage, the number of batches waiting in the queue of the
+ * stage and the number of its busy threads are recorded with the "QueueSize" and "ActiveThreads"
+ * suffixes, for example "InferenceQueueSize", which shows the bottleneck stage of the pipeline.
+ *
+ * <p>The {@code PipelinedPredictor} runs the model with {@link ai.djl.nn.Block#forward}, it doesn't
+ * support engines that require their own {@link Predictor} implementation.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class PipelinedPredictor<I, O> extends Predictor<I, O> {
+
+    private Translator<I, O> translator;
+    private int batchSize;
+    private ThreadPoolExecutor preprocessPool;
+    private ThreadPoolExecutor inferencePool;
+    private ThreadPoolExecutor postprocessPool;
+
+    /**
+     * Creates a new instance of {@code PipelinedPredictor}.
+     *
+     * @param model the model on which the predictions are based
+     * @param translator the translator to be used
+     * @param device the device for prediction
+     * @param batchSize the maximum number of inputs in a batch
+     * @param numWorkers the number of preprocess and postprocess workers
+     * @param queueSize the maximum number of batches waiting in front of each stage
+     */
+    public PipelinedPredictor(
+            Model model,
+            Translator<I, O> translator,
+            Device device,
+            int batchSize,
+            int numWorkers,
+            int queueSize) {
+        super(model, translator, device, false);
+        if (batchSize < 1 || numWorkers < 1 || queueSize < 1) {
+            throw new IllegalArgumentException(
+                    "batchSize, numWorkers and queueSize must be positive.");
+        }
+        this.translator = translator;
+        this.batchSize = batchSize;
+        preprocessPool = newStagePool("preprocess", numWorkers, queueSize, false);
+        inferencePool = newStagePool("inference", 1, queueSize, true);
+        postprocessPool = newStagePool("postprocess", numWorkers, queueSize, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    public List<O> batchPredict(List<I> inputs) throws TranslateException {
+        try {
+            return predictPipelined(inputs, true).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslateException) {
+                throw (TranslateException) cause;
+            }
+            throw new TranslateException(cause);
+        }
+    }
+
+    /**
+     * Predicts a batch for inference asynchronously through the pipeline.
+     *
+     * <p>The executor and in-flight limit of {@link Predictor} are not used, the concurrency is
+     * bounded by the stage pools of the pipeline instead. This method never blocks: when the
+     * preprocess queue is full, the returned future fails with a {@link
+     * RejectedExecutionException}.
+     *
+     * @param inputs a list of inputs
+     * @return a {@code CompletableFuture} of the list of output objects defined by the user
+     */
+    @Override
+    public CompletableFuture<List<O>> batchPredictAsync(List<I> inputs) {
+        return predictPipelined(inputs, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        try {
+            // drain the stages in order, so queued batches can still reach the next stage
+            preprocessPool.shutdown();
+            preprocessPool.awaitTermination(1, TimeUnit.MINUTES);
+            inferencePool.shutdown();
+            inferencePool.awaitTermination(1, TimeUnit.MINUTES);
+            postprocessPool.shutdown();
+            postprocessPool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+    }
+
+    private CompletableFuture<List<O>> predictPipelined(List<I> inputs, boolean block) {
+        int size = inputs.size();
+        Batchifier batchifier = translator.getBatchifier();
+        int step = batchifier == null ? 1 : batchSize;
+        List<CompletableFuture<List<O>>> batches = new ArrayList<>();
+        for (int i = 0; i < size; i += step) {
+            batches.add(submit(inputs.subList(i, Math.min(i + step, size)), block));
+        }
+        if (batches.size() == 1) {
+            return batches.get(0);
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]))
+                .thenApply(
+                        v -> {
+                            List<O> ret = new ArrayList<>(size);
+                            for (CompletableFuture<List<O>> batch : batches) {
+                                ret.addAll(batch.join());
+                            }
+                            return ret;
+                        });
+    }
+
+    private CompletableFuture<List<O>> submit(List<I> inputs, boolean block) {
+        Stage stage = new Stage();
+        stage.handOff("Preprocess", preprocessPool);
+        CompletableFuture<NDList> preprocessed = new CompletableFuture<>();
+        // the stages are chained before the batch is submitted, so the caller never runs the
+        // blocking hand-off to the inference stage
+        CompletableFuture<List<O>> future =
+                preprocessed
+                        .thenApplyAsync(stage::forward, inferencePool)
+                        .thenApplyAsync(stage::postprocess, postprocessPool)
+                        .whenComplete((o, t) -> stage.close());
+        Runnable task =
+                () -> {
+                    try {
+                        preprocessed.complete(stage.preprocess(inputs));
+                    } catch (RuntimeException e) {
+                        preprocessed.completeExceptionally(e);
+                    }
+                };
+        try {
+            preprocessPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (!block || preprocessPool.isShutdown()) {
+                preprocessed.completeExceptionally(e);
+                return future;
+            }
+            try {
+                // the preprocess workers are all started once the queue is full
+                preprocessPool.getQueue().put(task);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                preprocessed.completeExceptionally(ie);
+            }
+        }
+        return future;
+    }
+
+    private static ThreadPoolExecutor newStagePool(
+            String name, int threads, int queueSize, boolean block) {
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread thread = new Thread(r, "pipelined-predictor-" + name);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (r, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("PipelinedPredictor is closed.");
+                    }
+                    if (!block) {
+                        throw new RejectedExecutionException(
+                                "The " + name + " queue of PipelinedPredictor is full.");
+                    }
+                    try {
+                        // block the upstream stage until there is room in the queue
+                        executor.getQueue().put(r);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    /** The state of one batch travelling through the pipeline. */
+    private final class Stage {
+
+        private PredictorContext context;
+        private long begin;
+
+        Stage() {
+            begin = System.nanoTime();
+        }
+
+        NDList preprocess(List<I> inputs) {
+            try {
+                context = new PredictorContext();
+                prepare(context);
+                context.timestamp = System.nanoTime();
+                NDList list;
+                Batchifier batchifier = translator.getBatchifier();
+                if (batchifier == null) {
+                    list = translator.processInput(context, inputs.get(0));
+                } else {
+                    NDList[] preprocessed = new NDList[inputs.size()];
+                    for (int i = 0; i < preprocessed.length; ++i) {
+                        preprocessed[i] = translator.processInput(context, inputs.get(i));
+                    }
+                    list = batchifier.batchify(preprocessed);
+                }
+                stageEnd("Preprocess", list);
+                handOff("Inference", inferencePool);
+                return list;
+            } catch (Exception e) {
+                throw new CompletionException(wrap(e));
+            }
+        }
+
+        NDList forward(NDList list) {
+            try {
+                context.timestamp = System.nanoTime();
+                NDList result = predictInternal(context, list);
+                stageEnd("Inference", result);
+                handOff("Postprocess", postprocessPool);
+                return result;
+            } catch (Exception e) {
+                throw new CompletionException(wrap(e));
+            }
+        }
+
+        List<O> postprocess(NDList list) {
+            try {
+                context.timestamp = System.nanoTime();
+                List<O> ret;
+                Batchifier batchifier = translator.getBatchifier();
+                if (batchifier == null) {
+                    ret = Collections.singletonList(translator.processOutput(context, list));
+                } else {
+                    NDList[] unbatched = batchifier.unbatchify(list);
+                    ret = new ArrayList<>(unbatched.length);
+                    for (NDList output : unbatched) {
+                        ret.add(translator.processOutput(context, output));
+                    }
+                }
+                stageEnd("Postprocess", null);
+                if (metrics != null) {
+                    long duration = (System.nanoTime() - begin) / 1000;
+                    metrics.addMetric("Total", duration, Unit.MICROSECONDS);
+                }
+                return ret;
+            } catch (Exception e) {
+                throw new CompletionException(wrap(e));
+            }
+        }
+
+        void close() {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        private void stageEnd(String name, NDList list) {
+            if (metrics != null) {
+                if (list != null) {
+                    waitToRead(list);
+                }
+                long duration = (System.nanoTime() - context.timestamp) / 1000;
+                metrics.addMetric(name, duration, Unit.MICROSECONDS);
+            }
+        }
+
+        void handOff(String name, ThreadPoolExecutor pool) {
+            if (metrics != null) {
+                metrics.addMetric(name + "QueueSize", pool.getQueue().size(), Unit.COUNT);
+                metrics.addMetric(name + "ActiveThreads", pool.getActiveCount(), Unit.COUNT);
+            }
+        }
+
+        private TranslateException wrap(Exception e) {
+            if (e instanceof TranslateException) {
+                return (TranslateException) e;
+            }
+            return new TranslateException(e);
+        }
+    }
+}
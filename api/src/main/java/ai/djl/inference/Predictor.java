@@ -23,6 +23,8 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.nn.Block;
 import ai.djl.training.ParameterStore;
 import ai.djl.translate.Batchifier;
+import ai.djl.translate.DirectBatchTranslator;
+import ai.djl.translate.StackBatchifier;
 import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
@@ -30,7 +32,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,7 +94,6 @@ public class Predictor<I, O> implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(Predictor.class);
     private Translator<I, O> translator;
-    private long timestamp;
 
     private boolean prepared;
     private Model model;
@@ -89,6 +101,16 @@ public class Predictor<I, O> implements AutoCloseable {
     protected Metrics metrics;
     protected Block block;
     protected ParameterStore parameterStore;
+    private Executor executor = ForkJoinPool.commonPool();
+    private int maxInFlight = 1;
+    private int maxPending = 1024;
+    private AtomicInteger inFlight = new AtomicInteger();
+    private AtomicInteger pendingCount = new AtomicInteger();
+    private Queue<AsyncTask> pending = new ConcurrentLinkedQueue<>();
+    private AtomicBoolean closed = new AtomicBoolean();
+    private final Object runningLock = new Object();
+    private int running;
+    private ThreadLocal<Integer> runningOnThread = new ThreadLocal<>();
 
     /**
      * Creates a new instance of {@code BasePredictor} with the given {@link Model} and {@link
@@ -147,40 +169,8 @@ public class Predictor<I, O> implements AutoCloseable {
      */
     @SuppressWarnings({"PMD.AvoidRethrowingException", "PMD.IdenticalCatchBranches"})
     public List<O> batchPredict(List<I> inputs) throws TranslateException {
-        long begin = System.nanoTime();
         try (PredictorContext context = new PredictorContext()) {
-            if (!prepared) {
-                translator.prepare(context);
-                prepared = true;
-            }
-            Batchifier batchifier = translator.getBatchifier();
-            if (batchifier == null) {
-                List<O> ret = new ArrayList<>(inputs.size());
-                for (I input : inputs) {
-                    timestamp = System.nanoTime();
-                    begin = timestamp;
-                    NDList ndList = translator.processInput(context, input);
-                    preprocessEnd(ndList);
-
-                    NDList result = predictInternal(context, ndList);
-                    predictEnd(result);
-
-                    ret.add(translator.processOutput(context, result));
-                    postProcessEnd(begin);
-                }
-                return ret;
-            }
-
-            timestamp = System.nanoTime();
-            NDList inputBatch = processInputs(context, inputs);
-            preprocessEnd(inputBatch);
-
-            NDList result = predictInternal(context, inputBatch);
-            predictEnd(result);
-
-            List<O> ret = processOutputs(context, result);
-            postProcessEnd(begin);
-            return ret;
+            return batchPredict(context, inputs, null);
         } catch (TranslateException e) {
             throw e;
         } catch (Exception e) {
@@ -188,6 +178,177 @@ public class Predictor<I, O> implements AutoCloseable {
         }
     }
 
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private List<O> batchPredict(PredictorContext context, List<I> inputs, Future<?> task)
+            throws Exception {
+        long begin = System.nanoTime();
+        prepare(context);
+        Batchifier batchifier = translator.getBatchifier();
+        if (batchifier == null) {
+            List<O> ret = new ArrayList<>(inputs.size());
+            for (I input : inputs) {
+                context.timestamp = System.nanoTime();
+                begin = context.timestamp;
+                NDList ndList = translator.processInput(context, input);
+                preprocessEnd(context, ndList);
+                checkCancelled(task);
+
+                NDList result = predictInternal(context, ndList);
+                predictEnd(context, result);
+                checkCancelled(task);
+
+                ret.add(translator.processOutput(context, result));
+                postProcessEnd(context, begin);
+            }
+            return ret;
+        }
+
+        context.timestamp = System.nanoTime();
+        NDList inputBatch = processInputs(context, inputs);
+        preprocessEnd(context, inputBatch);
+        checkCancelled(task);
+
+        NDList result = predictInternal(context, inputBatch);
+        predictEnd(context, result);
+        checkCancelled(task);
+
+        List<O> ret = processOutputs(context, result);
+        postProcessEnd(context, begin);
+        return ret;
+    }
+
+    /**
+     * Predicts an item for inference asynchronously.
+     *
+     * <p>The prediction runs on the executor set by {@link #setAsyncExecutor(Executor)}. At most
+     * {@link #setMaxInFlight(int) maxInFlight} asynchronous predictions run at the same time, the
+     * others are queued without blocking the caller. If {@link #setMaxPending(int) maxPending}
+     * predictions are already queued, the returned future fails with a {@link
+     * RejectedExecutionException}.
+     *
+     * @param input the input
+     * @return a {@code CompletableFuture} of the output object defined by the user
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        CompletableFuture<List<O>> future = batchPredictAsync(Collections.singletonList(input));
+        CompletableFuture<O> ret = future.thenApply(list -> list.get(0));
+        ret.whenComplete(
+                (o, t) -> {
+                    if (ret.isCancelled()) {
+                        future.cancel(false);
+                    }
+                });
+        return ret;
+    }
+
+    /**
+     * Predicts a batch for inference asynchronously.
+     *
+     * <p>Cancelling the returned future skips the prediction if it has not started yet, otherwise
+     * the prediction is aborted after the current stage and its intermediate {@link NDArray}s are
+     * released.
+     *
+     * <p>The returned future fails with a {@link RejectedExecutionException} if {@link
+     * #setMaxPending(int) maxPending} predictions are already queued, or if the predictor is
+     * closed. The predictions still queued when the predictor is closed fail the same way.
+     *
+     * @param inputs a list of inputs
+     * @return a {@code CompletableFuture} of the list of output objects defined by the user
+     * @see #predictAsync(Object)
+     */
+    public CompletableFuture<List<O>> batchPredictAsync(List<I> inputs) {
+        AsyncTask task = new AsyncTask(inputs);
+        if (closed.get()) {
+            task.future.completeExceptionally(
+                    new RejectedExecutionException("Predictor is closed."));
+            return task.future;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            task.future.completeExceptionally(
+                    new RejectedExecutionException(
+                            "Too many pending predictions, the limit is " + maxPending));
+            return task.future;
+        }
+        pending.add(task);
+        task.future.whenComplete(
+                (o, t) -> {
+                    // a cancelled prediction no longer counts towards maxPending
+                    if (task.future.isCancelled() && pending.remove(task)) {
+                        pendingCount.decrementAndGet();
+                    }
+                });
+        if (closed.get()) {
+            // the predictor was closed concurrently
+            drainPending();
+        } else {
+            dispatch();
+        }
+        return task.future;
+    }
+
+    /**
+     * Sets the {@link Executor} that runs asynchronous predictions.
+     *
+     * <p>The {@link ForkJoinPool#commonPool()} is used by default.
+     *
+     * @param executor the {@link Executor} that runs asynchronous predictions
+     */
+    public void setAsyncExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous predictions that run at the same time.
+     *
+     * <p>The default value is 1. Only use a larger value if the engine supports concurrent
+     * inference on the same {@code Predictor}.
+     *
+     * @param maxInFlight the maximum number of asynchronous predictions that run at the same time
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        dispatch();
+    }
+
+    /**
+     * Sets the maximum number of asynchronous predictions that wait for a slot to run.
+     *
+     * <p>The default value is 1024. The asynchronous predictions beyond this limit fail right away
+     * with a {@link RejectedExecutionException}, so the callers can slow down.
+     *
+     * <p>Every asynchronous prediction goes through the queue, so the limit must be at least 1.
+     *
+     * @param maxPending the maximum number of asynchronous predictions that wait for a slot to run
+     */
+    public void setMaxPending(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Returns the number of asynchronous predictions that wait for a slot to run.
+     *
+     * @return the number of asynchronous predictions that wait for a slot to run
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Returns the number of asynchronous predictions that are running.
+     *
+     * @return the number of asynchronous predictions that are running
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
     /**
      * Attaches a Metrics param to use for benchmark.
      *
@@ -197,7 +358,80 @@ public class Predictor<I, O> implements AutoCloseable {
         this.metrics = metrics;
     }
 
-    private void waitToRead(NDList list) {
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    synchronized void prepare(TranslatorContext ctx) throws Exception {
+        if (!prepared) {
+            translator.prepare(ctx);
+            prepared = true;
+        }
+    }
+
+    private void checkCancelled(Future<?> task) {
+        if (task != null && task.isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+
+    private void dispatch() {
+        while (true) {
+            int running = inFlight.get();
+            if (running >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            AsyncTask task = pending.poll();
+            if (task == null) {
+                inFlight.decrementAndGet();
+                if (pending.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void awaitRunning() {
+        // the predictions that have not started yet see that the predictor is closed
+        // close() may be called by a callback of an asynchronous prediction, on its thread
+        Integer self = runningOnThread.get();
+        int own = self == null ? 0 : self;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        synchronized (runningLock) {
+            while (running > own) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.warn("Closing the predictor while asynchronous predictions run.");
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(runningLock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drainPending() {
+        AsyncTask task;
+        while ((task = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            task.future.completeExceptionally(
+                    new RejectedExecutionException("Predictor is closed."));
+        }
+    }
+
+    void waitToRead(NDList list) {
         for (NDArray array : list) {
             if (array instanceof LazyNDArray) {
                 ((LazyNDArray) array).waitToRead();
@@ -207,12 +441,18 @@ public class Predictor<I, O> implements AutoCloseable {
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     private NDList processInputs(TranslatorContext ctx, List<I> inputs) throws Exception {
+        Batchifier batchifier = translator.getBatchifier();
+        if (translator instanceof DirectBatchTranslator && batchifier instanceof StackBatchifier) {
+            // the translator writes the inputs straight into the batch
+            DirectBatchTranslator<I, O> direct = (DirectBatchTranslator<I, O>) translator;
+            return ((StackBatchifier) batchifier).batchify(ctx, direct, inputs);
+        }
         int batchSize = inputs.size();
         NDList[] preprocessed = new NDList[batchSize];
         for (int i = 0; i < batchSize; ++i) {
             preprocessed[i] = translator.processInput(ctx, inputs.get(i));
         }
-        return translator.getBatchifier().batchify(preprocessed);
+        return batchifier.batchify(preprocessed);
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -225,39 +465,48 @@ public class Predictor<I, O> implements AutoCloseable {
         return outputs;
     }
 
-    private void preprocessEnd(NDList list) {
+    private void preprocessEnd(PredictorContext ctx, NDList list) {
         if (metrics != null) {
             waitToRead(list);
             long tmp = System.nanoTime();
-            long duration = (tmp - timestamp) / 1000;
-            timestamp = tmp;
+            long duration = (tmp - ctx.timestamp) / 1000;
+            ctx.timestamp = tmp;
             metrics.addMetric("Preprocess", duration, Unit.MICROSECONDS);
         }
     }
 
-    private void predictEnd(NDList list) {
+    private void predictEnd(PredictorContext ctx, NDList list) {
         if (metrics != null) {
             waitToRead(list);
             long tmp = System.nanoTime();
-            long duration = (tmp - timestamp) / 1000;
-            timestamp = tmp;
+            long duration = (tmp - ctx.timestamp) / 1000;
+            ctx.timestamp = tmp;
             metrics.addMetric("Inference", duration, Unit.MICROSECONDS);
         }
     }
 
-    private void postProcessEnd(long begin) {
+    private void postProcessEnd(PredictorContext ctx, long begin) {
         if (metrics != null) {
             long tmp = System.nanoTime();
-            long duration = (tmp - timestamp) / 1000;
-            timestamp = tmp;
+            long duration = (tmp - ctx.timestamp) / 1000;
+            ctx.timestamp = tmp;
             metrics.addMetric("Postprocess", duration, Unit.MICROSECONDS);
             metrics.addMetric("Total", (tmp - begin) / 1000, Unit.MICROSECONDS);
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * Closes the predictor.
+     *
+     * <p>The asynchronous predictions that are still queued fail with a {@link
+     * RejectedExecutionException}. The ones that have already started are waited for, up to one
+     * minute, before the resources of the predictor are released.
+     */
     @Override
     public void close() {
+        closed.set(true);
+        drainPending();
+        awaitRunning();
         manager.close();
     }
 
@@ -274,10 +523,11 @@ public class Predictor<I, O> implements AutoCloseable {
         super.finalize();
     }
 
-    private class PredictorContext implements TranslatorContext {
+    class PredictorContext implements TranslatorContext {
 
         private NDManager ctxManager;
         private Map<String, Object> attachments;
+        long timestamp;
 
         PredictorContext() {
             ctxManager = manager.newSubManager();
@@ -333,4 +583,57 @@ public class Predictor<I, O> implements AutoCloseable {
             attachments.put(key, value);
         }
     }
+
+    private final class AsyncTask implements Runnable {
+
+        private List<I> inputs;
+        CompletableFuture<List<O>> future;
+
+        AsyncTask(List<I> inputs) {
+            this.inputs = inputs;
+            future = new CompletableFuture<>();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            // a same thread executor may run a prediction inside another one
+            Integer depth = runningOnThread.get();
+            runningOnThread.set(depth == null ? 1 : depth + 1);
+            synchronized (runningLock) {
+                ++running;
+            }
+            try {
+                if (future.isCancelled()) {
+                    return;
+                }
+                if (closed.get()) {
+                    future.completeExceptionally(
+                            new RejectedExecutionException("Predictor is closed."));
+                    return;
+                }
+                try (PredictorContext context = new PredictorContext()) {
+                    future.complete(batchPredict(context, inputs, future));
+                } catch (CancellationException e) {
+                    future.cancel(false);
+                } catch (TranslateException e) {
+                    future.completeExceptionally(e);
+                } catch (Exception e) {
+                    future.completeExceptionally(new TranslateException(e));
+                }
+            } finally {
+                if (depth == null) {
+                    runningOnThread.remove();
+                } else {
+                    runningOnThread.set(depth);
+                }
+                synchronized (runningLock) {
+                    --running;
+                    runningLock.notifyAll();
+                }
+                inFlight.decrementAndGet();
+                dispatch();
+            }
+        }
+    }
 }
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of {@link Predictor}s that share the same {@link Model} and {@link Translator}.
+ *
+ * <p>A {@code Predictor} is not meant to be shared between threads. A {@code PredictorPool} lends
+ * out one predictor per thread, and keeps it for reuse once it is returned, so that the cost of
+ * creating a predictor and copying its parameters is not paid per request:
+ *
+ * <pre>
+ * try (PredictorPool&lt;Image, Classifications&gt; pool = model.newPredictorPool(2, 8)) {
+ *     // in each request thread
+ *     Classifications result = pool.predict(image);
+ * }
+ * </pre>
+ *
+ * <p>The pool creates {@code minSize} predictors up front and grows up to {@code maxSize} when all
+ * predictors are in use. Predictors above {@code minSize} are closed once they have been idle for
+ * longer than the idle timeout, checked on each borrow and release, and periodically by a shared
+ * background thread while there is no traffic. New predictors are pinned to the devices of the pool
+ * in a round-robin fashion, and each one runs the optional warm-up input before it is lent out.
+ *
+ * <p>The following metrics are recorded when {@link #setMetrics(Metrics)} is used:
+ *
+ * <ul>
+ *   <li>BorrowWait - the time spent waiting for a predictor, in microseconds
+ *   <li>PoolUtilization - the percentage of predictors in use after each borrow
+ * </ul>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class PredictorPool<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PredictorPool.class);
+
+    private static final ScheduledExecutorService SWEEPER =
+            Executors.newSingleThreadScheduledExecutor(
+                    r -> {
+                        Thread thread = new Thread(r, "predictor-pool-sweeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private Model model;
+    private Translator<I, O> translator;
+    private Device[] devices;
+    private int minSize;
+    private int maxSize;
+    private long idleTimeoutNanos;
+    private I warmupInput;
+
+    private BlockingDeque<Entry<I, O>> idle;
+    private Set<Predictor<I, O>> borrowed;
+    private AtomicInteger size;
+    private AtomicInteger deviceIndex;
+    private AtomicBoolean closed;
+    private ScheduledFuture<?> sweep;
+    private Metrics metrics;
+
+    PredictorPool(Builder<I, O> builder) {
+        model = builder.model;
+        translator = builder.translator;
+        devices = builder.devices;
+        minSize = builder.minSize;
+        maxSize = builder.maxSize;
+        idleTimeoutNanos = builder.idleTimeoutNanos;
+        warmupInput = builder.warmupInput;
+
+        idle = new LinkedBlockingDeque<>();
+        borrowed = ConcurrentHashMap.newKeySet();
+        size = new AtomicInteger();
+        deviceIndex = new AtomicInteger();
+        closed = new AtomicBoolean();
+        try {
+            for (int i = 0; i < minSize; ++i) {
+                idle.offerLast(new Entry<>(newPredictor()));
+                size.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // closes the predictors created before the failure
+            Entry<I, O> entry;
+            while ((entry = idle.pollFirst()) != null) {
+                entry.predictor.close();
+            }
+            throw e;
+        }
+        if (maxSize > minSize) {
+            // the idle predictors are checked about twice per idle timeout
+            long period = Math.max(idleTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(10));
+            sweep =
+                    SWEEPER.scheduleWithFixedDelay(
+                            this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Creates a builder to build a {@code PredictorPool}.
+     *
+     * @param model the model on which the predictions are based
+     * @param translator the translator to be used
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a new builder
+     */
+    public static <I, O> Builder<I, O> builder(Model model, Translator<I, O> translator) {
+        return new Builder<>(model, translator);
+    }
+
+    /**
+     * Borrows a {@link Predictor} from the pool, waiting if all predictors are in use and the pool
+     * has reached its maximum size.
+     *
+     * <p>The predictor must be given back with {@link #release(Predictor)}.
+     *
+     * @return a {@link Predictor}
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if the pool is closed, including while waiting
+     */
+    public Predictor<I, O> borrow() throws InterruptedException {
+        return borrow(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Borrows a {@link Predictor} from the pool, waiting up to the given time if all predictors are
+     * in use and the pool has reached its maximum size.
+     *
+     * <p>The predictor must be given back with {@link #release(Predictor)}.
+     *
+     * @param timeout how long to wait before giving up
+     * @param unit the {@link TimeUnit} of the timeout
+     * @return a {@link Predictor}, or {@code null} if no predictor became available in time
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if the pool is closed, including while waiting
+     */
+    public Predictor<I, O> borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        if (closed.get()) {
+            throw new IllegalStateException("PredictorPool is closed.");
+        }
+        long begin = System.nanoTime();
+        Entry<I, O> entry = idle.pollFirst();
+        Predictor<I, O> predictor;
+        if (entry != null) {
+            predictor = unwrap(entry);
+        } else {
+            predictor = grow();
+            if (predictor == null) {
+                entry = idle.pollFirst(timeout, unit);
+                if (entry == null) {
+                    return null;
+                }
+                predictor = unwrap(entry);
+            }
+        }
+        borrowed.add(predictor);
+        evictIdle();
+        if (metrics != null) {
+            long duration = (System.nanoTime() - begin) / 1000;
+            metrics.addMetric("BorrowWait", duration, Unit.MICROSECONDS);
+            metrics.addMetric("PoolUtilization", getUtilization() * 100, Unit.PERCENT);
+        }
+        return predictor;
+    }
+
+    /**
+     * Returns a borrowed {@link Predictor} to the pool.
+     *
+     * @param predictor the {@link Predictor} returned by {@link #borrow()}
+     */
+    public void release(Predictor<I, O> predictor) {
+        if (!borrowed.remove(predictor)) {
+            throw new IllegalArgumentException("The predictor doesn't belong to this pool.");
+        }
+        if (closed.get()) {
+            predictor.close();
+            size.decrementAndGet();
+            return;
+        }
+        Entry<I, O> entry = new Entry<>(predictor);
+        idle.offerFirst(entry);
+        // the pool may have been closed and drained concurrently
+        if (closed.get() && idle.removeFirstOccurrence(entry)) {
+            predictor.close();
+            size.decrementAndGet();
+            return;
+        }
+        evictIdle();
+    }
+
+    /**
+     * Predicts an item for inference with a {@link Predictor} borrowed from the pool.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        Predictor<I, O> predictor;
+        try {
+            predictor = borrow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException(e);
+        }
+        try {
+            return predictor.predict(input);
+        } finally {
+            release(predictor);
+        }
+    }
+
+    /**
+     * Attaches a Metrics param to record the pool metrics.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the number of predictors in the pool, including the borrowed ones.
+     *
+     * @return the number of predictors in the pool
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of predictors that are currently borrowed.
+     *
+     * @return the number of predictors that are currently borrowed
+     */
+    public int getBorrowedCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Returns the ratio of borrowed predictors to the maximum size of the pool.
+     *
+     * @return the ratio of borrowed predictors to the maximum size of the pool
+     */
+    public double getUtilization() {
+        return (double) borrowed.size() / maxSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        if (sweep != null) {
+            sweep.cancel(false);
+        }
+        if (!borrowed.isEmpty()) {
+            logger.warn("PredictorPool closed with {} predictors in use.", borrowed.size());
+        }
+        Entry<I, O> entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (entry.predictor != null) {
+                entry.predictor.close();
+                size.decrementAndGet();
+            }
+        }
+        // wakes up the threads waiting in borrow()
+        idle.offerLast(new Entry<>(null));
+    }
+
+    private Predictor<I, O> unwrap(Entry<I, O> entry) {
+        if (entry.predictor == null) {
+            // passes the closed marker on to the next waiting thread
+            idle.offerFirst(entry);
+            throw new IllegalStateException("PredictorPool is closed.");
+        }
+        return entry.predictor;
+    }
+
+    private Predictor<I, O> grow() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                try {
+                    return newPredictor();
+                } catch (RuntimeException e) {
+                    size.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Predictor<I, O> newPredictor() {
+        Device device = devices[Math.floorMod(deviceIndex.getAndIncrement(), devices.length)];
+        Predictor<I, O> predictor = model.newPredictor(translator, device);
+        if (warmupInput != null) {
+            try {
+                predictor.predict(warmupInput);
+            } catch (TranslateException e) {
+                logger.warn("Failed to warm up predictor on {}", device, e);
+            } catch (RuntimeException e) {
+                predictor.close();
+                throw e;
+            }
+        }
+        return predictor;
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        while (size.get() > minSize) {
+            Entry<I, O> entry = idle.peekLast();
+            if (entry == null
+                    || entry.predictor == null
+                    || now - entry.lastUsed < idleTimeoutNanos) {
+                return;
+            }
+            if (!idle.removeLastOccurrence(entry)) {
+                continue;
+            }
+            if (shrink()) {
+                entry.predictor.close();
+                continue;
+            }
+            // another thread evicted a predictor concurrently, the pool is at its minimum size
+            idle.offerLast(entry);
+            if (closed.get() && idle.removeLastOccurrence(entry)) {
+                entry.predictor.close();
+                size.decrementAndGet();
+            }
+            return;
+        }
+    }
+
+    // reserves the slot of an evicted predictor, the pool never shrinks below minSize
+    private boolean shrink() {
+        while (true) {
+            int current = size.get();
+            if (current <= minSize) {
+                return false;
+            }
+            if (size.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class Entry<I, O> {
+
+        Predictor<I, O> predictor;
+        long lastUsed;
+
+        Entry(Predictor<I, O> predictor) {
+            this.predictor = predictor;
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * The Builder to construct a {@link PredictorPool}.
+     *
+     * @param <I> the input type
+     * @param <O> the output type
+     */
+    public static final class Builder<I, O> {
+
+        Model model;
+        Translator<I, O> translator;
+        Device[] devices;
+        int minSize = 1;
+        int maxSize = Runtime.getRuntime().availableProcessors();
+        long idleTimeoutNanos = TimeUnit.MINUTES.toNanos(1);
+        I warmupInput;
+
+        Builder(Model model, Translator<I, O> translator) {
+            this.model = model;
+            this.translator = translator;
+            devices = new Device[] {model.getNDManager().getDevice()};
+        }
+
+        /**
+         * Sets the devices the predictors are pinned to, in a round-robin fashion.
+         *
+         * @param devices the devices to use, for example {@link ai.djl.engine.Engine#getDevices()}
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optDevices(Device... devices) {
+            if (devices.length == 0) {
+                throw new IllegalArgumentException("At least one device is required.");
+            }
+            this.devices = devices;
+            return this;
+        }
+
+        /**
+         * Sets the number of predictors created up front and kept when idle.
+         *
+         * @param minSize the minimum size of the pool
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optMinSize(int minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of predictors in the pool.
+         *
+         * @param maxSize the maximum size of the pool
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets how long predictors above the minimum size are kept when idle.
+         *
+         * @param timeout the idle timeout
+         * @param unit the {@link TimeUnit} of the timeout
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optIdleTimeout(long timeout, TimeUnit unit) {
+            this.idleTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the input each new predictor runs once before it is lent out.
+         *
+         * @param warmupInput the warm-up input
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optWarmupInput(I warmupInput) {
+            this.warmupInput = warmupInput;
+            return this;
+        }
+
+        /**
+         * Builds a {@link PredictorPool} with the specified configuration.
+         *
+         * @return a new {@link PredictorPool}
+         */
+        public PredictorPool<I, O> build() {
+            if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                throw new IllegalArgumentException(
+                        "Invalid pool size, min: " + minSize + ", max: " + maxSize);
+            }
+            return new PredictorPool<>(this);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Metrics} implementation that uses constant memory per metric name.
+ *
+ * <p>{@link Metrics} keeps every {@link Metric} that was added, which grows without bound in a long
+ * running {@link ai.djl.inference.Predictor} or {@link ai.djl.training.Trainer}. {@code
+ * StreamingMetrics} instead aggregates the values of each metric name into a fixed-size log-linear
+ * histogram, and only keeps the most recent metrics in a ring buffer:
+ *
+ * <ul>
+ *   <li>{@link #addMetric(Metric)} is lock-free
+ *   <li>{@link #mean(String)} is exact
+ *   <li>{@link #percentile(String, int)} is answered from the histogram, with a relative error
+ *       below 2^-{@value #SUB_BUCKET_BITS}
+ *   <li>{@link #getMetric(String)} only returns the most recent metrics
+ * </ul>
+ *
+ * <p>It can be used anywhere a {@link Metrics} is expected, for example {@link
+ * ai.djl.inference.Predictor#setMetrics(Metrics)} and {@link
+ * ai.djl.training.Trainer#setMetrics(Metrics)}.
+ */
+public class StreamingMetrics extends Metrics {
+
+    static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -24;
+    private static final int MAX_EXPONENT = 40;
+    private static final int EXPONENTS = MAX_EXPONENT - MIN_EXPONENT + 1;
+    private static final int HALF = EXPONENTS * SUB_BUCKETS;
+
+    private Map<String, Histogram> histograms;
+    private int recentSize;
+
+    /** Constructs an empty {@code StreamingMetrics} that keeps the 100 most recent metrics. */
+    public StreamingMetrics() {
+        this(100);
+    }
+
+    /**
+     * Constructs an empty {@code StreamingMetrics}.
+     *
+     * @param recentSize the number of most recent metrics kept per metric name
+     */
+    public StreamingMetrics(int recentSize) {
+        if (recentSize < 1) {
+            throw new IllegalArgumentException("recentSize must be positive: " + recentSize);
+        }
+        this.recentSize = recentSize;
+        histograms = new ConcurrentHashMap<>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(Metric metric) {
+        histogram(metric.getMetricName(), metric.getUnit()).add(metric.getValue(), metric);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(String name, Number value, Unit unit) {
+        histogram(name, unit).add(value.doubleValue(), new Metric(name, value, unit));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasMetric(String name) {
+        return histograms.containsKey(name);
+    }
+
+    /**
+     * Returns the most recent {@link Metric}s with the specified metric name.
+     *
+     * @param name the name of the metric
+     * @return a list of the most recent {@link Metric} with the specified metric name
+     */
+    @Override
+    public List<Metric> getMetric(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            return Collections.emptyList();
+        }
+        return histogram.recent();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getMetricNames() {
+        return histograms.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metric latestMetric(String name) {
+        Histogram histogram = histograms.get(name);
+        Metric metric = histogram == null ? null : histogram.latest();
+        if (metric == null) {
+            throw new IllegalArgumentException("Could not find metric: " + name);
+        }
+        return metric;
+    }
+
+    /**
+     * Returns a percentile {@link Metric} object for the specified metric name.
+     *
+     * <p>The value is estimated from the histogram of all the values added for the metric name.
+     *
+     * @param metricName the name of the metric
+     * @param percentile the percentile
+     * @return the {@link Metric} object at specified {@code percentile}
+     */
+    @Override
+    public Metric percentile(String metricName, int percentile) {
+        Histogram histogram = get(metricName);
+        return new Metric(metricName, histogram.percentile(percentile), histogram.unit);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double mean(String metricName) {
+        Histogram histogram = get(metricName);
+        return histogram.sum.sum() / histogram.count.sum();
+    }
+
+    /**
+     * Returns the number of values added for the specified metric name.
+     *
+     * @param metricName the name of the metric
+     * @return the number of values added for the specified metric name
+     */
+    public long count(String metricName) {
+        return get(metricName).count.sum();
+    }
+
+    private Histogram get(String metricName) {
+        Histogram histogram = histograms.get(metricName);
+        if (histogram == null || histogram.count.sum() == 0) {
+            throw new IllegalArgumentException("Metric name not found: " + metricName);
+        }
+        return histogram;
+    }
+
+    private Histogram histogram(String name, Unit unit) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, k -> new Histogram(recentSize, unit));
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * <p>Buckets {@code [0, HALF)} hold the negative values in descending order of magnitude,
+     * bucket {@code HALF} holds the values too close to zero, and buckets {@code (HALF, 2 * HALF]}
+     * hold the positive values in ascending order.
+     *
+     * @param value the value
+     * @return the index of the bucket
+     */
+    static int bucketOf(double value) {
+        double abs = Math.abs(value);
+        int exponent = Math.getExponent(abs);
+        if (exponent < MIN_EXPONENT || Double.isNaN(value)) {
+            return HALF;
+        }
+        int index;
+        if (exponent > MAX_EXPONENT) {
+            index = HALF - 1;
+        } else {
+            // the top SUB_BUCKET_BITS bits of the mantissa select the sub-bucket
+            long mantissa = Double.doubleToRawLongBits(abs) & 0x000fffffffffffffL;
+            int sub = (int) (mantissa >>> (52 - SUB_BUCKET_BITS));
+            index = (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+        }
+        return value < 0 ? HALF - 1 - index : HALF + 1 + index;
+    }
+
+    /**
+     * Returns the smallest magnitude of a bucket, with the sign of the bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the value that represents the bucket
+     */
+    static double valueOf(int bucket) {
+        if (bucket == HALF) {
+            return 0;
+        }
+        int index = bucket > HALF ? bucket - HALF - 1 : HALF - 1 - bucket;
+        int exponent = index / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = index % SUB_BUCKETS;
+        double abs = Math.scalb(1 + (double) sub / SUB_BUCKETS, exponent);
+        return bucket > HALF ? abs : -abs;
+    }
+
+    private static final class Histogram {
+
+        AtomicLongArray buckets;
+        LongAdder count;
+        DoubleAdder sum;
+        DoubleAccumulator min;
+        DoubleAccumulator max;
+        AtomicReferenceArray<Metric> recent;
+        AtomicLong recentIndex;
+        Unit unit;
+
+        Histogram(int recentSize, Unit unit) {
+            this.unit = unit;
+            buckets = new AtomicLongArray(HALF * 2 + 1);
+            count = new LongAdder();
+            sum = new DoubleAdder();
+            min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+            max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+            recent = new AtomicReferenceArray<>(recentSize);
+            recentIndex = new AtomicLong();
+        }
+
+        void add(double value, Metric metric) {
+            buckets.incrementAndGet(bucketOf(value));
+            sum.add(value);
+            min.accumulate(value);
+            max.accumulate(value);
+            long index = recentIndex.getAndIncrement();
+            recent.set((int) (index % recent.length()), metric);
+            count.increment();
+        }
+
+        Metric latest() {
+            long index = recentIndex.get();
+            if (index == 0) {
+                return null;
+            }
+            return recent.get((int) ((index - 1) % recent.length()));
+        }
+
+        List<Metric> recent() {
+            long end = recentIndex.get();
+            long begin = Math.max(0, end - recent.length());
+            List<Metric> list = new ArrayList<>((int) (end - begin));
+            for (long i = begin; i < end; ++i) {
+                Metric metric = recent.get((int) (i % recent.length()));
+                if (metric != null) {
+                    list.add(metric);
+                }
+            }
+            return list;
+        }
+
+        double percentile(int percentile) {
+            int length = buckets.length();
+            long[] snapshot = new long[length];
+            long total = 0;
+            for (int i = 0; i < length; ++i) {
+                long value = buckets.get(i);
+                snapshot[i] = value;
+                total += value;
+            }
+            long rank = Math.min(total * percentile / 100, total - 1);
+            if (rank <= 0) {
+                return min.get();
+            } else if (rank == total - 1) {
+                return max.get();
+            }
+            long seen = 0;
+            for (int i = 0; i < length; ++i) {
+                seen += snapshot[i];
+                if (seen > rank) {
+                    double value = valueOf(i);
+                    return Math.max(min.get(), Math.min(max.get(), value));
+                }
+            }
+            return max.get();
+        }
+    }
+}
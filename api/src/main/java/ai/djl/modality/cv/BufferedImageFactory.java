@@ -20,6 +20,7 @@ import ai.djl.modality.cv.output.Mask;
 import ai.djl.modality.cv.output.Point;
 import ai.djl.modality.cv.output.Rectangle;
 import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.BaseNDManager;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -31,19 +32,31 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import javax.imageio.ImageIO;
 
 /** {@code BufferedImageFactory} is the default implementation of {@link ImageFactory}. */
 public class BufferedImageFactory extends ImageFactory {
 
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final Map<String, Boolean> CHANNEL_FIRST = new ConcurrentHashMap<>();
+
     static {
         if (System.getProperty("apple.awt.UIElement") == null) {
             // disables coffee cup image showing up on macOS
@@ -51,6 +64,8 @@ public class BufferedImageFactory extends ImageFactory {
         }
     }
 
+    private boolean parallel;
+
     /** {@inheritDoc} */
     @Override
     public Image fromFile(Path path) throws IOException {
@@ -119,6 +134,25 @@ public class BufferedImageFactory extends ImageFactory {
         ImageIO.write(image, type, os);
     }
 
+    /**
+     * Sets whether the rows of large images are converted to {@link NDArray} in parallel.
+     *
+     * @param parallel whether the rows of large images are converted in parallel
+     */
+    public void setParallelConversion(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    void forEachRow(int width, int height, IntConsumer action) {
+        if (parallel && (long) width * height >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, height).parallel().forEach(action);
+        } else {
+            for (int y = 0; y < height; ++y) {
+                action.accept(y);
+            }
+        }
+    }
+
     private class BufferedImageWrapper implements Image {
 
         private BufferedImage image;
@@ -188,38 +222,84 @@ public class BufferedImageFactory extends ImageFactory {
                 channel = 3;
             }
 
-            ByteBuffer bb = manager.allocateDirect(channel * height * width);
-            if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-                int[] data = new int[width * height];
-                image.getData().getPixels(0, 0, width, height, data);
-                for (int gray : data) {
-                    byte b = (byte) gray;
-                    bb.put(b);
-                    if (flag != Flag.GRAYSCALE) {
-                        bb.put(b);
-                        bb.put(b);
-                    }
-                }
-            } else {
-                // get an array of integer pixels in the default RGB color mode
-                int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
-                for (int rgb : pixels) {
-                    int red = (rgb >> 16) & 0xFF;
-                    int green = (rgb >> 8) & 0xFF;
-                    int blue = rgb & 0xFF;
-
-                    if (flag == Flag.GRAYSCALE) {
-                        int gray = Math.round(0.299f * red + 0.587f * green + 0.114f * blue);
-                        bb.put((byte) gray);
-                    } else {
-                        bb.put((byte) red);
-                        bb.put((byte) green);
-                        bb.put((byte) blue);
-                    }
+            PixelReader reader = new PixelReader(image);
+            return createArray(
+                    manager,
+                    new Shape(height, width, channel),
+                    DataType.UINT8,
+                    bb ->
+                            forEachRow(
+                                    width,
+                                    height,
+                                    y -> {
+                                        int index = y * width * channel;
+                                        if (channel == 1) {
+                                            for (int x = 0; x < width; ++x) {
+                                                bb.put(index++, (byte) reader.getGray(x, y));
+                                            }
+                                        } else {
+                                            for (int x = 0; x < width; ++x) {
+                                                int rgb = reader.getRGB(x, y);
+                                                bb.put(index++, (byte) (rgb >> 16));
+                                                bb.put(index++, (byte) (rgb >> 8));
+                                                bb.put(index++, (byte) rgb);
+                                            }
+                                        }
+                                    }));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+            int channel = flag == Flag.GRAYSCALE ? 1 : 3;
+            if ((mean != null && channel != 3) || !isChannelFirst(manager)) {
+                // grayscale is broadcast to 3 channels by normalize
+                return Image.super.toTensor(manager, flag, mean, std);
+            }
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int area = width * height;
+
+            // the values of each channel for the 256 possible pixel values
+            float[][] table = new float[channel][256];
+            for (int c = 0; c < channel; ++c) {
+                for (int i = 0; i < 256; ++i) {
+                    float value = i / 255f;
+                    table[c][i] = mean == null ? value : (value - mean[c]) / std[c];
                 }
             }
-            bb.rewind();
-            return manager.create(bb, new Shape(height, width, channel), DataType.UINT8);
+
+            PixelReader reader = new PixelReader(image);
+            return createArray(
+                    manager,
+                    new Shape(channel, height, width),
+                    DataType.FLOAT32,
+                    bb -> {
+                        FloatBuffer fb = bb.asFloatBuffer();
+                        forEachRow(
+                                width,
+                                height,
+                                y -> {
+                                    int index = y * width;
+                                    if (channel == 1) {
+                                        float[] gray = table[0];
+                                        for (int x = 0; x < width; ++x) {
+                                            fb.put(index++, gray[reader.getGray(x, y)]);
+                                        }
+                                    } else {
+                                        float[] red = table[0];
+                                        float[] green = table[1];
+                                        float[] blue = table[2];
+                                        for (int x = 0; x < width; ++x) {
+                                            int rgb = reader.getRGB(x, y);
+                                            fb.put(index, red[(rgb >> 16) & 0xFF]);
+                                            fb.put(index + area, green[(rgb >> 8) & 0xFF]);
+                                            fb.put(index + 2 * area, blue[rgb & 0xFF]);
+                                            ++index;
+                                        }
+                                    }
+                                });
+                    });
         }
 
         /** {@inheritDoc} */
@@ -355,4 +435,115 @@ public class BufferedImageFactory extends ImageFactory {
             g.dispose();
         }
     }
+
+    // stages the data in a pooled buffer when the manager supports it
+    private static NDArray createArray(
+            NDManager manager, Shape shape, DataType dataType, Consumer<ByteBuffer> writer) {
+        int capacity = Math.toIntExact(shape.size()) * dataType.getNumOfBytes();
+        if (!(manager instanceof BaseNDManager)) {
+            ByteBuffer bb = manager.allocateDirect(capacity);
+            writer.accept(bb);
+            return manager.create(bb, shape, dataType);
+        }
+        BaseNDManager base = (BaseNDManager) manager;
+        ByteBuffer bb = base.allocateStagingDirect(capacity);
+        try {
+            writer.accept(bb);
+        } catch (RuntimeException e) {
+            base.releaseStagingDirect(bb);
+            throw e;
+        }
+        return base.createFromStaging(bb, shape, dataType);
+    }
+
+    // whether NDImageUtils.toTensor gives the CHW layout, engines such as TensorFlow keep HWC,
+    // it is checked once per engine on a tiny image
+    private static boolean isChannelFirst(NDManager manager) {
+        return CHANNEL_FIRST.computeIfAbsent(
+                manager.getEngine().getEngineName(),
+                k -> {
+                    try (NDManager probe = manager.newSubManager()) {
+                        NDArray image = probe.zeros(new Shape(1, 1, 2), DataType.UINT8);
+                        return NDImageUtils.toTensor(image).getShape().get(0) == 2;
+                    } catch (UnsupportedOperationException e) {
+                        // CHW is the layout of the engines that can't convert the image
+                        return true;
+                    }
+                });
+    }
+
+    /** Reads the pixels from the raster of the common image types without copying them. */
+    private static final class PixelReader {
+
+        private byte[] bytes;
+        private int[] ints;
+        private int offset;
+        private int scanlineStride;
+        private int pixelStride;
+        private int red;
+        private int green;
+        private int blue;
+        private boolean gray;
+
+        PixelReader(BufferedImage image) {
+            WritableRaster raster = image.getRaster();
+            int translateX = raster.getSampleModelTranslateX();
+            int translateY = raster.getSampleModelTranslateY();
+            switch (image.getType()) {
+                case BufferedImage.TYPE_3BYTE_BGR:
+                case BufferedImage.TYPE_BYTE_GRAY:
+                    ComponentSampleModel csm = (ComponentSampleModel) raster.getSampleModel();
+                    DataBufferByte byteBuffer = (DataBufferByte) raster.getDataBuffer();
+                    bytes = byteBuffer.getData();
+                    scanlineStride = csm.getScanlineStride();
+                    pixelStride = csm.getPixelStride();
+                    offset =
+                            byteBuffer.getOffset()
+                                    - translateY * scanlineStride
+                                    - translateX * pixelStride;
+                    int[] bandOffsets = csm.getBandOffsets();
+                    gray = bandOffsets.length == 1;
+                    red = bandOffsets[0];
+                    green = bandOffsets[gray ? 0 : 1];
+                    blue = bandOffsets[gray ? 0 : 2];
+                    break;
+                case BufferedImage.TYPE_INT_RGB:
+                case BufferedImage.TYPE_INT_ARGB:
+                    SinglePixelPackedSampleModel sm =
+                            (SinglePixelPackedSampleModel) raster.getSampleModel();
+                    DataBufferInt intBuffer = (DataBufferInt) raster.getDataBuffer();
+                    ints = intBuffer.getData();
+                    scanlineStride = sm.getScanlineStride();
+                    offset = intBuffer.getOffset() - translateY * scanlineStride - translateX;
+                    break;
+                default:
+                    // get an array of integer pixels in the default RGB color mode
+                    int width = image.getWidth();
+                    ints = image.getRGB(0, 0, width, image.getHeight(), null, 0, width);
+                    scanlineStride = width;
+                    break;
+            }
+        }
+
+        int getRGB(int x, int y) {
+            if (ints != null) {
+                return ints[offset + y * scanlineStride + x];
+            }
+            int index = offset + y * scanlineStride + x * pixelStride;
+            return (bytes[index + red] & 0xFF) << 16
+                    | (bytes[index + green] & 0xFF) << 8
+                    | (bytes[index + blue] & 0xFF);
+        }
+
+        int getGray(int x, int y) {
+            if (gray) {
+                return bytes[offset + y * scanlineStride + x * pixelStride + red] & 0xFF;
+            }
+            int rgb = getRGB(x, y);
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            int b = rgb & 0xFF;
+            return Math.round(0.299f * r + 0.587f * g + 0.114f * b);
+        }
+    }
 }
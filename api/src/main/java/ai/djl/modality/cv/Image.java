@@ -15,6 +15,7 @@ package ai.djl.modality.cv;
 import ai.djl.modality.cv.output.BoundingBox;
 import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Joints;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import java.io.IOException;
@@ -85,6 +86,32 @@ public interface Image {
      */
     NDArray toNDArray(NDManager manager, Flag flag);
 
+    /**
+     * Converts image to a float32 {@link NDArray} in Neural Network format.
+     *
+     * <p>The result is the same as {@link #toNDArray(NDManager, Flag)} followed by {@link
+     * NDImageUtils#toTensor(NDArray)} and, when {@code mean} is not {@code null}, {@link
+     * NDImageUtils#normalize(NDArray, float[], float[])}. Implementations may convert the pixels in
+     * a single pass without the intermediate arrays.
+     *
+     * @param manager a {@link NDManager} to create the new NDArray with
+     * @param flag the color mode
+     * @param mean the mean to normalize with for each channel, or {@code null} to not normalize
+     * @param std the standard deviation to normalize with for each channel
+     * @return {@link NDArray}
+     */
+    default NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+        try (NDArray array = toNDArray(manager, flag)) {
+            NDArray tensor = NDImageUtils.toTensor(array);
+            if (mean == null) {
+                return tensor;
+            }
+            try (NDArray normalized = tensor) {
+                return NDImageUtils.normalize(normalized, mean, std);
+            }
+        }
+    }
+
     /**
      * Save the image to file.
      *
@@ -33,6 +33,24 @@ public class Normalize implements Transform {
         this.std = std;
     }
 
+    /**
+     * Returns the mean to normalize with for each channel.
+     *
+     * @return the mean to normalize with for each channel
+     */
+    public float[] getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the standard deviation to normalize with for each channel.
+     *
+     * @return the standard deviation to normalize with for each channel
+     */
+    public float[] getStd() {
+        return std;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray transform(NDArray array) {
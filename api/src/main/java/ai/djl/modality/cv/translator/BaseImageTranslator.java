@@ -38,6 +38,12 @@ import java.util.Map;
 /**
  * Built-in {@code Translator} that provides default image pre-processing.
  *
+ * <p>When the {@link Pipeline} starts with {@link ToTensor}, optionally followed by {@link
+ * Normalize}, the image is converted, transposed and normalized in a single pass with {@link
+ * Image#toTensor(ai.djl.ndarray.NDManager, Image.Flag, float[], float[])}. Pipelines that resize or
+ * crop the image first, like those of most built-in translators, still convert it with {@link
+ * Image#toNDArray(ai.djl.ndarray.NDManager, Image.Flag)}, because the engine does the resize.
+ *
  * @param <T> the output object type
  */
 public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
@@ -70,6 +76,21 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
     /** {@inheritDoc} */
     @Override
     public NDList processInput(TranslatorContext ctx, Image input) {
+        List<Transform> transforms = pipeline.getTransforms();
+        if (!transforms.isEmpty() && transforms.get(0) instanceof ToTensor) {
+            // converts, transposes and normalizes the image in one pass
+            float[] mean = null;
+            float[] std = null;
+            int fused = 1;
+            if (transforms.size() > 1 && transforms.get(1) instanceof Normalize) {
+                Normalize normalize = (Normalize) transforms.get(1);
+                mean = normalize.getMean();
+                std = normalize.getStd();
+                fused = 2;
+            }
+            NDArray array = input.toTensor(ctx.getNDManager(), flag, mean, std);
+            return pipeline.transform(new NDList(array), fused);
+        }
         NDArray array = input.toNDArray(ctx.getNDManager(), flag);
         return pipeline.transform(new NDList(array));
     }
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact, immutable {@link Vocabulary} for large vocabularies.
+ *
+ * <p>The tokens are stored in a single UTF-8 byte arena, indexed by an {@code int} offset table,
+ * and looked up in an open-addressing hash table of the token indices. Compared to the {@link
+ * DefaultVocabulary}, it doesn't keep a {@code String} and a map entry per token, and the lookups
+ * by {@link CharSequence} or by a range of characters don't allocate.
+ *
+ * <p>The index of a token is its position in the list the vocabulary is created from. A {@code
+ * CompactVocabulary} can be saved with {@link #save(Path)}, and loaded with {@link #load(Path)},
+ * which memory-maps the file instead of reading it into the heap.
+ */
+public class CompactVocabulary implements Vocabulary {
+
+    private static final int MAGIC = 0x564c4a44; // DJLV
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private ByteBuffer arena;
+    private IntBuffer offsets;
+    private IntBuffer slots;
+    private int mask;
+    private int size;
+    private int unknownIndex;
+
+    /**
+     * Creates a {@code CompactVocabulary} with the given list of tokens.
+     *
+     * @param tokens the tokens, in the order of their indices
+     */
+    public CompactVocabulary(List<String> tokens) {
+        this(tokens, null);
+    }
+
+    /**
+     * Creates a {@code CompactVocabulary} with the given list of tokens and unknown token.
+     *
+     * @param tokens the tokens, in the order of their indices
+     * @param unknownToken the token returned for the unknown tokens, it is added after the other
+     *     tokens if it is not in the list, or {@code null} to throw an exception for the unknown
+     *     tokens
+     */
+    public CompactVocabulary(List<String> tokens, String unknownToken) {
+        List<byte[]> encoded = new ArrayList<>(tokens.size() + 1);
+        int length = 0;
+        for (String token : tokens) {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            length += bytes.length;
+        }
+        if (unknownToken != null && !tokens.contains(unknownToken)) {
+            byte[] bytes = unknownToken.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            length += bytes.length;
+        }
+        size = encoded.size();
+        byte[] bytes = new byte[length];
+        int[] offsetArray = new int[size + 1];
+        int offset = 0;
+        for (int i = 0; i < size; ++i) {
+            byte[] token = encoded.get(i);
+            System.arraycopy(token, 0, bytes, offset, token.length);
+            offsetArray[i] = offset;
+            offset += token.length;
+        }
+        offsetArray[size] = offset;
+        arena = ByteBuffer.wrap(bytes);
+        offsets = IntBuffer.wrap(offsetArray);
+
+        int capacity = Integer.highestOneBit(Math.max(size, 8) * 2 - 1) << 1;
+        mask = capacity - 1;
+        int[] slotArray = new int[capacity];
+        for (int i = 0; i < size; ++i) {
+            byte[] token = encoded.get(i);
+            int slot = hash(token) & mask;
+            boolean duplicate = false;
+            while (slotArray[slot] != 0) {
+                if (matches(token, slotArray[slot] - 1)) {
+                    // the first index of a duplicated token is kept
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                slotArray[slot] = i + 1;
+            }
+        }
+        slots = IntBuffer.wrap(slotArray);
+        unknownIndex = unknownToken == null ? -1 : find(unknownToken, 0, unknownToken.length());
+    }
+
+    private CompactVocabulary(
+            ByteBuffer arena, IntBuffer offsets, IntBuffer slots, int size, int unknownIndex) {
+        this.arena = arena;
+        this.offsets = offsets;
+        this.slots = slots;
+        this.size = size;
+        this.unknownIndex = unknownIndex;
+        mask = slots.capacity() - 1;
+    }
+
+    /**
+     * Loads a {@code CompactVocabulary} saved with {@link #save(Path)}.
+     *
+     * <p>The file is memory-mapped, it must not be modified while the vocabulary is used.
+     *
+     * @param file the vocabulary file
+     * @return the {@code CompactVocabulary}
+     * @throws IOException if the file cannot be read or is not a vocabulary file
+     */
+    public static CompactVocabulary load(Path file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < HEADER_SIZE || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("Invalid vocabulary file: " + file);
+        }
+        int size = buf.getInt(8);
+        int capacity = buf.getInt(12);
+        int unknownIndex = buf.getInt(16);
+        int length = buf.getInt(20);
+        long expected = HEADER_SIZE + 4L * (size + 1) + 4L * capacity + length;
+        if (size < 0
+                || capacity <= 0
+                || Integer.bitCount(capacity) != 1
+                || length < 0
+                || unknownIndex >= size
+                || expected != buf.capacity()) {
+            throw new IOException("Invalid vocabulary file: " + file);
+        }
+        int offsetsStart = HEADER_SIZE;
+        int slotsStart = offsetsStart + 4 * (size + 1);
+        int arenaStart = slotsStart + 4 * capacity;
+        IntBuffer offsets = slice(buf, offsetsStart, slotsStart).asIntBuffer();
+        IntBuffer slots = slice(buf, slotsStart, arenaStart).asIntBuffer();
+        ByteBuffer arena = slice(buf, arenaStart, arenaStart + length);
+        return new CompactVocabulary(arena, offsets, slots, size, unknownIndex);
+    }
+
+    /**
+     * Saves the vocabulary to a file that can be loaded with {@link #load(Path)}.
+     *
+     * @param file the vocabulary file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        int capacity = slots.capacity();
+        int length = arena.capacity();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(capacity);
+        header.putInt(unknownIndex).putInt(length);
+        header.flip();
+        ByteBuffer tables =
+                ByteBuffer.allocate(4 * (size + 1 + capacity)).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer ints = tables.asIntBuffer();
+        ints.put(offsets.duplicate());
+        ints.put(slots.duplicate());
+        try (FileChannel channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, tables);
+            writeFully(channel, arena.duplicate());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getToken(long index) {
+        if (index < 0 || index >= size) {
+            return unknownIndex == -1 ? null : getToken(unknownIndex);
+        }
+        int start = offsets.get((int) index);
+        byte[] bytes = new byte[offsets.get((int) index + 1) - start];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = arena.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(String token) {
+        return find(token, 0, token.length()) != -1;
+    }
+
+    /**
+     * Returns whether the vocabulary contains a token.
+     *
+     * @param token the token
+     * @return whether the vocabulary contains the token
+     */
+    public boolean contains(CharSequence token) {
+        return find(token, 0, token.length()) != -1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getIndex(String token) {
+        return getIndex(token, 0, token.length());
+    }
+
+    /**
+     * Returns the index of a token.
+     *
+     * @param token the token
+     * @return the index of the token
+     */
+    public long getIndex(CharSequence token) {
+        return getIndex(token, 0, token.length());
+    }
+
+    /**
+     * Returns the index of the token made of a range of characters.
+     *
+     * @param text the text that contains the token
+     * @param start the index of the first character of the token
+     * @param end the index after the last character of the token
+     * @return the index of the token
+     */
+    public long getIndex(CharSequence text, int start, int end) {
+        int index = find(text, start, end);
+        if (index != -1) {
+            return index;
+        }
+        if (unknownIndex != -1) {
+            return unknownIndex;
+        }
+        throw new IllegalStateException(
+                "Unexpected token in getIndex. Define an unknownToken for the vocabulary to enable support for unknown tokens.");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long size() {
+        return size;
+    }
+
+    private int find(CharSequence text, int start, int end) {
+        int h = FNV_OFFSET;
+        int i = start;
+        while (i < end) {
+            int cp = codePointAt(text, i, end);
+            i += Character.charCount(cp);
+            h = hashCodePoint(h, cp);
+        }
+        for (int slot = mix(h) & mask; ; slot = (slot + 1) & mask) {
+            int value = slots.get(slot);
+            if (value == 0) {
+                return -1;
+            }
+            if (matches(text, start, end, value - 1)) {
+                return value - 1;
+            }
+        }
+    }
+
+    private boolean matches(CharSequence text, int start, int end, int index) {
+        int pos = offsets.get(index);
+        int limit = offsets.get(index + 1);
+        int i = start;
+        while (i < end) {
+            int cp = codePointAt(text, i, end);
+            i += Character.charCount(cp);
+            pos = matchCodePoint(cp, pos, limit);
+            if (pos == -1) {
+                return false;
+            }
+        }
+        return pos == limit;
+    }
+
+    private boolean matches(byte[] token, int index) {
+        int start = offsets.get(index);
+        if (offsets.get(index + 1) - start != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; ++i) {
+            if (arena.get(start + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int matchCodePoint(int cp, int pos, int limit) {
+        if (cp < 0x80) {
+            return matchByte(pos, limit, cp);
+        }
+        int next;
+        if (cp < 0x800) {
+            next = matchByte(pos, limit, 0xc0 | (cp >> 6));
+        } else if (cp < 0x10000) {
+            next = matchByte(pos, limit, 0xe0 | (cp >> 12));
+            next = matchByte(next, limit, 0x80 | ((cp >> 6) & 0x3f));
+        } else {
+            next = matchByte(pos, limit, 0xf0 | (cp >> 18));
+            next = matchByte(next, limit, 0x80 | ((cp >> 12) & 0x3f));
+            next = matchByte(next, limit, 0x80 | ((cp >> 6) & 0x3f));
+        }
+        return matchByte(next, limit, 0x80 | (cp & 0x3f));
+    }
+
+    private int matchByte(int pos, int limit, int b) {
+        if (pos == -1 || pos >= limit || arena.get(pos) != (byte) b) {
+            return -1;
+        }
+        return pos + 1;
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = FNV_OFFSET;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    private static int hashCodePoint(int h, int cp) {
+        if (cp < 0x80) {
+            return (h ^ cp) * FNV_PRIME;
+        }
+        int hash = h;
+        if (cp < 0x800) {
+            hash = (hash ^ (0xc0 | (cp >> 6))) * FNV_PRIME;
+        } else if (cp < 0x10000) {
+            hash = (hash ^ (0xe0 | (cp >> 12))) * FNV_PRIME;
+            hash = (hash ^ (0x80 | ((cp >> 6) & 0x3f))) * FNV_PRIME;
+        } else {
+            hash = (hash ^ (0xf0 | (cp >> 18))) * FNV_PRIME;
+            hash = (hash ^ (0x80 | ((cp >> 12) & 0x3f))) * FNV_PRIME;
+            hash = (hash ^ (0x80 | ((cp >> 6) & 0x3f))) * FNV_PRIME;
+        }
+        return (hash ^ (0x80 | (cp & 0x3f))) * FNV_PRIME;
+    }
+
+    private static int mix(int h) {
+        int x = h ^ (h >>> 16);
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        return x;
+    }
+
+    private static int codePointAt(CharSequence text, int i, int end) {
+        // the unpaired surrogates are replaced by '?', like String.getBytes() does
+        char c = text.charAt(i);
+        if (!Character.isSurrogate(c)) {
+            return c;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < end) {
+            char low = text.charAt(i + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(c, low);
+            }
+        }
+        return '?';
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int start, int end) {
+        ByteBuffer dup = buf.duplicate();
+        dup.limit(end).position(start);
+        return dup.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.rewind();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
@@ -16,12 +16,15 @@ import ai.djl.modality.nlp.Vocabulary;
 import ai.djl.modality.nlp.preprocess.SimpleTokenizer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * WordpieceTokenizer tokenizes a piece of text into its word pieces.
  *
  * <p>This uses a greedy longest-match-first algorithm to perform tokenization using the given
- * vocabulary. The input text should already be cleaned and preprocessed.
+ * vocabulary. The input text should already be cleaned and preprocessed. The vocabulary is indexed
+ * in a prefix trie when the tokenizer is created, so that the longest word piece is found in a
+ * single pass over the characters of a word, without creating the candidate substrings.
  *
  * <pre>
  * jshell&gt; String input = "unaffable";
@@ -35,14 +38,17 @@ import java.util.List;
  */
 public class WordpieceTokenizer extends SimpleTokenizer {
 
+    private static final int UNKNOWN = -1;
+
     private String unknown;
     private int maxInputChars;
     private Vocabulary vocabulary;
+    private WordpieceTrie trie;
 
     /**
      * Creates an instance of {@code WordpieceTokenizer}.
      *
-     * @param vocabulary a {@code DefaultVocabulary} used for wordpiece tokenization
+     * @param vocabulary a {@link Vocabulary} used for wordpiece tokenization
      * @param unknown String that represent unknown token
      * @param maxInputChars maximum number of input characters
      */
@@ -50,57 +56,121 @@ public class WordpieceTokenizer extends SimpleTokenizer {
         this.unknown = unknown;
         this.maxInputChars = maxInputChars;
         this.vocabulary = vocabulary;
+        trie = new WordpieceTrie(vocabulary);
     }
 
     /** {@inheritDoc} */
     @Override
     public List<String> tokenize(String sentence) {
-        StringBuilder sb = new StringBuilder();
-        List<String> subTokens = new ArrayList<>();
-        List<String> outputTokens = new ArrayList<>();
-        for (String token : super.tokenize(sentence.trim())) {
-            char[] chars = token.toCharArray();
-            if (chars.length > maxInputChars) {
-                outputTokens.add(unknown);
-                continue;
+        int[] nodes = new int[sentence.length()];
+        int count = match(sentence, nodes);
+        List<String> outputTokens = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int node = nodes[i];
+            outputTokens.add(node == UNKNOWN ? unknown : trie.getToken(node));
+        }
+        return outputTokens;
+    }
+
+    /**
+     * Tokenizes a sentence into the vocabulary indices of its word pieces.
+     *
+     * <p>This is equivalent to looking up the tokens returned by {@link #tokenize(String)} in the
+     * vocabulary, without creating the tokens.
+     *
+     * @param sentence the sentence to tokenize
+     * @return the vocabulary indices of the word pieces
+     */
+    public long[] tokenizeToIndices(String sentence) {
+        int[] nodes = new int[sentence.length()];
+        int count = match(sentence, nodes);
+        long[] indices = new long[count];
+        long unknownIndex = -1;
+        for (int i = 0; i < count; ++i) {
+            int node = nodes[i];
+            if (node != UNKNOWN) {
+                indices[i] = trie.getIndex(node);
+            } else {
+                if (unknownIndex == -1) {
+                    unknownIndex = vocabulary.getIndex(unknown);
+                }
+                indices[i] = unknownIndex;
             }
-            boolean isBad = false;
-            int start = 0;
-            subTokens.clear();
-            String currentSubString = null;
-            while (start < chars.length) {
-                int end = chars.length;
-                while (start < end) {
-                    sb.setLength(0);
-                    sb.append(token, start, end);
-                    if (start > 0) {
-                        sb.insert(0, "##");
+        }
+        return indices;
+    }
+
+    /**
+     * Tokenizes sentences in parallel into the vocabulary indices of their word pieces.
+     *
+     * @param sentences the sentences to tokenize
+     * @return the vocabulary indices of the word pieces of each sentence
+     * @see #tokenizeToIndices(String)
+     */
+    public List<long[]> tokenizeToIndices(List<String> sentences) {
+        return sentences.parallelStream().map(this::tokenizeToIndices).collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the word pieces of the words of a sentence, with a greedy longest-match-first search.
+     *
+     * @param sentence the sentence, the words are separated by spaces
+     * @param nodes the output trie nodes of the word pieces, or {@link #UNKNOWN}
+     * @return the number of word pieces
+     */
+    private int match(String sentence, int[] nodes) {
+        int begin = 0;
+        int end = sentence.length();
+        // same as tokenize(sentence.trim())
+        while (begin < end && sentence.charAt(begin) <= ' ') {
+            ++begin;
+        }
+        while (end > begin && sentence.charAt(end - 1) <= ' ') {
+            --end;
+        }
+        int count = 0;
+        int wordStart = begin;
+        while (wordStart < end) {
+            int wordEnd = sentence.indexOf(' ', wordStart);
+            if (wordEnd == -1 || wordEnd > end) {
+                wordEnd = end;
+            }
+            if (wordEnd - wordStart > maxInputChars) {
+                nodes[count++] = UNKNOWN;
+            } else if (wordEnd > wordStart) {
+                int first = count;
+                int start = wordStart;
+                while (start < wordEnd) {
+                    int node =
+                            start == wordStart
+                                    ? WordpieceTrie.WORD_ROOT
+                                    : WordpieceTrie.SUFFIX_ROOT;
+                    int matched = UNKNOWN;
+                    int matchedEnd = start;
+                    for (int i = start; i < wordEnd; ++i) {
+                        node = trie.getChild(node, sentence.charAt(i));
+                        if (node == -1) {
+                            break;
+                        }
+                        if (trie.isToken(node)) {
+                            matched = node;
+                            matchedEnd = i + 1;
+                        }
                     }
-                    String subString = sb.toString();
-                    if (vocabulary.contains(subString)) {
-                        currentSubString = subString;
+                    if (matched == UNKNOWN) {
                         break;
-                    } else {
-                        currentSubString = null;
                     }
-                    end--;
-                }
-                if (currentSubString == null) {
-                    isBad = true;
-                    break;
+                    nodes[count++] = matched;
+                    start = matchedEnd;
                 }
-                subTokens.add(currentSubString);
-                if (subTokens.size() > maxInputChars) {
-                    throw new IllegalStateException("Too many subTokens for: '" + sentence + '\'');
+                if (start < wordEnd) {
+                    // a word that can't be split into word pieces is unknown
+                    count = first;
+                    nodes[count++] = UNKNOWN;
                 }
-                start = end;
-            }
-            if (isBad) {
-                outputTokens.add(unknown);
-            } else {
-                outputTokens.addAll(subTokens);
             }
+            wordStart = wordEnd + 1;
         }
-        return outputTokens;
+        return count;
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.modality.nlp.Vocabulary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A prefix trie of the tokens of a {@link Vocabulary}, used for the longest-match-first lookups of
+ * the {@link WordpieceTokenizer}.
+ *
+ * <p>The trie has two roots: {@link #WORD_ROOT} holds all the tokens, {@link #SUFFIX_ROOT} holds
+ * the tokens that start with {@code ##}, without the {@code ##} prefix. The nodes are stored in
+ * flat arrays, the children of a node are sorted by character and looked up with a binary search.
+ * A node only keeps the vocabulary index of its token, the token is read from the vocabulary.
+ */
+final class WordpieceTrie {
+
+    static final int WORD_ROOT = 0;
+    static final int SUFFIX_ROOT = 1;
+
+    private static final String SUFFIX_PREFIX = "##";
+
+    private int[] offsets;
+    private char[] labels;
+    private int[] children;
+    private long[] indices;
+    private Vocabulary vocabulary;
+
+    WordpieceTrie(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        Node word = new Node();
+        Node suffix = new Node();
+        int count = 2;
+        for (long i = 0; i < vocabulary.size(); ++i) {
+            String token = vocabulary.getToken(i);
+            if (token == null || token.isEmpty()) {
+                continue;
+            }
+            count += insert(word, token, 0, i);
+            if (token.length() > SUFFIX_PREFIX.length() && token.startsWith(SUFFIX_PREFIX)) {
+                count += insert(suffix, token, SUFFIX_PREFIX.length(), i);
+            }
+        }
+
+        // numbers the nodes in breadth first order, so that the children of a node are contiguous
+        offsets = new int[count + 1];
+        labels = new char[count - 2];
+        children = new int[count - 2];
+        indices = new long[count];
+        List<Node> nodes = new ArrayList<>(count);
+        nodes.add(word);
+        nodes.add(suffix);
+        int edge = 0;
+        for (int i = 0; i < nodes.size(); ++i) {
+            Node node = nodes.get(i);
+            offsets[i] = edge;
+            indices[i] = node.index;
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                labels[edge] = entry.getKey();
+                children[edge] = nodes.size();
+                nodes.add(entry.getValue());
+                ++edge;
+            }
+        }
+        offsets[count] = edge;
+    }
+
+    /**
+     * Returns the child of a node for a character.
+     *
+     * @param node the node
+     * @param c the character
+     * @return the child node, or -1 if the node has no child for the character
+     */
+    int getChild(int node, char c) {
+        int low = offsets[node];
+        int high = offsets[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return children[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns if a node is the end of a token of the vocabulary.
+     *
+     * @param node the node
+     * @return if a node is the end of a token of the vocabulary
+     */
+    boolean isToken(int node) {
+        return indices[node] >= 0;
+    }
+
+    /**
+     * Returns the vocabulary token that ends at a node.
+     *
+     * @param node the node
+     * @return the vocabulary token that ends at a node
+     */
+    String getToken(int node) {
+        return vocabulary.getToken(indices[node]);
+    }
+
+    /**
+     * Returns the vocabulary index of the token that ends at a node.
+     *
+     * @param node the node
+     * @return the vocabulary index of the token that ends at a node
+     */
+    long getIndex(int node) {
+        return indices[node];
+    }
+
+    private static int insert(Node root, String token, int start, long index) {
+        int added = 0;
+        Node node = root;
+        for (int i = start; i < token.length(); ++i) {
+            char c = token.charAt(i);
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node();
+                node.children.put(c, child);
+                ++added;
+            }
+            node = child;
+        }
+        if (node.index < 0) {
+            node.index = index;
+        }
+        return added;
+    }
+
+    /** A node of the trie while it is built. */
+    private static final class Node {
+
+        @SuppressWarnings("PMD.UseConcurrentHashMap")
+        Map<Character, Node> children = new TreeMap<>();
+
+        long index = -1;
+    }
+}
@@ -19,8 +19,11 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.util.Float16Utils;
 import ai.djl.util.PairList;
 import ai.djl.util.RandomUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -28,9 +31,12 @@ import java.nio.LongBuffer;
 import java.nio.ShortBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +54,8 @@ public abstract class BaseNDManager implements NDManager {
     protected ConcurrentHashMap<String, TempResource> tempResources;
     protected AtomicBoolean closed = new AtomicBoolean(false);
 
+    private Map<ByteBuffer, DirectLease> directBuffers;
+
     protected BaseNDManager(NDManager parent, Device device) {
         this.parent = parent;
         this.device = device == null ? defaultDevice() : device;
@@ -66,6 +74,160 @@ public abstract class BaseNDManager implements NDManager {
         return getEngine().defaultDevice();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer allocateDirect(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Allocates a direct byte buffer that goes back to the {@link DirectBufferPool} when this
+     * manager is closed.
+     *
+     * <p>Unlike {@link #allocateDirect(int)}, the buffer is owned by this manager. It must only be
+     * used by engines whose arrays keep a reference to their buffer, and move it with {@link
+     * #transferDirect(ByteBuffer, NDManager)} when they are attached to another manager. When no
+     * {@link DirectBufferPool} is configured, this is the same as {@link #allocateDirect(int)}.
+     *
+     * @param capacity the new buffer's capacity, in bytes
+     * @return the new byte buffer
+     */
+    public ByteBuffer allocatePooledDirect(int capacity) {
+        DirectBufferPool pool = DirectBufferPool.getInstance();
+        if (pool == null || parent == null) {
+            // the system manager is never closed, it can't give the buffers back
+            return allocateDirect(capacity);
+        }
+        ByteBuffer buf = pool.allocate(capacity);
+        if (!pool.isPooled(buf)) {
+            return buf;
+        }
+        // hide the unused capacity of the size class from the engine
+        ByteBuffer slice = buf.slice().order(ByteOrder.nativeOrder());
+        leaseDirect(slice, new DirectLease(buf, pool));
+        return slice;
+    }
+
+    /**
+     * Allocates a direct buffer to stage the data of a new array.
+     *
+     * <p>The buffer comes from the {@link DirectBufferPool} when one is configured and the engine
+     * copies the staged data into its own memory. The array is created with {@link
+     * #createFromStaging(ByteBuffer, Shape, DataType)}, or the buffer is given back with {@link
+     * #releaseStagingDirect(ByteBuffer)} once the engine has copied it. The buffer must not be used
+     * afterwards.
+     *
+     * @param capacity the new buffer's capacity, in bytes
+     * @return the new byte buffer, in native order
+     */
+    public ByteBuffer allocateStagingDirect(int capacity) {
+        DirectBufferPool pool = DirectBufferPool.getInstance();
+        if (pool == null || !copiesStaging()) {
+            return allocateDirect(capacity);
+        }
+        return pool.allocate(capacity);
+    }
+
+    /**
+     * Gives back a buffer from {@link #allocateStagingDirect(int)} once the engine has copied it.
+     *
+     * <p>A buffer that doesn't come from the {@link DirectBufferPool} is left to the garbage
+     * collector.
+     *
+     * @param buffer the buffer allocated by {@link #allocateStagingDirect(int)}
+     */
+    public void releaseStagingDirect(ByteBuffer buffer) {
+        DirectBufferPool pool = DirectBufferPool.getInstance();
+        if (pool != null) {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Creates an array from a buffer allocated by {@link #allocateStagingDirect(int)}, and gives
+     * the buffer back.
+     *
+     * @param buffer the buffer allocated by {@link #allocateStagingDirect(int)}
+     * @param shape the shape of the array
+     * @param dataType the data type of the array
+     * @return the new array
+     */
+    public NDArray createFromStaging(ByteBuffer buffer, Shape shape, DataType dataType) {
+        try {
+            return create(buffer, shape, dataType);
+        } finally {
+            releaseStagingDirect(buffer);
+        }
+    }
+
+    /**
+     * Returns whether {@link #createFromStaging(ByteBuffer, Shape, DataType)} copies the buffer
+     * into the memory of the engine, so that staging buffers can come from the pool.
+     *
+     * <p>Engines that wrap the buffer of an array must return {@code false}, which is the default.
+     *
+     * @return whether the staging buffers are copied by the engine
+     */
+    protected boolean copiesStaging() {
+        return false;
+    }
+
+    /**
+     * Returns a view of a direct buffer from {@link #allocatePooledDirect(int)} for another array
+     * that shares its memory.
+     *
+     * <p>The view is owned by this manager and can be moved with {@link #transferDirect(ByteBuffer,
+     * NDManager)} like the buffer. The memory only goes back to the {@link DirectBufferPool} once
+     * the managers of the buffer and of all its views are closed. If the buffer isn't owned by this
+     * manager, the view isn't tracked.
+     *
+     * @param buffer the buffer allocated by this manager
+     * @return a view of the buffer, in native order
+     */
+    public ByteBuffer shareDirect(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate().order(ByteOrder.nativeOrder());
+        DirectLease lease;
+        synchronized (this) {
+            lease = directBuffers == null ? null : directBuffers.get(buffer);
+            if (lease != null) {
+                lease.refs.incrementAndGet();
+                directBuffers.put(view, lease);
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Moves a direct buffer from {@link #allocatePooledDirect(int)} to another manager.
+     *
+     * <p>The buffer goes back to the {@link DirectBufferPool} when the other manager is closed
+     * instead of this one. If the other manager is {@code null}, the buffer doesn't go back to the
+     * pool and is reclaimed by the garbage collector, with the views that share it.
+     *
+     * @param buffer the buffer allocated by this manager
+     * @param manager the manager that owns the buffer from now on, or {@code null}
+     */
+    public void transferDirect(ByteBuffer buffer, NDManager manager) {
+        DirectLease lease;
+        synchronized (this) {
+            if (directBuffers == null) {
+                return;
+            }
+            lease = directBuffers.remove(buffer);
+        }
+        if (lease == null) {
+            return;
+        }
+        if (manager instanceof BaseNDManager && manager.isOpen()) {
+            BaseNDManager target = (BaseNDManager) manager;
+            if (target.parent != null) {
+                target.leaseDirect(buffer, lease);
+                return;
+            }
+        }
+        lease.discard();
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray create(String[] data, Charset charset, Shape shape) {
@@ -99,7 +261,11 @@ public abstract class BaseNDManager implements NDManager {
     /** {@inheritDoc} */
     @Override
     public NDList load(Path path) {
-        throw new UnsupportedOperationException("Not supported!");
+        try {
+            return NDList.decode(this, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load NDList: " + path, e);
+        }
     }
 
     /** {@inheritDoc} */
@@ -118,15 +284,16 @@ public abstract class BaseNDManager implements NDManager {
     @Override
     public NDArray zeros(Shape shape, DataType dataType) {
         int size = (int) shape.size();
-        ByteBuffer bb = allocateDirect(size * dataType.getNumOfBytes());
-        return create(bb, shape, dataType);
+        // the staging buffers are filled with zeros
+        ByteBuffer bb = allocateStagingDirect(size * dataType.getNumOfBytes());
+        return createFromStaging(bb, shape, dataType);
     }
 
     /** {@inheritDoc} */
     @Override
     public NDArray ones(Shape shape, DataType dataType) {
         int size = (int) shape.size();
-        ByteBuffer bb = allocateDirect(size * dataType.getNumOfBytes());
+        ByteBuffer bb = allocateStagingDirect(size * dataType.getNumOfBytes());
         for (int i = 0; i < size; ++i) {
             switch (dataType) {
                 case FLOAT16:
@@ -154,7 +321,7 @@ public abstract class BaseNDManager implements NDManager {
             }
         }
         bb.rewind();
-        return create(bb, shape, dataType);
+        return createFromStaging(bb, shape, dataType);
     }
 
     /** {@inheritDoc} */
@@ -347,6 +514,7 @@ public abstract class BaseNDManager implements NDManager {
             parent.detachInternal(uid);
             resources.clear();
             tempResources.clear();
+            releaseDirect();
         }
     }
 
@@ -373,6 +541,33 @@ public abstract class BaseNDManager implements NDManager {
         }
     }
 
+    /**
+     * Returns the memory held by the arrays of this {@link NDManager} and all sub-managers, per
+     * device.
+     *
+     * <p>The memory is computed from the shape and data type of the arrays. The memory that the
+     * engine holds for other purposes, like its caches, is not included.
+     *
+     * @return the memory held by the arrays in bytes, per device
+     */
+    public Map<Device, Long> getArrayMemory() {
+        Map<Device, Long> memory = new ConcurrentHashMap<>();
+        addArrayMemory(memory);
+        return memory;
+    }
+
+    private void addArrayMemory(Map<Device, Long> memory) {
+        for (AutoCloseable resource : resources.values()) {
+            if (resource instanceof NDArray) {
+                NDArray array = (NDArray) resource;
+                long bytes = array.size() * array.getDataType().getNumOfBytes();
+                memory.merge(array.getDevice(), bytes, Long::sum);
+            } else if (resource instanceof BaseNDManager) {
+                ((BaseNDManager) resource).addArrayMemory(memory);
+            }
+        }
+    }
+
     NDManager getAlternativeManager() {
         return alternativeManager;
     }
@@ -436,6 +631,56 @@ public abstract class BaseNDManager implements NDManager {
         target.rewind();
     }
 
+    // the lease holds the buffer from the pool, the engine uses a slice of it
+    private synchronized void leaseDirect(ByteBuffer buffer, DirectLease lease) {
+        if (directBuffers == null) {
+            directBuffers = new IdentityHashMap<>();
+        }
+        directBuffers.put(buffer, lease);
+    }
+
+    private void releaseDirect() {
+        Map<ByteBuffer, DirectLease> buffers;
+        synchronized (this) {
+            buffers = directBuffers;
+            directBuffers = null;
+        }
+        if (buffers != null) {
+            for (DirectLease lease : buffers.values()) {
+                lease.release();
+            }
+        }
+    }
+
+    // a buffer from the pool, shared by the arrays that use it or its views
+    private static final class DirectLease {
+
+        ByteBuffer buffer;
+        DirectBufferPool pool;
+        AtomicInteger refs;
+        AtomicBoolean done;
+
+        DirectLease(ByteBuffer buffer, DirectBufferPool pool) {
+            this.buffer = buffer;
+            this.pool = pool;
+            refs = new AtomicInteger(1);
+            done = new AtomicBoolean();
+        }
+
+        void release() {
+            if (refs.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                pool.release(buffer);
+            }
+        }
+
+        // an array that uses the buffer is detached, it can't go back to the pool
+        void discard() {
+            if (done.compareAndSet(false, true)) {
+                pool.discard(buffer);
+            }
+        }
+    }
+
     protected static final class TempResource {
 
         private NDResource resource;
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of direct {@link ByteBuffer}s that are reused instead of allocated for every {@link
+ * NDArray}.
+ *
+ * <p>{@link ByteBuffer#allocateDirect(int)} is expensive, and the direct memory is only reclaimed
+ * once the garbage collector finds the buffer unreachable. Under load this can cause direct memory
+ * {@link OutOfMemoryError}s and long pauses. The pool keeps the buffers in power of two size
+ * classes:
+ *
+ * <ul>
+ *   <li>the small size classes are cut from 1MB slabs, so that a slab allocation serves many
+ *       buffers
+ *   <li>each thread keeps a few free buffers per small size class, so that allocate and release
+ *       don't contend with other threads. They are reclaimed with the thread, and are not counted
+ *       in the pooled bytes
+ *   <li>the buffers larger than the maximum buffer size are not pooled
+ * </ul>
+ *
+ * <p>A buffer from {@link #allocate(int)} has its limit set to the requested capacity, its {@link
+ * ByteBuffer#capacity()} may be larger. It is filled with zeros, like a buffer from {@link
+ * ByteBuffer#allocateDirect(int)}, and must not be used after it has been given back with {@link
+ * #release(ByteBuffer)}. A buffer that is not given back must be forgotten with {@link
+ * #discard(ByteBuffer)}, otherwise the pool keeps a reference to it.
+ *
+ * <p>When {@link #setInstance(DirectBufferPool)} is called, or the {@code
+ * ai.djl.ndarray.pool_direct_buffer} system property is {@code true}, {@link
+ * BaseNDManager#allocatePooledDirect(int)} allocates from the pool, and the buffers go back to the
+ * pool when the {@link NDManager} that owns them is closed. {@link NDManager#allocateDirect(int)}
+ * is never pooled, because its buffers may be wrapped by the engine or kept by the caller.
+ */
+public class DirectBufferPool {
+
+    private static final int MIN_SHIFT = 6;
+    private static final int SLAB_SIZE = 1 << 20;
+    private static final int MAX_SLAB_BUFFER_SIZE = 1 << 16;
+    private static final int LOCAL_CACHE_SIZE = 8;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(1 << 16);
+
+    private static final AtomicReference<DirectBufferPool> INSTANCE =
+            new AtomicReference<>(initInstance());
+
+    private int maxBufferSize;
+    private long maxPooledBytes;
+    private Queue<ByteBuffer>[] freeLists;
+    private ThreadLocal<LocalCache> localCache;
+    private Set<BufferKey> outstanding;
+
+    private LongAdder hits;
+    private LongAdder misses;
+    private AtomicLong outstandingBytes;
+    private AtomicLong pooledBytes;
+    private AtomicLong allocatedBytes;
+
+    /** Constructs a pool of buffers up to 16MB that keeps up to 256MB of free buffers. */
+    public DirectBufferPool() {
+        this(1 << 24, 1L << 28);
+    }
+
+    /**
+     * Constructs a {@code DirectBufferPool}.
+     *
+     * @param maxBufferSize the size of the largest pooled buffer, in bytes
+     * @param maxPooledBytes the maximum size of the free buffers kept in the pool, in bytes, not
+     *     including the few small buffers kept by each thread
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public DirectBufferPool(int maxBufferSize, long maxPooledBytes) {
+        if (maxBufferSize < 1 << MIN_SHIFT || maxBufferSize > 1 << 30) {
+            throw new IllegalArgumentException("Invalid maxBufferSize: " + maxBufferSize);
+        }
+        int numClasses = sizeClass(maxBufferSize) + 1;
+        this.maxBufferSize = 1 << (numClasses - 1 + MIN_SHIFT);
+        this.maxPooledBytes = maxPooledBytes;
+        freeLists = new Queue[numClasses];
+        for (int i = 0; i < numClasses; ++i) {
+            freeLists[i] = new ConcurrentLinkedQueue<>();
+        }
+        int numLocalClasses = Math.min(numClasses, sizeClass(MAX_SLAB_BUFFER_SIZE) + 1);
+        localCache = ThreadLocal.withInitial(() -> new LocalCache(numLocalClasses));
+        outstanding = ConcurrentHashMap.newKeySet();
+        hits = new LongAdder();
+        misses = new LongAdder();
+        outstandingBytes = new AtomicLong();
+        pooledBytes = new AtomicLong();
+        allocatedBytes = new AtomicLong();
+    }
+
+    /**
+     * Returns the {@code DirectBufferPool} used by the {@link NDManager}s, or {@code null} if the
+     * {@link NDManager}s don't pool their buffers.
+     *
+     * @return the {@code DirectBufferPool} used by the {@link NDManager}s
+     */
+    public static DirectBufferPool getInstance() {
+        return INSTANCE.get();
+    }
+
+    /**
+     * Sets the {@code DirectBufferPool} used by the {@link NDManager}s.
+     *
+     * @param pool the {@code DirectBufferPool}, or {@code null} to stop pooling buffers
+     */
+    public static void setInstance(DirectBufferPool pool) {
+        INSTANCE.set(pool);
+    }
+
+    /**
+     * Returns a direct buffer in native order with at least the given capacity.
+     *
+     * @param capacity the capacity of the buffer, in bytes
+     * @return a direct buffer with its limit set to {@code capacity}
+     */
+    public ByteBuffer allocate(int capacity) {
+        if (capacity > maxBufferSize) {
+            misses.increment();
+            allocatedBytes.addAndGet(capacity);
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        int sizeClass = sizeClass(capacity);
+        int size = 1 << (sizeClass + MIN_SHIFT);
+        ByteBuffer buf = localCache.get().poll(sizeClass);
+        if (buf == null) {
+            buf = freeLists[sizeClass].poll();
+            if (buf != null) {
+                pooledBytes.addAndGet(-size);
+            }
+        }
+        if (buf != null) {
+            hits.increment();
+            clear(buf, capacity);
+        } else {
+            misses.increment();
+            buf = newBuffer(sizeClass, size);
+        }
+        outstanding.add(new BufferKey(buf));
+        outstandingBytes.addAndGet(size);
+        buf.order(ByteOrder.nativeOrder());
+        buf.limit(capacity);
+        return buf;
+    }
+
+    /**
+     * Gives back a buffer returned by {@link #allocate(int)} to the pool.
+     *
+     * @param buffer the buffer
+     */
+    public void release(ByteBuffer buffer) {
+        if (!outstanding.remove(new BufferKey(buffer))) {
+            // not from this pool, or already given back, the buffer is reclaimed by the GC
+            return;
+        }
+        int size = buffer.capacity();
+        outstandingBytes.addAndGet(-size);
+        int sizeClass = sizeClass(size);
+        if (localCache.get().offer(sizeClass, buffer)) {
+            // not counted, the cache is reclaimed with its thread
+            return;
+        }
+        if (pooledBytes.addAndGet(size) > maxPooledBytes) {
+            // the pool is full, the buffer is reclaimed by the garbage collector
+            pooledBytes.addAndGet(-size);
+            return;
+        }
+        freeLists[sizeClass].offer(buffer);
+    }
+
+    /**
+     * Forgets a buffer returned by {@link #allocate(int)} that won't be given back.
+     *
+     * <p>The buffer is reclaimed by the garbage collector once it is unreachable.
+     *
+     * @param buffer the buffer
+     */
+    public void discard(ByteBuffer buffer) {
+        if (outstanding.remove(new BufferKey(buffer))) {
+            outstandingBytes.addAndGet(-buffer.capacity());
+        }
+    }
+
+    /**
+     * Returns whether a buffer was allocated by this pool and can be given back with {@link
+     * #release(ByteBuffer)}.
+     *
+     * @param buffer the buffer
+     * @return whether a buffer can be given back to the pool
+     */
+    public boolean isPooled(ByteBuffer buffer) {
+        return outstanding.contains(new BufferKey(buffer));
+    }
+
+    /**
+     * Returns the number of allocations served from the free buffers of the pool.
+     *
+     * @return the number of allocations served from the free buffers of the pool
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of allocations that allocated new direct memory.
+     *
+     * @return the number of allocations that allocated new direct memory
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of allocations served from the free buffers of the pool.
+     *
+     * @return the ratio of allocations served from the free buffers of the pool
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Returns the size of the pooled buffers that are allocated and not released, in bytes.
+     *
+     * @return the size of the pooled buffers that are allocated and not released
+     */
+    public long getOutstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    /**
+     * Returns the size of the free buffers kept in the pool, in bytes.
+     *
+     * <p>The free buffers kept by each thread are not included.
+     *
+     * @return the size of the free buffers kept in the pool
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Returns the total size of the direct memory allocated by the pool, in bytes.
+     *
+     * @return the total size of the direct memory allocated by the pool
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "DirectBufferPool{hitRate="
+                + getHitRate()
+                + ", outstandingBytes="
+                + getOutstandingBytes()
+                + ", pooledBytes="
+                + getPooledBytes()
+                + ", allocatedBytes="
+                + getAllocatedBytes()
+                + '}';
+    }
+
+    private ByteBuffer newBuffer(int sizeClass, int size) {
+        if (size > MAX_SLAB_BUFFER_SIZE) {
+            allocatedBytes.addAndGet(size);
+            return ByteBuffer.allocateDirect(size);
+        }
+        // cut a slab into buffers of the size class, keep the others in the free list
+        ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+        allocatedBytes.addAndGet(SLAB_SIZE);
+        Queue<ByteBuffer> freeList = freeLists[sizeClass];
+        for (int offset = size; offset < SLAB_SIZE; offset += size) {
+            slab.limit(offset + size).position(offset);
+            freeList.offer(slab.slice());
+        }
+        pooledBytes.addAndGet(SLAB_SIZE - size);
+        slab.limit(size).position(0);
+        return slab.slice();
+    }
+
+    private static void clear(ByteBuffer buf, int capacity) {
+        buf.clear();
+        while (buf.position() < capacity) {
+            ByteBuffer zeros = ZEROS.duplicate();
+            zeros.limit(Math.min(zeros.capacity(), capacity - buf.position()));
+            buf.put(zeros);
+        }
+        buf.rewind();
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    private static DirectBufferPool initInstance() {
+        if (Boolean.getBoolean("ai.djl.ndarray.pool_direct_buffer")) {
+            return new DirectBufferPool();
+        }
+        return null;
+    }
+
+    /** Compares buffers by identity, {@link ByteBuffer#equals(Object)} compares their content. */
+    private static final class BufferKey {
+
+        ByteBuffer buffer;
+
+        BufferKey(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BufferKey && ((BufferKey) o).buffer == buffer;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(buffer);
+        }
+    }
+
+    /** The free buffers of the small size classes kept by a thread. */
+    private static final class LocalCache {
+
+        ByteBuffer[][] buffers;
+        int[] counts;
+
+        LocalCache(int numClasses) {
+            buffers = new ByteBuffer[numClasses][LOCAL_CACHE_SIZE];
+            counts = new int[numClasses];
+        }
+
+        ByteBuffer poll(int sizeClass) {
+            if (sizeClass >= counts.length || counts[sizeClass] == 0) {
+                return null;
+            }
+            int index = --counts[sizeClass];
+            ByteBuffer buf = buffers[sizeClass][index];
+            buffers[sizeClass][index] = null;
+            return buf;
+        }
+
+        boolean offer(int sizeClass, ByteBuffer buf) {
+            if (sizeClass >= counts.length || counts[sizeClass] == LOCAL_CACHE_SIZE) {
+                return false;
+            }
+            buffers[sizeClass][counts[sizeClass]++] = buf;
+            return true;
+        }
+    }
+}
@@ -14,6 +14,7 @@ package ai.djl.ndarray;
 
 import ai.djl.Device;
 import ai.djl.ndarray.types.Shape;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -23,6 +24,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -107,6 +110,8 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
                     && magic[2] == 'U'
                     && magic[3] == 'M') {
                 return new NDList(NDSerializer.decode(manager, pis));
+            } else if (NDSerializer.isIndexed(magic)) {
+                return NDSerializer.decodeIndexed(manager, pis);
             }
 
             dis = new DataInputStream(pis);
@@ -124,6 +129,42 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         }
     }
 
+    /**
+     * Decodes NDList from a file.
+     *
+     * <p>A file written with {@link #encodeIndexed(OutputStream)} is memory-mapped, and the {@link
+     * NDArray}s are created from the mapped data without going through the Java heap. Other formats
+     * are decoded with {@link #decode(NDManager, InputStream)}.
+     *
+     * @param manager manager assigned to {@link NDArray}
+     * @param path the file to load from
+     * @return {@code NDList}
+     * @throws IOException if failed to read the file
+     */
+    public static NDList decode(NDManager manager, Path path) throws IOException {
+        if (isIndexed(path)) {
+            return NDSerializer.decodeIndexed(manager, path);
+        }
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(path))) {
+            return decode(manager, is);
+        }
+    }
+
+    /**
+     * Returns whether a file is in the indexed format written by {@link
+     * #encodeIndexed(OutputStream)}.
+     *
+     * @param path the file to check
+     * @return {@code true} if the file is in the indexed format
+     * @throws IOException if failed to read the file
+     */
+    public static boolean isIndexed(Path path) throws IOException {
+        byte[] magic = new byte[4];
+        try (InputStream is = Files.newInputStream(path)) {
+            return is.read(magic) == magic.length && NDSerializer.isIndexed(magic);
+        }
+    }
+
     private static NDList decodeNumpy(NDManager manager, InputStream is) throws IOException {
         NDList list = new NDList();
         ZipInputStream zis = new ZipInputStream(is);
@@ -354,6 +395,22 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         dos.flush();
     }
 
+    /**
+     * Writes the encoded NDList to {@code OutputStream} in the indexed format.
+     *
+     * <p>The indexed format starts with a table of the name, data type, shape and offset of each
+     * {@link NDArray}, followed by the aligned data of the arrays. It can be memory-mapped by
+     * {@link #decode(NDManager, Path)} and {@link NDManager#load(Path)}, which avoids copying the
+     * data through the Java heap when loading large files. The arrays are still created eagerly
+     * when the file is loaded. The parameter files of a model don't use this format.
+     *
+     * @param os the {@code OutputStream} to be written to
+     * @throws IOException if failed on IO operation
+     */
+    public void encodeIndexed(OutputStream os) throws IOException {
+        NDSerializer.encodeIndexed(this, os);
+    }
+
     /** {@inheritDoc} */
     @Override
     public byte[] getAsBytes() {
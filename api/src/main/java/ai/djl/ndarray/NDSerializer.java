@@ -13,8 +13,10 @@
 
 package ai.djl.ndarray;
 
+import ai.djl.ndarray.internal.ByteBufferDataInputStream;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -23,7 +25,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -37,6 +45,8 @@ final class NDSerializer {
     private static final String MAGIC_NUMBER = "NDAR";
     private static final byte[] NUMPY_MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
     private static final int ARRAY_ALIGN = 64;
+    private static final byte[] INDEXED_MAGIC = {'N', 'D', 'L', 'X'};
+    private static final int INDEXED_VERSION = 1;
 
     private static final Pattern PATTERN =
             Pattern.compile("\\{'descr': '(.+)', 'fortran_order': False, 'shape': \\((.*)\\),");
@@ -246,8 +256,219 @@ final class NDSerializer {
         return manager.create(dataType.asDataType(data), shape, dataType);
     }
 
+    static boolean isIndexed(byte[] magic) {
+        return Arrays.equals(magic, INDEXED_MAGIC);
+    }
+
+    /**
+     * Encodes {@link NDList} in the indexed format.
+     *
+     * <p>The indexed format starts with a header table that holds the name, data type, shape, byte
+     * order and offset of each array. The data of each array follows the header, aligned to {@value
+     * #ARRAY_ALIGN} bytes, so that it can be memory-mapped by {@link #decodeIndexed(NDManager,
+     * Path)}.
+     *
+     * @param list the input {@link NDList}
+     * @param os the {@code OutputStream} to be written to
+     * @throws IOException if failed on IO operation
+     */
+    static void encodeIndexed(NDList list, OutputStream os) throws IOException {
+        ByteBuffer[] data = new ByteBuffer[list.size()];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = list.get(i).toByteBuffer();
+        }
+        // offsets have a fixed width, the header length doesn't depend on their values
+        byte[] header = encodeIndexHeader(list, data, 0);
+        long position = INDEXED_MAGIC.length + 8 + header.length;
+        header = encodeIndexHeader(list, data, align(position));
+
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.write(INDEXED_MAGIC);
+        dos.writeInt(INDEXED_VERSION);
+        dos.writeInt(header.length);
+        dos.write(header);
+        WritableByteChannel channel = Channels.newChannel(dos);
+        for (ByteBuffer bb : data) {
+            long offset = align(position);
+            for (; position < offset; ++position) {
+                dos.write(0);
+            }
+            position += bb.remaining();
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+        }
+        dos.flush();
+    }
+
+    /**
+     * Decodes {@link NDList} in the indexed format from a file.
+     *
+     * <p>The data of each array is memory-mapped, so it is never copied through the Java heap. The
+     * arrays are created eagerly with {@link NDManager#create(java.nio.Buffer, Shape, DataType)},
+     * which copies the mapped data into the memory of most engines. Writable files are mapped
+     * copy-on-write and the mapped buffers are handed to the engine as is, changes to the arrays
+     * are never written back to the file. Read-only files are first copied into a direct buffer,
+     * because engines may write to the buffer of an array in place.
+     *
+     * @param manager the {@link NDManager} assigned to the {@link NDArray}s
+     * @param path the file to load from
+     * @return {@link NDList}
+     * @throws IOException data is not readable
+     */
+    static NDList decodeIndexed(NDManager manager, Path path) throws IOException {
+        boolean writable = Files.isWritable(path);
+        FileChannel.MapMode mode;
+        FileChannel channel;
+        if (writable) {
+            // PRIVATE mapping requires a channel opened for writing
+            mode = FileChannel.MapMode.PRIVATE;
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            mode = FileChannel.MapMode.READ_ONLY;
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        try (FileChannel fc = channel) {
+            DataInputStream dis =
+                    new DataInputStream(new BufferedInputStream(Channels.newInputStream(fc)));
+            IndexEntry[] entries = decodeIndexHeader(dis, decodeIndexPrefix(dis));
+            long fileSize = fc.size();
+            NDList list = new NDList(entries.length);
+            for (IndexEntry entry : entries) {
+                if (entry.offset + entry.length > fileSize) {
+                    throw new IllegalArgumentException("Truncated NDList data");
+                }
+                ByteBuffer data = fc.map(mode, entry.offset, entry.length);
+                if (!writable) {
+                    // engines may write to the buffer in place, a read-only mapping must be copied
+                    ByteBuffer copy = manager.allocateDirect(entry.length);
+                    copy.put(data);
+                    copy.rewind();
+                    data = copy;
+                }
+                data.order(entry.order);
+                list.add(entry.create(manager, data));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Decodes {@link NDList} in the indexed format through {@link InputStream}.
+     *
+     * @param manager the {@link NDManager} assigned to the {@link NDArray}s
+     * @param is input stream data to load from
+     * @return {@link NDList}
+     * @throws IOException data is not readable
+     */
+    static NDList decodeIndexed(NDManager manager, InputStream is) throws IOException {
+        DataInputStream dis;
+        if (is instanceof DataInputStream) {
+            dis = (DataInputStream) is;
+        } else {
+            dis = new DataInputStream(is);
+        }
+        int headerLength = decodeIndexPrefix(dis);
+        IndexEntry[] entries = decodeIndexHeader(dis, headerLength);
+        long position = INDEXED_MAGIC.length + 8L + headerLength;
+        NDList list = new NDList(entries.length);
+        for (IndexEntry entry : entries) {
+            if (entry.offset < position) {
+                throw new IllegalArgumentException("Invalid NDArray offset: " + entry.offset);
+            }
+            for (; position < entry.offset; ++position) {
+                dis.readByte();
+            }
+            ByteBuffer data = manager.allocateDirect(entry.length);
+            data.order(entry.order);
+            readData(dis, data, entry.length);
+            position += entry.length;
+            list.add(entry.create(manager, data));
+        }
+        return list;
+    }
+
+    private static byte[] encodeIndexHeader(NDList list, ByteBuffer[] data, long offset)
+            throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeInt(list.size());
+        for (int i = 0; i < data.length; ++i) {
+            NDArray array = list.get(i);
+            String name = array.getName();
+            if (name == null) {
+                dos.write(0);
+            } else {
+                dos.write(1);
+                dos.writeUTF(name);
+            }
+            dos.writeUTF(array.getDataType().name());
+            dos.write(array.getShape().getEncoded());
+            dos.write(data[i].order() == ByteOrder.BIG_ENDIAN ? '>' : '<');
+            int length = data[i].remaining();
+            dos.writeLong(offset);
+            dos.writeInt(length);
+            offset = align(offset + length);
+        }
+        dos.flush();
+        return bos.toByteArray();
+    }
+
+    private static int decodeIndexPrefix(DataInputStream dis) throws IOException {
+        byte[] magic = new byte[INDEXED_MAGIC.length];
+        dis.readFully(magic);
+        if (!isIndexed(magic)) {
+            throw new IllegalArgumentException("Malformed NDList data");
+        }
+        int version = dis.readInt();
+        if (version != INDEXED_VERSION) {
+            throw new IllegalArgumentException("Unexpected NDList encode version " + version);
+        }
+        int headerLength = dis.readInt();
+        if (headerLength < 4) {
+            throw new IllegalArgumentException("Invalid NDList header length: " + headerLength);
+        }
+        return headerLength;
+    }
+
+    private static IndexEntry[] decodeIndexHeader(DataInputStream dis, int headerLength)
+            throws IOException {
+        int size = dis.readInt();
+        if (size < 0 || size > headerLength / 4) {
+            throw new IllegalArgumentException("Invalid NDList size: " + size);
+        }
+        long position = INDEXED_MAGIC.length + 8L + headerLength;
+        IndexEntry[] entries = new IndexEntry[size];
+        for (int i = 0; i < size; ++i) {
+            IndexEntry entry = new IndexEntry();
+            if (dis.readByte() == 1) {
+                entry.name = dis.readUTF();
+            }
+            entry.dataType = DataType.valueOf(dis.readUTF());
+            entry.shape = Shape.decode(dis);
+            entry.order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            entry.offset = dis.readLong();
+            entry.length = dis.readInt();
+            // arrays are stored in order after the header, and never overlap
+            if (entry.offset < position || entry.length < 0) {
+                throw new IllegalArgumentException("Invalid NDArray offset: " + entry.offset);
+            }
+            position = entry.offset + entry.length;
+            entries[i] = entry;
+        }
+        return entries;
+    }
+
+    private static long align(long position) {
+        return (position + ARRAY_ALIGN - 1) / ARRAY_ALIGN * ARRAY_ALIGN;
+    }
+
     private static void readData(DataInputStream dis, ByteBuffer data, int len) throws IOException {
-        if (len > 0) {
+        if (dis instanceof ByteBufferDataInputStream) {
+            // copy straight from the (memory-mapped) buffer, without a heap buffer in between
+            ((ByteBufferDataInputStream) dis).readFully(data, len);
+            data.rewind();
+        } else if (len > 0) {
             byte[] buf = new byte[BUFFER_SIZE];
             while (len > BUFFER_SIZE) {
                 dis.readFully(buf);
@@ -260,4 +481,20 @@ final class NDSerializer {
             data.rewind();
         }
     }
+
+    private static final class IndexEntry {
+
+        String name;
+        DataType dataType;
+        Shape shape;
+        ByteOrder order;
+        long offset;
+        int length;
+
+        NDArray create(NDManager manager, ByteBuffer data) {
+            NDArray array = manager.create(dataType.asDataType(data), shape, dataType);
+            array.setName(name);
+            return array;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray.internal;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataInputStream} that reads from a {@link ByteBuffer}, such as a memory-mapped file.
+ *
+ * <p>The array data can be read with {@link #readFully(ByteBuffer, int)}, which copies from the
+ * buffer into the target buffer without going through the Java heap.
+ */
+public class ByteBufferDataInputStream extends DataInputStream {
+
+    private ByteBuffer buffer;
+
+    /**
+     * Constructs a {@code ByteBufferDataInputStream} reading from the position of the buffer.
+     *
+     * @param buffer the buffer to read from
+     */
+    public ByteBufferDataInputStream(ByteBuffer buffer) {
+        super(new BufferInputStream(buffer));
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads {@code len} bytes into the target buffer.
+     *
+     * @param target the buffer to put the bytes into
+     * @param len the number of bytes to read
+     * @throws EOFException if there are less than {@code len} bytes left
+     */
+    public void readFully(ByteBuffer target, int len) throws EOFException {
+        if (buffer.remaining() < len) {
+            throw new EOFException();
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + len);
+        target.put(slice);
+        buffer.position(buffer.position() + len);
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int size = Math.min(len, buffer.remaining());
+            buffer.get(b, off, size);
+            return size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long skip(long n) {
+            int size = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + size);
+            return size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
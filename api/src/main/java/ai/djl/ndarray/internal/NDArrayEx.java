@@ -265,6 +265,99 @@ public interface NDArrayEx {
             float momentum,
             boolean lazyUpdate);
 
+    /**
+     * Applies the Adam update to several weights in a single pass.
+     *
+     * <p>The default implementation calls {@link #adamUpdate(NDList, NDList, float, float, float,
+     * float, float, float, float, boolean)} for each weight. Engines with a multi-tensor kernel
+     * override it to update all the weights with a single operation.
+     *
+     * @param weights the weights to update in place
+     * @param grads the gradients of the weights
+     * @param means the first moment states of the weights
+     * @param variances the second moment states of the weights
+     * @param learningRates the learning rate of each weight
+     * @param weightDecay the weight decay
+     * @param rescaleGrad the value used to rescale the gradients
+     * @param clipGrad the value used to clip the gradients, or a negative value to not clip them
+     * @param beta1 the decay rate of the first moment estimates
+     * @param beta2 the decay rate of the second moment estimates
+     * @param epsilon the value added to the denominator for numerical stability
+     */
+    default void multiAdamUpdate(
+            NDList weights,
+            NDList grads,
+            NDList means,
+            NDList variances,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon) {
+        for (int i = 0; i < weights.size(); ++i) {
+            NDArray weight = weights.get(i);
+            NDList inputs = new NDList(weight, grads.get(i), means.get(i), variances.get(i));
+            weight.getNDArrayInternal()
+                    .adamUpdate(
+                            inputs,
+                            new NDList(weight),
+                            learningRates[i],
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            beta1,
+                            beta2,
+                            epsilon,
+                            true);
+        }
+    }
+
+    /**
+     * Applies the SGD update to several weights in a single pass.
+     *
+     * <p>The default implementation calls {@link #sgdUpdate(NDList, NDList, float, float, float,
+     * float, float, boolean)} for each weight. Engines with a multi-tensor kernel override it to
+     * update all the weights with a single operation.
+     *
+     * @param weights the weights to update in place
+     * @param grads the gradients of the weights
+     * @param states the momentum states of the weights, or {@code null} without momentum
+     * @param learningRates the learning rate of each weight
+     * @param weightDecay the weight decay
+     * @param rescaleGrad the value used to rescale the gradients
+     * @param clipGrad the value used to clip the gradients, or a negative value to not clip them
+     * @param momentum the momentum, or 0 to not use momentum
+     */
+    default void multiSgdUpdate(
+            NDList weights,
+            NDList grads,
+            NDList states,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        for (int i = 0; i < weights.size(); ++i) {
+            NDArray weight = weights.get(i);
+            NDList inputs =
+                    momentum != 0f
+                            ? new NDList(weight, grads.get(i), states.get(i))
+                            : new NDList(weight, grads.get(i));
+            weight.getNDArrayInternal()
+                    .sgdUpdate(
+                            inputs,
+                            new NDList(weight),
+                            learningRates[i],
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            momentum,
+                            true);
+        }
+    }
+
     ////////////////////////////////////////
     // Neural network
     ////////////////////////////////////////
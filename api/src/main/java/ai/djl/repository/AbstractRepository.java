@@ -21,18 +21,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
@@ -51,6 +63,12 @@ public abstract class AbstractRepository implements Repository {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractRepository.class);
 
+    private static final int CONCURRENT_DOWNLOADS =
+            Integer.getInteger("ai.djl.repository.concurrent_downloads", 4);
+    private static final HttpDownloader DOWNLOADER = HttpDownloader.builder().build();
+    private static final Map<Path, DownloadLock> DOWNLOAD_LOCKS = new ConcurrentHashMap<>();
+    private static final Map<Path, FileChannel> LOCK_CHANNELS = new ConcurrentHashMap<>();
+
     protected String name;
     protected URI uri;
     protected Map<String, String> arguments;
@@ -124,8 +142,16 @@ public abstract class AbstractRepository implements Repository {
     @Override
     public void prepare(Artifact artifact, Progress progress) throws IOException {
         Path resourceDir = getResourceDirectory(artifact);
+        ArtifactCache cache = ArtifactCache.newInstance();
         if (Files.exists(resourceDir)) {
             logger.debug("Files have been downloaded already: {}", resourceDir);
+            if (cache != null) {
+                try {
+                    cache.touch(resourceDir);
+                } catch (IOException e) {
+                    logger.warn("Failed to update the artifact cache: {}", cache.getDirectory(), e);
+                }
+            }
             return;
         }
 
@@ -150,10 +176,18 @@ public abstract class AbstractRepository implements Repository {
 
         try {
             logger.debug("Items to download: {}", files.size());
-            for (Artifact.Item item : files.values()) {
-                download(tmp, baseUri, item, progress);
+            int threads = Math.min(files.size(), CONCURRENT_DOWNLOADS);
+            if (threads <= 1) {
+                for (Artifact.Item item : files.values()) {
+                    downloadItem(tmp, baseUri, item, progress, cache);
+                }
+            } else {
+                downloadAll(tmp, baseUri, files.values(), progress, cache, threads);
             }
             Utils.moveQuietly(tmp, resourceDir);
+            if (cache != null) {
+                cache.commit(tmp, resourceDir);
+            }
         } finally {
             Utils.deleteQuietly(tmp);
             if (progress != null) {
@@ -187,49 +221,191 @@ public abstract class AbstractRepository implements Repository {
         if (!fileUri.isAbsolute()) {
             fileUri = getBaseUri().resolve(baseUri).resolve(fileUri);
         }
+        downloadFile(fileUri, tmp, item, progress);
+    }
 
+    /**
+     * Downloads an item from an absolute {@code URI} and saves it into the temporary directory.
+     *
+     * <p>HTTP downloads go through the {@link HttpDownloader}, they are resumed from the last
+     * attempt if the previous download failed.
+     *
+     * @param fileUri the absolute {@code URI} of the item
+     * @param tmp the temporary directory
+     * @param item the item to download
+     * @param progress the (optionally null) progress tracker
+     * @throws IOException if the download fails
+     */
+    protected void downloadFile(URI fileUri, Path tmp, Artifact.Item item, Progress progress)
+            throws IOException {
         logger.debug("Downloading artifact: {} ...", fileUri);
-        try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
-            save(is, tmp, item, progress);
+        String scheme = fileUri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
+                save(is, tmp, item, progress);
+            }
+            return;
+        }
+
+        Path dir = getCacheDirectory().resolve("downloads");
+        String hash = md5hash(fileUri.toString());
+        Path file = dir.resolve(hash);
+        DownloadLock lock;
+        synchronized (DOWNLOAD_LOCKS) {
+            lock = DOWNLOAD_LOCKS.computeIfAbsent(file, k -> new DownloadLock());
+            ++lock.users;
+        }
+        lock.mutex.lock();
+        try {
+            Files.createDirectories(dir);
+            // serializes the downloads of the same file across processes with a byte range lock
+            // of a single lock file, so that no lock file is left per download
+            long position = Long.parseLong(hash.substring(0, 15), 16);
+            FileLock fileLock = getLockChannel(dir).lock(position, 1, false);
+            try {
+                URL url = fileUri.toURL();
+                String expected = item.getSha1Hash();
+                if ("zip".equals(item.getExtension())) {
+                    // zip files are extracted from the central directory once downloaded
+                    String sha1 = DOWNLOADER.download(url, file, expected, progress);
+                    saveItem(
+                            tmp,
+                            item,
+                            target -> {
+                                extract(file, target, item);
+                                return sha1;
+                            });
+                } else {
+                    // the other formats are extracted while they are downloaded
+                    saveItem(
+                            tmp,
+                            item,
+                            target ->
+                                    DOWNLOADER.download(
+                                            url,
+                                            file,
+                                            expected,
+                                            progress,
+                                            is ->
+                                                    extract(
+                                                            new BufferedInputStream(is),
+                                                            target,
+                                                            item)));
+                }
+                Files.delete(file);
+            } finally {
+                fileLock.release();
+            }
+        } finally {
+            lock.mutex.unlock();
+            synchronized (DOWNLOAD_LOCKS) {
+                if (--lock.users == 0) {
+                    DOWNLOAD_LOCKS.remove(file);
+                }
+            }
         }
     }
 
     protected void save(InputStream is, Path tmp, Artifact.Item item, Progress progress)
             throws IOException {
-        ProgressInputStream pis = new ProgressInputStream(is, progress);
+        saveItem(
+                tmp,
+                item,
+                target -> {
+                    ProgressInputStream pis = new ProgressInputStream(is, progress);
+                    extract(pis, target, item);
+                    return pis.validateChecksum(item);
+                });
+    }
+
+    private void downloadItem(
+            Path tmp, URI baseUri, Artifact.Item item, Progress progress, ArtifactCache cache)
+            throws IOException {
+        String sha1 = item.getSha1Hash();
+        if (cache != null && sha1 != null) {
+            String key = ArtifactCache.getKey(sha1, item);
+            if (cache.link(key, getTarget(tmp, item), tmp)) {
+                if (progress != null) {
+                    progress.increment(item.getSize());
+                }
+                return;
+            }
+        }
+        download(tmp, baseUri, item, progress);
+    }
+
+    /**
+     * Saves an item into the temporary directory, through the {@link ArtifactCache} if it is
+     * enabled.
+     *
+     * @param tmp the temporary directory
+     * @param item the item to save
+     * @param writer writes the item into the target location and returns its SHA-1 hash
+     * @throws IOException if the item cannot be saved
+     */
+    private void saveItem(Path tmp, Artifact.Item item, ItemWriter writer) throws IOException {
+        Path target = getTarget(tmp, item);
+        ArtifactCache cache = ArtifactCache.newInstance();
+        if (cache == null) {
+            writer.write(target);
+            return;
+        }
+        Path staging = cache.newStagingDirectory();
+        try {
+            Path blob = "dir".equals(item.getType()) ? staging : staging.resolve("file");
+            String sha1 = writer.write(blob);
+            cache.put(ArtifactCache.getKey(sha1, item), blob, target, tmp);
+        } finally {
+            Utils.deleteQuietly(staging);
+        }
+    }
+
+    private static Path getTarget(Path tmp, Artifact.Item item) {
         String fileName = item.getName();
+        if ("dir".equals(item.getType()) && fileName.isEmpty()) {
+            return tmp;
+        }
+        // honer the name set in metadata.json
+        return tmp.resolve(fileName);
+    }
+
+    private void extract(Path file, Path target, Artifact.Item item) throws IOException {
+        if ("dir".equals(item.getType()) && "zip".equals(item.getExtension())) {
+            Files.createDirectories(target);
+            ZipUtils.unzip(file, target);
+            return;
+        }
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            extract(is, target, item);
+        }
+    }
+
+    private void extract(InputStream is, Path target, Artifact.Item item) throws IOException {
         String extension = item.getExtension();
         if ("dir".equals(item.getType())) {
-            Path dir;
-            if (!fileName.isEmpty()) {
-                // honer the name set in metadata.json
-                dir = tmp.resolve(fileName);
-                Files.createDirectories(dir);
-            } else {
-                dir = tmp;
-            }
+            Path dir = target;
+            Files.createDirectories(dir);
             if ("zip".equals(extension)) {
-                ZipUtils.unzip(pis, dir);
+                ZipUtils.unzip(is, dir);
             } else if ("tgz".equals(extension)) {
-                untar(pis, dir, true);
+                untar(is, dir, true);
             } else if ("tar".equals(extension)) {
-                untar(pis, dir, false);
+                untar(is, dir, false);
             } else {
                 throw new IOException("File type is not supported: " + extension);
             }
         } else {
-            Path file = tmp.resolve(fileName);
+            Path file = target;
             if ("zip".equals(extension)) {
-                ZipInputStream zis = new ZipInputStream(pis);
-                zis.getNextEntry();
-                Files.copy(zis, file, StandardCopyOption.REPLACE_EXISTING);
+                ZipInputStream zis = new ZipInputStream(is);
+                ZipEntry entry = zis.getNextEntry();
+                ZipUtils.copy(zis, file, entry == null ? -1 : entry.getSize());
             } else if ("gzip".equals(extension)) {
-                Files.copy(new GZIPInputStream(pis), file, StandardCopyOption.REPLACE_EXISTING);
+                ZipUtils.copy(new GZIPInputStream(is), file, -1);
             } else {
-                Files.copy(pis, file, StandardCopyOption.REPLACE_EXISTING);
+                ZipUtils.copy(is, file, item.getSize() > 0 ? item.getSize() : -1);
             }
         }
-        pis.validateChecksum(item);
     }
 
     private void untar(InputStream is, Path dir, boolean gzip) throws IOException {
@@ -256,9 +432,49 @@ public abstract class AbstractRepository implements Repository {
                         throw new AssertionError("Parent path should never be null: " + file);
                     }
                     Files.createDirectories(parentFile);
-                    Files.copy(tis, file, StandardCopyOption.REPLACE_EXISTING);
+                    ZipUtils.copy(tis, file, entry.getSize());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private void downloadAll(
+            Path tmp,
+            URI baseUri,
+            Collection<Artifact.Item> items,
+            Progress progress,
+            ArtifactCache cache,
+            int threads)
+            throws IOException {
+        Progress sync = progress == null ? null : new SynchronizedProgress(progress);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Artifact.Item item : items) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    downloadItem(tmp, baseUri, item, sync, cache);
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Failed to download artifact", cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Download interrupted", e);
                 }
             }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -292,6 +508,82 @@ public abstract class AbstractRepository implements Repository {
         }
     }
 
+    /** Writes an item into a file or directory. */
+    private interface ItemWriter {
+
+        /**
+         * Writes an item into a file or directory.
+         *
+         * @param target the file or directory
+         * @return the SHA-1 hash of the item
+         * @throws IOException if the item cannot be written
+         */
+        String write(Path target) throws IOException;
+    }
+
+    private static FileChannel getLockChannel(Path dir) throws IOException {
+        synchronized (LOCK_CHANNELS) {
+            FileChannel channel = LOCK_CHANNELS.get(dir);
+            if (channel == null || !channel.isOpen()) {
+                // the channel stays open, closing it would release the locks of the other threads
+                channel =
+                        FileChannel.open(
+                                dir.resolve(".lock"),
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE);
+                LOCK_CHANNELS.put(dir, channel);
+            }
+            return channel;
+        }
+    }
+
+    /** The lock of the downloads of a file in this process, and the number of its users. */
+    private static final class DownloadLock {
+
+        ReentrantLock mutex = new ReentrantLock();
+        int users;
+    }
+
+    /** A {@link Progress} that can be updated by the concurrent downloads. */
+    private static final class SynchronizedProgress implements Progress {
+
+        private Progress progress;
+
+        SynchronizedProgress(Progress progress) {
+            this.progress = progress;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void reset(String message, long max, String trailingMessage) {
+            progress.reset(message, max, trailingMessage);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void start(long initialProgress) {
+            progress.start(initialProgress);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void end() {
+            progress.end();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void increment(long increment) {
+            progress.increment(increment);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void update(long progress, String message) {
+            this.progress.update(progress, message);
+        }
+    }
+
     /**
      * A {@code ProgressInputStream} is a wrapper around an {@link InputStream} that also uses
      * {@link Progress}.
@@ -342,16 +634,16 @@ public abstract class AbstractRepository implements Repository {
             return size;
         }
 
-        private void validateChecksum(Artifact.Item item) throws IOException {
-            String expectedHash = item.getSha1Hash();
-            if (expectedHash == null) {
-                return;
-            }
-
+        private String validateChecksum(Artifact.Item item) throws IOException {
             // drain InputSteam to get correct sha1 hash
-            Utils.toByteArray(dis);
+            byte[] buf = new byte[8192];
+            int read = dis.read(buf);
+            while (read != -1) {
+                read = dis.read(buf);
+            }
             String sha1 = Hex.toHexString(dis.getMessageDigest().digest());
-            if (!sha1.equalsIgnoreCase(item.getSha1Hash())) {
+            String expectedHash = item.getSha1Hash();
+            if (expectedHash != null && !sha1.equalsIgnoreCase(expectedHash)) {
                 throw new IOException(
                         "Checksum error: "
                                 + item.getName()
@@ -360,6 +652,7 @@ public abstract class AbstractRepository implements Repository {
                                 + ", actual sha1: "
                                 + sha1);
             }
+            return sha1;
         }
 
         /** {@inheritDoc} */
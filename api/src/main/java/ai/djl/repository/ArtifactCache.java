@@ -0,0 +1,573 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.JsonUtils;
+import ai.djl.util.Utils;
+import com.google.gson.JsonParseException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code ArtifactCache} is a content addressed store for the files of the downloaded artifacts.
+ *
+ * <p>The items of the artifacts are stored once per SHA-1 hash, and hard linked into the resource
+ * directories of the artifacts. The same files used by different models or versions don't take more
+ * disk space, and aren't downloaded again. The files in a resource directory must not be modified,
+ * because they are shared with the other resource directories.
+ *
+ * <p>The store is enabled by the {@code ai.djl.repository.cache_size} system property, which bounds
+ * its size in bytes, with an optional {@code K}, {@code M} or {@code G} suffix. When the store
+ * grows larger, the least recently used resource directories are deleted, and then the items that
+ * are no longer linked into any resource directory. Only the resource directories leased with
+ * {@link #lockResource(Path)}, like the models loaded from a model zoo, can be deleted, and never
+ * while the lease is held. The directories prepared without a lease, like datasets, are kept with
+ * their items. The store is disabled if the property is not set or {@code 0}.
+ *
+ * <p>If the file system doesn't support hard links, the items are copied into the resource
+ * directories and are not kept in the store.
+ *
+ * <p>The store is locked with a file lock when it is updated, so that it can be shared by several
+ * processes.
+ */
+public final class ArtifactCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactCache.class);
+
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    private static final Map<Path, ResourceLock> RESOURCE_LOCKS = new ConcurrentHashMap<>();
+
+    private Path dir;
+    private long maxSize;
+
+    /**
+     * Constructs an {@code ArtifactCache}.
+     *
+     * @param dir the directory of the store
+     * @param maxSize the maximum size of the store in bytes
+     */
+    public ArtifactCache(Path dir, long maxSize) {
+        this.dir = dir.toAbsolutePath();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates an {@code ArtifactCache} in the DJL cache directory, or returns {@code null} if it is
+     * disabled.
+     *
+     * @return an {@code ArtifactCache} in the DJL cache directory
+     */
+    public static ArtifactCache newInstance() {
+        long maxSize = parseSize(System.getProperty("ai.djl.repository.cache_size"));
+        if (maxSize == 0) {
+            return null;
+        }
+        return new ArtifactCache(Utils.getCacheDir().resolve("cache/blobs"), maxSize);
+    }
+
+    /**
+     * Returns the directory of the store.
+     *
+     * @return the directory of the store
+     */
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Returns the maximum size of the store in bytes.
+     *
+     * @return the maximum size of the store in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the size of the items in the store in bytes.
+     *
+     * @return the size of the items in the store in bytes
+     * @throws IOException if the store cannot be read
+     */
+    public long getSize() throws IOException {
+        return withLock(() -> readIndex().getSize());
+    }
+
+    /**
+     * Leases a resource directory, so that it is not deleted while it is in use.
+     *
+     * <p>The lock is shared with the other threads and processes that use the directory. If the
+     * directory is being deleted, it waits until it is deleted, and the directory can be prepared
+     * again. Once leased, the directory can be evicted when no lease is held on it anymore.
+     *
+     * @param resourceDir the resource directory
+     * @return the lock, released when it is closed
+     * @throws IOException if the directory cannot be locked
+     */
+    public Closeable lockResource(Path resourceDir) throws IOException {
+        Path file = getLockFile(resourceDir);
+        Closeable lease;
+        synchronized (RESOURCE_LOCKS) {
+            ResourceLock lock = RESOURCE_LOCKS.get(file);
+            if (lock == null) {
+                Files.createDirectories(dir.resolve("locks"));
+                FileChannel channel =
+                        FileChannel.open(
+                                file,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+                try {
+                    channel.lock(0, Long.MAX_VALUE, true);
+                    lock = new ResourceLock(file, channel);
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+                RESOURCE_LOCKS.put(file, lock);
+            }
+            ++lock.count;
+            AtomicBoolean closed = new AtomicBoolean();
+            ResourceLock acquired = lock;
+            lease =
+                    () -> {
+                        if (closed.compareAndSet(false, true)) {
+                            acquired.release();
+                        }
+                    };
+        }
+        // the store is locked outside of RESOURCE_LOCKS, eviction takes them in this order
+        try {
+            register(resourceDir);
+        } catch (IOException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+        return lease;
+    }
+
+    /**
+     * Links an item of the store into a directory.
+     *
+     * @param key the key of the item
+     * @param target the file or directory to link the item to
+     * @param tmp the temporary resource directory that contains the target
+     * @return {@code true} if the item was found in the store
+     * @throws IOException if the item cannot be linked
+     */
+    boolean link(String key, Path target, Path tmp) throws IOException {
+        return withLock(
+                () -> {
+                    Index index = readIndex();
+                    Entry entry = index.blobs.get(key);
+                    Path blob = dir.resolve(key);
+                    if (entry == null || Files.notExists(blob)) {
+                        return false;
+                    }
+                    logger.debug("Reusing {} for {}", key, target);
+                    linkTree(blob, target);
+                    entry.pending.add(tmp.toAbsolutePath().toString());
+                    writeIndex(index);
+                    return true;
+                });
+    }
+
+    /**
+     * Creates a staging directory to save an item before it is added to the store.
+     *
+     * @return the staging directory
+     * @throws IOException if the directory cannot be created
+     */
+    Path newStagingDirectory() throws IOException {
+        Files.createDirectories(dir);
+        return Files.createTempDirectory(dir, "staging");
+    }
+
+    /**
+     * Adds an item to the store, and links it into a directory.
+     *
+     * @param key the key of the item
+     * @param staging the item to add
+     * @param target the file or directory to link the item to
+     * @param tmp the temporary resource directory that contains the target
+     * @throws IOException if the item cannot be added
+     */
+    void put(String key, Path staging, Path target, Path tmp) throws IOException {
+        long size = sizeOf(staging);
+        withLock(
+                () -> {
+                    Index index = readIndex();
+                    Path blob = dir.resolve(key);
+                    Entry entry = index.blobs.get(key);
+                    boolean added = entry == null || Files.notExists(blob);
+                    if (added) {
+                        Utils.deleteQuietly(blob);
+                        Files.move(staging, blob, StandardCopyOption.ATOMIC_MOVE);
+                        entry = new Entry();
+                        entry.size = size;
+                    }
+                    if (!linkTree(blob, target) && added) {
+                        // the item was copied, keeping it would take twice the disk space
+                        Utils.deleteQuietly(blob);
+                        return null;
+                    }
+                    index.blobs.put(key, entry);
+                    entry.pending.add(tmp.toAbsolutePath().toString());
+                    evict(index);
+                    writeIndex(index);
+                    return null;
+                });
+    }
+
+    /**
+     * Records that a temporary resource directory was moved to the resource directory.
+     *
+     * @param tmp the temporary resource directory
+     * @param resourceDir the resource directory
+     * @throws IOException if the store cannot be updated
+     */
+    void commit(Path tmp, Path resourceDir) throws IOException {
+        String tmpPath = tmp.toAbsolutePath().toString();
+        String path = resourceDir.toAbsolutePath().toString();
+        boolean leased;
+        synchronized (RESOURCE_LOCKS) {
+            leased = RESOURCE_LOCKS.containsKey(getLockFile(resourceDir));
+        }
+        withLock(
+                () -> {
+                    Index index = readIndex();
+                    boolean updated = false;
+                    for (Entry entry : index.blobs.values()) {
+                        if (entry.pending.remove(tmpPath)) {
+                            entry.refs.add(path);
+                            updated = true;
+                        }
+                    }
+                    if (leased) {
+                        // the lease was taken before the directory was prepared
+                        index.resources.put(path, System.currentTimeMillis());
+                        updated = true;
+                    }
+                    if (updated) {
+                        writeIndex(index);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Records an access to a resource directory, so that it is not evicted first.
+     *
+     * @param resourceDir the resource directory
+     * @throws IOException if the store cannot be updated
+     */
+    void touch(Path resourceDir) throws IOException {
+        if (Files.notExists(dir.resolve("index.json"))) {
+            return;
+        }
+        String path = resourceDir.toAbsolutePath().toString();
+        withLock(
+                () -> {
+                    Index index = readIndex();
+                    if (index.resources.containsKey(path)) {
+                        index.resources.put(path, System.currentTimeMillis());
+                        writeIndex(index);
+                    }
+                    return null;
+                });
+    }
+
+    static String getKey(String sha1, Artifact.Item item) {
+        String key = sha1.toLowerCase(Locale.ROOT);
+        return "dir".equals(item.getType()) ? key + ".dir" : key;
+    }
+
+    static long parseSize(String size) {
+        if (size == null || size.isEmpty()) {
+            return 0;
+        }
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        char suffix = value.charAt(value.length() - 1);
+        if (suffix == 'K' || suffix == 'M' || suffix == 'G') {
+            unit = suffix == 'K' ? 1L << 10 : suffix == 'M' ? 1L << 20 : 1L << 30;
+            value = value.substring(0, value.length() - 1);
+        }
+        return Long.parseLong(value) * unit;
+    }
+
+    // Records that a resource directory is leased, so that it can be evicted once it is released
+    private void register(Path resourceDir) throws IOException {
+        String path = resourceDir.toAbsolutePath().toString();
+        withLock(
+                () -> {
+                    Index index = readIndex();
+                    index.resources.put(path, System.currentTimeMillis());
+                    writeIndex(index);
+                    return null;
+                });
+    }
+
+    private void evict(Index index) {
+        // forget the resource directories that were deleted
+        index.resources.keySet().removeIf(p -> Files.notExists(Paths.get(p)));
+        for (Entry entry : index.blobs.values()) {
+            entry.refs.removeIf(p -> Files.notExists(Paths.get(p)));
+            entry.pending.removeIf(p -> Files.notExists(Paths.get(p)));
+        }
+        evictUnused(index);
+        if (index.getSize() <= maxSize) {
+            return;
+        }
+        List<Map.Entry<String, Long>> resources = new ArrayList<>(index.resources.entrySet());
+        resources.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> resource : resources) {
+            String path = resource.getKey();
+            if (!deleteResource(Paths.get(path))) {
+                continue;
+            }
+            index.resources.remove(path);
+            for (Entry entry : index.blobs.values()) {
+                entry.refs.remove(path);
+            }
+            if (evictUnused(index) <= maxSize) {
+                return;
+            }
+        }
+        logger.debug(
+                "The artifact cache exceeds {} bytes, its items are in use or not leased", maxSize);
+    }
+
+    // Removes the items that are not linked into any resource directory, returns the size left
+    private long evictUnused(Index index) {
+        Iterator<Map.Entry<String, Entry>> it = index.blobs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            Entry entry = e.getValue();
+            if (entry.refs.isEmpty() && entry.pending.isEmpty()) {
+                logger.debug("Evicting {} from the artifact cache", e.getKey());
+                Utils.deleteQuietly(dir.resolve(e.getKey()));
+                it.remove();
+            }
+        }
+        return index.getSize();
+    }
+
+    // Deletes a resource directory if no lock is held on it
+    private boolean deleteResource(Path resourceDir) {
+        Path file = getLockFile(resourceDir);
+        synchronized (RESOURCE_LOCKS) {
+            if (RESOURCE_LOCKS.containsKey(file)) {
+                return false;
+            }
+            try {
+                Files.createDirectories(dir.resolve("locks"));
+                try (FileChannel channel =
+                        FileChannel.open(
+                                file,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.tryLock();
+                    if (lock == null) {
+                        // locked by another process
+                        return false;
+                    }
+                    try {
+                        logger.debug("Evicting {} from the artifact cache", resourceDir);
+                        Utils.deleteQuietly(resourceDir);
+                    } finally {
+                        lock.release();
+                    }
+                }
+                return Files.notExists(resourceDir);
+            } catch (IOException e) {
+                logger.warn("Failed to lock resource directory: {}", resourceDir, e);
+                return false;
+            }
+        }
+    }
+
+    private Path getLockFile(Path resourceDir) {
+        String path = resourceDir.toAbsolutePath().toString();
+        UUID id = UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve("locks").resolve(id + ".lock");
+    }
+
+    private Index readIndex() throws IOException {
+        Path file = dir.resolve("index.json");
+        if (Files.notExists(file)) {
+            return new Index();
+        }
+        try (Reader reader = Files.newBufferedReader(file)) {
+            Index index = JsonUtils.GSON.fromJson(reader, Index.class);
+            if (index == null || index.blobs == null || index.resources == null) {
+                return new Index();
+            }
+            return index;
+        } catch (JsonParseException e) {
+            logger.warn("Invalid artifact cache index, the cache is reset: {}", file, e);
+            return new Index();
+        }
+    }
+
+    private void writeIndex(Index index) throws IOException {
+        Path tmp = dir.resolve("index.json.tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            JsonUtils.GSON.toJson(index, writer);
+        }
+        Files.move(tmp, dir.resolve("index.json"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private <T> T withLock(IOCallable<T> callable) throws IOException {
+        Files.createDirectories(dir);
+        // the file lock is held by the process, the threads are serialized first
+        ReentrantLock lock = LOCKS.computeIfAbsent(dir, k -> new ReentrantLock());
+        lock.lock();
+        try (FileChannel channel =
+                FileChannel.open(
+                        dir.resolve(".lock"),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE)) {
+            FileLock fileLock = channel.lock();
+            try {
+                return callable.call();
+            } finally {
+                fileLock.release();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns false if some of the files were copied instead of linked
+    private static boolean linkTree(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return linkFile(source, target);
+        }
+        boolean linked = true;
+        try (Stream<Path> stream = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                Path dest = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(dest);
+                } else {
+                    linked &= linkFile(path, dest);
+                }
+            }
+        }
+        return linked;
+    }
+
+    private static boolean linkFile(Path source, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // hard links are not supported by the file system
+            Files.copy(source, target);
+            return false;
+        }
+    }
+
+    private static long sizeOf(Path path) throws IOException {
+        try (Stream<Path> stream = Files.walk(path)) {
+            long size = 0;
+            for (Path file : (Iterable<Path>) stream::iterator) {
+                if (Files.isRegularFile(file)) {
+                    size += Files.size(file);
+                }
+            }
+            return size;
+        }
+    }
+
+    /** The items of the store, and the last access time of the leased resource directories. */
+    private static final class Index {
+
+        Map<String, Entry> blobs = new ConcurrentHashMap<>();
+        Map<String, Long> resources = new ConcurrentHashMap<>();
+
+        long getSize() {
+            return blobs.values().stream().mapToLong(e -> e.size).sum();
+        }
+    }
+
+    /** A shared lock on a resource directory, held by the process. */
+    private static final class ResourceLock {
+
+        Path file;
+        FileChannel channel;
+        int count;
+
+        ResourceLock(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        void release() throws IOException {
+            synchronized (RESOURCE_LOCKS) {
+                if (--count > 0) {
+                    return;
+                }
+                RESOURCE_LOCKS.remove(file);
+                // closing the channel releases the file lock
+                channel.close();
+            }
+        }
+    }
+
+    /** An item of the store. */
+    private static final class Entry {
+
+        long size;
+        Set<String> refs = new HashSet<>();
+        Set<String> pending = new HashSet<>();
+    }
+
+    /** A task that can throw an {@link IOException}. */
+    private interface IOCallable<T> {
+
+        T call() throws IOException;
+    }
+}
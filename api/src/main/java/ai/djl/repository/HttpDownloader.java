@@ -0,0 +1,671 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Hex;
+import ai.djl.util.Progress;
+import ai.djl.util.Utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code HttpDownloader} downloads a file over HTTP with parallel range requests.
+ *
+ * <p>When the server supports range requests, the file is split into chunks that are downloaded
+ * concurrently and written in place into a preallocated file. When the server returns a strong
+ * {@code ETag}, the completed chunks are recorded next to the file, so that a failed download
+ * resumes from the missing chunks the next time it is called. The SHA-1 checksum is computed while the chunks complete, instead of reading the whole
+ * file again at the end.
+ *
+ * <p>When the server doesn't support range requests, or doesn't report the length of the file, the
+ * file is downloaded with a single request.
+ */
+public final class HttpDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpDownloader.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private int connections;
+    private long chunkSize;
+    private int maxRetries;
+
+    HttpDownloader(Builder builder) {
+        connections = builder.connections;
+        chunkSize = builder.chunkSize;
+        maxRetries = builder.maxRetries;
+    }
+
+    /**
+     * Creates a builder to build a {@code HttpDownloader}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Downloads a file.
+     *
+     * <p>The file is downloaded into {@code file.part} and moved to {@code file} once the checksum
+     * is verified. It must not be called concurrently for the same file.
+     *
+     * @param url the url to download
+     * @param file the output file
+     * @param sha1 the expected SHA-1 hash of the file, or {@code null} to skip the verification
+     * @param progress the (optionally null) progress tracker
+     * @return the SHA-1 hash of the file
+     * @throws IOException if the download fails, or the checksum doesn't match
+     */
+    public String download(URL url, Path file, String sha1, Progress progress) throws IOException {
+        return download(url, file, sha1, progress, null);
+    }
+
+    /**
+     * Downloads a file, and reads it while it is downloaded.
+     *
+     * <p>The consumer is called from another thread with a stream of the file that follows the
+     * contiguous downloaded prefix of the file, so that the file can be extracted while the rest of
+     * it is downloaded. The stream fails if the download fails. The download returns once both the
+     * download and the consumer are done; the consumer reads data whose checksum is only verified
+     * after it returns.
+     *
+     * @param url the url to download
+     * @param file the output file
+     * @param sha1 the expected SHA-1 hash of the file, or {@code null} to skip the verification
+     * @param progress the (optionally null) progress tracker
+     * @param consumer the (optionally null) consumer of the file content
+     * @return the SHA-1 hash of the file
+     * @throws IOException if the download or the consumer fails, or the checksum doesn't match
+     */
+    public String download(
+            URL url, Path file, String sha1, Progress progress, StreamConsumer consumer)
+            throws IOException {
+        if (Files.exists(file)) {
+            logger.debug("File has been downloaded already: {}", file);
+            MessageDigest md = newDigest();
+            try (InputStream is = new DigestInputStream(Files.newInputStream(file), md)) {
+                if (consumer != null) {
+                    consumer.accept(is);
+                }
+                byte[] buf = new byte[BUFFER_SIZE];
+                int read = is.read(buf);
+                while (read != -1) {
+                    read = is.read(buf);
+                }
+            }
+            return Hex.toHexString(md.digest());
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) {
+            throw new AssertionError("Parent path should never be null: " + file);
+        }
+        Files.createDirectories(dir);
+        Path part = dir.resolve(file.toFile().getName() + ".part");
+        Path state = dir.resolve(file.toFile().getName() + ".state");
+
+        String digest;
+        if (consumer == null) {
+            digest = download(url, part, state, progress, null);
+        } else {
+            TailInputStream tail = new TailInputStream(part);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> future =
+                        executor.submit(
+                                () -> {
+                                    try (InputStream is = tail) {
+                                        consumer.accept(is);
+                                    }
+                                    return null;
+                                });
+                try {
+                    digest = download(url, part, state, progress, tail);
+                } catch (IOException | RuntimeException e) {
+                    tail.fail(e);
+                    // the file must be closed by the consumer before the download returns
+                    await(future, url);
+                    throw e;
+                }
+                tail.finish();
+                await(future, url);
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        if (sha1 != null && !sha1.equalsIgnoreCase(digest)) {
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(state);
+            throw new IOException(
+                    "Checksum error: "
+                            + file.toFile().getName()
+                            + ", expected sha1: "
+                            + sha1
+                            + ", actual sha1: "
+                            + digest);
+        }
+        Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(state);
+        return digest;
+    }
+
+    private String download(URL url, Path part, Path state, Progress progress, TailInputStream tail)
+            throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setRequestMethod("HEAD");
+            long length = conn.getContentLengthLong();
+            boolean ranges = "bytes".equalsIgnoreCase(conn.getHeaderField("Accept-Ranges"));
+            if (conn.getResponseCode() == HttpURLConnection.HTTP_OK && ranges && length > 0) {
+                String validator = conn.getHeaderField("ETag");
+                if (validator != null && validator.startsWith("W/")) {
+                    // a weak ETag doesn't guarantee that the bytes are the same
+                    validator = null;
+                }
+                RangedDownload download = new RangedDownload(url, part, state, progress, tail);
+                return download.download(length, validator);
+            }
+            Files.deleteIfExists(state);
+            return downloadStream(url, part, progress, tail);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private String downloadStream(URL url, Path part, Progress progress, TailInputStream tail)
+            throws IOException {
+        logger.debug("Downloading {} with a single request", url);
+        MessageDigest md = newDigest();
+        try (InputStream is = url.openStream();
+                DigestInputStream dis = new DigestInputStream(is, md);
+                FileChannel channel =
+                        FileChannel.open(
+                                part,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            long position = 0;
+            int read;
+            while ((read = dis.read(buf)) != -1) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, 0, read);
+                while (bb.hasRemaining()) {
+                    position += channel.write(bb);
+                }
+                increment(progress, read);
+                if (tail != null) {
+                    tail.advance(position);
+                }
+            }
+        }
+        return Hex.toHexString(md.digest());
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA1 algorithm not found.", e);
+        }
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private static void await(Future<?> future, URL url) throws IOException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read: " + url, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted: " + url, e);
+        }
+    }
+
+    private static void increment(Progress progress, long bytes) {
+        if (progress != null) {
+            synchronized (progress) {
+                progress.increment(bytes);
+            }
+        }
+    }
+
+    /** The state of a download with range requests. */
+    @SuppressWarnings("PMD.AvoidMessageDigestField")
+    private final class RangedDownload {
+
+        private URL url;
+        private Path part;
+        private Path state;
+        private Progress progress;
+        private TailInputStream tail;
+
+        private FileChannel channel;
+        private long length;
+        private int numChunks;
+        private BitSet completed;
+        private MessageDigest md;
+        private int hashedChunks;
+        private ByteBuffer hashBuffer;
+        private boolean resumable;
+
+        RangedDownload(URL url, Path part, Path state, Progress progress, TailInputStream tail) {
+            this.url = url;
+            this.part = part;
+            this.state = state;
+            this.progress = progress;
+            this.tail = tail;
+            md = newDigest();
+            hashBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        String download(long size, String validator) throws IOException {
+            length = size;
+            numChunks = (int) ((length + chunkSize - 1) / chunkSize);
+            completed = new BitSet(numChunks);
+            resumable = validator != null;
+            if (!resumable) {
+                // without a strong validator, the chunks on disk may be from another version
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(state);
+            } else {
+                String header = length + "\n" + validator + '\n' + chunkSize + '\n';
+                if (!resume(header)) {
+                    Files.deleteIfExists(part);
+                    Files.write(state, header.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            try (FileChannel fc =
+                    FileChannel.open(
+                            part,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.READ,
+                            StandardOpenOption.WRITE)) {
+                channel = fc;
+                if (channel.size() < length) {
+                    // preallocate the file, so that the chunks can be written in any order
+                    channel.write(ByteBuffer.allocate(1), length - 1);
+                }
+                List<Integer> missing = new ArrayList<>();
+                for (int i = 0; i < numChunks; ++i) {
+                    if (completed.get(i)) {
+                        increment(progress, getChunkLength(i));
+                    } else {
+                        missing.add(i);
+                    }
+                }
+                logger.debug(
+                        "Downloading {} in {} chunks, {} already downloaded",
+                        url,
+                        numChunks,
+                        numChunks - missing.size());
+                synchronized (this) {
+                    updateDigest();
+                }
+                downloadChunks(missing);
+                return Hex.toHexString(md.digest());
+            }
+        }
+
+        private boolean resume(String header) throws IOException {
+            if (Files.notExists(state) || Files.notExists(part)) {
+                return false;
+            }
+            List<String> lines = Utils.readLines(state);
+            String[] expected = header.split("\n");
+            if (lines.size() < expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; ++i) {
+                if (!expected[i].equals(lines.get(i))) {
+                    logger.debug("The file has changed, restarting the download: {}", url);
+                    return false;
+                }
+            }
+            for (String line : lines.subList(expected.length, lines.size())) {
+                if (!line.isEmpty()) {
+                    completed.set(Integer.parseInt(line));
+                }
+            }
+            return true;
+        }
+
+        private void downloadChunks(List<Integer> chunks) throws IOException {
+            if (chunks.isEmpty()) {
+                return;
+            }
+            int threads = Math.min(connections, chunks.size());
+            if (threads == 1) {
+                for (int chunk : chunks) {
+                    downloadChunk(chunk);
+                }
+                return;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int chunk : chunks) {
+                    futures.add(
+                            executor.submit(
+                                    () -> {
+                                        downloadChunk(chunk);
+                                        return null;
+                                    }));
+                }
+                // wait for all the chunks, so that the completed ones are recorded
+                IOException error = null;
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (error == null) {
+                            Throwable cause = e.getCause();
+                            if (cause instanceof IOException) {
+                                error = (IOException) cause;
+                            } else {
+                                error = new IOException("Failed to download: " + url, cause);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Download interrupted: " + url, e);
+                    }
+                }
+                if (error != null) {
+                    throw error;
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void downloadChunk(int chunk) throws IOException {
+            // the bytes of the chunk already counted in the progress, kept across the retries
+            AtomicLong reported = new AtomicLong();
+            for (int retry = 0; ; ++retry) {
+                try {
+                    fetchChunk(chunk, reported);
+                    break;
+                } catch (IOException e) {
+                    if (retry >= maxRetries) {
+                        throw e;
+                    }
+                    logger.debug("Failed to download chunk {} of {}, retrying", chunk, url, e);
+                }
+            }
+            complete(chunk);
+        }
+
+        private void fetchChunk(int chunk, AtomicLong reported) throws IOException {
+            long start = chunk * chunkSize;
+            long end = start + getChunkLength(chunk) - 1;
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            try {
+                conn.setRequestProperty("Range", "bytes=" + start + '-' + end);
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                    throw new IOException(
+                            "Range request failed with code "
+                                    + conn.getResponseCode()
+                                    + ": "
+                                    + url);
+                }
+                long position = start;
+                try (InputStream is = conn.getInputStream()) {
+                    byte[] buf = new byte[BUFFER_SIZE];
+                    int read;
+                    while (position <= end && (read = is.read(buf)) != -1) {
+                        ByteBuffer bb =
+                                ByteBuffer.wrap(buf, 0, (int) Math.min(read, end + 1 - position));
+                        while (bb.hasRemaining()) {
+                            position += channel.write(bb, position);
+                        }
+                        // a retried chunk starts again from the beginning, only count new bytes
+                        long written = position - start;
+                        if (written > reported.get()) {
+                            increment(progress, written - reported.getAndSet(written));
+                        }
+                    }
+                }
+                if (position <= end) {
+                    throw new IOException("Unexpected end of chunk " + chunk + ": " + url);
+                }
+            } finally {
+                conn.disconnect();
+            }
+        }
+
+        private synchronized void complete(int chunk) throws IOException {
+            // the data must be on disk before the chunk is recorded
+            channel.force(false);
+            completed.set(chunk);
+            if (resumable) {
+                Files.write(
+                        state,
+                        (chunk + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.APPEND);
+            }
+            updateDigest();
+        }
+
+        private void updateDigest() throws IOException {
+            while (hashedChunks < numChunks && completed.get(hashedChunks)) {
+                long position = hashedChunks * chunkSize;
+                long end = position + getChunkLength(hashedChunks);
+                while (position < end) {
+                    hashBuffer.clear();
+                    hashBuffer.limit((int) Math.min(hashBuffer.capacity(), end - position));
+                    int read = channel.read(hashBuffer, position);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of file: " + part);
+                    }
+                    md.update(hashBuffer.array(), 0, read);
+                    position += read;
+                }
+                ++hashedChunks;
+            }
+            if (tail != null) {
+                tail.advance(Math.min(hashedChunks * chunkSize, length));
+            }
+        }
+
+        private long getChunkLength(int chunk) {
+            return Math.min(chunkSize, length - chunk * chunkSize);
+        }
+    }
+
+    /** A consumer of the content of a file while it is downloaded. */
+    @FunctionalInterface
+    public interface StreamConsumer {
+
+        /**
+         * Reads the content of the file.
+         *
+         * @param is the content of the file
+         * @throws IOException if the content cannot be read
+         */
+        void accept(InputStream is) throws IOException;
+    }
+
+    /** An {@code InputStream} that follows the downloaded prefix of a file. */
+    private static final class TailInputStream extends InputStream {
+
+        private Path part;
+        private FileChannel channel;
+        private long position;
+        private long available;
+        private boolean finished;
+        private Throwable error;
+
+        TailInputStream(Path part) {
+            this.part = part;
+        }
+
+        synchronized void advance(long downloaded) {
+            if (downloaded > available) {
+                available = downloaded;
+                notifyAll();
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        synchronized void fail(Throwable cause) {
+            error = cause;
+            notifyAll();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() throws IOException {
+            byte[] buf = new byte[1];
+            int read = read(buf, 0, 1);
+            return read == -1 ? -1 : buf[0] & 0xFF;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            long limit = waitForData();
+            if (limit <= position) {
+                return -1;
+            }
+            if (channel == null) {
+                channel = FileChannel.open(part, StandardOpenOption.READ);
+            }
+            int size = (int) Math.min(len, limit - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, size), position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file: " + part);
+            }
+            position += read;
+            return read;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+
+        private synchronized long waitForData() throws IOException {
+            try {
+                while (available <= position && !finished && error == null) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Download interrupted: " + part, e);
+            }
+            if (error != null) {
+                throw new IOException("Download failed: " + part, error);
+            }
+            return available;
+        }
+    }
+
+    /** A builder for a {@link HttpDownloader}. */
+    public static final class Builder {
+
+        int connections = Integer.getInteger("ai.djl.repository.download_connections", 4);
+        long chunkSize = Long.getLong("ai.djl.repository.download_chunk_size", 8L << 20);
+        int maxRetries = 3;
+
+        Builder() {}
+
+        /**
+         * Sets the maximum number of concurrent range requests for a file (default 4).
+         *
+         * @param connections the maximum number of concurrent range requests for a file
+         * @return this builder
+         */
+        public Builder optConnections(int connections) {
+            this.connections = connections;
+            return this;
+        }
+
+        /**
+         * Sets the size of the range requests (default 8MB).
+         *
+         * @param chunkSize the size of the range requests, in bytes
+         * @return this builder
+         */
+        public Builder optChunkSize(long chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of times a failed range request is retried (default 3).
+         *
+         * @param maxRetries the number of times a failed range request is retried
+         * @return this builder
+         */
+        public Builder optMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Builds a {@link HttpDownloader} with the specified arguments.
+         *
+         * @return a new {@link HttpDownloader}
+         */
+        public HttpDownloader build() {
+            if (connections < 1) {
+                throw new IllegalArgumentException("connections must be positive: " + connections);
+            }
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+            }
+            return new HttpDownloader(this);
+        }
+    }
+}
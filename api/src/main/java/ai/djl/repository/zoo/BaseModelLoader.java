@@ -20,6 +20,7 @@ import ai.djl.engine.Engine;
 import ai.djl.nn.Block;
 import ai.djl.nn.BlockFactory;
 import ai.djl.repository.Artifact;
+import ai.djl.repository.ArtifactCache;
 import ai.djl.repository.MRL;
 import ai.djl.translate.DefaultTranslatorFactory;
 import ai.djl.translate.TranslateException;
@@ -28,6 +29,7 @@ import ai.djl.translate.TranslatorFactory;
 import ai.djl.util.ClassLoaderUtils;
 import ai.djl.util.Pair;
 import ai.djl.util.Progress;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.Type;
@@ -80,6 +82,7 @@ public class BaseModelLoader implements ModelLoader {
         Map<String, Object> arguments = artifact.getArguments(criteria.getArguments());
         Map<String, String> options = artifact.getOptions(criteria.getOptions());
 
+        Closeable resourceLock = lockResource(artifact);
         try {
             TranslatorFactory factory = getTranslatorFactory(criteria, arguments);
             Class<I> input = criteria.getInputClass();
@@ -156,9 +159,16 @@ public class BaseModelLoader implements ModelLoader {
             model.load(modelPath, null, options);
             Translator<I, O> translator =
                     (Translator<I, O>) factory.newInstance(input, output, model, arguments);
-            return new ZooModel<>(model, translator);
+            return new ZooModel<>(model, translator, resourceLock);
         } catch (TranslateException e) {
+            unlock(resourceLock);
             throw new ModelNotFoundException("No matching translator found", e);
+        } catch (IOException
+                | ModelNotFoundException
+                | MalformedModelException
+                | RuntimeException e) {
+            unlock(resourceLock);
+            throw e;
         } finally {
             if (progress != null) {
                 progress.end();
@@ -166,6 +176,21 @@ public class BaseModelLoader implements ModelLoader {
         }
     }
 
+    // Keeps the model files from being evicted from the artifact cache while the model is loaded
+    private Closeable lockResource(Artifact artifact) throws IOException {
+        ArtifactCache cache = ArtifactCache.newInstance();
+        if (cache == null) {
+            return null;
+        }
+        return cache.lockResource(mrl.getRepository().getResourceDirectory(artifact));
+    }
+
+    private static void unlock(Closeable resourceLock) throws IOException {
+        if (resourceLock != null) {
+            resourceLock.close();
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<Artifact> listModels() throws IOException {
@@ -72,6 +72,8 @@ public class Criteria<I, O> {
     private Block block;
     private String modelName;
     private Progress progress;
+    private Translator<I, O> translator;
+    private boolean sharedModel;
 
     Criteria(Builder<I, O> builder) {
         this.application = builder.application;
@@ -89,11 +91,17 @@ public class Criteria<I, O> {
         this.block = builder.block;
         this.modelName = builder.modelName;
         this.progress = builder.progress;
+        this.translator = builder.translator;
+        this.sharedModel = builder.sharedModel;
     }
 
     /**
      * Load the {@link ZooModel} that matches this criteria.
      *
+     * <p>If the criteria is built with {@link Builder#optSharedModel(boolean)}, the model is loaded
+     * through the {@link ModelRegistry}, and shared with the other models loaded with an equivalent
+     * criteria.
+     *
      * @return the model that matches the criteria
      * @throws IOException for various exceptions loading data from the repository
      * @throws ModelNotFoundException if no model with the specified criteria is found
@@ -101,6 +109,14 @@ public class Criteria<I, O> {
      */
     public ZooModel<I, O> loadModel()
             throws IOException, ModelNotFoundException, MalformedModelException {
+        if (sharedModel) {
+            return ModelRegistry.getInstance().loadModel(this);
+        }
+        return loadZooModel();
+    }
+
+    ZooModel<I, O> loadZooModel()
+            throws IOException, ModelNotFoundException, MalformedModelException {
         Logger logger = LoggerFactory.getLogger(ModelZoo.class);
         logger.debug("Loading model with {}", this);
 
@@ -305,6 +321,19 @@ public class Criteria<I, O> {
         return modelName;
     }
 
+    /**
+     * Returns if the model is shared with the other models loaded with an equivalent criteria.
+     *
+     * @return if the model is shared with the other models loaded with an equivalent criteria
+     */
+    public boolean isSharedModel() {
+        return sharedModel;
+    }
+
+    Translator<I, O> getTranslator() {
+        return translator;
+    }
+
     /**
      * Returns the optional {@link Progress} for the model loading.
      *
@@ -381,6 +410,7 @@ public class Criteria<I, O> {
         Block block;
         String modelName;
         Progress progress;
+        boolean sharedModel;
         private Translator<I, O> translator;
 
         Builder() {
@@ -400,6 +430,7 @@ public class Criteria<I, O> {
             block = parent.block;
             modelName = parent.modelName;
             progress = parent.progress;
+            sharedModel = parent.sharedModel;
         }
 
         /**
@@ -650,6 +681,21 @@ public class Criteria<I, O> {
             return this;
         }
 
+        /**
+         * Sets if the model is shared with the other models loaded with an equivalent criteria.
+         *
+         * <p>A shared model is loaded once by the {@link ModelRegistry}, and closed when all the
+         * {@link ZooModel}s loaded from it are closed. The shared models must not be modified after
+         * they are loaded, for example with {@link ZooModel#setBlock(Block)}.
+         *
+         * @param sharedModel {@code true} to share the model
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optSharedModel(boolean sharedModel) {
+            this.sharedModel = sharedModel;
+            return this;
+        }
+
         /**
          * Builds a {@link Criteria} instance.
          *
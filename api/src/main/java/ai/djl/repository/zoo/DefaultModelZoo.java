@@ -29,6 +29,7 @@ public class DefaultModelZoo extends ModelZoo {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultModelZoo.class);
 
+    private String searchLocations;
     private List<ModelLoader> modelLoaders;
 
     /** Constructs a new {@code LocalModelZoo} instance. */
@@ -40,6 +41,7 @@ public class DefaultModelZoo extends ModelZoo {
      * @param locations a comma separated urls where the models to be loaded from
      */
     public DefaultModelZoo(String locations) {
+        searchLocations = locations;
         modelLoaders = parseLocation(locations);
     }
 
@@ -56,6 +58,16 @@ public class DefaultModelZoo extends ModelZoo {
         return Collections.emptyList();
     }
 
+    /**
+     * Returns the search locations of the model zoo.
+     *
+     * @return the comma separated urls where the models are loaded from, or {@code null} if the
+     *     locations are read from the {@code ai.djl.repository.zoo.location} system property
+     */
+    public String getLocations() {
+        return searchLocations;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getGroupId() {
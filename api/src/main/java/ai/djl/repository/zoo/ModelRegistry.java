@@ -0,0 +1,340 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository.zoo;
+
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.ndarray.NDArray;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorFactory;
+import ai.djl.util.JsonUtils;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@code ModelRegistry} shares the models loaded with equivalent {@link Criteria}.
+ *
+ * <p>The first {@link #loadModel(Criteria)} of a criteria loads the model, the next ones return a
+ * new {@link ZooModel} handle of the same underlying {@link Model}, without resolving the model
+ * artifact or loading the weights again. The model is closed when the last handle is closed.
+ *
+ * <p>The criteria are equivalent if they have the same application, input and output types, engine,
+ * device, model zoo, group id, artifact id, filters, arguments, options, model name, the same
+ * {@link Block} if any, and the same {@link Translator} and {@link TranslatorFactory} classes if
+ * any. Each handle uses the {@link Translator} instance set with {@link
+ * Criteria.Builder#optTranslator(Translator)} for its own criteria.
+ */
+public final class ModelRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRegistry.class);
+
+    private static final ModelRegistry INSTANCE = new ModelRegistry();
+
+    private Map<ModelKey, Entry> models;
+    private LongAdder hits;
+    private LongAdder misses;
+    private AtomicLong residentBytes;
+
+    /** Constructs a new {@code ModelRegistry}. */
+    public ModelRegistry() {
+        models = new ConcurrentHashMap<>();
+        hits = new LongAdder();
+        misses = new LongAdder();
+        residentBytes = new AtomicLong();
+    }
+
+    /**
+     * Returns the {@code ModelRegistry} used by {@link Criteria#loadModel()} for the shared models.
+     *
+     * @return the {@code ModelRegistry} used by {@link Criteria#loadModel()}
+     */
+    public static ModelRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a {@link ZooModel} handle of the shared model that matches the criteria, loading the
+     * model if it is not loaded yet.
+     *
+     * @param criteria the criteria of the model
+     * @param <I> the model input type
+     * @param <O> the model output type
+     * @return a {@link ZooModel} handle that must be closed when it is not used anymore
+     * @throws IOException for various exceptions loading data from the repository
+     * @throws ModelNotFoundException if no model with the specified criteria is found
+     * @throws MalformedModelException if the model data is malformed
+     */
+    public <I, O> ZooModel<I, O> loadModel(Criteria<I, O> criteria)
+            throws IOException, ModelNotFoundException, MalformedModelException {
+        ModelKey key = new ModelKey(criteria);
+        while (true) {
+            Entry entry = models.computeIfAbsent(key, k -> new Entry());
+            synchronized (entry) {
+                if (entry.removed) {
+                    // the last handle was closed concurrently
+                    continue;
+                }
+                if (entry.model == null) {
+                    misses.increment();
+                    boolean success = false;
+                    try {
+                        entry.model = criteria.loadZooModel();
+                        success = true;
+                    } finally {
+                        if (!success) {
+                            entry.removed = true;
+                            models.remove(key, entry);
+                        }
+                    }
+                    entry.bytes = getParameterBytes(entry.model);
+                    residentBytes.addAndGet(entry.bytes);
+                    logger.debug("Loaded shared model {} ({} bytes)", key, entry.bytes);
+                } else {
+                    hits.increment();
+                }
+                ++entry.references;
+                return newHandle(key, entry, criteria);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of loaded models.
+     *
+     * @return the number of loaded models
+     */
+    public int getModelCount() {
+        return models.size();
+    }
+
+    /**
+     * Returns the number of {@link #loadModel(Criteria)} that returned a model already loaded.
+     *
+     * @return the number of {@link #loadModel(Criteria)} that returned a model already loaded
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of {@link #loadModel(Criteria)} that loaded a model.
+     *
+     * @return the number of {@link #loadModel(Criteria)} that loaded a model
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the size of the parameters of the loaded models, in bytes.
+     *
+     * @return the size of the parameters of the loaded models
+     */
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ModelRegistry{models="
+                + getModelCount()
+                + ", hits="
+                + getHitCount()
+                + ", misses="
+                + getMissCount()
+                + ", residentBytes="
+                + getResidentBytes()
+                + '}';
+    }
+
+    @SuppressWarnings("unchecked")
+    private <I, O> ZooModel<I, O> newHandle(ModelKey key, Entry entry, Criteria<I, O> criteria) {
+        Translator<I, O> translator = criteria.getTranslator();
+        if (translator == null) {
+            // the input and output types are part of the key
+            translator = (Translator<I, O>) entry.model.getTranslator();
+        }
+        return new SharedZooModel<>(entry.model.getWrappedModel(), translator, this, key, entry);
+    }
+
+    private void release(ModelKey key, Entry entry) {
+        synchronized (entry) {
+            if (--entry.references > 0) {
+                return;
+            }
+            entry.removed = true;
+            models.remove(key, entry);
+            residentBytes.addAndGet(-entry.bytes);
+            logger.debug("Closing shared model {}", key);
+            entry.model.close();
+        }
+    }
+
+    private static long getParameterBytes(Model model) {
+        Block block = model.getBlock();
+        if (block == null) {
+            return 0;
+        }
+        long bytes = 0;
+        try {
+            for (Parameter parameter : block.getParameters().values()) {
+                if (parameter.isInitialized()) {
+                    NDArray array = parameter.getArray();
+                    bytes += array.size() * array.getDataType().getNumOfBytes();
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            logger.debug("The parameters of the model are not available: {}", model.getName());
+        }
+        return bytes;
+    }
+
+    /** A shared model and the number of handles not closed. */
+    private static final class Entry {
+
+        ZooModel<?, ?> model;
+        int references;
+        long bytes;
+        boolean removed;
+    }
+
+    /** The normalized {@link Criteria} of a shared model. */
+    private static final class ModelKey {
+
+        private String description;
+        private Block block;
+
+        ModelKey(Criteria<?, ?> criteria) {
+            StringBuilder sb = new StringBuilder(128);
+            sb.append(criteria.getApplication().getPath())
+                    .append('|')
+                    .append(getName(criteria.getInputClass()))
+                    .append('|')
+                    .append(getName(criteria.getOutputClass()))
+                    .append('|')
+                    .append(criteria.getEngine())
+                    .append('|')
+                    .append(criteria.getDevice())
+                    .append('|');
+            ModelZoo zoo = criteria.getModelZoo();
+            if (zoo != null) {
+                sb.append(zoo.getClass().getName()).append(':').append(zoo.getGroupId());
+                if (zoo instanceof DefaultModelZoo) {
+                    sb.append(':').append(((DefaultModelZoo) zoo).getLocations());
+                }
+            }
+            sb.append('|')
+                    .append(criteria.getGroupId())
+                    .append('|')
+                    .append(criteria.getArtifactId())
+                    .append('|')
+                    .append(toJson(criteria.getFilters()))
+                    .append('|')
+                    .append(toJson(criteria.getArguments()))
+                    .append('|')
+                    .append(toJson(criteria.getOptions()))
+                    .append('|')
+                    .append(criteria.getModelName())
+                    .append('|');
+            Translator<?, ?> translator = criteria.getTranslator();
+            if (translator != null) {
+                sb.append(translator.getClass().getName());
+            }
+            sb.append('|');
+            TranslatorFactory factory = criteria.getTranslatorFactory();
+            if (factory != null) {
+                sb.append(factory.getClass().getName());
+            }
+            description = sb.toString();
+            block = criteria.getBlock();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ModelKey)) {
+                return false;
+            }
+            ModelKey other = (ModelKey) o;
+            return description.equals(other.description) && block == other.block;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return Objects.hash(description, System.identityHashCode(block));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return description;
+        }
+
+        private static String getName(Class<?> type) {
+            return type == null ? null : type.getName();
+        }
+
+        private static String toJson(Map<String, ?> map) {
+            if (map == null || map.isEmpty()) {
+                return "";
+            }
+            // the keys are sorted, so that the key doesn't depend on the map implementation
+            return JsonUtils.GSON.toJson(new TreeMap<>(map));
+        }
+    }
+
+    /** A {@link ZooModel} handle of a shared model. */
+    private static final class SharedZooModel<I, O> extends ZooModel<I, O> {
+
+        private ModelRegistry registry;
+        private ModelKey key;
+        private Entry entry;
+        private AtomicBoolean closed;
+
+        SharedZooModel(
+                Model model,
+                Translator<I, O> translator,
+                ModelRegistry registry,
+                ModelKey key,
+                Entry entry) {
+            super(model, translator);
+            this.registry = registry;
+            this.key = key;
+            this.entry = entry;
+            closed = new AtomicBoolean();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                registry.release(key, entry);
+            }
+        }
+    }
+}
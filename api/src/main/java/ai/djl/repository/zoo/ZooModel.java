@@ -15,6 +15,7 @@ package ai.djl.repository.zoo;
 import ai.djl.Device;
 import ai.djl.Model;
 import ai.djl.inference.Predictor;
+import ai.djl.inference.PredictorPool;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
@@ -23,12 +24,15 @@ import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
 import ai.djl.translate.Translator;
 import ai.djl.util.PairList;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A {@code ZooModel} is a {@link Model} loaded from a model zoo and includes a default {@link
@@ -39,8 +43,11 @@ import java.util.function.Function;
  */
 public class ZooModel<I, O> implements Model {
 
+    private static final Logger logger = LoggerFactory.getLogger(ZooModel.class);
+
     private Model model;
     private Translator<I, O> translator;
+    private Closeable resourceLock;
 
     /**
      * Constructs a {@code ZooModel} given the model and translator.
@@ -53,6 +60,18 @@ public class ZooModel<I, O> implements Model {
         this.translator = translator;
     }
 
+    /**
+     * Constructs a {@code ZooModel} that keeps its model files locked in the artifact cache.
+     *
+     * @param model the model to wrap
+     * @param translator the translator
+     * @param resourceLock the lock on the model files, released when the model is closed
+     */
+    ZooModel(Model model, Translator<I, O> translator, Closeable resourceLock) {
+        this(model, translator);
+        this.resourceLock = resourceLock;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void load(Path modelPath, String prefix, Map<String, ?> options) {
@@ -148,6 +167,24 @@ public class ZooModel<I, O> implements Model {
         return model.newPredictor(translator, device);
     }
 
+    /**
+     * Creates a new {@link PredictorPool} based on the model with the default translator.
+     *
+     * <p>The predictors are pinned to the devices returned by {@link
+     * ai.djl.engine.Engine#getDevices()} of the model's engine in a round-robin fashion.
+     *
+     * @param minSize the number of predictors created up front and kept when idle
+     * @param maxSize the maximum number of predictors in the pool
+     * @return an instance of {@code PredictorPool}
+     */
+    public PredictorPool<I, O> newPredictorPool(int minSize, int maxSize) {
+        return PredictorPool.builder(model, translator)
+                .optDevices(getNDManager().getEngine().getDevices())
+                .optMinSize(minSize)
+                .optMaxSize(maxSize)
+                .build();
+    }
+
     /**
      * Returns the default translator.
      *
@@ -221,5 +258,12 @@ public class ZooModel<I, O> implements Model {
     @Override
     public void close() {
         model.close();
+        if (resourceLock != null) {
+            try {
+                resourceLock.close();
+            } catch (IOException e) {
+                logger.warn("Failed to unlock the model files: {}", model.getModelPath(), e);
+            }
+        }
     }
 }
@@ -14,6 +14,7 @@ package ai.djl.training;
 
 import ai.djl.Device;
 import ai.djl.engine.Engine;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.nn.Parameter;
 import ai.djl.training.evaluator.Evaluator;
 import ai.djl.training.initializer.Initializer;
@@ -40,6 +41,10 @@ public class DefaultTrainingConfig implements TrainingConfig {
     private ExecutorService executorService;
     private List<Evaluator> evaluators;
     private List<TrainingListener> listeners;
+    private DataType computeDataType;
+    private LossScaler lossScaler;
+    private int microBatches = 1;
+    private long memoryBudget;
 
     /**
      * Creates an instance of {@code DefaultTrainingConfig} with the given {@link Loss}. {@code
@@ -171,6 +176,87 @@ public class DefaultTrainingConfig implements TrainingConfig {
         return this;
     }
 
+    /**
+     * Sets the mixed precision training with a dynamic {@link LossScaler} with the default options.
+     *
+     * @param computeDataType the reduced precision data type of the forward and backward passes,
+     *     usually {@link DataType#FLOAT16}
+     * @return this {@code DefaultTrainingConfig}
+     * @see #optMixedPrecision(DataType, LossScaler)
+     */
+    public DefaultTrainingConfig optMixedPrecision(DataType computeDataType) {
+        return optMixedPrecision(computeDataType, LossScaler.builder().build());
+    }
+
+    /**
+     * Sets the mixed precision training.
+     *
+     * <p>The parameters are kept in their data type as master copies, and the forward and backward
+     * passes run on copies in the compute data type. The floating point inputs and labels are
+     * converted to the compute data type, and the outputs are converted back to float32 to compute
+     * the loss and the evaluators, while the gradients are converted back to update the master
+     * copies. The loss is scaled by the {@link LossScaler} before the backward pass, and the steps
+     * with infinite or NaN gradients are skipped. Add a {@link
+     * ai.djl.training.listener.MixedPrecisionTrainingListener} to report the loss scale and the
+     * skipped steps.
+     *
+     * @param computeDataType the reduced precision data type of the forward and backward passes,
+     *     usually {@link DataType#FLOAT16}
+     * @param lossScaler the {@link LossScaler}, or {@code null} to not scale the loss
+     * @return this {@code DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optMixedPrecision(
+            DataType computeDataType, LossScaler lossScaler) {
+        if (!computeDataType.isFloating()) {
+            throw new IllegalArgumentException(
+                    "The compute data type must be a floating point type: " + computeDataType);
+        }
+        this.computeDataType = computeDataType;
+        this.lossScaler = lossScaler;
+        return this;
+    }
+
+    /**
+     * Sets the number of micro-batches each batch is split into for the gradient accumulation.
+     *
+     * <p>The forward and backward passes run on one micro-batch at a time, so that a batch larger
+     * than the memory of the devices can be trained. The loss of each micro-batch is weighted by
+     * its share of the batch, and the parameters are updated once per batch with the accumulated
+     * gradients, as if the whole batch was trained at once. The evaluators are updated with the
+     * predictions of the whole batch.
+     *
+     * @param microBatches the number of micro-batches each batch is split into
+     * @return this {@code DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optMicroBatches(int microBatches) {
+        if (microBatches < 1) {
+            throw new IllegalArgumentException(
+                    "The number of micro-batches must be positive: " + microBatches);
+        }
+        this.microBatches = microBatches;
+        return this;
+    }
+
+    /**
+     * Sets the memory budget of each device to pick the number of micro-batches.
+     *
+     * <p>After the first batch, then every 10 batches, if the arrays of a training step, as
+     * measured by {@link ai.djl.ndarray.BaseNDManager#getArrayMemory()}, exceed the budget on one
+     * of the devices, the number of micro-batches is doubled for the next batches, up to one item
+     * per micro-batch. The number of micro-batches is halved again when the steps fit in half the
+     * budget, down to the number of micro-batches of {@link #optMicroBatches(int)}.
+     *
+     * <p>If doubling the number of micro-batches doesn't reduce the memory of the steps, it is
+     * undone and not tried again.
+     *
+     * @param memoryBudget the memory budget of each device, in bytes
+     * @return this {@code DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Device[] getDevices() {
@@ -215,4 +301,28 @@ public class DefaultTrainingConfig implements TrainingConfig {
     public List<TrainingListener> getTrainingListeners() {
         return listeners;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataType getComputeDataType() {
+        return computeDataType;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LossScaler getLossScaler() {
+        return lossScaler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMicroBatches() {
+        return microBatches;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
 }
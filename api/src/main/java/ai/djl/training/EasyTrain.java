@@ -12,8 +12,11 @@
  */
 package ai.djl.training;
 
+import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.Dataset;
 import ai.djl.training.listener.TrainingListener.BatchData;
@@ -22,7 +25,9 @@ import ai.djl.util.Preconditions;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
@@ -77,18 +82,66 @@ public final class EasyTrain {
     /**
      * Trains the model with one iteration of the given {@link Batch} of data.
      *
+     * <p>If the trainer has several micro-batches, the batch is split into micro-batches that are
+     * trained one after another, and their gradients are accumulated for the next step.
+     *
      * @param trainer the trainer to validate the batch with
      * @param batch a {@link Batch} that contains data, and its respective labels
      * @throws IllegalArgumentException if the batch engine does not match the trainer engine
+     * @see TrainingConfig#getMicroBatches()
      */
     public static void trainBatch(Trainer trainer, Batch batch) {
         if (trainer.getManager().getEngine() != batch.getManager().getEngine()) {
             throw new IllegalArgumentException(
                     "The data must be on the same engine as the trainer. You may need to change one of your NDManagers.");
         }
-        Batch[] splits = batch.split(trainer.getDevices(), false);
         BatchData batchData =
                 new BatchData(batch, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        if (trainer.getMicroBatches() > 1 && batch.getSize() > 1) {
+            Batch[] microBatches = batch.split(trainer.getMicroBatches(), false);
+            Map<Device, List<NDList>> labels = new ConcurrentHashMap<>();
+            Map<Device, List<NDList>> preds = new ConcurrentHashMap<>();
+            for (int i = 0; i < microBatches.length; ++i) {
+                if (i > 0) {
+                    trainer.accumulateGradients();
+                }
+                // the micro-batch is released once its gradients are computed
+                try (Batch microBatch = microBatches[i]) {
+                    BatchData data =
+                            new BatchData(
+                                    microBatch,
+                                    new ConcurrentHashMap<>(),
+                                    new ConcurrentHashMap<>());
+                    // the micro-batch contributes to the gradients by its share of the batch
+                    float lossWeight = (float) microBatch.getSize() / batch.getSize();
+                    trainMicroBatch(trainer, microBatch, data, lossWeight);
+                    trainer.recordStepMemory(microBatch.getManager());
+                    NDManager manager = batch.getManager();
+                    for (Device device : data.getLabels().keySet()) {
+                        labels.computeIfAbsent(device, k -> new ArrayList<>())
+                                .add(detach(data.getLabels().get(device), manager));
+                        preds.computeIfAbsent(device, k -> new ArrayList<>())
+                                .add(detach(data.getPredictions().get(device), manager));
+                    }
+                }
+            }
+            // the evaluators are updated with the whole batch
+            for (Device device : labels.keySet()) {
+                batchData.getLabels().put(device, concat(labels.get(device)));
+                batchData.getPredictions().put(device, concat(preds.get(device)));
+            }
+        } else {
+            trainMicroBatch(trainer, batch, batchData, 1f);
+            trainer.recordStepMemory(batch.getManager());
+        }
+        trainer.adjustMicroBatches(batch.getSize());
+
+        trainer.notifyListeners(listener -> listener.onTrainingBatch(trainer, batchData));
+    }
+
+    private static void trainMicroBatch(
+            Trainer trainer, Batch batch, BatchData batchData, float lossWeight) {
+        Batch[] splits = batch.split(trainer.getDevices(), false);
         try (GradientCollector collector = trainer.newGradientCollector()) {
 
             if (splits.length > 1 && trainer.getExecutorService().isPresent()) {
@@ -98,29 +151,40 @@ public final class EasyTrain {
                 for (Batch split : splits) {
                     futures.add(
                             CompletableFuture.supplyAsync(
-                                    () -> trainSplit(trainer, collector, batchData, split),
+                                    () ->
+                                            trainSplit(
+                                                    trainer,
+                                                    collector,
+                                                    batchData,
+                                                    split,
+                                                    lossWeight),
                                     executor));
                 }
-                CompletableFuture.allOf(futures.stream().toArray(CompletableFuture[]::new));
+                await(futures);
             } else {
                 // sequence
                 for (Batch split : splits) {
-                    trainSplit(trainer, collector, batchData, split);
+                    trainSplit(trainer, collector, batchData, split, lossWeight);
                 }
             }
         }
-
-        trainer.notifyListeners(listener -> listener.onTrainingBatch(trainer, batchData));
     }
 
     private static boolean trainSplit(
-            Trainer trainer, GradientCollector collector, BatchData batchData, Batch split) {
+            Trainer trainer,
+            GradientCollector collector,
+            BatchData batchData,
+            Batch split,
+            float lossWeight) {
         NDList data = split.getData();
         NDList labels = split.getLabels();
-        NDList preds = trainer.forward(data, labels);
+        NDList preds = trainer.toLossDataType(trainer.forward(data, labels));
         long time = System.nanoTime();
         NDArray lossValue = trainer.getLoss().evaluate(labels, preds);
-        collector.backward(lossValue);
+        if (lossWeight != 1f) {
+            lossValue = lossValue.mul(lossWeight);
+        }
+        collector.backward(trainer.scaleLoss(lossValue));
         trainer.addMetric("backward", time);
         time = System.nanoTime();
         batchData.getLabels().put(labels.get(0).getDevice(), labels);
@@ -129,6 +193,32 @@ public final class EasyTrain {
         return true;
     }
 
+    // Returns a copy of the arrays without their gradient graph, attached to the given manager
+    private static NDList detach(NDList list, NDManager manager) {
+        NDList detached = new NDList(list.size());
+        for (NDArray array : list) {
+            NDArray copy = array.stopGradient();
+            copy.attach(manager);
+            detached.add(copy);
+        }
+        return detached;
+    }
+
+    // Concatenates the micro-batch results along the batch axis, and closes them
+    private static NDList concat(List<NDList> parts) {
+        int size = parts.get(0).size();
+        NDList concatenated = new NDList(size);
+        for (int i = 0; i < size; ++i) {
+            NDList arrays = new NDList(parts.size());
+            for (NDList part : parts) {
+                arrays.add(part.get(i));
+            }
+            concatenated.add(NDArrays.concat(arrays));
+        }
+        parts.forEach(NDList::close);
+        return concatenated;
+    }
+
     /**
      * Validates the given batch of data.
      *
@@ -156,7 +246,7 @@ public final class EasyTrain {
                         CompletableFuture.supplyAsync(
                                 () -> validateSplit(trainer, batchData, split), executor));
             }
-            CompletableFuture.allOf(futures.stream().toArray(CompletableFuture[]::new));
+            await(futures);
         } else {
             // sequence
             for (Batch split : splits) {
@@ -176,6 +266,20 @@ public final class EasyTrain {
         return true;
     }
 
+    private static void await(List<CompletableFuture<Boolean>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Evaluates the test dataset.
      *
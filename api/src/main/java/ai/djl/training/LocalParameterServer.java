@@ -14,6 +14,10 @@ package ai.djl.training;
 
 import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
 import ai.djl.training.optimizer.Optimizer;
 
 /** {@code LocalParameterServer} is an implementation of the {@code ParameterServer} interface. */
@@ -61,7 +65,115 @@ public class LocalParameterServer implements ParameterServer {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The parameters of the bucket are updated together on each device with {@link
+     * Optimizer#update(String[], NDArray[], NDArray[])}. With several devices, the gradients of the
+     * bucket are flattened into one buffer per device, the buffers are summed with a tree
+     * reduction, and the sum is copied back once to each device, instead of reducing and copying
+     * each parameter separately.
+     */
+    @Override
+    public void update(String[] parameterIds, NDArray[][] params) {
+        int numDevices = params.length == 0 ? 0 : params[0].length;
+        if (numDevices == 1) {
+            updateSingleDevice(parameterIds, params);
+            return;
+        }
+        if (numDevices < 2 || !sameDataType(params)) {
+            ParameterServer.super.update(parameterIds, params);
+            return;
+        }
+
+        NDList temporaries = new NDList();
+        try {
+            int numParams = params.length;
+            Shape[] shapes = new Shape[numParams];
+            long[] offsets = new long[numParams - 1];
+            long offset = 0;
+            for (int i = 0; i < numParams; ++i) {
+                shapes[i] = params[i][0].getShape();
+                offset += shapes[i].size();
+                if (i < numParams - 1) {
+                    offsets[i] = offset;
+                }
+            }
+
+            // flattens the gradients of each device into a single buffer
+            NDArray[] buffers = new NDArray[numDevices];
+            for (int d = 0; d < numDevices; ++d) {
+                NDList flat = new NDList(numParams);
+                for (NDArray[] param : params) {
+                    NDArray grad = param[d].getGradient();
+                    temporaries.add(grad);
+                    flat.add(grad.reshape(-1));
+                }
+                temporaries.addAll(flat);
+                buffers[d] = NDArrays.concat(flat);
+                temporaries.add(buffers[d]);
+            }
+
+            // tree reduction, the sum ends up in the buffer of the first device
+            for (int step = 1; step < numDevices; step *= 2) {
+                for (int d = 0; d + step < numDevices; d += 2 * step) {
+                    NDArray other = buffers[d + step].toDevice(buffers[d].getDevice(), true);
+                    temporaries.add(other);
+                    buffers[d].addi(other);
+                }
+            }
+
+            for (int d = 0; d < numDevices; ++d) {
+                // the optimizers may modify the gradient, each device gets its own copy
+                NDArray sum = buffers[0].toDevice(params[0][d].getDevice(), true);
+                temporaries.add(sum);
+                NDList grads = numParams == 1 ? new NDList(sum) : sum.split(offsets);
+                if (numParams > 1) {
+                    temporaries.addAll(grads);
+                }
+                NDArray[] weights = new NDArray[numParams];
+                NDArray[] deviceGrads = new NDArray[numParams];
+                for (int i = 0; i < numParams; ++i) {
+                    weights[i] = params[i][d];
+                    deviceGrads[i] = grads.get(i).reshape(shapes[i]);
+                    temporaries.add(deviceGrads[i]);
+                }
+                optimizer.update(parameterIds, weights, deviceGrads);
+            }
+        } finally {
+            temporaries.close();
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void close() {}
+
+    private void updateSingleDevice(String[] parameterIds, NDArray[][] params) {
+        NDArray[] weights = new NDArray[params.length];
+        NDArray[] grads = new NDArray[params.length];
+        try {
+            for (int i = 0; i < params.length; ++i) {
+                weights[i] = params[i][0];
+                grads[i] = weights[i].getGradient();
+            }
+            optimizer.update(parameterIds, weights, grads);
+        } finally {
+            for (NDArray grad : grads) {
+                if (grad != null) {
+                    grad.close();
+                }
+            }
+        }
+    }
+
+    private static boolean sameDataType(NDArray[][] params) {
+        DataType dataType = params[0][0].getDataType();
+        for (NDArray[] param : params) {
+            if (param[0].getDataType() != dataType) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.util.Preconditions;
+
+/**
+ * A {@code LossScaler} scales the loss of the mixed precision training, so that the small gradients
+ * don't underflow in reduced precision.
+ *
+ * <p>The loss is multiplied by the scale before the backward pass, and the gradients are divided by
+ * the scale before the update. When a gradient overflows to an infinite or NaN value, the step is
+ * skipped and the scale is multiplied by the backoff factor. After a number of steps without
+ * overflow, the scale is multiplied by the growth factor.
+ *
+ * @see DefaultTrainingConfig#optMixedPrecision(ai.djl.ndarray.types.DataType, LossScaler)
+ */
+public class LossScaler {
+
+    private float scale;
+    private float growthFactor;
+    private float backoffFactor;
+    private int growthInterval;
+    private float minScale;
+    private int goodSteps;
+    private long skippedSteps;
+
+    LossScaler(Builder builder) {
+        scale = builder.initialScale;
+        growthFactor = builder.growthFactor;
+        backoffFactor = builder.backoffFactor;
+        growthInterval = builder.growthInterval;
+        minScale = builder.minScale;
+    }
+
+    /**
+     * Creates a builder to build a {@code LossScaler}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the current scale.
+     *
+     * @return the current scale
+     */
+    public synchronized float getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the number of steps skipped because of an overflow.
+     *
+     * @return the number of steps skipped because of an overflow
+     */
+    public synchronized long getSkippedSteps() {
+        return skippedSteps;
+    }
+
+    /**
+     * Multiplies the loss by the current scale.
+     *
+     * @param loss the loss
+     * @return the scaled loss
+     */
+    public NDArray scale(NDArray loss) {
+        return loss.mul(getScale());
+    }
+
+    /**
+     * Updates the scale after a step.
+     *
+     * @param finite whether all the gradients of the step are finite
+     * @return {@code true} if the step must be applied, {@code false} if it must be skipped
+     */
+    public synchronized boolean update(boolean finite) {
+        if (!finite) {
+            scale = Math.max(minScale, scale * backoffFactor);
+            goodSteps = 0;
+            ++skippedSteps;
+            return false;
+        }
+        if (++goodSteps >= growthInterval) {
+            float grown = scale * growthFactor;
+            if (!Float.isInfinite(grown)) {
+                scale = grown;
+            }
+            goodSteps = 0;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String toString() {
+        return "LossScaler{scale=" + scale + ", skippedSteps=" + skippedSteps + '}';
+    }
+
+    /** The Builder to construct a {@link LossScaler}. */
+    public static final class Builder {
+
+        float initialScale = 65536f;
+        float growthFactor = 2f;
+        float backoffFactor = 0.5f;
+        int growthInterval = 2000;
+        float minScale = 1f;
+
+        Builder() {}
+
+        /**
+         * Sets the initial scale (default 65536).
+         *
+         * @param initialScale the initial scale
+         * @return this {@code Builder}
+         */
+        public Builder optInitialScale(float initialScale) {
+            this.initialScale = initialScale;
+            return this;
+        }
+
+        /**
+         * Sets the factor the scale is multiplied by after {@link #optGrowthInterval(int)} steps
+         * without overflow (default 2).
+         *
+         * @param growthFactor the growth factor
+         * @return this {@code Builder}
+         */
+        public Builder optGrowthFactor(float growthFactor) {
+            this.growthFactor = growthFactor;
+            return this;
+        }
+
+        /**
+         * Sets the factor the scale is multiplied by after an overflow (default 0.5).
+         *
+         * @param backoffFactor the backoff factor
+         * @return this {@code Builder}
+         */
+        public Builder optBackoffFactor(float backoffFactor) {
+            this.backoffFactor = backoffFactor;
+            return this;
+        }
+
+        /**
+         * Sets the number of steps without overflow before the scale grows (default 2000).
+         *
+         * @param growthInterval the number of steps without overflow before the scale grows
+         * @return this {@code Builder}
+         */
+        public Builder optGrowthInterval(int growthInterval) {
+            this.growthInterval = growthInterval;
+            return this;
+        }
+
+        /**
+         * Sets the minimum scale (default 1).
+         *
+         * @param minScale the minimum scale
+         * @return this {@code Builder}
+         */
+        public Builder optMinScale(float minScale) {
+            this.minScale = minScale;
+            return this;
+        }
+
+        /**
+         * Builds a {@link LossScaler}.
+         *
+         * @return the {@link LossScaler}
+         */
+        public LossScaler build() {
+            Preconditions.checkArgument(
+                    initialScale > 0 && minScale > 0, "The scales must be positive");
+            Preconditions.checkArgument(growthFactor >= 1, "The growth factor must be at least 1");
+            Preconditions.checkArgument(
+                    backoffFactor > 0 && backoffFactor <= 1,
+                    "The backoff factor must be in (0, 1]");
+            Preconditions.checkArgument(growthInterval > 0, "The growth interval must be positive");
+            return new LossScaler(this);
+        }
+    }
+}
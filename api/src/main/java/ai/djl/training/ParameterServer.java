@@ -38,6 +38,7 @@ public interface ParameterServer extends AutoCloseable {
         update(parameterId, grads, params);
         Arrays.stream(grads).forEach(NDArray::close);
     }
+
     /**
      * Updates the parameter of a key from Parameter Server.
      *
@@ -47,6 +48,21 @@ public interface ParameterServer extends AutoCloseable {
      */
     void update(String parameterId, NDArray[] grads, NDArray[] params);
 
+    /**
+     * Updates a bucket of parameters from Parameter Server.
+     *
+     * <p>The default implementation updates the parameters one at a time with {@link
+     * #update(String, NDArray[])}.
+     *
+     * @param parameterIds the keys to identify the parameters
+     * @param params the parameter NDArrays in different devices to be updated, for each key
+     */
+    default void update(String[] parameterIds, NDArray[][] params) {
+        for (int i = 0; i < parameterIds.length; ++i) {
+            update(parameterIds[i], params[i]);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     void close();
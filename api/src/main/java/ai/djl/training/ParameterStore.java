@@ -15,24 +15,37 @@ package ai.djl.training;
 
 import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.nn.Parameter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The {@code ParameterStore} contains a map from a parameter to the mirrors of it on other devices.
  */
 public class ParameterStore {
 
+    private static final long DEFAULT_BUCKET_SIZE = 25L * 1024 * 1024;
+
     private NDManager manager;
     private Map<String, ParameterData> parameterMap;
     private Map<Device, Integer> deviceMap;
     private boolean copy;
     private ParameterServer parameterServer;
+    private ExecutorService executorService;
+    private long bucketSize = DEFAULT_BUCKET_SIZE;
+    private DataType computeDataType;
+    private LossScaler lossScaler;
 
     /** Constructs a new {@code ParameterStore} instance. */
     public ParameterStore() {
@@ -69,15 +82,112 @@ public class ParameterStore {
         }
     }
 
+    /**
+     * Sets the {@link ExecutorService} used to update the buckets of parameters concurrently.
+     *
+     * @param executorService the {@link ExecutorService}, or {@code null} to update the buckets in
+     *     sequence
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a bucket of parameters updated together.
+     *
+     * <p>The gradients of a bucket are reduced across devices as a single buffer, and the buckets
+     * are updated concurrently when an {@link ExecutorService} is set. The default size is 25 MiB.
+     *
+     * @param bucketSize the maximum size in bytes of a bucket
+     */
+    public void setBucketSize(long bucketSize) {
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Sets the mixed precision training.
+     *
+     * <p>The training forward passes get copies of the floating point parameters that require
+     * gradient in the compute data type. The gradients of the copies are converted back to the data
+     * type of the parameters, and divided by the scale of the {@link LossScaler}, before the update
+     * of the parameters. The copies are refreshed after each update.
+     *
+     * @param computeDataType the data type of the forward and backward passes
+     * @param lossScaler the {@link LossScaler}, or {@code null} to not scale the loss
+     */
+    public void setMixedPrecision(DataType computeDataType, LossScaler lossScaler) {
+        this.computeDataType = computeDataType;
+        this.lossScaler = lossScaler;
+    }
+
+    /**
+     * Adds the gradients of the last backward pass to the accumulated gradients, and resets them.
+     *
+     * <p>It accumulates the gradients of several backward passes for a single update, like the
+     * micro-batches of a batch. The accumulated gradients are added back before the next update, as
+     * some engines overwrite the gradients at each backward pass.
+     */
+    public void accumulateGradients() {
+        for (ParameterData data : parameterMap.values()) {
+            if (data.requireGradient()) {
+                data.accumulateGradients();
+            }
+        }
+    }
+
     /** Updates all the mirrored parameters. */
     public void updateAllParameters() {
+        parameterMap.values().forEach(ParameterData::addAccumulatedGradients);
+        if (computeDataType != null) {
+            updateMixedPrecision();
+            return;
+        }
+        List<List<String>> buckets = new ArrayList<>();
+        List<String> bucket = new ArrayList<>();
+        long bytes = 0;
         for (Map.Entry<String, ParameterData> entry : parameterMap.entrySet()) {
-            String parameterId = entry.getKey();
             ParameterData data = entry.getValue();
-            if (data.requireGradient()) {
-                NDArray[] params = data.toArray();
-                parameterServer.update(parameterId, params);
+            if (!data.requireGradient()) {
+                continue;
+            }
+            NDArray array = data.get(0);
+            long size = array.size() * array.getDataType().getNumOfBytes();
+            if (!bucket.isEmpty() && bytes + size > bucketSize) {
+                buckets.add(bucket);
+                bucket = new ArrayList<>();
+                bytes = 0;
             }
+            bucket.add(entry.getKey());
+            bytes += size;
+        }
+        if (!bucket.isEmpty()) {
+            buckets.add(bucket);
+        }
+
+        // other parameter servers may not support concurrent updates
+        if (executorService == null
+                || buckets.size() < 2
+                || !(parameterServer instanceof LocalParameterServer)) {
+            buckets.forEach(this::updateBucket);
+            return;
+        }
+        CompletableFuture<?>[] futures =
+                buckets.stream()
+                        .map(
+                                b ->
+                                        CompletableFuture.runAsync(
+                                                () -> updateBucket(b), executorService))
+                        .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
         }
     }
 
@@ -136,9 +246,87 @@ public class ParameterStore {
             }
         }
 
+        if (training && data.useComputeCopy()) {
+            return data.getComputeCopy(index);
+        }
         return data.get(index);
     }
 
+    private void updateMixedPrecision() {
+        List<String> parameterIds = new ArrayList<>();
+        List<NDArray[]> grads = new ArrayList<>();
+        NDList temporaries = new NDList();
+        try {
+            float scale = lossScaler == null ? 1f : lossScaler.getScale();
+            // the sums of the gradients on each device
+            NDList[] sums = new NDList[deviceMap.size()];
+            for (int i = 0; i < sums.length; ++i) {
+                sums[i] = new NDList();
+            }
+            for (Map.Entry<String, ParameterData> entry : parameterMap.entrySet()) {
+                ParameterData data = entry.getValue();
+                if (!data.requireGradient()) {
+                    continue;
+                }
+                NDArray[] arrays = data.toArray();
+                NDArray[] parameterGrads = new NDArray[arrays.length];
+                for (int i = 0; i < arrays.length; ++i) {
+                    NDArray grad = data.getGradientSource(i).getGradient();
+                    temporaries.add(grad);
+                    // the master parameters are updated with full precision gradients
+                    grad = grad.toType(arrays[i].getDataType(), true);
+                    temporaries.add(grad);
+                    if (scale != 1f) {
+                        grad.divi(scale);
+                    }
+                    parameterGrads[i] = grad;
+                    if (lossScaler != null) {
+                        NDArray sum = grad.sum();
+                        temporaries.add(sum);
+                        sums[i].add(sum);
+                    }
+                }
+                parameterIds.add(entry.getKey());
+                grads.add(parameterGrads);
+            }
+
+            boolean finite = true;
+            for (NDList list : sums) {
+                if (list.isEmpty()) {
+                    continue;
+                }
+                // a sum is infinite or NaN if one of the gradients is
+                NDArray stacked = NDArrays.stack(list);
+                temporaries.add(stacked);
+                NDArray total = stacked.sum();
+                temporaries.add(total);
+                NDArray value = total.toType(DataType.FLOAT64, false);
+                temporaries.add(value);
+                finite &= Double.isFinite(value.getDouble());
+            }
+            if (lossScaler == null || lossScaler.update(finite)) {
+                for (int i = 0; i < parameterIds.size(); ++i) {
+                    String parameterId = parameterIds.get(i);
+                    NDArray[] params = parameterMap.get(parameterId).toArray();
+                    parameterServer.update(parameterId, grads.get(i), params);
+                }
+            }
+        } finally {
+            temporaries.close();
+            // the next forward pass copies the updated parameters, with new gradients
+            parameterMap.values().forEach(ParameterData::closeComputeCopies);
+        }
+    }
+
+    private void updateBucket(List<String> bucket) {
+        String[] parameterIds = bucket.toArray(new String[0]);
+        NDArray[][] params = new NDArray[parameterIds.length][];
+        for (int i = 0; i < parameterIds.length; ++i) {
+            params[i] = parameterMap.get(parameterIds[i]).toArray();
+        }
+        parameterServer.update(parameterIds, params);
+    }
+
     /**
      * Get the {@link NDManager} associated with {@code ParameterStore}.
      *
@@ -160,12 +348,85 @@ public class ParameterStore {
 
         private Parameter parameter;
         private List<NDArray> list;
+        private NDArray[] computeCopies;
+        private NDArray[] accumulatedGradients;
 
         private ParameterData(Parameter parameter) {
             this.parameter = parameter;
             list = Collections.synchronizedList(new ArrayList<>());
         }
 
+        private boolean useComputeCopy() {
+            if (computeDataType == null || !parameter.requiresGradient()) {
+                return false;
+            }
+            DataType dataType = list.get(0).getDataType();
+            return dataType.isFloating() && dataType != computeDataType;
+        }
+
+        private synchronized NDArray getComputeCopy(int index) {
+            if (computeCopies == null) {
+                computeCopies = new NDArray[list.size()];
+            }
+            if (computeCopies[index] == null) {
+                // the copy is a new leaf of the gradient graph
+                try (NDArray detached = list.get(index).stopGradient()) {
+                    NDArray computeCopy = detached.toType(computeDataType, true);
+                    computeCopy.attach(manager);
+                    computeCopy.setRequiresGradient(true);
+                    computeCopies[index] = computeCopy;
+                }
+            }
+            return computeCopies[index];
+        }
+
+        private synchronized void closeComputeCopies() {
+            if (computeCopies != null) {
+                for (NDArray computeCopy : computeCopies) {
+                    if (computeCopy != null) {
+                        computeCopy.close();
+                    }
+                }
+                computeCopies = null;
+            }
+        }
+
+        private NDArray getGradientSource(int index) {
+            return useComputeCopy() ? getComputeCopy(index) : list.get(index);
+        }
+
+        private synchronized void accumulateGradients() {
+            if (accumulatedGradients == null) {
+                accumulatedGradients = new NDArray[list.size()];
+            }
+            for (int i = 0; i < accumulatedGradients.length; ++i) {
+                try (NDArray grad = getGradientSource(i).getGradient()) {
+                    if (accumulatedGradients[i] == null) {
+                        accumulatedGradients[i] = grad.duplicate();
+                        accumulatedGradients[i].attach(manager);
+                    } else {
+                        accumulatedGradients[i].addi(grad);
+                    }
+                    // the engines that add to the gradients restart from zero, zeros are
+                    // assigned because multiplying an inf or NaN gradient by zero gives NaN
+                    grad.set(new NDIndex(), 0);
+                }
+            }
+        }
+
+        private synchronized void addAccumulatedGradients() {
+            if (accumulatedGradients == null) {
+                return;
+            }
+            for (int i = 0; i < accumulatedGradients.length; ++i) {
+                try (NDArray grad = getGradientSource(i).getGradient()) {
+                    grad.addi(accumulatedGradients[i]);
+                }
+                accumulatedGradients[i].close();
+            }
+            accumulatedGradients = null;
+        }
+
         private boolean isEmpty() {
             return list.isEmpty();
         }
@@ -15,14 +15,17 @@ package ai.djl.training;
 import ai.djl.Device;
 import ai.djl.Model;
 import ai.djl.metric.Metrics;
+import ai.djl.ndarray.BaseNDManager;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.Dataset;
+import ai.djl.training.dataset.ParallelDataIterable;
 import ai.djl.training.evaluator.Evaluator;
 import ai.djl.training.listener.EpochTrainingListener;
 import ai.djl.training.listener.EvaluatorTrainingListener;
@@ -66,6 +69,9 @@ public class Trainer implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(Trainer.class);
 
+    // measuring the memory walks all the arrays of a step, so it is only sampled every few batches
+    private static final int MEMORY_CHECK_INTERVAL = 10;
+
     private Model model;
     private NDManager manager;
     private Metrics metrics;
@@ -75,6 +81,16 @@ public class Trainer implements AutoCloseable {
     private List<Evaluator> evaluators;
     private Loss loss;
     private ExecutorService executorService;
+    private DataType computeDataType;
+    private LossScaler lossScaler;
+    private int microBatches;
+    private int minMicroBatches;
+    private int maxMicroBatches = Integer.MAX_VALUE;
+    private long memoryBudget;
+    private int batchesSinceMemoryCheck;
+    private long stepMemory;
+    private long memoryBeforeDoubling;
+    private int microBatchesBeforeDoubling;
 
     private boolean gradientsChecked;
 
@@ -101,6 +117,15 @@ public class Trainer implements AutoCloseable {
 
         parameterStore = new ParameterStore(manager, false);
         parameterStore.setParameterServer(parameterServer, devices);
+        parameterStore.setExecutorService(executorService);
+        computeDataType = trainingConfig.getComputeDataType();
+        if (computeDataType != null) {
+            lossScaler = trainingConfig.getLossScaler();
+            parameterStore.setMixedPrecision(computeDataType, lossScaler);
+        }
+        microBatches = trainingConfig.getMicroBatches();
+        minMicroBatches = microBatches;
+        memoryBudget = trainingConfig.getMemoryBudget();
 
         listeners = trainingConfig.getTrainingListeners();
         notifyListeners(listener -> listener.onTrainingBegin(this));
@@ -133,7 +158,11 @@ public class Trainer implements AutoCloseable {
      * @throws TranslateException if there is an error while processing input
      */
     public Iterable<Batch> iterateDataset(Dataset dataset) throws IOException, TranslateException {
-        return dataset.getData(getManager(), executorService);
+        Iterable<Batch> data = dataset.getData(getManager(), executorService);
+        if (metrics != null && data instanceof ParallelDataIterable) {
+            ((ParallelDataIterable) data).setMetrics(metrics);
+        }
+        return data;
     }
 
     /**
@@ -154,7 +183,7 @@ public class Trainer implements AutoCloseable {
     public NDList forward(NDList input) {
         long begin = System.nanoTime();
         try {
-            return model.getBlock().forward(parameterStore, input, true);
+            return model.getBlock().forward(parameterStore, toComputeDataType(input), true);
         } finally {
             addMetric("forward", begin);
         }
@@ -170,7 +199,12 @@ public class Trainer implements AutoCloseable {
     public NDList forward(NDList data, NDList labels) {
         long begin = System.nanoTime();
         try {
-            return model.getBlock().forward(parameterStore, data, labels, null);
+            return model.getBlock()
+                    .forward(
+                            parameterStore,
+                            toComputeDataType(data),
+                            toComputeDataType(labels),
+                            null);
         } finally {
             addMetric("forward", begin);
         }
@@ -186,6 +220,178 @@ public class Trainer implements AutoCloseable {
         return model.getBlock().forward(parameterStore, input, false, null);
     }
 
+    /**
+     * Returns the loss to run the backward pass on.
+     *
+     * <p>With the mixed precision training, the loss is converted to float32 and multiplied by the
+     * scale of the {@link LossScaler}, so that the small gradients don't underflow. Otherwise, the
+     * loss is returned as is.
+     *
+     * @param loss the loss
+     * @return the loss to run the backward pass on
+     */
+    public NDArray scaleLoss(NDArray loss) {
+        if (lossScaler == null) {
+            return loss;
+        }
+        // the scaled loss overflows the float16 range
+        return lossScaler.scale(toFloat32(loss));
+    }
+
+    /**
+     * Converts the floating point arrays to the compute data type of the mixed precision training.
+     *
+     * <p>Without mixed precision training, the list is returned as is.
+     *
+     * @param list the arrays to convert
+     * @return the converted arrays
+     */
+    public NDList toComputeDataType(NDList list) {
+        if (computeDataType == null) {
+            return list;
+        }
+        NDList converted = new NDList(list.size());
+        for (NDArray array : list) {
+            DataType type = array.getDataType();
+            if (type.isFloating() && type != computeDataType) {
+                NDArray copy = array.toType(computeDataType, false);
+                copy.setName(array.getName());
+                converted.add(copy);
+            } else {
+                converted.add(array);
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * Converts the outputs of the forward pass from the compute data type of the mixed precision
+     * training to float32, to compute the loss and the evaluators.
+     *
+     * <p>The range of the reduced precision data types is too small for the scaled loss and its
+     * gradient. Without mixed precision training, the list is returned as is.
+     *
+     * @param list the outputs of the forward pass
+     * @return the converted arrays
+     */
+    public NDList toLossDataType(NDList list) {
+        if (computeDataType == null) {
+            return list;
+        }
+        NDList converted = new NDList(list.size());
+        for (NDArray array : list) {
+            NDArray copy = toFloat32(array);
+            if (copy != array) {
+                copy.setName(array.getName());
+            }
+            converted.add(copy);
+        }
+        return converted;
+    }
+
+    /**
+     * Returns the number of micro-batches each batch is split into for the gradient accumulation.
+     *
+     * @return the number of micro-batches each batch is split into
+     */
+    public int getMicroBatches() {
+        return microBatches;
+    }
+
+    /**
+     * Accumulates the gradients of the last backward pass, before the backward pass of the next
+     * micro-batch.
+     *
+     * <p>The accumulated gradients are added back at the next {@link #step()}.
+     */
+    public void accumulateGradients() {
+        parameterStore.accumulateGradients();
+    }
+
+    /**
+     * Records the memory held by the arrays of a training step, before they are released.
+     *
+     * <p>The memory is only measured for the batches sampled by {@link #adjustMicroBatches(int)},
+     * the largest step of the batch is kept.
+     *
+     * @param stepManager the manager of the micro-batch, or of the batch if it isn't split
+     * @see BaseNDManager#getArrayMemory()
+     */
+    public void recordStepMemory(NDManager stepManager) {
+        if (memoryBudget <= 0
+                || batchesSinceMemoryCheck != 0
+                || !(stepManager instanceof BaseNDManager)) {
+            return;
+        }
+        for (long bytes : ((BaseNDManager) stepManager).getArrayMemory().values()) {
+            stepMemory = Math.max(stepMemory, bytes);
+        }
+    }
+
+    /**
+     * Adjusts the number of micro-batches to the memory budget after a batch.
+     *
+     * <p>The memory of the steps is sampled on the first batch, then every 10 batches, with {@link
+     * #recordStepMemory(NDManager)}. If the largest step exceeds the memory budget on one of the
+     * devices, the number of micro-batches is doubled, up to the size of the batch. If doubling
+     * doesn't make the steps smaller, it is undone and the number of micro-batches isn't doubled
+     * anymore. If the steps would still fit in three quarters of the budget with half the
+     * micro-batches, the number of micro-batches is halved, down to the number configured. The
+     * margin keeps the number of micro-batches from alternating when the steps are close to half
+     * the budget.
+     *
+     * @param batchSize the size of the batch
+     * @see TrainingConfig#getMemoryBudget()
+     */
+    public void adjustMicroBatches(int batchSize) {
+        if (memoryBudget <= 0) {
+            return;
+        }
+        int batches = batchesSinceMemoryCheck;
+        batchesSinceMemoryCheck = (batches + 1) % MEMORY_CHECK_INTERVAL;
+        if (batches != 0) {
+            return;
+        }
+        long used = stepMemory;
+        stepMemory = 0;
+        if (used <= 0) {
+            return;
+        }
+        if (memoryBeforeDoubling > 0) {
+            long before = memoryBeforeDoubling;
+            memoryBeforeDoubling = 0;
+            // the steps should be about half as large, unless the memory doesn't depend on them
+            if (used > before * 3 / 4) {
+                microBatches = microBatchesBeforeDoubling;
+                maxMicroBatches = microBatches;
+                logger.info(
+                        "More micro-batches don't reduce the memory of a step: {} bytes, using {}"
+                                + " micro-batches",
+                        used,
+                        microBatches);
+                return;
+            }
+        }
+        int limit = Math.min(batchSize, maxMicroBatches);
+        if (used > memoryBudget && microBatches < limit) {
+            memoryBeforeDoubling = used;
+            microBatchesBeforeDoubling = microBatches;
+            microBatches = Math.min(microBatches * 2, limit);
+            logger.info(
+                    "Memory of a step: {} bytes exceeds the budget, using {} micro-batches",
+                    used,
+                    microBatches);
+        } else if (used * 2 <= memoryBudget - memoryBudget / 4
+                && microBatches > minMicroBatches) {
+            microBatches = Math.max(microBatches / 2, minMicroBatches);
+            logger.info(
+                    "Memory of a step: {} bytes fits in half the budget with a margin, using {}"
+                            + " micro-batches",
+                    used,
+                    microBatches);
+        }
+    }
+
     /** Updates all of the parameters of the model once. */
     public void step() {
         if (!gradientsChecked) {
@@ -251,6 +457,15 @@ public class Trainer implements AutoCloseable {
         return Optional.ofNullable(executorService);
     }
 
+    /**
+     * Returns the {@link LossScaler} of the mixed precision training.
+     *
+     * @return the {@link LossScaler}, empty if the loss is not scaled
+     */
+    public Optional<LossScaler> getLossScaler() {
+        return Optional.ofNullable(lossScaler);
+    }
+
     /**
      * Gets all {@link Evaluator}s.
      *
@@ -351,6 +566,14 @@ public class Trainer implements AutoCloseable {
         }
     }
 
+    private static NDArray toFloat32(NDArray array) {
+        DataType type = array.getDataType();
+        if (!type.isFloating() || type == DataType.FLOAT32 || type == DataType.FLOAT64) {
+            return array;
+        }
+        return array.toType(DataType.FLOAT32, false);
+    }
+
     /**
      * Helper to add a metric for a time difference.
      *
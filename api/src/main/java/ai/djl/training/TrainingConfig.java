@@ -13,6 +13,7 @@
 package ai.djl.training;
 
 import ai.djl.Device;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.nn.Parameter;
 import ai.djl.training.evaluator.Evaluator;
 import ai.djl.training.initializer.Initializer;
@@ -111,4 +112,50 @@ public interface TrainingConfig {
      * @return a list of {@link TrainingListener}s
      */
     List<TrainingListener> getTrainingListeners();
+
+    /**
+     * Returns the data type of the forward and backward passes of the mixed precision training.
+     *
+     * <p>The parameters keep their data type, and are copied to the compute data type for the
+     * forward pass. Returns {@code null} to train in the data type of the parameters.
+     *
+     * @return the data type of the forward and backward passes, or {@code null}
+     */
+    default DataType getComputeDataType() {
+        return null;
+    }
+
+    /**
+     * Returns the {@link LossScaler} of the mixed precision training.
+     *
+     * @return the {@link LossScaler}, or {@code null} to not scale the loss
+     */
+    default LossScaler getLossScaler() {
+        return null;
+    }
+
+    /**
+     * Returns the number of micro-batches each batch is split into for the gradient accumulation.
+     *
+     * <p>The backward pass runs on each micro-batch, and the parameters are updated once with the
+     * gradients of the whole batch.
+     *
+     * @return the number of micro-batches each batch is split into
+     */
+    default int getMicroBatches() {
+        return 1;
+    }
+
+    /**
+     * Returns the memory budget of each device, in bytes, to pick the number of micro-batches.
+     *
+     * <p>The budget bounds the memory held by the arrays of a training step, that is the forward
+     * and backward pass of one micro-batch.
+     *
+     * @return the memory budget of each device, or 0 to keep the number of micro-batches
+     * @see ai.djl.training.Trainer#adjustMicroBatches(int)
+     */
+    default long getMemoryBudget() {
+        return 0;
+    }
 }
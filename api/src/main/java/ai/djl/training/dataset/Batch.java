@@ -217,6 +217,53 @@ public class Batch implements AutoCloseable {
         return splitted;
     }
 
+    /**
+     * Splits the data and labels in the {@code Batch} into the given number of slices, on the
+     * devices of the {@code Batch}.
+     *
+     * <p>The slices have the same size, except the last one if {@code evenSplit} is {@code false}.
+     * There may be fewer slices than requested, so that none of them is empty.
+     *
+     * @param numOfSlices the number of slices
+     * @param evenSplit whether each slice must have the same shape
+     * @return an array of {@code Batch}, each of which holds a slice of the data and labels
+     */
+    public Batch[] split(int numOfSlices, boolean evenSplit) {
+        int step = (size + numOfSlices - 1) / numOfSlices;
+        int sliceCount = (size + step - 1) / step;
+        if (sliceCount == 1) {
+            return new Batch[] {
+                new Batch(
+                        manager.newSubManager(),
+                        data,
+                        labels,
+                        size,
+                        dataBatchifier,
+                        labelBatchifier,
+                        progress,
+                        progressTotal)
+            };
+        }
+
+        NDList[] splittedData = split(data, dataBatchifier, sliceCount, evenSplit);
+        NDList[] splittedLabels = split(labels, labelBatchifier, sliceCount, evenSplit);
+
+        Batch[] splitted = new Batch[splittedData.length];
+        for (int i = 0; i < splittedData.length; ++i) {
+            splitted[i] =
+                    new Batch(
+                            manager.newSubManager(),
+                            splittedData[i],
+                            splittedLabels[i],
+                            Math.min(step, size - i * step),
+                            dataBatchifier,
+                            labelBatchifier,
+                            progress,
+                            progressTotal);
+        }
+        return splitted;
+    }
+
     private NDList[] split(NDList list, Batchifier batchifier, int numOfSlices, boolean evenSplit) {
         if (batchifier == null) {
             throw new IllegalStateException(
@@ -162,23 +162,34 @@ public class DataIterable implements Iterable<Batch>, Iterator<Batch> {
         NDManager subManager = manager.newSubManager();
         subManager.setName("dataIter fetch");
         int batchSize = indices.size();
-        NDList[] data = new NDList[batchSize];
-        NDList[] labels = new NDList[batchSize];
-        for (int i = 0; i < batchSize; i++) {
-            Record record = dataset.get(subManager, indices.get(i));
-            data[i] = record.getData();
-            // apply transform
-            if (pipeline != null) {
-                data[i] = pipeline.transform(data[i]);
+        NDList batchData;
+        NDList batchLabels;
+        Record batch =
+                isBatchAccess(dataset, pipeline, dataBatchifier, labelBatchifier)
+                        ? dataset.getBatch(subManager, indices)
+                        : null;
+        if (batch != null) {
+            batchData = batch.getData();
+            batchLabels = batch.getLabels();
+        } else {
+            NDList[] data = new NDList[batchSize];
+            NDList[] labels = new NDList[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                Record record = dataset.get(subManager, indices.get(i));
+                data[i] = record.getData();
+                // apply transform
+                if (pipeline != null) {
+                    data[i] = pipeline.transform(data[i]);
+                }
+
+                labels[i] = record.getLabels();
             }
+            batchData = dataBatchifier.batchify(data);
+            batchLabels = labelBatchifier.batchify(labels);
 
-            labels[i] = record.getLabels();
+            Arrays.stream(data).forEach(NDList::close);
+            Arrays.stream(labels).forEach(NDList::close);
         }
-        NDList batchData = dataBatchifier.batchify(data);
-        NDList batchLabels = labelBatchifier.batchify(labels);
-
-        Arrays.stream(data).forEach(NDList::close);
-        Arrays.stream(labels).forEach(NDList::close);
 
         // apply label transform
         if (targetPipeline != null) {
@@ -200,6 +211,27 @@ public class DataIterable implements Iterable<Batch>, Iterator<Batch> {
                 dataset.size());
     }
 
+    /**
+     * Returns whether the batches can be fetched with {@link
+     * RandomAccessDataset#getBatch(NDManager, List)}.
+     *
+     * @param dataset the dataset to iterate on
+     * @param pipeline the pipeline of transforms to apply on the data
+     * @param dataBatchifier the batchifier for data
+     * @param labelBatchifier the batchifier for labels
+     * @return whether the batches can be fetched as a whole
+     */
+    static boolean isBatchAccess(
+            RandomAccessDataset dataset,
+            Pipeline pipeline,
+            Batchifier dataBatchifier,
+            Batchifier labelBatchifier) {
+        // the pipeline transforms the records one by one
+        return pipeline == null
+                && dataBatchifier == dataset.dataBatchifier
+                && labelBatchifier == dataset.labelBatchifier;
+    }
+
     private void preFetch() {
         if (!sample.hasNext()) {
             return;
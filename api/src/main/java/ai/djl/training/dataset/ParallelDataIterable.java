@@ -0,0 +1,450 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.Device;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Pipeline;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code ParallelDataIterable} is a multi-threaded data loader that loads the records of a batch in
+ * parallel.
+ *
+ * <p>{@link DataIterable} loads a whole batch in a single task, so {@link
+ * RandomAccessDataset#get(NDManager, long)} and the {@link Pipeline} run serially for all the
+ * records of the batch. {@code ParallelDataIterable} instead submits one task per record to the
+ * {@link ExecutorService}. The thread that completes the last record of a batch batchifies it, and
+ * the batches are returned in the order of the {@link Sampler}. When there is no {@link Pipeline}
+ * and the dataset loads whole batches with {@link RandomAccessDataset#getBatch(NDManager, List)},
+ * each batch is loaded by a single task instead.
+ *
+ * <p>Batches are prefetched until the estimated size of the prefetched batches reaches the maximum
+ * number of bytes. The size of a batch is estimated from the average size of the batches that were
+ * already loaded. Until the first batch is loaded, at most {@code prefetchNumber} batches are
+ * prefetched.
+ *
+ * <p>When work stealing is enabled, the thread that waits for the next batch runs the pending
+ * record tasks itself instead of blocking.
+ *
+ * <p>The following metrics are recorded when {@link #setMetrics(Metrics)} is used:
+ *
+ * <ul>
+ *   <li>DataLoadStall - the time {@link #next()} waited for the batch, in microseconds
+ *   <li>DataLoadThroughput - the number of records returned per second since the iteration began
+ *   <li>PrefetchBytes - the size of the prefetched batches that are ready, in bytes
+ * </ul>
+ *
+ * <p>We don't recommended using ParallelDataIterable directly. Instead use {@link
+ * RandomAccessDataset.BaseBuilder#optPrefetchBytes(long)} with an {@link ExecutorService} in the
+ * {@link ai.djl.training.TrainingConfig}.
+ */
+public class ParallelDataIterable implements Iterable<Batch>, Iterator<Batch> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelDataIterable.class);
+
+    private RandomAccessDataset dataset;
+    private NDManager manager;
+    private Batchifier dataBatchifier;
+    private Batchifier labelBatchifier;
+    private Pipeline pipeline;
+    private Pipeline targetPipeline;
+    private ExecutorService executor;
+    private int prefetchNumber;
+    private long maxPrefetchBytes;
+    private boolean workStealing;
+    private Device device;
+    private AtomicBoolean batchAccess;
+
+    private Iterator<List<Long>> sample;
+    private Queue<PendingBatch> queue;
+    private Queue<RecordTask> tasks;
+    private Queue<PendingBatch> loading;
+    private AtomicLong loadedBytes;
+    private AtomicInteger loadedBatches;
+    private long progressCounter;
+    private long begin;
+    private boolean autoClose;
+    private Metrics metrics;
+
+    /**
+     * Creates a new instance of {@code ParallelDataIterable} with the given parameters.
+     *
+     * @param dataset the dataset to iterate on
+     * @param manager the manager to create the arrays
+     * @param sampler a sampler to sample data with
+     * @param dataBatchifier a batchifier for data
+     * @param labelBatchifier a batchifier for labels
+     * @param pipeline the pipeline of transforms to apply on the data
+     * @param targetPipeline the pipeline of transforms to apply on the labels
+     * @param executor an {@link ExecutorService}
+     * @param prefetchNumber the number of batches to prefetch before the size of a batch is known
+     * @param maxPrefetchBytes the maximum number of bytes of prefetched batches
+     * @param workStealing whether the consuming thread runs pending record tasks while waiting
+     * @param device the {@link Device}
+     */
+    public ParallelDataIterable(
+            RandomAccessDataset dataset,
+            NDManager manager,
+            Sampler sampler,
+            Batchifier dataBatchifier,
+            Batchifier labelBatchifier,
+            Pipeline pipeline,
+            Pipeline targetPipeline,
+            ExecutorService executor,
+            int prefetchNumber,
+            long maxPrefetchBytes,
+            boolean workStealing,
+            Device device) {
+        this.dataset = dataset;
+        this.manager = manager.newSubManager();
+        this.manager.setName("dataIter");
+        this.dataBatchifier = dataBatchifier;
+        this.labelBatchifier = labelBatchifier;
+        this.pipeline = pipeline;
+        this.targetPipeline = targetPipeline;
+        this.executor = executor;
+        this.prefetchNumber = Math.max(1, prefetchNumber);
+        this.maxPrefetchBytes = maxPrefetchBytes;
+        this.workStealing = workStealing;
+        this.device = device;
+        batchAccess =
+                new AtomicBoolean(
+                        DataIterable.isBatchAccess(
+                                dataset, pipeline, dataBatchifier, labelBatchifier));
+        String close = System.getProperty("ai.djl.dataiterator.autoclose", "true");
+        autoClose = Boolean.parseBoolean(close);
+
+        sample = sampler.sample(dataset);
+        queue = new ArrayDeque<>();
+        tasks = new ConcurrentLinkedQueue<>();
+        loading = new ConcurrentLinkedQueue<>();
+        loadedBytes = new AtomicLong();
+        loadedBatches = new AtomicInteger();
+        begin = System.nanoTime();
+        preFetch();
+    }
+
+    /**
+     * Attaches a Metrics param to record the data loading metrics.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Batch> iterator() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        if (queue.isEmpty()) {
+            if (autoClose) {
+                // the record tasks of failed batches may still be running
+                for (PendingBatch pending : loading) {
+                    pending.result.cancel(false);
+                    pending.dropTasks();
+                }
+                for (PendingBatch pending : loading) {
+                    pending.done.join();
+                }
+                manager.close();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Batch next() {
+        PendingBatch pending = queue.poll();
+        if (pending == null) {
+            throw new NoSuchElementException("No more batches.");
+        }
+        preFetch();
+
+        long stallBegin = System.nanoTime();
+        if (workStealing) {
+            RecordTask task;
+            while (!pending.result.isDone() && (task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+        Batch batch;
+        try {
+            batch = pending.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Data loading failed", e);
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage());
+            throw new IllegalStateException("Data loading failed", e);
+        }
+
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.addMetric("DataLoadStall", (now - stallBegin) / 1000, Unit.MICROSECONDS);
+            double seconds = (now - begin) / 1_000_000_000d;
+            metrics.addMetric(
+                    "DataLoadThroughput", batch.getProgress() / seconds, Unit.COUNT_PER_SECOND);
+            metrics.addMetric("PrefetchBytes", getPrefetchedBytes(0), Unit.BYTES);
+        }
+        return batch;
+    }
+
+    private void preFetch() {
+        while (sample.hasNext()) {
+            if (!queue.isEmpty()) {
+                int loaded = loadedBatches.get();
+                long average = loaded == 0 ? 0 : loadedBytes.get() / loaded;
+                if (average == 0) {
+                    if (queue.size() >= prefetchNumber) {
+                        return;
+                    }
+                } else if (getPrefetchedBytes(average) + average > maxPrefetchBytes) {
+                    return;
+                }
+            }
+            List<Long> indices = sample.next();
+            progressCounter += indices.size();
+            PendingBatch pending = new PendingBatch(indices, progressCounter);
+            queue.offer(pending);
+            loading.offer(pending);
+            if (batchAccess.get()) {
+                // a single task loads the whole batch
+                pending.remaining.set(1);
+                tasks.offer(new RecordTask(pending, -1));
+                executor.execute(this::runTask);
+                continue;
+            }
+            for (int i = 0; i < indices.size(); ++i) {
+                tasks.offer(new RecordTask(pending, i));
+                executor.execute(this::runTask);
+            }
+        }
+    }
+
+    private long getPrefetchedBytes(long average) {
+        long bytes = 0;
+        for (PendingBatch pending : queue) {
+            if (pending.result.isDone()) {
+                bytes += pending.bytes;
+            } else {
+                bytes += average;
+            }
+        }
+        return bytes;
+    }
+
+    private void runTask() {
+        RecordTask task = tasks.poll();
+        if (task != null) {
+            task.run();
+        }
+    }
+
+    private void assemble(PendingBatch pending) {
+        NDList batchData;
+        NDList batchLabels;
+        if (pending.batch != null) {
+            batchData = pending.batch.getData();
+            batchLabels = pending.batch.getLabels();
+        } else {
+            batchData = dataBatchifier.batchify(pending.data);
+            batchLabels = labelBatchifier.batchify(pending.labels);
+            for (int i = 0; i < pending.data.length; ++i) {
+                pending.data[i].close();
+                pending.labels[i].close();
+            }
+        }
+
+        // apply label transform
+        if (targetPipeline != null) {
+            batchLabels = targetPipeline.transform(batchLabels);
+        }
+        // pin to a specific device
+        if (device != null) {
+            batchData = batchData.toDevice(device, false);
+            batchLabels = batchLabels.toDevice(device, false);
+        }
+        long bytes = getBytes(batchData) + getBytes(batchLabels);
+        loadedBytes.addAndGet(bytes);
+        loadedBatches.incrementAndGet();
+        pending.bytes = bytes;
+        pending.result.complete(
+                new Batch(
+                        pending.manager,
+                        batchData,
+                        batchLabels,
+                        pending.data.length,
+                        dataBatchifier,
+                        labelBatchifier,
+                        pending.progress,
+                        dataset.size()));
+    }
+
+    // Counts the records of a batch that are done, loaded or not. After the last record, the batch
+    // is assembled, or the records already loaded are closed if the batch failed.
+    private void finish(PendingBatch pending, int count) {
+        if (pending.remaining.addAndGet(-count) != 0) {
+            return;
+        }
+        try {
+            if (!pending.result.isDone()) {
+                try {
+                    assemble(pending);
+                    return;
+                } catch (RuntimeException e) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+            pending.manager.close();
+        } finally {
+            loading.remove(pending);
+            pending.done.complete(null);
+        }
+    }
+
+    private static long getBytes(NDList list) {
+        long bytes = 0;
+        for (NDArray array : list) {
+            bytes += array.size() * array.getDataType().getNumOfBytes();
+        }
+        return bytes;
+    }
+
+    /** A batch whose records are being loaded. */
+    private final class PendingBatch {
+
+        List<Long> indices;
+        long progress;
+        NDManager manager;
+        NDList[] data;
+        NDList[] labels;
+        Record batch;
+        AtomicInteger remaining;
+        CompletableFuture<Batch> result;
+        CompletableFuture<Void> done;
+        long bytes;
+
+        PendingBatch(List<Long> indices, long progress) {
+            this.indices = indices;
+            this.progress = progress;
+            manager = ParallelDataIterable.this.manager.newSubManager();
+            manager.setName("dataIter fetch");
+            data = new NDList[indices.size()];
+            labels = new NDList[indices.size()];
+            remaining = new AtomicInteger(indices.size());
+            result = new CompletableFuture<>();
+            done = new CompletableFuture<>();
+        }
+
+        /** Removes the record tasks of the batch that have not started yet. */
+        void dropTasks() {
+            int removed = 0;
+            for (RecordTask task : tasks) {
+                if (task.pending == this && tasks.remove(task)) {
+                    ++removed;
+                }
+            }
+            if (removed > 0) {
+                finish(this, removed);
+            }
+        }
+    }
+
+    /** A task that loads and transforms a single record of a batch, or the whole batch. */
+    private final class RecordTask implements Runnable {
+
+        private PendingBatch pending;
+        private int index;
+
+        // the index of the record in the batch, or -1 to load the whole batch
+        RecordTask(PendingBatch pending, int index) {
+            this.pending = pending;
+            this.index = index;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            // skipped if another record of the batch failed
+            if (!pending.result.isDone()) {
+                try {
+                    if (index < 0) {
+                        loadBatch();
+                    } else {
+                        loadRecord();
+                    }
+                } catch (Exception e) {
+                    if (pending.result.completeExceptionally(e)) {
+                        pending.dropTasks();
+                    }
+                }
+            }
+            // the thread that finishes the last record assembles the batch
+            finish(pending, 1);
+        }
+
+        private void loadRecord() throws IOException {
+            Record record = dataset.get(pending.manager, pending.indices.get(index));
+            NDList data = record.getData();
+            // apply transform
+            if (pipeline != null) {
+                data = pipeline.transform(data);
+            }
+            pending.data[index] = data;
+            pending.labels[index] = record.getLabels();
+        }
+
+        // falls back to loading the records one by one if the dataset can't load the batch
+        private void loadBatch() throws IOException {
+            Record batch = dataset.getBatch(pending.manager, pending.indices);
+            if (batch != null) {
+                pending.batch = batch;
+                return;
+            }
+            batchAccess.set(false);
+            for (int i = 0; i < pending.indices.size(); ++i) {
+                pending.remaining.incrementAndGet();
+                tasks.offer(new RecordTask(pending, i));
+                executor.execute(ParallelDataIterable.this::runTask);
+            }
+        }
+    }
+}
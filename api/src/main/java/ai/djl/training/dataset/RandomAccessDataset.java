@@ -25,7 +25,9 @@ import ai.djl.util.Pair;
 import ai.djl.util.Progress;
 import ai.djl.util.RandomUtils;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
@@ -43,6 +45,8 @@ public abstract class RandomAccessDataset implements Dataset {
     protected Pipeline pipeline;
     protected Pipeline targetPipeline;
     protected int prefetchNumber;
+    protected long prefetchBytes;
+    protected boolean workStealing;
     protected long limit;
     protected Device device;
 
@@ -61,6 +65,8 @@ public abstract class RandomAccessDataset implements Dataset {
         this.pipeline = builder.pipeline;
         this.targetPipeline = builder.targetPipeline;
         this.prefetchNumber = builder.prefetchNumber;
+        this.prefetchBytes = builder.prefetchBytes;
+        this.workStealing = builder.workStealing;
         this.limit = builder.limit;
         this.device = builder.device;
     }
@@ -75,6 +81,24 @@ public abstract class RandomAccessDataset implements Dataset {
      */
     public abstract Record get(NDManager manager, long index) throws IOException;
 
+    /**
+     * Gets the {@link Record}s for the given indices as a single batch.
+     *
+     * <p>The data and labels must be the same as the records from {@link #get(NDManager, long)}
+     * batchified with the batchifiers of the dataset. A dataset that stores its records
+     * contiguously can override it to create the batch without an array per record. The {@link
+     * DataIterable} and {@link ParallelDataIterable} use it when there is no {@link Pipeline}.
+     *
+     * @param manager the manager used to create the arrays
+     * @param indices the indices of the requested data items
+     * @return a {@link Record} that contains the batched data and labels, or {@code null} if the
+     *     records must be loaded one by one
+     * @throws IOException if an I/O error occurs
+     */
+    public Record getBatch(NDManager manager, List<Long> indices) throws IOException {
+        return null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Iterable<Batch> getData(NDManager manager) throws IOException, TranslateException {
@@ -96,18 +120,7 @@ public abstract class RandomAccessDataset implements Dataset {
     @Override
     public Iterable<Batch> getData(NDManager manager, ExecutorService executorService)
             throws IOException, TranslateException {
-        prepare();
-        return new DataIterable(
-                this,
-                manager,
-                sampler,
-                dataBatchifier,
-                labelBatchifier,
-                pipeline,
-                targetPipeline,
-                executorService,
-                prefetchNumber,
-                device);
+        return getData(manager, sampler, executorService);
     }
 
     /**
@@ -150,6 +163,21 @@ public abstract class RandomAccessDataset implements Dataset {
             NDManager manager, Sampler sampler, ExecutorService executorService)
             throws IOException, TranslateException {
         prepare();
+        if (executorService != null && prefetchBytes > 0) {
+            return new ParallelDataIterable(
+                    this,
+                    manager,
+                    sampler,
+                    dataBatchifier,
+                    labelBatchifier,
+                    pipeline,
+                    targetPipeline,
+                    executorService,
+                    prefetchNumber,
+                    prefetchBytes,
+                    workStealing,
+                    device);
+        }
         return new DataIterable(
                 this,
                 manager,
@@ -278,6 +306,8 @@ public abstract class RandomAccessDataset implements Dataset {
         protected Pipeline pipeline;
         protected Pipeline targetPipeline;
         protected int prefetchNumber = 2;
+        protected long prefetchBytes;
+        protected boolean workStealing;
         protected long limit = Long.MAX_VALUE;
         protected Device device;
 
@@ -417,6 +447,35 @@ public abstract class RandomAccessDataset implements Dataset {
             return self();
         }
 
+        /**
+         * Sets the maximum number of bytes of batches to prefetch.
+         *
+         * <p>When it is set and the data is loaded with an {@link ExecutorService}, the records of
+         * each batch are loaded in parallel with a {@link ParallelDataIterable}, and the number of
+         * prefetched batches is bounded by their size in bytes instead of {@link
+         * #optPrefetchNumber(int)}.
+         *
+         * @param prefetchBytes the maximum number of bytes of batches to prefetch
+         * @return this {@code BaseBuilder}
+         */
+        public T optPrefetchBytes(long prefetchBytes) {
+            this.prefetchBytes = prefetchBytes;
+            return self();
+        }
+
+        /**
+         * Sets whether the thread that waits for a batch helps loading the records.
+         *
+         * <p>It only applies when {@link #optPrefetchBytes(long)} is set.
+         *
+         * @param workStealing whether the thread that waits for a batch helps loading the records
+         * @return this {@code BaseBuilder}
+         */
+        public T optWorkStealing(boolean workStealing) {
+            this.workStealing = workStealing;
+            return self();
+        }
+
         /**
          * Sets the {@link Device}.
          *
@@ -468,6 +527,8 @@ public abstract class RandomAccessDataset implements Dataset {
             this.pipeline = dataset.pipeline;
             this.targetPipeline = dataset.targetPipeline;
             this.prefetchNumber = dataset.prefetchNumber;
+            this.prefetchBytes = dataset.prefetchBytes;
+            this.workStealing = dataset.workStealing;
             this.device = dataset.device;
 
             limit = Long.MAX_VALUE;
@@ -482,6 +543,20 @@ public abstract class RandomAccessDataset implements Dataset {
             return dataset.get(manager, indices[Math.toIntExact(index) + from]);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public Record getBatch(NDManager manager, List<Long> indices) throws IOException {
+            List<Long> mapped = new ArrayList<>(indices.size());
+            for (long index : indices) {
+                if (index >= size()) {
+                    throw new IndexOutOfBoundsException(
+                            "index(" + index + ") > size(" + size() + ").");
+                }
+                mapped.add((long) this.indices[Math.toIntExact(index) + from]);
+            }
+            return dataset.getBatch(manager, mapped);
+        }
+
         /** {@inheritDoc} */
         @Override
         protected long availableSize() {
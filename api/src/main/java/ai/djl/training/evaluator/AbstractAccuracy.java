@@ -77,8 +77,30 @@ public abstract class AbstractAccuracy extends Evaluator {
     @Override
     public void updateAccumulator(String key, NDList labels, NDList predictions) {
         Pair<Long, NDArray> update = accuracyHelper(labels, predictions);
+        NDArray correct = update.getValue().sum();
         totalInstances.compute(key, (k, v) -> v + update.getKey());
-        correctInstances.compute(key, (k, v) -> v + update.getValue().sum().getLong());
+        if (isDeferredAccumulation()) {
+            addDeferred(key, correct);
+            return;
+        }
+        long value = correct.getLong();
+        correctInstances.compute(key, (k, v) -> v + value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
+        if (!isDeferredAccumulation()) {
+            // the subclasses may only override updateAccumulator
+            super.updateAccumulators(keys, labels, predictions);
+            return;
+        }
+        Pair<Long, NDArray> update = accuracyHelper(labels, predictions);
+        NDArray correct = update.getValue().sum();
+        for (String key : keys) {
+            totalInstances.compute(key, (k, v) -> v + update.getKey());
+            addDeferred(key, correct);
+        }
     }
 
     /** {@inheritDoc} */
@@ -86,6 +108,7 @@ public abstract class AbstractAccuracy extends Evaluator {
     public void resetAccumulator(String key) {
         totalInstances.compute(key, (k, v) -> 0L);
         correctInstances.compute(key, (k, v) -> 0L);
+        resetDeferred(key);
     }
 
     /** {@inheritDoc} */
@@ -95,6 +118,10 @@ public abstract class AbstractAccuracy extends Evaluator {
         if (total == null || total == 0) {
             return Float.NaN;
         }
+        if (isDeferredAccumulation()) {
+            long correct = (long) flushDeferred(key);
+            correctInstances.compute(key, (k, v) -> v + correct);
+        }
 
         return (float) correctInstances.get(key) / totalInstances.get(key);
     }
@@ -14,6 +14,7 @@ package ai.djl.training.evaluator;
 
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.DataType;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -36,6 +37,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public abstract class Evaluator {
 
     private String name;
+    private boolean deferred;
+    private Map<String, NDArray> deferredSums;
     protected Map<String, Long> totalInstances;
 
     /**
@@ -46,6 +49,7 @@ public abstract class Evaluator {
     public Evaluator(String name) {
         this.name = name;
         totalInstances = new ConcurrentHashMap<>();
+        deferredSums = new ConcurrentHashMap<>();
     }
 
     /**
@@ -84,6 +88,51 @@ public abstract class Evaluator {
      */
     public abstract void updateAccumulator(String key, NDList labels, NDList predictions);
 
+    /**
+     * Updates the evaluators with the given keys based on a {@link NDList} of labels and
+     * predictions.
+     *
+     * <p>The evaluation is computed once and added to all the accumulators, which is cheaper than
+     * calling {@link #updateAccumulator(String, NDList, NDList)} for each key.
+     *
+     * @param keys the keys of the accumulators to update
+     * @param labels a {@code NDList} of labels
+     * @param predictions a {@code NDList} of predictions
+     */
+    public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
+        for (String key : keys) {
+            updateAccumulator(key, labels, predictions);
+        }
+    }
+
+    /**
+     * Sets whether the accumulators are kept on the device of the evaluated arrays.
+     *
+     * <p>By default, each update reads the evaluation back to the host, which waits for the
+     * computation of the batch to finish. With deferred accumulation, the evaluators that support
+     * it keep running sums as {@link NDArray}s, and only read them back when {@link
+     * #getAccumulator(String)} is called. The sums are released by {@link
+     * #resetAccumulator(String)}.
+     *
+     * <p>In this mode, {@link #updateAccumulators(String[], NDList, NDList)} evaluates the batch
+     * once for all the keys, so the subclasses that override {@link #updateAccumulator(String,
+     * NDList, NDList)} must override it as well.
+     *
+     * @param deferred true to keep the accumulators on the device
+     */
+    public void setDeferredAccumulation(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Returns whether the accumulators are kept on the device of the evaluated arrays.
+     *
+     * @return whether the accumulators are kept on the device of the evaluated arrays
+     */
+    public boolean isDeferredAccumulation() {
+        return deferred;
+    }
+
     /**
      * Resets the evaluator value with the given key.
      *
@@ -100,6 +149,57 @@ public abstract class Evaluator {
      */
     public abstract float getAccumulator(String key);
 
+    /**
+     * Adds a value to the running sum of an accumulator without reading it back to the host.
+     *
+     * <p>The sum is kept on the device of the first value added after a reset.
+     *
+     * @param key the key of the accumulator
+     * @param value the scalar value to add
+     */
+    protected void addDeferred(String key, NDArray value) {
+        deferredSums.compute(
+                key,
+                (k, sum) -> {
+                    if (sum == null) {
+                        // the evaluated arrays are closed with the batch
+                        NDArray copy = value.duplicate();
+                        copy.detach();
+                        return copy;
+                    }
+                    return sum.addi(value.toDevice(sum.getDevice(), false));
+                });
+    }
+
+    /**
+     * Reads back and clears the running sum of an accumulator.
+     *
+     * @param key the key of the accumulator
+     * @return the value of the running sum, or 0 if nothing was added since the last call
+     */
+    protected double flushDeferred(String key) {
+        NDArray sum = deferredSums.remove(key);
+        if (sum == null) {
+            return 0;
+        }
+        try (NDArray value = sum;
+                NDArray converted = value.toType(DataType.FLOAT64, true)) {
+            return converted.getDouble();
+        }
+    }
+
+    /**
+     * Clears the running sum of an accumulator without reading it back.
+     *
+     * @param key the key of the accumulator
+     */
+    protected void resetDeferred(String key) {
+        NDArray sum = deferredSums.remove(key);
+        if (sum != null) {
+            sum.close();
+        }
+    }
+
     /**
      * Checks if the two input {@code NDArray} have the same length or shape.
      *
@@ -67,6 +67,19 @@ public class IndexEvaluator extends Evaluator {
         evaluator.updateAccumulator(key, getLabels(labels), getPredictions(predictions));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
+        evaluator.updateAccumulators(keys, getLabels(labels), getPredictions(predictions));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setDeferredAccumulation(boolean deferred) {
+        super.setDeferredAccumulation(deferred);
+        evaluator.setDeferredAccumulation(deferred);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void resetAccumulator(String key) {
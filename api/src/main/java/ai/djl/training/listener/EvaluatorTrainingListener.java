@@ -47,6 +47,7 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
     public static final String VALIDATE_EPOCH = "validate/epoch";
 
     private int progressUpdateFrequency;
+    private boolean deferred;
     private int progressCounter;
     private Map<String, Float> latestEvaluations;
 
@@ -68,7 +69,25 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
      *     stable enough to output
      */
     public EvaluatorTrainingListener(int progressUpdateFrequency) {
+        this(progressUpdateFrequency, false);
+    }
+
+    /**
+     * Constructs an {@link EvaluatorTrainingListener} that updates the training progress the given
+     * frequency.
+     *
+     * <p>With deferred accumulation, the evaluators keep their accumulators on the device (see
+     * {@link Evaluator#setDeferredAccumulation(boolean)}), and the per batch {@link #TRAIN_ALL}
+     * metrics are only recorded along with the {@link #TRAIN_PROGRESS} metrics, so that the
+     * training step doesn't wait for the evaluations of every batch.
+     *
+     * @param progressUpdateFrequency the number of batches to accumulate an evaluator before it is
+     *     stable enough to output
+     * @param deferred true to keep the accumulators on the device
+     */
+    public EvaluatorTrainingListener(int progressUpdateFrequency, boolean deferred) {
         this.progressUpdateFrequency = progressUpdateFrequency;
+        this.deferred = deferred;
         progressCounter = 0;
         latestEvaluations = new ConcurrentHashMap<>();
     }
@@ -111,13 +130,22 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
             evaluator.resetAccumulator(TRAIN_ALL);
         }
 
-        updateEvaluators(trainer, batchData, new String[] {TRAIN_EPOCH, TRAIN_PROGRESS, TRAIN_ALL});
         Metrics metrics = trainer.getMetrics();
+        boolean progressUpdate = progressCounter + 1 >= progressUpdateFrequency;
+        if (deferred && (metrics == null || !progressUpdate)) {
+            // the batch evaluations won't be read back
+            updateEvaluators(trainer, batchData, new String[] {TRAIN_EPOCH, TRAIN_PROGRESS});
+        } else {
+            updateEvaluators(
+                    trainer, batchData, new String[] {TRAIN_EPOCH, TRAIN_PROGRESS, TRAIN_ALL});
+        }
         if (metrics != null) {
-            for (Evaluator evaluator : trainer.getEvaluators()) {
-                String key = metricName(evaluator, TRAIN_ALL);
-                float value = evaluator.getAccumulator(TRAIN_ALL);
-                metrics.addMetric(key, value);
+            if (!deferred || progressUpdate) {
+                for (Evaluator evaluator : trainer.getEvaluators()) {
+                    String key = metricName(evaluator, TRAIN_ALL);
+                    float value = evaluator.getAccumulator(TRAIN_ALL);
+                    metrics.addMetric(key, value);
+                }
             }
 
             progressCounter++;
@@ -143,9 +171,7 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
             for (Device device : batchData.getLabels().keySet()) {
                 NDList labels = batchData.getLabels().get(device);
                 NDList predictions = batchData.getPredictions().get(device);
-                for (String accumulator : accumulators) {
-                    evaluator.updateAccumulator(accumulator, labels, predictions);
-                }
+                evaluator.updateAccumulators(accumulators, labels, predictions);
             }
         }
     }
@@ -154,6 +180,9 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
     @Override
     public void onTrainingBegin(Trainer trainer) {
         for (Evaluator evaluator : trainer.getEvaluators()) {
+            if (deferred) {
+                evaluator.setDeferredAccumulation(true);
+            }
             evaluator.addAccumulator(TRAIN_EPOCH);
             evaluator.addAccumulator(TRAIN_PROGRESS);
             evaluator.addAccumulator(TRAIN_ALL);
@@ -161,6 +190,20 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void onTrainingEnd(Trainer trainer) {
+        if (deferred) {
+            // releases the running sums kept on the device
+            for (Evaluator evaluator : trainer.getEvaluators()) {
+                evaluator.resetAccumulator(TRAIN_EPOCH);
+                evaluator.resetAccumulator(TRAIN_PROGRESS);
+                evaluator.resetAccumulator(TRAIN_ALL);
+                evaluator.resetAccumulator(VALIDATE_EPOCH);
+            }
+        }
+    }
+
     /**
      * Returns the metric created with the evaluator for the given stage.
      *
@@ -21,12 +21,16 @@ import ai.djl.training.loss.Loss;
 import ai.djl.training.util.ProgressBar;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * {@link TrainingListener} that outputs the progress of training each batch and epoch into logs.
  *
+ * <p>By default every batch refreshes the progress bars. A progress interval can be set to refresh
+ * them less often, the status of a batch is only computed when its progress is printed.
+ *
  * @see <a href="http://docs.djl.ai/docs/development/configure_logging.html">The guide on DJL
  *     logging</a>
  */
@@ -35,13 +39,18 @@ public class LoggingTrainingListener implements TrainingListener {
     private static final Logger logger = LoggerFactory.getLogger(LoggingTrainingListener.class);
 
     private int frequency;
+    private long progressIntervalNanos;
 
     private int numEpochs;
     private ProgressBar trainingProgressBar;
     private ProgressBar validateProgressBar;
+    private long lastTrainingUpdate;
+    private long lastValidateUpdate;
 
     /** Constructs a {@code LoggingTrainingListener} instance. */
-    public LoggingTrainingListener() {}
+    public LoggingTrainingListener() {
+        this(0);
+    }
 
     /**
      * Constructs a {@code LoggingTrainingListener} instance with specified steps.
@@ -51,7 +60,24 @@ public class LoggingTrainingListener implements TrainingListener {
      * @param frequency the frequency of epoch to print out
      */
     public LoggingTrainingListener(int frequency) {
+        this(frequency, 0);
+    }
+
+    /**
+     * Constructs a {@code LoggingTrainingListener} instance with specified steps and progress
+     * interval.
+     *
+     * <p>Print out logs every {@code frequency} epoch, and refresh the progress bars at most every
+     * {@code progressIntervalMillis} milliseconds. The last batch of an epoch is always shown.
+     * Training and validation progress are throttled independently.
+     *
+     * @param frequency the frequency of epoch to print out
+     * @param progressIntervalMillis the minimum time between two progress bar refreshes, {@code 0}
+     *     refreshes them on every batch
+     */
+    public LoggingTrainingListener(int frequency, long progressIntervalMillis) {
         this.frequency = frequency;
+        progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis);
     }
 
     /** {@inheritDoc} */
@@ -101,6 +127,11 @@ public class LoggingTrainingListener implements TrainingListener {
             return;
         }
 
+        long now = System.nanoTime();
+        if (!shouldUpdateProgress(batchData, now, lastTrainingUpdate)) {
+            return;
+        }
+        lastTrainingUpdate = now;
         if (trainingProgressBar == null) {
             trainingProgressBar =
                     new ProgressBar("Training", batchData.getBatch().getProgressTotal());
@@ -138,6 +169,11 @@ public class LoggingTrainingListener implements TrainingListener {
             return;
         }
 
+        long now = System.nanoTime();
+        if (!shouldUpdateProgress(batchData, now, lastValidateUpdate)) {
+            return;
+        }
+        lastValidateUpdate = now;
         if (validateProgressBar == null) {
             validateProgressBar =
                     new ProgressBar("Validating", batchData.getBatch().getProgressTotal());
@@ -216,6 +252,16 @@ public class LoggingTrainingListener implements TrainingListener {
         }
     }
 
+    private boolean shouldUpdateProgress(BatchData batchData, long now, long lastUpdate) {
+        if (progressIntervalNanos <= 0) {
+            return true;
+        }
+        long progress = batchData.getBatch().getProgress();
+        long total = batchData.getBatch().getProgressTotal();
+        // the last batch of an epoch is always shown
+        return progress + 1 >= total || now - lastUpdate >= progressIntervalNanos;
+    }
+
     private String getEvaluatorsStatus(
             Metrics metrics, List<Evaluator> toOutput, String stage, int limit) {
         List<String> metricOutputs = new ArrayList<>(limit + 1);
@@ -153,7 +153,41 @@ public class MemoryTrainingListener extends TrainingListenerAdapter {
         }
     }
 
+    /**
+     * Returns the memory used on a device.
+     *
+     * <p>The memory used on a GPU is the memory committed on the device, and the memory used on a
+     * CPU is the resident set size of the process.
+     *
+     * @param device the device
+     * @return the memory used on the device in bytes, or -1 if it can't be measured
+     */
+    public static long getUsedMemory(Device device) {
+        if (device.isGpu()) {
+            if (CudaUtils.getGpuCount() == 0) {
+                return -1;
+            }
+            return CudaUtils.getGpuMemory(device).getCommitted();
+        }
+        String[] tokens = readProcessInfo();
+        if (tokens.length == 0) {
+            return -1;
+        }
+        return Long.parseLong(tokens[1]) * 1024;
+    }
+
     private static void getProcessInfo(Metrics metrics) {
+        String[] tokens = readProcessInfo();
+        if (tokens.length > 0) {
+            float cpu = Float.parseFloat(tokens[0]);
+            long rss = Long.parseLong(tokens[1]) * 1024;
+            metrics.addMetric("cpu", cpu, Unit.PERCENT);
+            metrics.addMetric("rss", rss, Unit.BYTES);
+        }
+    }
+
+    // Returns the cpu percentage and the rss in KB of the process, or an empty array
+    private static String[] readProcessInfo() {
         if (System.getProperty("os.name").startsWith("Linux")
                 || System.getProperty("os.name").startsWith("Mac")) {
             // This solution only work for Linux like system.
@@ -167,17 +201,15 @@ public class MemoryTrainingListener extends TrainingListenerAdapter {
                     String[] tokens = line.split("\\s+");
                     if (tokens.length != 2) {
                         logger.error("Invalid ps output: {}", line);
-                        return;
+                        return new String[0];
                     }
-                    float cpu = Float.parseFloat(tokens[0]);
-                    long rss = Long.parseLong(tokens[1]) * 1024;
-                    metrics.addMetric("cpu", cpu, Unit.PERCENT);
-                    metrics.addMetric("rss", rss, Unit.BYTES);
+                    return tokens;
                 }
             } catch (IOException e) {
                 logger.error("Failed execute cmd: " + cmd, e);
             }
         }
+        return new String[0];
     }
 
     private static byte[] readAll(InputStream is) throws IOException {
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.listener;
+
+import ai.djl.metric.Metrics;
+import ai.djl.training.Trainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TrainingListener} that reports the loss scale and the skipped steps of the mixed precision
+ * training.
+ *
+ * <p>The "LossScale" and "SkippedSteps" metrics are recorded after each training batch if the
+ * {@link Trainer} has {@link Metrics}, and the loss scale and the number of steps skipped during
+ * the epoch are logged at the end of each epoch.
+ *
+ * @see ai.djl.training.DefaultTrainingConfig#optMixedPrecision(ai.djl.ndarray.types.DataType,
+ *     ai.djl.training.LossScaler)
+ */
+public class MixedPrecisionTrainingListener extends TrainingListenerAdapter {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(MixedPrecisionTrainingListener.class);
+
+    private long epochSkippedSteps;
+
+    /** {@inheritDoc} */
+    @Override
+    public void onTrainingBatch(Trainer trainer, BatchData batchData) {
+        Metrics metrics = trainer.getMetrics();
+        if (metrics == null) {
+            return;
+        }
+        trainer.getLossScaler()
+                .ifPresent(
+                        scaler -> {
+                            metrics.addMetric("LossScale", scaler.getScale());
+                            metrics.addMetric("SkippedSteps", scaler.getSkippedSteps());
+                        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onEpoch(Trainer trainer) {
+        trainer.getLossScaler()
+                .ifPresent(
+                        scaler -> {
+                            long skipped = scaler.getSkippedSteps();
+                            logger.info(
+                                    "Loss scale: {}, skipped steps: {}",
+                                    scaler.getScale(),
+                                    skipped - epochSkippedSteps);
+                            epochSkippedSteps = skipped;
+                        });
+    }
+}
@@ -86,6 +86,24 @@ public abstract class AbstractCompositeLoss extends Loss {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
+        for (int i = 0; i < components.size(); i++) {
+            Pair<NDList, NDList> inputs = inputForComponent(i, labels, predictions);
+            components.get(i).updateAccumulators(keys, inputs.getKey(), inputs.getValue());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setDeferredAccumulation(boolean deferred) {
+        super.setDeferredAccumulation(deferred);
+        for (Loss component : components) {
+            component.setDeferredAccumulation(deferred);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void resetAccumulator(String key) {
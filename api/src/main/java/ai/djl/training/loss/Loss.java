@@ -12,6 +12,7 @@
  */
 package ai.djl.training.loss;
 
+import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.training.evaluator.Evaluator;
 import java.util.Map;
@@ -363,10 +364,30 @@ public abstract class Loss extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void updateAccumulator(String key, NDList labels, NDList predictions) {
-        // this is a synchronized operation, only call it at end of batch or epoch
-        float update = evaluate(labels, predictions).sum().getFloat();
+        NDArray update = evaluate(labels, predictions).sum();
         totalInstances.compute(key, (k, v) -> v + 1);
-        totalLoss.compute(key, (k, v) -> v + update);
+        if (isDeferredAccumulation()) {
+            addDeferred(key, update);
+            return;
+        }
+        // this is a synchronized operation, only call it at end of batch or epoch
+        float value = update.getFloat();
+        totalLoss.compute(key, (k, v) -> v + value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
+        if (!isDeferredAccumulation()) {
+            // the subclasses may only override updateAccumulator
+            super.updateAccumulators(keys, labels, predictions);
+            return;
+        }
+        NDArray update = evaluate(labels, predictions).sum();
+        for (String key : keys) {
+            totalInstances.compute(key, (k, v) -> v + 1);
+            addDeferred(key, update);
+        }
     }
 
     /** {@inheritDoc} */
@@ -374,6 +395,7 @@ public abstract class Loss extends Evaluator {
     public void resetAccumulator(String key) {
         totalInstances.compute(key, (k, v) -> 0L);
         totalLoss.compute(key, (k, v) -> 0f);
+        resetDeferred(key);
     }
 
     /** {@inheritDoc} */
@@ -387,6 +409,10 @@ public abstract class Loss extends Evaluator {
         if (total == 0) {
             return Float.NaN;
         }
+        if (isDeferredAccumulation()) {
+            float loss = (float) flushDeferred(key);
+            totalLoss.compute(key, (k, v) -> v + loss);
+        }
 
         return totalLoss.get(key) / totalInstances.get(key);
     }
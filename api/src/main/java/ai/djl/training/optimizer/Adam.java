@@ -18,6 +18,7 @@ import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.training.tracker.Tracker;
 import ai.djl.util.Preconditions;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -63,19 +64,8 @@ public class Adam extends Optimizer {
     /** {@inheritDoc} */
     @Override
     public void update(String parameterId, NDArray weight, NDArray grad) {
-        int t = updateCount(parameterId);
-        double coef1 = 1.0 - Math.pow(beta1, t);
-        double coef2 = 1.0 - Math.pow(beta2, t);
-        float lr = learningRateTracker.getNewValue(t);
-        float newLearningRate = (float) (lr * Math.sqrt(coef2) / coef1);
+        float newLearningRate = getLearningRate(parameterId);
         float weightDecay = getWeightDecay();
-
-        Preconditions.checkArgument(
-                !Float.isNaN(newLearningRate)
-                        && !Float.isNaN(weightDecay)
-                        && !Float.isInfinite(newLearningRate)
-                        && !Float.isInfinite(weightDecay),
-                "learning rate or weight decay is nan or infinite");
         NDList inputs =
                 new NDList(
                         weight,
@@ -104,6 +94,52 @@ public class Adam extends Optimizer {
                 true);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The weights on the same device and with the same data type are updated together with
+     * {@link NDArrayEx#multiAdamUpdate(NDList, NDList, NDList, NDList, float[], float, float,
+     * float, float, float, float)}.
+     */
+    @Override
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        float weightDecay = getWeightDecay();
+        for (List<Integer> group : groupByDevice(weights)) {
+            int size = group.size();
+            NDList groupWeights = new NDList(size);
+            NDList groupGrads = new NDList(size);
+            NDList groupMeans = new NDList(size);
+            NDList groupVariances = new NDList(size);
+            float[] learningRates = new float[size];
+            for (int i = 0; i < size; ++i) {
+                int index = group.get(i);
+                String parameterId = parameterIds[index];
+                NDArray weight = weights[index];
+                Device device = weight.getDevice();
+                learningRates[i] = getLearningRate(parameterId);
+                groupWeights.add(weight);
+                groupGrads.add(grads[index]);
+                groupMeans.add(
+                        withDefaultState(means, parameterId, device, k -> weight.zerosLike()));
+                groupVariances.add(
+                        withDefaultState(variances, parameterId, device, k -> weight.zerosLike()));
+            }
+            NDArrayEx ex = groupWeights.get(0).getNDArrayInternal();
+            ex.multiAdamUpdate(
+                    groupWeights,
+                    groupGrads,
+                    groupMeans,
+                    groupVariances,
+                    learningRates,
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    beta1,
+                    beta2,
+                    epsilon);
+        }
+    }
+
     /**
      * Creates a builder to build a {@code Adam}.
      *
@@ -113,6 +149,24 @@ public class Adam extends Optimizer {
         return new Builder();
     }
 
+    // returns the learning rate of the update with the bias correction of the moments
+    private float getLearningRate(String parameterId) {
+        int t = updateCount(parameterId);
+        double coef1 = 1.0 - Math.pow(beta1, t);
+        double coef2 = 1.0 - Math.pow(beta2, t);
+        float lr = learningRateTracker.getNewValue(t);
+        float newLearningRate = (float) (lr * Math.sqrt(coef2) / coef1);
+        float weightDecay = getWeightDecay();
+
+        Preconditions.checkArgument(
+                !Float.isNaN(newLearningRate)
+                        && !Float.isNaN(weightDecay)
+                        && !Float.isInfinite(newLearningRate)
+                        && !Float.isInfinite(weightDecay),
+                "learning rate or weight decay is nan or infinite");
+        return newLearningRate;
+    }
+
     /** The Builder to construct an {@link Adam} object. */
     public static final class Builder extends OptimizerBuilder<Builder> {
 
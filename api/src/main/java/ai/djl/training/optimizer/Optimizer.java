@@ -14,6 +14,8 @@ package ai.djl.training.optimizer;
 
 import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
@@ -133,6 +135,55 @@ public abstract class Optimizer {
      */
     public abstract void update(String parameterId, NDArray weight, NDArray grad);
 
+    /**
+     * Updates several parameters according to their gradients.
+     *
+     * <p>The default implementation updates the parameters one at a time with {@link
+     * #update(String, NDArray, NDArray)}. The optimizers that override it update the parameters on
+     * the same device and with the same data type together, with the multi-tensor operation of the
+     * engine.
+     *
+     * @param parameterIds the parameters to be updated
+     * @param weights the weights of each parameter
+     * @param grads the gradients of each parameter
+     */
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        for (int i = 0; i < parameterIds.length; ++i) {
+            update(parameterIds[i], weights[i], grads[i]);
+        }
+    }
+
+    /**
+     * Groups the weights by device and data type, the weights of a group can be updated by a single
+     * multi-tensor operation.
+     *
+     * @param weights the weights
+     * @return the indices of the weights of each group, in the order of the weights
+     */
+    protected static List<List<Integer>> groupByDevice(NDArray[] weights) {
+        // there are only a few groups, usually a single one
+        List<List<Integer>> groups = new ArrayList<>();
+        List<NDArray> firsts = new ArrayList<>();
+        for (int i = 0; i < weights.length; ++i) {
+            NDArray weight = weights[i];
+            int group = 0;
+            while (group < firsts.size()) {
+                NDArray first = firsts.get(group);
+                if (first.getDataType() == weight.getDataType()
+                        && first.getDevice().equals(weight.getDevice())) {
+                    break;
+                }
+                ++group;
+            }
+            if (group == firsts.size()) {
+                firsts.add(weight);
+                groups.add(new ArrayList<>());
+            }
+            groups.get(group).add(i);
+        }
+        return groups;
+    }
+
     protected NDArray withDefaultState(
             Map<String, Map<Device, NDArray>> state,
             String key,
@@ -17,6 +17,7 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.training.tracker.Tracker;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -77,6 +78,51 @@ public class Sgd extends Optimizer {
                 inputs, weights, learningRate, weightDecay, rescaleGrad, clipGrad, momentum, true);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The weights on the same device and with the same data type are updated together with
+     * {@link NDArrayEx#multiSgdUpdate(NDList, NDList, NDList, float[], float, float, float,
+     * float)}.
+     */
+    @Override
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        float weightDecay = getWeightDecay();
+        for (List<Integer> group : groupByDevice(weights)) {
+            int size = group.size();
+            NDList groupWeights = new NDList(size);
+            NDList groupGrads = new NDList(size);
+            NDList states = momentum != 0f ? new NDList(size) : null;
+            float[] learningRates = new float[size];
+            for (int i = 0; i < size; ++i) {
+                int index = group.get(i);
+                String parameterId = parameterIds[index];
+                NDArray weight = weights[index];
+                groupWeights.add(weight);
+                groupGrads.add(grads[index]);
+                learningRates[i] = learningRateTracker.getNewValue(updateCount(parameterId));
+                if (states != null) {
+                    states.add(
+                            withDefaultState(
+                                    momentumStates,
+                                    parameterId,
+                                    weight.getDevice(),
+                                    k -> weight.zerosLike()));
+                }
+            }
+            NDArrayEx ex = groupWeights.get(0).getNDArrayInternal();
+            ex.multiSgdUpdate(
+                    groupWeights,
+                    groupGrads,
+                    states,
+                    learningRates,
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    momentum);
+        }
+    }
+
     /** The Builder to construct an {@link Sgd} object. */
     public static final class Builder extends OptimizerBuilder<Builder> {
 
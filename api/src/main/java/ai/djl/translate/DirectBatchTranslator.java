@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.translate;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.DataDesc;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+/**
+ * A {@link Translator} that writes the pre-processed data of each input straight into its slot of
+ * the batch.
+ *
+ * <p>The inputs all have the shapes and data types given by {@link #getInputDescriptors()}. When
+ * the translator is used with a {@link StackBatchifier}, the {@link ai.djl.inference.Predictor}
+ * allocates one direct buffer per input kind for the whole batch, calls {@link
+ * #processInput(TranslatorContext, Object, ByteBuffer[])} with the slots of each input, and creates
+ * one {@link ai.djl.ndarray.NDArray} per input kind, without creating and stacking an {@code
+ * NDArray} per input.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public interface DirectBatchTranslator<I, O> extends Translator<I, O> {
+
+    /**
+     * Returns the shape, data type and name of each array of a single pre-processed input, without
+     * the batch axis.
+     *
+     * @return the descriptors of the arrays of a single pre-processed input
+     */
+    DataDesc[] getInputDescriptors();
+
+    /**
+     * Processes the input and writes it into the slots of the batch.
+     *
+     * <p>Each slot is a native order buffer positioned at 0 whose limit is the size of the array
+     * described by the matching descriptor, in bytes. The whole slot must be written, it is not
+     * cleared beforehand.
+     *
+     * @param ctx the toolkit used for pre-processing
+     * @param input the input object
+     * @param slots the buffers to write each array of the input into
+     * @throws Exception if an error occurs during processing input
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    void processInput(TranslatorContext ctx, I input, ByteBuffer[] slots) throws Exception;
+
+    /** {@inheritDoc} */
+    @Override
+    default NDList processInput(TranslatorContext ctx, I input) throws Exception {
+        return StackBatchifier.fill(ctx, this, Collections.singletonList(input), false);
+    }
+}
@@ -16,8 +16,11 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -31,6 +34,7 @@ public final class PaddingStackBatchifier implements Batchifier {
     private List<NDArraySupplier> paddingSuppliers;
     private List<Integer> paddingSizes;
     private boolean includeValidLengths;
+    private boolean distinctArrays;
 
     private PaddingStackBatchifier(Builder builder) {
         arraysToPad = builder.arraysToPad;
@@ -38,6 +42,8 @@ public final class PaddingStackBatchifier implements Batchifier {
         paddingSuppliers = builder.paddingSuppliers;
         paddingSizes = builder.paddingSizes;
         includeValidLengths = builder.includeValidLengths;
+        // an array padded on several dimensions is padded one dimension at a time
+        distinctArrays = new HashSet<>(arraysToPad).size() == arraysToPad.size();
     }
 
     /** {@inheritDoc} */
@@ -45,6 +51,8 @@ public final class PaddingStackBatchifier implements Batchifier {
     public NDList batchify(NDList[] inputs) {
         NDList validLengths = new NDList(inputs.length);
         NDManager manager = inputs[0].get(0).getManager();
+        NDArray[] batched = new NDArray[inputs[0].size()];
+        boolean hasBatched = false;
         for (int i = 0; i < arraysToPad.size(); i++) {
             long[] arrayValidLengths = new long[inputs.length];
             int arrayIndex = arraysToPad.get(i);
@@ -52,19 +60,31 @@ public final class PaddingStackBatchifier implements Batchifier {
             NDArray padding = paddingSuppliers.get(i).get(manager);
             long paddingSize = paddingSizes.get(i);
             long maxSize = -1;
-            for (NDList input : inputs) {
-                NDArray array = input.get(arrayIndex);
-                maxSize = Math.max(maxSize, array.getShape().get(dimIndex));
+            for (int j = 0; j < inputs.length; j++) {
+                NDArray array = inputs[j].get(arrayIndex);
+                arrayValidLengths[j] = array.getShape().get(dimIndex);
+                maxSize = Math.max(maxSize, arrayValidLengths[j]);
             }
             if (paddingSize != -1 && maxSize > paddingSize) {
                 throw new IllegalArgumentException(
                         "The batchifier padding size is too small " + maxSize + " " + paddingSize);
             }
             maxSize = Math.max(maxSize, paddingSize);
+            validLengths.add(manager.create(arrayValidLengths));
+
+            if (distinctArrays) {
+                NDArray batch =
+                        padInBuffer(manager, inputs, arrayIndex, dimIndex, padding, maxSize);
+                if (batch != null) {
+                    batched[arrayIndex] = batch;
+                    hasBatched = true;
+                    continue;
+                }
+            }
             for (int j = 0; j < inputs.length; j++) {
                 NDArray array = inputs[j].get(arrayIndex);
                 String arrayName = array.getName();
-                long validLength = array.getShape().get(dimIndex);
+                long validLength = arrayValidLengths[j];
                 if (validLength < maxSize) {
                     NDArray paddingArray =
                             padding.repeat(
@@ -72,14 +92,18 @@ public final class PaddingStackBatchifier implements Batchifier {
                                             array.getShape(), dimIndex, maxSize - validLength));
                     array = array.concat(paddingArray.toType(array.getDataType(), false), dimIndex);
                 }
-                arrayValidLengths[j] = validLength;
                 // keep input name
                 array.setName(arrayName);
                 inputs[j].set(arrayIndex, array);
             }
-            validLengths.add(manager.create(arrayValidLengths));
         }
-        NDList result = Batchifier.STACK.batchify(inputs);
+
+        NDList result;
+        if (hasBatched) {
+            result = stackRemaining(inputs, batched);
+        } else {
+            result = Batchifier.STACK.batchify(inputs);
+        }
         if (includeValidLengths) {
             result.addAll(validLengths);
         }
@@ -136,6 +160,102 @@ public final class PaddingStackBatchifier implements Batchifier {
         return split;
     }
 
+    // Pads and stacks one array of all the inputs by writing them into a single host buffer, so
+    // that the batch is created with one native call instead of a padding and concat per input.
+    // Returns null if the arrays can't be copied as raw bytes.
+    private static NDArray padInBuffer(
+            NDManager manager,
+            NDList[] inputs,
+            int arrayIndex,
+            int dimIndex,
+            NDArray padding,
+            long maxSize) {
+        NDArray first = inputs[0].get(arrayIndex);
+        DataType dataType = first.getDataType();
+        if (dataType == DataType.STRING
+                || dataType == DataType.UNKNOWN
+                || first.getDevice().isGpu()
+                || first.isSparse()) {
+            return null;
+        }
+        Shape shape = first.getShape();
+        Shape paddedShape = Shape.update(shape, dimIndex, maxSize);
+        Shape paddingShape = padding.getShape();
+        int paddingDim = dimIndex - shape.dimension() + paddingShape.dimension();
+        if (paddingDim >= 0 && paddingShape.get(paddingDim) != 1) {
+            // repeating a padding longer than 1 is only defined for some lengths
+            return null;
+        }
+        for (NDList input : inputs) {
+            NDArray array = input.get(arrayIndex);
+            if (array.getDataType() != dataType
+                    || !Shape.update(array.getShape(), dimIndex, maxSize).equals(paddedShape)
+                    || array.getDevice().isGpu()
+                    || array.isSparse()) {
+                return null;
+            }
+        }
+
+        int itemSize = dataType.getNumOfBytes();
+        long outer = shape.slice(0, dimIndex).size();
+        long inner = shape.slice(dimIndex + 1).size() * itemSize;
+        int paddedRow = Math.toIntExact(maxSize * inner);
+        int paddedBytes = Math.toIntExact(outer * paddedRow);
+        ByteBuffer padBuffer;
+        try (NDArray fullPadding = padding.repeat(paddedShape)) {
+            padBuffer = fullPadding.toType(dataType, false).toByteBuffer();
+        }
+        ByteBuffer bb = manager.allocateDirect(Math.multiplyExact(inputs.length, paddedBytes));
+        for (NDList input : inputs) {
+            NDArray array = input.get(arrayIndex);
+            ByteBuffer data = array.toByteBuffer();
+            int row = Math.toIntExact(array.getShape().get(dimIndex) * inner);
+            int base = bb.position();
+            for (int o = 0; o < outer; o++) {
+                int dst = base + o * paddedRow;
+                copy(data, o * row, bb, dst, row);
+                copy(padBuffer, o * paddedRow + row, bb, dst + row, paddedRow - row);
+            }
+            bb.position(base + paddedBytes);
+        }
+        bb.rewind();
+        NDArray batch = manager.create(bb, new Shape(inputs.length).addAll(paddedShape), dataType);
+        // keep input name
+        batch.setName(first.getName());
+        return batch;
+    }
+
+    private static void copy(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int len) {
+        if (len == 0) {
+            return;
+        }
+        ByteBuffer slice = src.duplicate();
+        slice.limit(srcIndex + len).position(srcIndex);
+        ByteBuffer target = dst.duplicate();
+        target.position(dstIndex);
+        target.put(slice);
+    }
+
+    private static NDList stackRemaining(NDList[] inputs, NDArray[] batched) {
+        NDList[] remaining = new NDList[inputs.length];
+        for (int j = 0; j < inputs.length; j++) {
+            remaining[j] = new NDList();
+            for (int k = 0; k < batched.length; k++) {
+                if (batched[k] == null) {
+                    remaining[j].add(inputs[j].get(k));
+                }
+            }
+        }
+        NDList stacked =
+                remaining[0].isEmpty() ? new NDList() : Batchifier.STACK.batchify(remaining);
+        NDList result = new NDList(batched.length);
+        int next = 0;
+        for (NDArray array : batched) {
+            result.add(array == null ? stacked.get(next++) : array);
+        }
+        return result;
+    }
+
     /**
      * Returns a {@link PaddingStackBatchifier.Builder}.
      *
@@ -14,8 +14,9 @@ package ai.djl.translate;
 
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
-import ai.djl.util.Pair;
 import ai.djl.util.PairList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -136,6 +137,15 @@ public class Pipeline {
         return this;
     }
 
+    /**
+     * Returns the transforms of this {@code Pipeline} in the order they are applied.
+     *
+     * @return the transforms of this {@code Pipeline}
+     */
+    public List<Transform> getTransforms() {
+        return Collections.unmodifiableList(transforms.values());
+    }
+
     /**
      * Applies the transforms configured in this object on the input {@link NDList}.
      *
@@ -147,7 +157,20 @@ public class Pipeline {
      * @return the output {@link NDList} after applying the tranforms
      */
     public NDList transform(NDList input) {
-        if (transforms.isEmpty() || input.isEmpty()) {
+        return transform(input, 0);
+    }
+
+    /**
+     * Applies the transforms configured in this object, starting from the given one, on the input
+     * {@link NDList}.
+     *
+     * @param input the input {@link NDList} on which the tranforms are to be applied
+     * @param fromIndex the index of the first transform to apply
+     * @return the output {@link NDList} after applying the tranforms
+     * @see #transform(NDList)
+     */
+    public NDList transform(NDList input, int fromIndex) {
+        if (transforms.size() <= fromIndex || input.isEmpty()) {
             return input;
         }
 
@@ -163,12 +186,12 @@ public class Pipeline {
             map.put(new IndexKey(i), i);
         }
         // apply transform
-        for (Pair<IndexKey, Transform> transform : transforms) {
-            IndexKey key = transform.getKey();
+        for (int i = fromIndex; i < transforms.size(); ++i) {
+            IndexKey key = transforms.keyAt(i);
             int index = map.get(key);
             NDArray array = arrays[index];
 
-            arrays[index] = transform.getValue().transform(array);
+            arrays[index] = transforms.valueAt(i).transform(array);
             arrays[index].setName(array.getName());
         }
 
@@ -16,9 +16,14 @@ import ai.djl.engine.EngineException;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataDesc;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.LongStream;
 
 /**
@@ -90,6 +95,71 @@ public class StackBatchifier implements Batchifier {
         }
     }
 
+    /**
+     * Creates a batch of inputs that a {@link DirectBatchTranslator} writes into one preallocated
+     * buffer per input kind.
+     *
+     * <p>Only one {@link NDArray} is created for each input kind of the batch.
+     *
+     * @param ctx the context of the translator
+     * @param translator the translator that pre-processes the inputs
+     * @param inputs the inputs of the batch
+     * @param <I> the input type
+     * @return the batch
+     * @throws Exception if an error occurs during processing input
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public <I> NDList batchify(
+            TranslatorContext ctx, DirectBatchTranslator<I, ?> translator, List<I> inputs)
+            throws Exception {
+        return fill(ctx, translator, inputs, true);
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    static <I> NDList fill(
+            TranslatorContext ctx,
+            DirectBatchTranslator<I, ?> translator,
+            List<I> inputs,
+            boolean batchAxis)
+            throws Exception {
+        DataDesc[] descriptors = translator.getInputDescriptors();
+        NDManager manager = ctx.getNDManager();
+        int batchSize = inputs.size();
+        int numInputKinds = descriptors.length;
+        int[] slotSizes = new int[numInputKinds];
+        ByteBuffer[] buffers = new ByteBuffer[numInputKinds];
+        for (int k = 0; k < numInputKinds; ++k) {
+            DataDesc desc = descriptors[k];
+            long size = desc.getShape().size() * desc.getDataType().getNumOfBytes();
+            slotSizes[k] = Math.toIntExact(size);
+            buffers[k] = manager.allocateDirect(Math.multiplyExact(slotSizes[k], batchSize));
+        }
+
+        ByteBuffer[] slots = new ByteBuffer[numInputKinds];
+        for (int i = 0; i < batchSize; ++i) {
+            for (int k = 0; k < numInputKinds; ++k) {
+                ByteBuffer slot = buffers[k].duplicate();
+                slot.limit((i + 1) * slotSizes[k]);
+                slot.position(i * slotSizes[k]);
+                slots[k] = slot.slice().order(ByteOrder.nativeOrder());
+            }
+            translator.processInput(ctx, inputs.get(i), slots);
+        }
+
+        NDList result = new NDList(numInputKinds);
+        for (int k = 0; k < numInputKinds; ++k) {
+            DataDesc desc = descriptors[k];
+            Shape shape = desc.getShape();
+            if (batchAxis) {
+                shape = new Shape(batchSize).addAll(shape);
+            }
+            NDArray array = manager.create(buffers[k], shape, desc.getDataType());
+            array.setName(desc.getName());
+            result.add(array);
+        }
+        return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDList[] unbatchify(NDList inputs) {
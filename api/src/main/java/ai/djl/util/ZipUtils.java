@@ -16,16 +16,31 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /** Utilities for working with zip files. */
 public final class ZipUtils {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private ZipUtils() {}
 
     /**
@@ -39,25 +54,144 @@ public final class ZipUtils {
         ZipInputStream zis = new ZipInputStream(is);
         ZipEntry entry;
         while ((entry = zis.getNextEntry()) != null) {
-            String name = entry.getName();
-            if (name.contains("..")) {
-                throw new IOException("Malicious zip entry: " + name);
+            Path file = newFile(dest, entry.getName(), entry.isDirectory());
+            if (file != null) {
+                copy(zis, file, entry.getSize());
+            }
+        }
+    }
+
+    /**
+     * Unzips a zip file to a given path.
+     *
+     * <p>The entries are read from the central directory of the zip file, and inflated in parallel.
+     * When several entries point to the same file, only the last one is extracted.
+     *
+     * @param zipFile the zip file to unzip
+     * @param dest the path to store the unzipped files
+     * @throws IOException for failures to unzip the file and create files in the dest path
+     */
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    public static void unzip(Path zipFile, Path dest) throws IOException {
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            Map<Path, ZipEntry> files = new LinkedHashMap<>();
+            Enumeration<? extends ZipEntry> e = zip.entries();
+            while (e.hasMoreElements()) {
+                ZipEntry entry = e.nextElement();
+                // validates all the entries and creates the directories first
+                Path file = newFile(dest, entry.getName(), entry.isDirectory());
+                if (file != null) {
+                    // the last duplicate entry wins, as with a sequential extraction
+                    files.put(file, entry);
+                }
+            }
+            List<Map.Entry<Path, ZipEntry>> entries = new ArrayList<>(files.entrySet());
+            // the large entries first, so that they don't delay the end of the extraction
+            Comparator<Map.Entry<Path, ZipEntry>> bySize =
+                    Comparator.comparingLong(x -> x.getValue().getSize());
+            entries.sort(bySize.reversed());
+
+            int threads = Math.min(entries.size(), Runtime.getRuntime().availableProcessors());
+            if (threads <= 1) {
+                for (Map.Entry<Path, ZipEntry> entry : entries) {
+                    unzipEntry(zip, entry.getValue(), entry.getKey());
+                }
+                return;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Map.Entry<Path, ZipEntry> entry : entries) {
+                    futures.add(
+                            executor.submit(
+                                    () -> {
+                                        unzipEntry(zip, entry.getValue(), entry.getKey());
+                                        return null;
+                                    }));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException ex) {
+                        Throwable cause = ex.getCause();
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                        throw new IOException("Failed to unzip: " + zipFile, cause);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Unzip interrupted: " + zipFile, ex);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
             }
-            Path file = dest.resolve(name).toAbsolutePath();
-            if (entry.isDirectory()) {
-                Files.createDirectories(file);
-            } else {
-                Path parentFile = file.getParent();
-                if (parentFile == null) {
-                    throw new AssertionError(
-                            "Parent path should never be null: " + file.toString());
+        }
+    }
+
+    /**
+     * Copies an input stream to a file, through a {@link FileChannel}.
+     *
+     * @param is the input stream to copy
+     * @param file the file to write
+     * @param size the size of the file if known, or -1; used to size the copy buffer
+     * @throws IOException for failures to write the file
+     */
+    public static void copy(InputStream is, Path file, long size) throws IOException {
+        try (FileChannel channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            int bufferSize = size > 0 ? (int) Math.min(size, BUFFER_SIZE) : BUFFER_SIZE;
+            byte[] buf = new byte[bufferSize];
+            long position = 0;
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, 0, read);
+                while (bb.hasRemaining()) {
+                    position += channel.write(bb, position);
                 }
-                Files.createDirectories(parentFile);
-                Files.copy(zis, file, StandardCopyOption.REPLACE_EXISTING);
             }
         }
     }
 
+    /**
+     * Returns the file of an archive entry, after creating its parent directories.
+     *
+     * @param dest the directory to extract the archive to
+     * @param name the name of the entry
+     * @param directory if the entry is a directory
+     * @return the file of the entry, or {@code null} if the entry is a directory
+     * @throws IOException if the entry is outside of the directory
+     */
+    private static Path newFile(Path dest, String name, boolean directory) throws IOException {
+        if (name.contains("..")
+                || name.startsWith("/")
+                || name.startsWith("\\")
+                || dest.getFileSystem().getPath(name).isAbsolute()) {
+            throw new IOException("Malicious zip entry: " + name);
+        }
+        Path file = dest.resolve(name).toAbsolutePath().normalize();
+        if (directory) {
+            Files.createDirectories(file);
+            return null;
+        }
+        Path parentFile = file.getParent();
+        if (parentFile == null) {
+            throw new AssertionError("Parent path should never be null: " + file.toString());
+        }
+        Files.createDirectories(parentFile);
+        return file;
+    }
+
+    private static void unzipEntry(ZipFile zip, ZipEntry entry, Path file) throws IOException {
+        try (InputStream is = zip.getInputStream(entry)) {
+            copy(is, file, entry.getSize());
+        }
+    }
+
     /**
      * Zips an input directory to a given file.
      *
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StreamingMetricsTest {
+
+    @Test
+    public void testStreamingMetrics() {
+        Metrics metrics = new StreamingMetrics(2);
+        metrics.addMetric(new Metric("m1", 1L));
+        metrics.addMetric("m1", 3L, Unit.COUNT);
+        metrics.addMetric("m1", 2L);
+        Metric p50 = metrics.percentile("m1", 50);
+        Assert.assertEquals(p50.getValue().longValue(), 2L);
+        Assert.assertEquals(p50.getUnit(), Unit.COUNT);
+
+        metrics.addMetric("m2", 2.4d, Unit.MICROSECONDS);
+        metrics.addMetric("m2", 3.4d, Unit.MICROSECONDS);
+        metrics.addMetric("m2", -1.3d, Unit.MICROSECONDS);
+        Assert.assertEquals(metrics.mean("m2"), 1.5d, 1e-9);
+        Assert.assertEquals(metrics.percentile("m2", 0).getValue().doubleValue(), -1.3d);
+        Assert.assertEquals(metrics.percentile("m2", 99).getValue().doubleValue(), 3.4d);
+        Assert.assertEquals(metrics.percentile("m2", 99).getUnit(), Unit.MICROSECONDS);
+
+        Assert.assertTrue(metrics.hasMetric("m1"));
+        Assert.assertEquals(metrics.latestMetric("m1").getValue().longValue(), 2L);
+        Assert.assertThrows(() -> metrics.latestMetric("none"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.mean("none"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.percentile("none", 1));
+
+        // only the most recent metrics are kept
+        List<Metric> list = metrics.getMetric("m1");
+        Assert.assertEquals(list.size(), 2);
+        Assert.assertEquals(list.get(0).getValue().longValue(), 3L);
+        Assert.assertEquals(list.get(1).getValue().longValue(), 2L);
+        Assert.assertEquals(((StreamingMetrics) metrics).count("m1"), 3);
+        Assert.assertTrue(metrics.getMetric("m3").isEmpty());
+        Assert.assertEquals(metrics.getMetricNames().size(), 2);
+    }
+
+    @Test
+    public void testPercentileAccuracy() {
+        StreamingMetrics metrics = new StreamingMetrics();
+        Random random = new Random(1);
+        int size = 100_000;
+        double[] values = new double[size];
+        for (int i = 0; i < size; ++i) {
+            // log-normal latencies in microseconds
+            values[i] = Math.exp(7 + random.nextGaussian());
+            metrics.addMetric("latency", values[i], Unit.MICROSECONDS);
+        }
+        Arrays.sort(values);
+        double relativeError = Math.scalb(1d, -StreamingMetrics.SUB_BUCKET_BITS);
+        for (int p : new int[] {1, 10, 50, 90, 99}) {
+            double expected = values[size * p / 100];
+            double actual = metrics.percentile("latency", p).getValue();
+            Assert.assertEquals(actual, expected, expected * relativeError);
+        }
+    }
+
+    @Test
+    public void testBuckets() {
+        double[] values = {-1e20, -3.5, -1, -1e-9, 0, 1e-9, 1, 1.5, 1024, 1e20};
+        int previous = -1;
+        for (double value : values) {
+            int bucket = StreamingMetrics.bucketOf(value);
+            Assert.assertTrue(bucket >= previous);
+            previous = bucket;
+        }
+        Assert.assertEquals(StreamingMetrics.valueOf(StreamingMetrics.bucketOf(1.5)), 1.5);
+        Assert.assertEquals(StreamingMetrics.valueOf(StreamingMetrics.bucketOf(-3.5)), -3.5);
+        Assert.assertEquals(StreamingMetrics.valueOf(StreamingMetrics.bucketOf(1e-9)), 0d);
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        StreamingMetrics metrics = new StreamingMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; ++i) {
+            executor.submit(
+                    () -> {
+                        for (int j = 0; j < 10_000; ++j) {
+                            metrics.addMetric("m1", 1L, Unit.COUNT);
+                        }
+                    });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assert.assertEquals(metrics.count("m1"), 40_000);
+        Assert.assertEquals(metrics.mean("m1"), 1d);
+        Assert.assertEquals(metrics.getMetric("m1").size(), 100);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp;
+
+import ai.djl.util.Utils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CompactVocabularyTest {
+
+    @Test
+    public void testLookup() {
+        List<String> tokens = Arrays.asList("hello", "wörld", "日本", "😀", "hello", "");
+        CompactVocabulary vocabulary = new CompactVocabulary(tokens, "[UNK]");
+        Assert.assertEquals(vocabulary.size(), 7);
+        Assert.assertEquals(vocabulary.getIndex("hello"), 0);
+        Assert.assertEquals(vocabulary.getIndex("wörld"), 1);
+        Assert.assertEquals(vocabulary.getIndex(new StringBuilder("日本")), 2);
+        Assert.assertEquals(vocabulary.getIndex("😀"), 3);
+        Assert.assertEquals(vocabulary.getIndex(""), 5);
+        Assert.assertEquals(vocabulary.getIndex("[UNK]"), 6);
+        Assert.assertEquals(vocabulary.getIndex("missing"), 6);
+        Assert.assertEquals(vocabulary.getIndex("say hello!", 4, 9), 0);
+        Assert.assertEquals(vocabulary.getIndex("say hello!", 4, 8), 6);
+        Assert.assertTrue(vocabulary.contains("日本"));
+        Assert.assertFalse(vocabulary.contains("日"));
+        Assert.assertEquals(vocabulary.getToken(1), "wörld");
+        Assert.assertEquals(vocabulary.getToken(3), "😀");
+        Assert.assertEquals(vocabulary.getToken(100), "[UNK]");
+
+        CompactVocabulary strict = new CompactVocabulary(tokens);
+        Assert.assertFalse(strict.contains("missing"));
+        Assert.assertThrows(IllegalStateException.class, () -> strict.getIndex("missing"));
+        Assert.assertNull(strict.getToken(-1));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 10000; ++i) {
+            tokens.add("token" + i);
+        }
+        CompactVocabulary vocabulary = new CompactVocabulary(tokens, "[UNK]");
+        DefaultVocabulary expected =
+                DefaultVocabulary.builder().add(tokens).optUnknownToken("[UNK]").build();
+
+        Path dir = Paths.get("build/tmp/vocabulary");
+        Files.createDirectories(dir);
+        Path file = dir.resolve("vocab.bin");
+        try {
+            vocabulary.save(file);
+            CompactVocabulary loaded = CompactVocabulary.load(file);
+            Assert.assertEquals(loaded.size(), expected.size());
+            for (int i = 0; i < tokens.size(); i += 7) {
+                String token = tokens.get(i);
+                Assert.assertEquals(loaded.getIndex(token), expected.getIndex(token));
+                Assert.assertEquals(loaded.getToken(i), expected.getToken(i));
+            }
+            Assert.assertEquals(loaded.getIndex("missing"), expected.getIndex("missing"));
+
+            Files.write(file, new byte[10]);
+            Assert.assertThrows(IOException.class, () -> CompactVocabulary.load(file));
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+}
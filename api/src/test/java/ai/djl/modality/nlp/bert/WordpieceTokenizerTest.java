@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WordpieceTokenizerTest {
+
+    @Test
+    public void testTokenize() {
+        Vocabulary vocabulary =
+                new DefaultVocabulary(
+                        Arrays.asList("[UNK]", "un", "##aff", "##able", "a", "##a", "##", "##x"));
+        WordpieceTokenizer tokenizer = new WordpieceTokenizer(vocabulary, "[UNK]", 10);
+
+        List<String> tokens = tokenizer.tokenize(" unaffable  aaa unabl ##x verylongword ");
+        Assert.assertEquals(
+                tokens,
+                Arrays.asList("un", "##aff", "##able", "a", "##a", "##a", "[UNK]", "##x", "[UNK]"));
+        long[] indices = tokenizer.tokenizeToIndices(" unaffable  aaa unabl ##x verylongword ");
+        Assert.assertEquals(indices, new long[] {1, 2, 3, 4, 5, 5, 0, 7, 0});
+        Assert.assertTrue(tokenizer.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    public void testRandomSentences() {
+        Random random = new Random(0);
+        List<String> pieces = new ArrayList<>();
+        pieces.add("[UNK]");
+        for (int i = 0; i < 500; ++i) {
+            String piece = randomWord(random, 1 + random.nextInt(4));
+            pieces.add(i % 2 == 0 ? piece : "##" + piece);
+        }
+        DefaultVocabulary vocabulary = new DefaultVocabulary(pieces);
+        WordpieceTokenizer tokenizer = new WordpieceTokenizer(vocabulary, "[UNK]", 12);
+
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 20; ++j) {
+                sb.append(randomWord(random, 1 + random.nextInt(15))).append(' ');
+            }
+            sentences.add(sb.toString());
+        }
+        List<long[]> batch = tokenizer.tokenizeToIndices(sentences);
+        for (int i = 0; i < sentences.size(); ++i) {
+            String sentence = sentences.get(i);
+            List<String> expected = tokenize(vocabulary, sentence, 12);
+            Assert.assertEquals(tokenizer.tokenize(sentence), expected);
+            long[] indices = expected.stream().mapToLong(vocabulary::getIndex).toArray();
+            Assert.assertEquals(tokenizer.tokenizeToIndices(sentence), indices);
+            Assert.assertEquals(batch.get(i), indices);
+        }
+    }
+
+    // the substring based greedy longest-match-first algorithm
+    private static List<String> tokenize(Vocabulary vocabulary, String sentence, int maxChars) {
+        List<String> output = new ArrayList<>();
+        for (String token : sentence.trim().split(" ")) {
+            if (token.length() > maxChars) {
+                output.add("[UNK]");
+                continue;
+            }
+            List<String> subTokens = new ArrayList<>();
+            int start = 0;
+            while (start < token.length()) {
+                String match = null;
+                int end = token.length();
+                for (; end > start; --end) {
+                    String sub = (start > 0 ? "##" : "") + token.substring(start, end);
+                    if (vocabulary.contains(sub)) {
+                        match = sub;
+                        break;
+                    }
+                }
+                if (match == null) {
+                    subTokens = Arrays.asList("[UNK]");
+                    break;
+                }
+                subTokens.add(match);
+                start = end;
+            }
+            output.addAll(subTokens);
+        }
+        return output;
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(chars);
+    }
+}
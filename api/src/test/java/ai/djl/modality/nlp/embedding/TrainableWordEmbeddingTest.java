@@ -15,6 +15,9 @@ package ai.djl.modality.nlp.embedding;
 import ai.djl.modality.nlp.DefaultVocabulary;
 import ai.djl.modality.nlp.preprocess.SimpleTokenizer;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.util.Arrays;
+import java.util.List;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -46,4 +49,18 @@ public class TrainableWordEmbeddingTest {
             Assert.assertEquals(word, "<unk>");
         }
     }
+
+    @Test
+    public void testDuplicateItems() {
+        // the items are deduplicated, the first occurrence of a token keeps its index
+        List<String> items = Arrays.asList("the", "java", "the", "djl");
+        try (NDManager manager = NDManager.newBaseManager()) {
+            TrainableWordEmbedding embedding =
+                    new TrainableWordEmbedding(manager.zeros(new Shape(4, 2)), items);
+            Assert.assertEquals(embedding.embed("the"), 0);
+            Assert.assertEquals(embedding.embed("java"), 1);
+            Assert.assertEquals(embedding.embed("djl"), 2);
+            Assert.assertEquals(embedding.unembed(2).orElse(null), "djl");
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void testAllocate() {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20, 1 << 24);
+        ByteBuffer buf = pool.allocate(100);
+        Assert.assertTrue(buf.isDirect());
+        Assert.assertEquals(buf.order(), ByteOrder.nativeOrder());
+        Assert.assertEquals(buf.remaining(), 100);
+        Assert.assertEquals(buf.capacity(), 128);
+        Assert.assertEquals(pool.getOutstandingBytes(), 128);
+        Assert.assertEquals(pool.getMissCount(), 1);
+        // the rest of the slab is kept for the next allocations
+        Assert.assertEquals(pool.getAllocatedBytes(), 1 << 20);
+        Assert.assertEquals(pool.getPooledBytes(), (1 << 20) - 128);
+
+        buf.putInt(0, 42);
+        pool.release(buf);
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+        ByteBuffer reused = pool.allocate(120);
+        Assert.assertSame(reused, buf);
+        Assert.assertEquals(reused.remaining(), 120);
+        Assert.assertEquals(reused.getInt(0), 0);
+        Assert.assertEquals(pool.getHitCount(), 1);
+        Assert.assertEquals(pool.getHitRate(), 0.5);
+        pool.release(reused);
+    }
+
+    @Test
+    public void testLargeBuffers() {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20, 1 << 20);
+        ByteBuffer buf = pool.allocate(1 << 19);
+        Assert.assertEquals(buf.capacity(), 1 << 19);
+        Assert.assertEquals(pool.getAllocatedBytes(), 1 << 19);
+        pool.release(buf);
+        Assert.assertSame(pool.allocate(1 << 19), buf);
+
+        // not pooled
+        ByteBuffer huge = pool.allocate((1 << 20) + 1);
+        Assert.assertEquals(huge.capacity(), (1 << 20) + 1);
+        Assert.assertFalse(pool.isPooled(huge));
+        pool.release(huge);
+        Assert.assertEquals(pool.getOutstandingBytes(), 1 << 19);
+        Assert.assertFalse(pool.isPooled(ByteBuffer.allocate(64)));
+    }
+
+    @Test
+    public void testForeignBuffers() {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20, 1 << 20);
+        // a direct buffer of a pooled size class that doesn't come from the pool
+        ByteBuffer foreign = ByteBuffer.allocateDirect(1024);
+        Assert.assertFalse(pool.isPooled(foreign));
+        pool.release(foreign);
+        Assert.assertEquals(pool.getPooledBytes(), 0);
+
+        ByteBuffer buf = pool.allocate(1 << 19);
+        Assert.assertTrue(pool.isPooled(buf));
+        pool.release(buf);
+        // given back twice
+        pool.release(buf);
+        Assert.assertEquals(pool.getPooledBytes(), 1 << 19);
+
+        buf = pool.allocate(1 << 19);
+        pool.discard(buf);
+        Assert.assertFalse(pool.isPooled(buf));
+        pool.release(buf);
+        Assert.assertEquals(pool.getPooledBytes(), 0);
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+        Assert.assertNotSame(pool.allocate(1024), foreign);
+    }
+
+    @Test
+    public void testMaxPooledBytes() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20, 1 << 19);
+        ByteBuffer first = pool.allocate(1 << 19);
+        ByteBuffer second = pool.allocate(1 << 19);
+        pool.release(first);
+        Assert.assertEquals(pool.getPooledBytes(), 1 << 19);
+        // the pool is full, the buffer is not kept
+        pool.release(second);
+        Assert.assertEquals(pool.getPooledBytes(), 1 << 19);
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+
+        // the free buffers kept by a thread are not counted, they go away with the thread
+        DirectBufferPool small = new DirectBufferPool(1 << 20, 1 << 19);
+        Thread thread =
+                new Thread(
+                        () -> {
+                            ByteBuffer[] buffers = new ByteBuffer[4];
+                            for (int i = 0; i < buffers.length; ++i) {
+                                buffers[i] = small.allocate(512);
+                            }
+                            for (ByteBuffer buf : buffers) {
+                                small.release(buf);
+                            }
+                        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals(small.getPooledBytes(), (1 << 20) - 4 * 512);
+        Assert.assertEquals(small.getOutstandingBytes(), 0);
+    }
+
+    @Test
+    public void testConcurrentAllocate() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; ++i) {
+            executor.submit(
+                    () -> {
+                        for (int j = 0; j < 1000; ++j) {
+                            ByteBuffer buf = pool.allocate(1000 + j % 5000);
+                            pool.release(buf);
+                        }
+                    });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+        Assert.assertTrue(pool.getHitRate() > 0.9);
+    }
+}
@@ -13,11 +13,13 @@
 package ai.djl.ndarray;
 
 import ai.djl.Device;
+import ai.djl.ndarray.internal.ByteBufferDataInputStream;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.util.Float16Utils;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import org.testng.Assert;
@@ -95,6 +97,25 @@ public class NDSerializerTest {
         }
     }
 
+    @Test
+    public void testByteBufferDecode() throws IOException {
+        try (NDManager manager = NDManager.newBaseManager(Device.cpu())) {
+            NDArray a = manager.create(new float[] {1f, 2f, 3f});
+            NDArray b = manager.create(new int[] {4, 5});
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            bos.write(a.encode());
+            bos.write(b.encode());
+            ByteBuffer bb = ByteBuffer.allocateDirect(bos.size());
+            bb.put(bos.toByteArray());
+            bb.rewind();
+
+            ByteBufferDataInputStream dis = new ByteBufferDataInputStream(bb);
+            Assert.assertEquals(manager.decode(dis).toFloatArray(), new float[] {1f, 2f, 3f});
+            Assert.assertEquals(manager.decode(dis).toIntArray(), new int[] {4, 5});
+            Assert.assertEquals(dis.read(), -1);
+        }
+    }
+
     private static byte[] encode(NDArray array) throws IOException {
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
             NDSerializer.encodeAsNumpy(array, bos);
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ArtifactCacheTest {
+
+    @Test
+    public void testDeduplicate() throws IOException {
+        Path dir = Paths.get("build/tmp/artifactCache/dedup");
+        Utils.deleteQuietly(dir);
+        ArtifactCache cache = new ArtifactCache(dir.resolve("blobs"), Long.MAX_VALUE);
+        Path first = dir.resolve("first");
+        Path second = dir.resolve("second");
+
+        Path staging = cache.newStagingDirectory();
+        Files.createDirectories(staging.resolve("sub"));
+        Files.write(staging.resolve("sub/weights.bin"), new byte[100]);
+        cache.put("abc.dir", staging, first.resolve("model"), first);
+        cache.commit(first, first);
+        Assert.assertEquals(Files.size(first.resolve("model/sub/weights.bin")), 100);
+
+        // the item is linked from the store without saving it again
+        Assert.assertFalse(cache.link("def.dir", second.resolve("model"), second));
+        Assert.assertTrue(cache.link("abc.dir", second.resolve("model"), second));
+        cache.commit(second, second);
+        Assert.assertTrue(
+                Files.isSameFile(
+                        first.resolve("model/sub/weights.bin"),
+                        second.resolve("model/sub/weights.bin")));
+        Assert.assertEquals(cache.getSize(), 100);
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testEviction() throws IOException, InterruptedException {
+        Path dir = Paths.get("build/tmp/artifactCache/eviction");
+        Utils.deleteQuietly(dir);
+        ArtifactCache cache = new ArtifactCache(dir.resolve("blobs"), 250);
+        Path[] resources = new Path[5];
+        Closeable inUse = null;
+        for (int i = 0; i < resources.length; ++i) {
+            resources[i] = dir.resolve("resource" + i);
+            Path staging = cache.newStagingDirectory().resolve("file");
+            Files.write(staging, new byte[100]);
+            Path tmp = dir.resolve("tmp" + i);
+            cache.put("key" + i, staging, tmp.resolve("file"), tmp);
+            Utils.moveQuietly(tmp, resources[i]);
+            cache.commit(tmp, resources[i]);
+            Thread.sleep(10);
+            // the resources are leased like the models of a model zoo
+            Closeable lease = cache.lockResource(resources[i]);
+            if (i == 0) {
+                // the first resource is in use, it is never evicted
+                inUse = lease;
+            } else {
+                lease.close();
+            }
+            if (i == 2) {
+                // the least recently used resource that is not in use is evicted
+                Assert.assertEquals(cache.getSize(), 200);
+                Assert.assertFalse(Files.exists(resources[1]));
+                Assert.assertFalse(Files.exists(dir.resolve("blobs/key1")));
+                Assert.assertTrue(Files.exists(resources[0].resolve("file")));
+            } else if (i == 3) {
+                Assert.assertEquals(cache.getSize(), 200);
+                Assert.assertFalse(Files.exists(resources[2]));
+                Assert.assertTrue(Files.exists(resources[0].resolve("file")));
+                Assert.assertTrue(Files.exists(resources[3].resolve("file")));
+                // the resource can be evicted once it is no longer in use
+                inUse.close();
+                inUse.close();
+            }
+        }
+        Assert.assertEquals(cache.getSize(), 200);
+        Assert.assertFalse(Files.exists(resources[0]));
+        Assert.assertTrue(Files.exists(resources[3].resolve("file")));
+        Assert.assertTrue(Files.exists(resources[4].resolve("file")));
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testUnleasedResource() throws IOException {
+        Path dir = Paths.get("build/tmp/artifactCache/unleased");
+        Utils.deleteQuietly(dir);
+        ArtifactCache cache = new ArtifactCache(dir.resolve("blobs"), 150);
+        Path[] resources = new Path[3];
+        for (int i = 0; i < resources.length; ++i) {
+            resources[i] = dir.resolve("resource" + i);
+            Path staging = cache.newStagingDirectory().resolve("file");
+            Files.write(staging, new byte[100]);
+            Path tmp = dir.resolve("tmp" + i);
+            cache.put("key" + i, staging, tmp.resolve("file"), tmp);
+            Utils.moveQuietly(tmp, resources[i]);
+            cache.commit(tmp, resources[i]);
+        }
+        // the resources prepared without a lease, like datasets, are never evicted
+        Assert.assertEquals(cache.getSize(), 300);
+        for (Path resource : resources) {
+            Assert.assertTrue(Files.exists(resource.resolve("file")));
+        }
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testDeletedResource() throws IOException {
+        Path dir = Paths.get("build/tmp/artifactCache/deleted");
+        Utils.deleteQuietly(dir);
+        ArtifactCache cache = new ArtifactCache(dir.resolve("blobs"), Long.MAX_VALUE);
+        for (int i = 0; i < 2; ++i) {
+            Path resource = dir.resolve("resource" + i);
+            Path staging = cache.newStagingDirectory().resolve("file");
+            Files.write(staging, new byte[100]);
+            cache.put("key" + i, staging, resource.resolve("file"), resource);
+            cache.commit(resource, resource);
+            // the items of the resources deleted outside the cache are removed
+            Utils.deleteQuietly(resource);
+        }
+        Assert.assertEquals(cache.getSize(), 100);
+        Assert.assertFalse(Files.exists(dir.resolve("blobs/key0")));
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testParseSize() {
+        Assert.assertEquals(ArtifactCache.parseSize(null), 0);
+        Assert.assertEquals(ArtifactCache.parseSize("1024"), 1024);
+        Assert.assertEquals(ArtifactCache.parseSize("2k"), 2048);
+        Assert.assertEquals(ArtifactCache.parseSize("10G"), 10L << 30);
+    }
+}
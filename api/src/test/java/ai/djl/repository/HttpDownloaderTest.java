@@ -0,0 +1,365 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Hex;
+import ai.djl.util.Progress;
+import ai.djl.util.Utils;
+import ai.djl.util.ZipUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class HttpDownloaderTest {
+
+    private HttpServer server;
+    private Map<String, byte[]> files;
+    private Set<Long> failures;
+    private Set<Long> truncated;
+    private AtomicInteger rangeRequests;
+    private byte[] data;
+    private Path dir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        data = new byte[100_000];
+        new Random(0).nextBytes(data);
+        files = new ConcurrentHashMap<>();
+        failures = ConcurrentHashMap.newKeySet();
+        truncated = ConcurrentHashMap.newKeySet();
+        rangeRequests = new AtomicInteger();
+        files.put("/data.bin", data);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.createContext("/norange/", this::handleWithoutRange);
+        server.createContext("/noetag/", this::handleWithoutETag);
+        server.start();
+
+        dir = Paths.get("build/tmp/download");
+        Utils.deleteQuietly(dir);
+        Files.createDirectories(dir);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop(0);
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testRangeDownload() throws IOException {
+        HttpDownloader downloader =
+                HttpDownloader.builder().optChunkSize(8192).optConnections(4).build();
+        Path file = dir.resolve("range.bin");
+        rangeRequests.set(0);
+        downloader.download(getUrl("/data.bin"), file, sha1(data), null);
+        Assert.assertEquals(Files.readAllBytes(file), data);
+        Assert.assertEquals(rangeRequests.get(), 13);
+        Assert.assertFalse(Files.exists(dir.resolve("range.bin.part")));
+        Assert.assertFalse(Files.exists(dir.resolve("range.bin.state")));
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        HttpDownloader downloader =
+                HttpDownloader.builder().optChunkSize(8192).optMaxRetries(0).build();
+        Path file = dir.resolve("resume.bin");
+        failures.add(8192L * 3);
+        failures.add(8192L * 7);
+        rangeRequests.set(0);
+        Assert.assertThrows(
+                IOException.class,
+                () -> downloader.download(getUrl("/data.bin"), file, sha1(data), null));
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertTrue(Files.exists(dir.resolve("resume.bin.part")));
+
+        // only the failed chunks are downloaded again
+        rangeRequests.set(0);
+        downloader.download(getUrl("/data.bin"), file, sha1(data), null);
+        Assert.assertEquals(rangeRequests.get(), 2);
+        Assert.assertEquals(Files.readAllBytes(file), data);
+    }
+
+    @Test
+    public void testResumeWithoutETag() throws IOException {
+        HttpDownloader downloader =
+                HttpDownloader.builder().optChunkSize(8192).optMaxRetries(0).build();
+        Path file = dir.resolve("noetag.bin");
+        failures.add(8192L * 3);
+        Assert.assertThrows(
+                IOException.class,
+                () -> downloader.download(getUrl("/noetag/data.bin"), file, sha1(data), null));
+        Assert.assertFalse(Files.exists(dir.resolve("noetag.bin.state")));
+
+        // without a strong validator, the download restarts from the beginning
+        rangeRequests.set(0);
+        downloader.download(getUrl("/noetag/data.bin"), file, sha1(data), null);
+        Assert.assertEquals(rangeRequests.get(), 13);
+        Assert.assertEquals(Files.readAllBytes(file), data);
+    }
+
+    @Test
+    public void testRetry() throws IOException {
+        HttpDownloader downloader = HttpDownloader.builder().optChunkSize(8192).build();
+        Path file = dir.resolve("retry.bin");
+        failures.add(8192L * 5);
+        downloader.download(getUrl("/data.bin"), file, null, null);
+        Assert.assertEquals(Files.readAllBytes(file), data);
+    }
+
+    @Test
+    public void testRetryProgress() throws IOException {
+        HttpDownloader downloader = HttpDownloader.builder().optChunkSize(8192).build();
+        Path file = dir.resolve("progress.bin");
+        truncated.add(8192L * 2);
+        RecordingProgress progress = new RecordingProgress();
+        downloader.download(getUrl("/data.bin"), file, sha1(data), progress);
+        List<Long> increments = progress.increments;
+        Assert.assertEquals(Files.readAllBytes(file), data);
+        Assert.assertTrue(truncated.isEmpty());
+        // the progress of the truncated chunk is not rolled back, and is only counted once
+        Assert.assertTrue(increments.stream().allMatch(i -> i > 0));
+        Assert.assertEquals(increments.stream().mapToLong(Long::longValue).sum(), data.length);
+    }
+
+    @Test
+    public void testChecksum() throws IOException {
+        HttpDownloader downloader = HttpDownloader.builder().optChunkSize(8192).build();
+        Path file = dir.resolve("checksum.bin");
+        Assert.assertThrows(
+                IOException.class,
+                () -> downloader.download(getUrl("/data.bin"), file, "0123456789", null));
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertFalse(Files.exists(dir.resolve("checksum.bin.part")));
+    }
+
+    @Test
+    public void testWithoutRange() throws IOException {
+        HttpDownloader downloader = HttpDownloader.builder().optChunkSize(8192).build();
+        Path file = dir.resolve("norange.bin");
+        rangeRequests.set(0);
+        downloader.download(getUrl("/norange/data.bin"), file, sha1(data), null);
+        Assert.assertEquals(Files.readAllBytes(file), data);
+        Assert.assertEquals(rangeRequests.get(), 0);
+    }
+
+    @Test
+    public void testStreamConsumer() throws IOException {
+        HttpDownloader downloader =
+                HttpDownloader.builder().optChunkSize(8192).optConnections(4).build();
+        for (String path : new String[] {"/data.bin", "/norange/data.bin"}) {
+            Path file = dir.resolve("stream.bin");
+            Utils.deleteQuietly(file);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            downloader.download(
+                    getUrl(path), file, sha1(data), null, is -> bos.write(Utils.toByteArray(is)));
+            Assert.assertEquals(bos.toByteArray(), data);
+            Assert.assertEquals(Files.readAllBytes(file), data);
+        }
+
+        // the stream fails with the download
+        Path file = dir.resolve("streamFailure.bin");
+        HttpDownloader failing =
+                HttpDownloader.builder().optChunkSize(8192).optMaxRetries(0).build();
+        failures.add(8192L * 2);
+        AtomicInteger consumerFailures = new AtomicInteger();
+        Assert.assertThrows(
+                IOException.class,
+                () ->
+                        failing.download(
+                                getUrl("/data.bin"),
+                                file,
+                                null,
+                                null,
+                                is -> {
+                                    try {
+                                        Utils.toByteArray(is);
+                                    } catch (IOException e) {
+                                        consumerFailures.incrementAndGet();
+                                        throw e;
+                                    }
+                                }));
+        Assert.assertEquals(consumerFailures.get(), 1);
+    }
+
+    @Test
+    public void testRepository() throws IOException {
+        Path modelDir = dir.resolve("model");
+        Files.createDirectories(modelDir);
+        Files.write(modelDir.resolve("synset.txt"), data);
+        Path zip = dir.resolve("model.zip");
+        ZipUtils.zip(modelDir, zip, false);
+        files.put("/model.zip", Files.readAllBytes(zip));
+
+        Repository repo = Repository.newInstance("test", getUrl("/model.zip").toString());
+        List<MRL> list = repo.getResources();
+        Assert.assertEquals(list.size(), 1);
+        Artifact artifact = repo.resolve(list.get(0), null);
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        repo.prepare(artifact);
+        try {
+            Assert.assertEquals(Files.readAllBytes(resourceDir.resolve("synset.txt")), data);
+        } finally {
+            Utils.deleteQuietly(resourceDir);
+        }
+    }
+
+    @Test
+    public void testRepositoryTar() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tos =
+                new TarArchiveOutputStream(new GzipCompressorOutputStream(bos))) {
+            TarArchiveEntry entry = new TarArchiveEntry("synset.txt");
+            entry.setSize(data.length);
+            tos.putArchiveEntry(entry);
+            tos.write(data);
+            tos.closeArchiveEntry();
+        }
+        files.put("/model.tgz", bos.toByteArray());
+
+        Repository repo = Repository.newInstance("test", getUrl("/model.tgz").toString());
+        Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        repo.prepare(artifact);
+        try {
+            Assert.assertEquals(Files.readAllBytes(resourceDir.resolve("synset.txt")), data);
+        } finally {
+            Utils.deleteQuietly(resourceDir);
+        }
+    }
+
+    private URL getUrl(String path) throws IOException {
+        return new URL("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        handle(exchange, exchange.getRequestURI().getPath(), true);
+    }
+
+    private void handleWithoutETag(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/noetag".length());
+        handle(exchange, path, false);
+    }
+
+    private void handle(HttpExchange exchange, String path, boolean etag) throws IOException {
+        byte[] content = files.get(path);
+        if (content == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if (etag) {
+            exchange.getResponseHeaders().add("ETag", "\"" + sha1(content) + '"');
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            send(exchange, 200, content, 0, content.length);
+            return;
+        }
+        rangeRequests.incrementAndGet();
+        String[] tokens = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(tokens[0]);
+        int end = Integer.parseInt(tokens[1]);
+        if (failures.remove((long) start)) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders()
+                .add("Content-Range", "bytes " + start + '-' + end + '/' + content.length);
+        if (truncated.remove((long) start)) {
+            // the connection is closed in the middle of the chunk
+            exchange.sendResponseHeaders(206, end + 1 - start);
+            exchange.getResponseBody().write(content, start, (end + 1 - start) / 2);
+            exchange.close();
+            return;
+        }
+        send(exchange, 206, content, start, end + 1 - start);
+    }
+
+    private void handleWithoutRange(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/norange".length());
+        byte[] content = files.get(path);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        send(exchange, 200, content, 0, content.length);
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] content, int off, int len)
+            throws IOException {
+        exchange.sendResponseHeaders(code, len);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(content, off, len);
+        }
+    }
+
+    private static String sha1(byte[] content) {
+        return Hex.toHexString(HttpDownloader.newDigest().digest(content));
+    }
+
+    private static final class RecordingProgress implements Progress {
+
+        List<Long> increments = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void reset(String message, long max, String trailingMessage) {}
+
+        @Override
+        public void start(long initialProgress) {}
+
+        @Override
+        public void end() {}
+
+        @Override
+        public void increment(long increment) {
+            increments.add(increment);
+        }
+
+        @Override
+        public void update(long progress, String message) {}
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LossScalerTest {
+
+    @Test
+    public void testDynamicScale() {
+        LossScaler scaler =
+                LossScaler.builder()
+                        .optInitialScale(8f)
+                        .optGrowthInterval(2)
+                        .optMinScale(2f)
+                        .build();
+        Assert.assertEquals(scaler.getScale(), 8f);
+
+        // the scale grows after 2 steps without overflow
+        Assert.assertTrue(scaler.update(true));
+        Assert.assertEquals(scaler.getScale(), 8f);
+        Assert.assertTrue(scaler.update(true));
+        Assert.assertEquals(scaler.getScale(), 16f);
+
+        // an overflow skips the step, backs off the scale and restarts the growth interval
+        Assert.assertTrue(scaler.update(true));
+        Assert.assertFalse(scaler.update(false));
+        Assert.assertEquals(scaler.getScale(), 8f);
+        Assert.assertEquals(scaler.getSkippedSteps(), 1);
+        Assert.assertTrue(scaler.update(true));
+        Assert.assertEquals(scaler.getScale(), 8f);
+
+        // the scale doesn't go below the minimum
+        Assert.assertFalse(scaler.update(false));
+        Assert.assertFalse(scaler.update(false));
+        Assert.assertFalse(scaler.update(false));
+        Assert.assertEquals(scaler.getScale(), 2f);
+        Assert.assertEquals(scaler.getSkippedSteps(), 4);
+
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> LossScaler.builder().optBackoffFactor(2f).build());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ZipUtilsTest {
+
+    @Test
+    public void testUnzip() throws IOException {
+        Path dir = Paths.get("build/tmp/zipUtils/unzip");
+        Utils.deleteQuietly(dir);
+        Path src = dir.resolve("src");
+        Random random = new Random(0);
+        for (int i = 0; i < 20; ++i) {
+            byte[] data = new byte[random.nextInt(200_000)];
+            random.nextBytes(data);
+            Path file = src.resolve("dir" + i % 3).resolve("file" + i + ".bin");
+            Files.createDirectories(file.getParent());
+            Files.write(file, data);
+        }
+        Files.createDirectories(src.resolve("empty"));
+        Path zip = dir.resolve("test.zip");
+        ZipUtils.zip(src, zip, false);
+
+        Path fromFile = dir.resolve("fromFile");
+        ZipUtils.unzip(zip, fromFile);
+        Path fromStream = dir.resolve("fromStream");
+        try (InputStream is = Files.newInputStream(zip)) {
+            ZipUtils.unzip(is, fromStream);
+        }
+        for (int i = 0; i < 20; ++i) {
+            String name = "dir" + i % 3 + "/file" + i + ".bin";
+            byte[] expected = Files.readAllBytes(src.resolve(name));
+            Assert.assertEquals(Files.readAllBytes(fromFile.resolve(name)), expected);
+            Assert.assertEquals(Files.readAllBytes(fromStream.resolve(name)), expected);
+        }
+        Assert.assertTrue(Files.isDirectory(fromFile.resolve("empty")));
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testMaliciousEntry() throws IOException {
+        Path dir = Paths.get("build/tmp/zipUtils/malicious");
+        Utils.deleteQuietly(dir);
+        Files.createDirectories(dir);
+        Path zip = dir.resolve("test.zip");
+        try (OutputStream os = Files.newOutputStream(zip);
+                ZipOutputStream zos = new ZipOutputStream(os)) {
+            zos.putNextEntry(new ZipEntry("../evil.txt"));
+            zos.write(new byte[10]);
+            zos.closeEntry();
+        }
+        Path dest = dir.resolve("dest");
+        Assert.assertThrows(IOException.class, () -> ZipUtils.unzip(zip, dest));
+        Assert.assertFalse(Files.exists(dir.resolve("evil.txt")));
+
+        Path absolute = dir.resolve("absolute.zip");
+        try (OutputStream os = Files.newOutputStream(absolute);
+                ZipOutputStream zos = new ZipOutputStream(os)) {
+            zos.putNextEntry(new ZipEntry("/evil.txt"));
+            zos.write(new byte[10]);
+            zos.closeEntry();
+        }
+        Assert.assertThrows(IOException.class, () -> ZipUtils.unzip(absolute, dest));
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testDuplicateEntry() throws IOException {
+        Path dir = Paths.get("build/tmp/zipUtils/duplicate");
+        Utils.deleteQuietly(dir);
+        Files.createDirectories(dir);
+        Path zip = dir.resolve("test.zip");
+        byte[] first = new byte[100_000];
+        byte[] last = new byte[10];
+        Arrays.fill(last, (byte) 1);
+        try (OutputStream os = Files.newOutputStream(zip);
+                ZipOutputStream zos = new ZipOutputStream(os)) {
+            zos.putNextEntry(new ZipEntry("dup.bin"));
+            zos.write(first);
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("other.bin"));
+            zos.write(first);
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("./dup.bin"));
+            zos.write(last);
+            zos.closeEntry();
+        }
+        Path fromFile = dir.resolve("fromFile");
+        ZipUtils.unzip(zip, fromFile);
+        Assert.assertEquals(Files.readAllBytes(fromFile.resolve("dup.bin")), last);
+        Path fromStream = dir.resolve("fromStream");
+        try (InputStream is = Files.newInputStream(zip)) {
+            ZipUtils.unzip(is, fromStream);
+        }
+        Assert.assertEquals(Files.readAllBytes(fromStream.resolve("dup.bin")), last);
+        Utils.deleteQuietly(dir);
+    }
+}
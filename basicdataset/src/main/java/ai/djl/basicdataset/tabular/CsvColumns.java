@@ -0,0 +1,587 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset.tabular;
+
+import ai.djl.basicdataset.tabular.CsvDataset.Feature;
+import ai.djl.basicdataset.utils.DynamicBuffer;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * The featurized values of a CSV file, stored as packed float matrices.
+ *
+ * <p>The CSV file is parsed once, and the features and labels of each row are featurized into a row
+ * of the data and label matrices. A local CSV file is split into chunks on record boundaries, and
+ * the chunks are parsed in parallel. The matrices are stored in segments, either on the heap or in
+ * a memory-mapped spill file.
+ */
+final class CsvColumns {
+
+    private static final int CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private List<String> headerNames;
+    private long size;
+    private Matrix data;
+    private Matrix labels;
+
+    private CsvColumns(List<String> headerNames, List<Segment> segments) {
+        this.headerNames = headerNames;
+        data = new Matrix();
+        labels = new Matrix();
+        for (Segment segment : segments) {
+            if (segment.rows == 0) {
+                continue;
+            }
+            data.add(size, segment.rows, segment.data);
+            labels.add(size, segment.rows, segment.labels);
+            size += segment.rows;
+        }
+    }
+
+    /**
+     * Parses a CSV file.
+     *
+     * @param csvUrl the URL of the CSV file
+     * @param csvFormat the {@code CSVFormat} of the file
+     * @param features the features to featurize
+     * @param labels the labels to featurize
+     * @param parallel whether the featurizers can be used from multiple threads
+     * @param spillFile the file to store the matrices in, or {@code null} to keep them on the heap
+     * @return the parsed {@code CsvColumns}
+     * @throws IOException if failed to read the CSV file
+     */
+    static CsvColumns parse(
+            URL csvUrl,
+            CSVFormat csvFormat,
+            List<Feature> features,
+            List<Feature> labels,
+            boolean parallel,
+            Path spillFile)
+            throws IOException {
+        // the mapped segments stay valid after the spill file is closed
+        try (Spill spill = spillFile == null ? null : new Spill(spillFile)) {
+            // only local files can be split into chunks
+            Path csvFile = parallel ? toLocalFile(csvUrl) : null;
+            List<Segment> segments;
+            List<String> headerNames;
+            if (csvFile == null) {
+                try (Reader reader =
+                        new InputStreamReader(openStream(csvUrl), StandardCharsets.UTF_8)) {
+                    CSVParser parser = new CSVParser(reader, csvFormat);
+                    headerNames = parser.getHeaderNames();
+                    segments = new ChunkParser(parser, features, labels, spill).call();
+                }
+            } else {
+                try (FileChannel fc = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+                    headerNames = readHeaderNames(fc, csvFormat);
+                    segments = parseChunks(fc, csvFormat, headerNames, features, labels, spill);
+                }
+            }
+            return new CsvColumns(headerNames, segments);
+        }
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns the header names of the CSV file.
+     *
+     * @return the header names of the CSV file
+     */
+    List<String> getHeaderNames() {
+        return headerNames;
+    }
+
+    /**
+     * Returns the featurized data of a row.
+     *
+     * @param manager the manager used to create the array
+     * @param index the index of the row
+     * @return the featurized data of the row
+     */
+    NDArray getData(NDManager manager, long index) {
+        return data.get(manager, index);
+    }
+
+    /**
+     * Returns the featurized data of a range of rows.
+     *
+     * @param manager the manager used to create the array
+     * @param fromIndex the index of the first row, inclusive
+     * @param toIndex the index of the last row, exclusive
+     * @return the featurized data of the rows
+     */
+    NDArray getData(NDManager manager, long fromIndex, long toIndex) {
+        return data.get(manager, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the featurized data of the given rows.
+     *
+     * @param manager the manager used to create the array
+     * @param indices the indices of the rows
+     * @return the featurized data of the rows
+     */
+    NDArray getData(NDManager manager, List<Long> indices) {
+        return data.get(manager, indices);
+    }
+
+    /**
+     * Returns the featurized labels of a row.
+     *
+     * @param manager the manager used to create the array
+     * @param index the index of the row
+     * @return the featurized labels of the row
+     */
+    NDArray getLabels(NDManager manager, long index) {
+        return labels.get(manager, index);
+    }
+
+    /**
+     * Returns the featurized labels of a range of rows.
+     *
+     * @param manager the manager used to create the array
+     * @param fromIndex the index of the first row, inclusive
+     * @param toIndex the index of the last row, exclusive
+     * @return the featurized labels of the rows
+     */
+    NDArray getLabels(NDManager manager, long fromIndex, long toIndex) {
+        return labels.get(manager, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the featurized labels of the given rows.
+     *
+     * @param manager the manager used to create the array
+     * @param indices the indices of the rows
+     * @return the featurized labels of the rows
+     */
+    NDArray getLabels(NDManager manager, List<Long> indices) {
+        return labels.get(manager, indices);
+    }
+
+    private static List<String> readHeaderNames(FileChannel fc, CSVFormat csvFormat)
+            throws IOException {
+        long length = Math.min(fc.size(), Integer.MAX_VALUE);
+        ByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        try (Reader reader =
+                new InputStreamReader(new ByteBufferInputStream(bb), StandardCharsets.UTF_8)) {
+            return new CSVParser(reader, csvFormat).getHeaderNames();
+        }
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private static List<Segment> parseChunks(
+            FileChannel fc,
+            CSVFormat csvFormat,
+            List<String> headerNames,
+            List<Feature> features,
+            List<Feature> labels,
+            Spill spill)
+            throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        findBoundaries(fc, csvFormat.getQuoteCharacter(), boundaries);
+        boundaries.add(fc.size());
+
+        // the first chunk reads the header, the others have the header names set explicitly
+        CSVFormat chunkFormat =
+                csvFormat
+                        .builder()
+                        .setHeader(headerNames.toArray(new String[0]))
+                        .setSkipHeaderRecord(false)
+                        .build();
+
+        int threads = Math.min(boundaries.size() - 1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<List<Segment>>> futures = new ArrayList<>();
+            for (int i = 0; i < boundaries.size() - 1; ++i) {
+                long begin = boundaries.get(i);
+                long end = boundaries.get(i + 1);
+                CSVFormat format = i == 0 ? csvFormat : chunkFormat;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    ByteBuffer bb =
+                                            fc.map(
+                                                    FileChannel.MapMode.READ_ONLY,
+                                                    begin,
+                                                    end - begin);
+                                    Reader reader =
+                                            new InputStreamReader(
+                                                    new ByteBufferInputStream(bb),
+                                                    StandardCharsets.UTF_8);
+                                    CSVParser parser = new CSVParser(reader, format);
+                                    return new ChunkParser(parser, features, labels, spill).call();
+                                }));
+            }
+            List<Segment> segments = new ArrayList<>();
+            for (Future<List<Segment>> future : futures) {
+                segments.addAll(future.get());
+            }
+            return segments;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing CSV file", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to parse CSV file", cause);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Finds chunk boundaries at the line breaks that are not inside a quoted value.
+     *
+     * @param fc the file to split
+     * @param quote the quote character, or {@code null} if values are not quoted
+     * @param boundaries the list to add the boundaries to
+     * @throws IOException if failed to read the file
+     */
+    private static void findBoundaries(FileChannel fc, Character quote, List<Long> boundaries)
+            throws IOException {
+        long fileSize = fc.size();
+        byte quoteByte = quote == null ? -1 : (byte) quote.charValue();
+        boolean quoted = false;
+        long next = CHUNK_SIZE;
+        long position = 0;
+        while (position < fileSize) {
+            long length = Math.min(Integer.MAX_VALUE, fileSize - position);
+            MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; ++i) {
+                byte b = bb.get(i);
+                if (b == quoteByte) {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted && position + i >= next) {
+                    boundaries.add(position + i + 1);
+                    next = position + i + 1 + CHUNK_SIZE;
+                }
+            }
+            position += length;
+        }
+        if (boundaries.get(boundaries.size() - 1) == fileSize) {
+            boundaries.remove(boundaries.size() - 1);
+        }
+    }
+
+    private static Path toLocalFile(URL csvUrl) {
+        if (!"file".equals(csvUrl.getProtocol()) || csvUrl.getFile().endsWith(".gz")) {
+            return null;
+        }
+        try {
+            return Paths.get(csvUrl.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static InputStream openStream(URL csvUrl) throws IOException {
+        if (csvUrl.getFile().endsWith(".gz")) {
+            return new GZIPInputStream(csvUrl.openStream());
+        }
+        return new BufferedInputStream(csvUrl.openStream());
+    }
+
+    /** Featurizes the records of a chunk into segments. */
+    private static final class ChunkParser {
+
+        private CSVParser parser;
+        private List<Feature> features;
+        private List<Feature> labels;
+        private Spill spill;
+
+        ChunkParser(CSVParser parser, List<Feature> features, List<Feature> labels, Spill spill) {
+            this.parser = parser;
+            this.features = features;
+            this.labels = labels;
+            this.spill = spill;
+        }
+
+        List<Segment> call() throws IOException {
+            List<Segment> segments = new ArrayList<>();
+            Segment segment = new Segment();
+            DynamicBuffer data = new DynamicBuffer();
+            DynamicBuffer label = new DynamicBuffer();
+            for (CSVRecord record : parser) {
+                featurize(segment, data, record, features, true);
+                featurize(segment, label, record, labels, false);
+                ++segment.rows;
+                if (data.getLength() + label.getLength() >= SEGMENT_SIZE) {
+                    segments.add(finish(segment, data, label));
+                    segment = new Segment();
+                    data = new DynamicBuffer();
+                    label = new DynamicBuffer();
+                }
+            }
+            segments.add(finish(segment, data, label));
+            return segments;
+        }
+
+        private void featurize(
+                Segment segment,
+                DynamicBuffer buf,
+                CSVRecord record,
+                List<Feature> selected,
+                boolean isData) {
+            int before = buf.getLength();
+            for (Feature feature : selected) {
+                feature.featurizer.featurize(buf, record.get(feature.name));
+            }
+            int width = buf.getLength() - before;
+            int expected = isData ? segment.dataWidth : segment.labelWidth;
+            if (segment.rows == 0) {
+                if (isData) {
+                    segment.dataWidth = width;
+                } else {
+                    segment.labelWidth = width;
+                }
+            } else if (width != expected) {
+                throw new IllegalArgumentException(
+                        "Row "
+                                + record.getRecordNumber()
+                                + " has "
+                                + width
+                                + " values, expected "
+                                + expected);
+            }
+        }
+
+        private Segment finish(Segment segment, DynamicBuffer data, DynamicBuffer label)
+                throws IOException {
+            segment.data = data.getBuffer();
+            segment.labels = label.getBuffer();
+            if (spill != null) {
+                // the heap buffers are released before the next segment is parsed
+                segment.data = spill.write(segment.data);
+                segment.labels = spill.write(segment.labels);
+            }
+            return segment;
+        }
+    }
+
+    /** A range of rows of the data and label matrices. */
+    private static final class Segment {
+
+        int rows;
+        int dataWidth;
+        int labelWidth;
+        FloatBuffer data;
+        FloatBuffer labels;
+    }
+
+    /** A float matrix made of segments of rows. */
+    private static final class Matrix {
+
+        private int width = -1;
+        private List<Long> starts = new ArrayList<>();
+        private List<FloatBuffer> segments = new ArrayList<>();
+
+        void add(long start, int rows, FloatBuffer segment) {
+            int segmentWidth = segment.remaining() / rows;
+            if (width == -1) {
+                width = segmentWidth;
+            } else if (width != segmentWidth) {
+                throw new IllegalArgumentException(
+                        "Rows have " + segmentWidth + " values, expected " + width);
+            }
+            starts.add(start);
+            segments.add(segment);
+        }
+
+        NDArray get(NDManager manager, long index) {
+            FloatBuffer buf = slice(index, index + 1);
+            return manager.create(buf, new Shape(width));
+        }
+
+        NDArray get(NDManager manager, long fromIndex, long toIndex) {
+            FloatBuffer buf = slice(fromIndex, toIndex);
+            return manager.create(buf, new Shape(toIndex - fromIndex, width));
+        }
+
+        NDArray get(NDManager manager, List<Long> indices) {
+            int rows = indices.size();
+            long first = indices.get(0);
+            boolean sequential = true;
+            for (int i = 1; i < rows && sequential; ++i) {
+                sequential = indices.get(i) == first + i;
+            }
+            if (sequential) {
+                return get(manager, first, first + rows);
+            }
+            FloatBuffer buf = FloatBuffer.allocate(Math.multiplyExact(rows, width));
+            for (long index : indices) {
+                buf.put(slice(index, index + 1));
+            }
+            buf.rewind();
+            return manager.create(buf, new Shape(rows, width));
+        }
+
+        private FloatBuffer slice(long fromIndex, long toIndex) {
+            int seg = find(fromIndex);
+            long start = starts.get(seg);
+            FloatBuffer segment = segments.get(seg);
+            long rows = segment.limit() / width;
+            if (toIndex <= start + rows) {
+                // the rows are in a single segment, no copy is needed
+                FloatBuffer buf = segment.duplicate();
+                buf.position(Math.toIntExact((fromIndex - start) * width));
+                buf.limit(Math.toIntExact((toIndex - start) * width));
+                return buf;
+            }
+            FloatBuffer buf = FloatBuffer.allocate(Math.toIntExact((toIndex - fromIndex) * width));
+            long row = fromIndex;
+            while (row < toIndex) {
+                seg = find(row);
+                start = starts.get(seg);
+                segment = segments.get(seg).duplicate();
+                long end = Math.min(toIndex, start + segment.limit() / width);
+                segment.position(Math.toIntExact((row - start) * width));
+                segment.limit(Math.toIntExact((end - start) * width));
+                buf.put(segment);
+                row = end;
+            }
+            buf.rewind();
+            return buf;
+        }
+
+        private int find(long index) {
+            int low = 0;
+            int high = starts.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (starts.get(mid) <= index) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /** A file the segments are written to, and mapped back from. */
+    private static final class Spill implements AutoCloseable {
+
+        private FileChannel channel;
+        private AtomicLong position;
+
+        Spill(Path file) throws IOException {
+            channel =
+                    FileChannel.open(
+                            file,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+            position = new AtomicLong();
+        }
+
+        FloatBuffer write(FloatBuffer buf) throws IOException {
+            long offset = writeBuffer(buf);
+            ByteBuffer bb =
+                    channel.map(FileChannel.MapMode.READ_ONLY, offset, buf.remaining() * 4L);
+            return bb.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+
+        private long writeBuffer(FloatBuffer buf) throws IOException {
+            ByteBuffer bb = ByteBuffer.allocate(buf.remaining() * 4).order(ByteOrder.nativeOrder());
+            bb.asFloatBuffer().put(buf.duplicate());
+            long offset = position.getAndAdd(bb.remaining());
+            // positional writes are safe to use from multiple threads
+            long pos = offset;
+            while (bb.hasRemaining()) {
+                pos += channel.write(bb, pos);
+            }
+            return offset;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /** An {@code InputStream} that reads from a {@code ByteBuffer}. */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private ByteBuffer bb;
+
+        ByteBufferInputStream(ByteBuffer bb) {
+            this.bb = bb;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() {
+            if (!bb.hasRemaining()) {
+                return -1;
+            }
+            return bb.get() & 0xFF;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!bb.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, bb.remaining());
+            bb.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -18,6 +18,8 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.training.dataset.RandomAccessDataset;
 import ai.djl.training.dataset.Record;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.StackBatchifier;
 import ai.djl.util.Progress;
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -49,6 +51,10 @@ public class CsvDataset extends RandomAccessDataset {
     protected List<Feature> features;
     protected List<Feature> labels;
     protected List<CSVRecord> csvRecords;
+    protected boolean columnar;
+    protected Path spillFile;
+
+    private CsvColumns columns;
 
     protected CsvDataset(CsvBuilder<?> builder) {
         super(builder);
@@ -56,11 +62,18 @@ public class CsvDataset extends RandomAccessDataset {
         csvFormat = builder.csvFormat;
         features = builder.features;
         labels = builder.labels;
+        columnar = builder.columnar;
+        spillFile = builder.spillFile;
     }
 
     /** {@inheritDoc} */
     @Override
     public Record get(NDManager manager, long index) {
+        if (columns != null) {
+            NDList data = new NDList(columns.getData(manager, index));
+            NDList label = new NDList(columns.getLabels(manager, index));
+            return new Record(data, label);
+        }
         CSVRecord csvRecord = csvRecords.get(Math.toIntExact(index));
         NDList data = toNDList(manager, csvRecord, features);
         NDList label = toNDList(manager, csvRecord, labels);
@@ -68,15 +81,74 @@ public class CsvDataset extends RandomAccessDataset {
         return new Record(data, label);
     }
 
+    /**
+     * Returns the records in a range of rows as a single batch.
+     *
+     * <p>The data and labels of the batch are arrays of shape (rows, width). In columnar mode, the
+     * arrays are created by slicing the featurized values without parsing the rows again.
+     *
+     * @param manager the manager used to create the arrays
+     * @param fromIndex the index of the first row, inclusive
+     * @param toIndex the index of the last row, exclusive
+     * @return a {@link Record} that contains the data and labels of the rows
+     */
+    public Record getBatch(NDManager manager, long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex >= toIndex) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid range: [" + fromIndex + ", " + toIndex + "), size: " + size());
+        }
+        if (columns != null) {
+            NDList data = new NDList(columns.getData(manager, fromIndex, toIndex));
+            NDList label = new NDList(columns.getLabels(manager, fromIndex, toIndex));
+            return new Record(data, label);
+        }
+        int batchSize = Math.toIntExact(toIndex - fromIndex);
+        NDList[] data = new NDList[batchSize];
+        NDList[] label = new NDList[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            Record record = get(manager, fromIndex + i);
+            data[i] = record.getData();
+            label[i] = record.getLabels();
+        }
+        return new Record(Batchifier.STACK.batchify(data), Batchifier.STACK.batchify(label));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In columnar mode, the arrays of the batch are created from the featurized values, without
+     * an array per row, when the dataset stacks the rows.
+     */
+    @Override
+    public Record getBatch(NDManager manager, List<Long> indices) {
+        if (columns == null
+                || !(dataBatchifier instanceof StackBatchifier)
+                || !(labelBatchifier instanceof StackBatchifier)) {
+            return null;
+        }
+        NDList data = new NDList(columns.getData(manager, indices));
+        NDList label = new NDList(columns.getLabels(manager, indices));
+        return new Record(data, label);
+    }
+
     /** {@inheritDoc} */
     @Override
     protected long availableSize() {
+        if (columns != null) {
+            return columns.size();
+        }
         return csvRecords.size();
     }
 
     /** {@inheritDoc} */
     @Override
     public void prepare(Progress progress) throws IOException {
+        if (columnar) {
+            columns =
+                    CsvColumns.parse(
+                            csvUrl, csvFormat, features, labels, isThreadSafe(), spillFile);
+            return;
+        }
         try (Reader reader = new InputStreamReader(getCsvStream(), StandardCharsets.UTF_8)) {
             CSVParser csvParser = new CSVParser(reader, csvFormat);
             csvRecords = csvParser.getRecords();
@@ -105,12 +177,30 @@ public class CsvDataset extends RandomAccessDataset {
      * @return a list of column name
      */
     public List<String> getColumnNames() {
+        if (columns != null) {
+            return columns.getHeaderNames();
+        }
         if (csvRecords.isEmpty()) {
             return Collections.emptyList();
         }
         return csvRecords.get(0).getParser().getHeaderNames();
     }
 
+    private boolean isThreadSafe() {
+        List<Feature> all = new ArrayList<>(features);
+        all.addAll(labels);
+        for (Feature feature : all) {
+            Featurizer featurizer = feature.featurizer;
+            // auto mapped categories depend on the order of the rows
+            if (!(featurizer instanceof NumericFeaturizer)
+                    && !(featurizer instanceof StringFeaturizer
+                            && !((StringFeaturizer) featurizer).autoMap)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected NDList toNDList(NDManager manager, CSVRecord record, List<Feature> selected) {
         DynamicBuffer bb = new DynamicBuffer();
         for (Feature feature : selected) {
@@ -129,6 +219,8 @@ public class CsvDataset extends RandomAccessDataset {
         protected CSVFormat csvFormat;
         protected List<Feature> features;
         protected List<Feature> labels;
+        protected boolean columnar;
+        protected Path spillFile;
 
         protected CsvBuilder() {
             features = new ArrayList<>();
@@ -183,6 +275,38 @@ public class CsvDataset extends RandomAccessDataset {
             return self();
         }
 
+        /**
+         * Sets whether to featurize the CSV file into columns when the dataset is prepared.
+         *
+         * <p>In columnar mode, the rows are parsed and featurized only once, and the values are
+         * stored as packed float matrices instead of a list of {@code CSVRecord}s. A local CSV file
+         * is parsed in parallel chunks, unless a {@link Featurizer} is not known to be thread-safe.
+         * Subclasses that read {@link #csvRecords} or override {@link #toNDList} should not enable
+         * it.
+         *
+         * @param columnar true to featurize the CSV file into columns
+         * @return this builder
+         */
+        public T optColumnar(boolean columnar) {
+            this.columnar = columnar;
+            return self();
+        }
+
+        /**
+         * Sets the file to spill the featurized columns to, and enables columnar mode.
+         *
+         * <p>The featurized values are written to the file while parsing and memory-mapped back, so
+         * they are not kept on the Java heap.
+         *
+         * @param spillFile the file to store the featurized columns
+         * @return this builder
+         */
+        public T optSpillFile(Path spillFile) {
+            this.spillFile = spillFile;
+            this.columnar = true;
+            return self();
+        }
+
         /**
          * Adds the features to the feature set.
          *
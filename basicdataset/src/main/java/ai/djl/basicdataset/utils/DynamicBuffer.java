@@ -35,7 +35,7 @@ public class DynamicBuffer {
         ++length;
         if (buffer.capacity() == length) {
             FloatBuffer buf = buffer;
-            buf.rewind();
+            buf.flip();
             buffer = FloatBuffer.allocate(length * 2);
             buffer.put(buf);
         }
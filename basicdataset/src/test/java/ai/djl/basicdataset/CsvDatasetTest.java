@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.basicdataset.tabular.CsvDataset;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.dataset.Record;
+import ai.djl.translate.TranslateException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.csv.CSVFormat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CsvDatasetTest {
+
+    @Test
+    public void testColumnar() throws IOException, TranslateException {
+        Path dir = Paths.get("build/tmp/csv");
+        Files.createDirectories(dir);
+        Path csvFile = dir.resolve("columnar.csv");
+        int rows = 1000;
+        try (Writer writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            writer.write("a,b,color,\"note\",y\n");
+            for (int i = 0; i < rows; ++i) {
+                String color = i % 2 == 0 ? "red" : "blue";
+                writer.write(i + "," + i * 0.5 + ',' + color + ",\"line\nbreak, " + i + "\"," + -i);
+                writer.write('\n');
+            }
+        }
+
+        Map<String, Integer> colors = new ConcurrentHashMap<>();
+        colors.put("red", 0);
+        colors.put("blue", 1);
+        CsvDataset.CsvBuilder<?> builder =
+                CsvDataset.builder()
+                        .optCsvFile(csvFile)
+                        .setCsvFormat(
+                                CSVFormat.DEFAULT
+                                        .builder()
+                                        .setHeader()
+                                        .setSkipHeaderRecord(true)
+                                        .build())
+                        .addNumericFeature("a")
+                        .addNumericFeature("b")
+                        .addCategoricalFeature("color", colors, true)
+                        .addNumericLabel("y")
+                        .setSampling(10, false);
+
+        CsvDataset rowDataset = builder.build();
+        rowDataset.prepare();
+        CsvDataset columnar = builder.optColumnar(true).build();
+        columnar.prepare();
+        CsvDataset spilled = builder.optSpillFile(dir.resolve("columnar.bin")).build();
+        spilled.prepare();
+
+        Assert.assertEquals(columnar.size(), rows);
+        Assert.assertEquals(spilled.size(), rows);
+        Assert.assertEquals(columnar.getColumnNames(), rowDataset.getColumnNames());
+        try (NDManager manager = NDManager.newBaseManager()) {
+            for (long i : new long[] {0, 1, 500, rows - 1}) {
+                Record expected = rowDataset.get(manager, i);
+                Record record = columnar.get(manager, i);
+                Assert.assertEquals(record.getData(), expected.getData());
+                Assert.assertEquals(record.getLabels(), expected.getLabels());
+                record = spilled.get(manager, i);
+                Assert.assertEquals(record.getData(), expected.getData());
+                Assert.assertEquals(record.getLabels(), expected.getLabels());
+            }
+            Record record = columnar.get(manager, 3);
+            Assert.assertEquals(
+                    record.getData().head().toFloatArray(), new float[] {3, 1.5f, 0, 1});
+
+            Record batch = spilled.getBatch(manager, 10, 20);
+            Assert.assertEquals(
+                    batch.getData().head(), rowDataset.getBatch(manager, 10, 20).getData().head());
+            Assert.assertEquals(batch.getLabels().head().toFloatArray()[9], -19f);
+            Assert.assertThrows(
+                    IndexOutOfBoundsException.class, () -> columnar.getBatch(manager, 990, 1001));
+
+            // the rows of a batch don't have to be contiguous
+            batch = spilled.getBatch(manager, Arrays.asList(7L, 3L, 999L));
+            Assert.assertEquals(batch.getData().head().getShape(), new Shape(3, 4));
+            Assert.assertEquals(batch.getData().head().get(1), record.getData().head());
+            Assert.assertEquals(
+                    batch.getLabels().head().toFloatArray(), new float[] {-7, -3, -999});
+            Assert.assertNull(rowDataset.getBatch(manager, Arrays.asList(7L, 3L)));
+
+            // the iterators fetch the whole batch
+            CsvDataset prefetched =
+                    builder.optSpillFile(dir.resolve("prefetched.bin"))
+                            .optPrefetchBytes(1 << 20)
+                            .build();
+            prefetched.prepare();
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Iterator<Batch> expected = rowDataset.getData(manager).iterator();
+                Iterator<Batch> parallel = prefetched.getData(manager, executor).iterator();
+                for (Batch b : spilled.getData(manager)) {
+                    Batch e = expected.next();
+                    Batch p = parallel.next();
+                    Assert.assertEquals(b.getData().head(), e.getData().head());
+                    Assert.assertEquals(b.getLabels().head(), e.getLabels().head());
+                    Assert.assertEquals(p.getData().head(), e.getData().head());
+                    b.close();
+                    e.close();
+                    p.close();
+                }
+                Assert.assertFalse(parallel.hasNext());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
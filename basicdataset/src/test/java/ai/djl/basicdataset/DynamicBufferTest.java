@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.basicdataset.utils.DynamicBuffer;
+import java.nio.FloatBuffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DynamicBufferTest {
+
+    @Test
+    public void testGrow() {
+        DynamicBuffer buffer = new DynamicBuffer();
+        for (int i = 0; i < 300; ++i) {
+            buffer.put(i);
+        }
+        Assert.assertEquals(buffer.getLength(), 300);
+        FloatBuffer buf = buffer.getBuffer();
+        Assert.assertEquals(buf.remaining(), 300);
+        for (int i = 0; i < 300; ++i) {
+            Assert.assertEquals(buf.get(), (float) i);
+        }
+    }
+}
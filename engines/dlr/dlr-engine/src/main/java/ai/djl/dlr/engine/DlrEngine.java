@@ -56,6 +56,9 @@ public final class DlrEngine extends Engine {
             if (engine.getRank() < getRank()) {
                 // alternativeEngine should not have the same rank as DLR
                 alternativeEngine = engine;
+            } else if (Engine.hasEngine("Java")) {
+                // the pure Java engine is never the default engine, it must be chosen explicitly
+                alternativeEngine = Engine.getEngine("Java");
             }
             initialized = true;
         }
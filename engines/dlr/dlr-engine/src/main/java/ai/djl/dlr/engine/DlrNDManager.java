@@ -21,7 +21,6 @@ import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
 /** {@code DlrNDManager} is the DLR implementation of {@link NDManager}. */
@@ -43,12 +42,6 @@ public class DlrNDManager extends BaseNDManager {
         return Engine.getEngine(DlrEngine.ENGINE_NAME);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public DlrNDArray from(NDArray array) {
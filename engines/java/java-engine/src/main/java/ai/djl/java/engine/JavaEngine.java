@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDManager;
+import ai.djl.nn.SymbolBlock;
+import ai.djl.training.GradientCollector;
+import ai.djl.util.RandomUtils;
+
+/**
+ * The {@code JavaEngine} is a pure Java implementation of the {@link Engine}.
+ *
+ * <p>It doesn't load any native library and can't run a model. It implements the {@link
+ * ai.djl.ndarray.NDArray} operations that are commonly used by {@link ai.djl.translate.Translator}s
+ * for small tensors, such as element-wise math, reductions, {@code softmax}, {@code argMax}, {@code
+ * reshape}, {@code transpose}, indexing and {@code stack}. The other operations are delegated to
+ * the alternative engine if one is available.
+ *
+ * <p>The {@code JavaEngine} has a higher rank than every other engine, so it is never chosen as the
+ * default Engine when another engine is in the classpath. The engines with limited {@code NDArray}
+ * support such as TFLite or OnnxRuntime choose it explicitly as their alternative engine when no
+ * full engine is in the classpath. To get an instance of the {@code JavaEngine}, call {@link
+ * Engine#getEngine(String)} with the Engine name "Java".
+ */
+public final class JavaEngine extends Engine {
+
+    public static final String ENGINE_NAME = "Java";
+    // above all the other engines, so that the JavaEngine is never chosen as the default Engine
+    static final int RANK = 20;
+    // the full engines have a lower rank than the engines with limited NDArray support
+    private static final int LIMITED_ENGINE_RANK = 10;
+
+    private Engine alternativeEngine;
+    private boolean initialized;
+
+    private JavaEngine() {}
+
+    static Engine newInstance() {
+        return new JavaEngine();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Engine getAlternativeEngine() {
+        if (!initialized && !Boolean.getBoolean("ai.djl.java.disable_alternative")) {
+            Engine engine = Engine.getInstance();
+            if (engine.getRank() < LIMITED_ENGINE_RANK) {
+                // only a full engine can run the operations that the JavaEngine doesn't support
+                alternativeEngine = engine;
+            }
+            initialized = true;
+        }
+        return alternativeEngine;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRank() {
+        return RANK;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getVersion() {
+        return "0.18.0";
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasCapability(String capability) {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Model newModel(String name, Device device) {
+        throw new UnsupportedOperationException("Java engine does not support models");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SymbolBlock newSymbolBlock(NDManager manager) {
+        throw new UnsupportedOperationException("Java engine does not support SymbolBlock");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager() {
+        return newBaseManager(null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager(Device device) {
+        return JavaNDManager.getSystemManager().newSubManager(device);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GradientCollector newGradientCollector() {
+        throw new UnsupportedOperationException("Not supported for Java engine");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setRandomSeed(int seed) {
+        super.setRandomSeed(seed);
+        RandomUtils.RANDOM.setSeed(seed);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return getEngineName() + ':' + getVersion();
+    }
+}
@@ -0,0 +1,1271 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Float16Utils;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * The computation kernels of the {@link JavaEngine}.
+ *
+ * <p>The math operations work on {@code double[]} that are converted from and to the buffer of an
+ * {@link ai.djl.ndarray.NDArray} in bulk, so that each operation is a simple loop over primitive
+ * arrays that the JIT compiler can unroll and vectorize. The operations that are exact on integers
+ * have {@code long[]} kernels for the integer data types, since a {@code double} only holds the
+ * integers up to 2<sup>53</sup> exactly. The other operations reject the {@code int64} values
+ * beyond that. The data movement operations, such as transpose, slicing and concatenation, copy the
+ * raw elements and keep the data type intact. The optimizer updates work in place on {@code
+ * float32} buffers.
+ */
+final class JavaKernels {
+
+    // the largest magnitude below which all the integers are exact in a double
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    private JavaKernels() {}
+
+    /**
+     * Reads the elements of a buffer as {@code double}s.
+     *
+     * @param data the buffer in native order
+     * @param dataType the data type of the buffer
+     * @param size the number of elements
+     * @return the elements as {@code double}s
+     */
+    static double[] read(ByteBuffer data, DataType dataType, int size) {
+        ByteBuffer bb = view(data);
+        double[] values = new double[size];
+        switch (dataType) {
+            case FLOAT32:
+                FloatBuffer fb = bb.asFloatBuffer();
+                for (int i = 0; i < size; ++i) {
+                    values[i] = fb.get(i);
+                }
+                break;
+            case FLOAT64:
+                bb.asDoubleBuffer().get(values);
+                break;
+            case FLOAT16:
+                ShortBuffer sb = bb.asShortBuffer();
+                for (int i = 0; i < size; ++i) {
+                    values[i] = Float16Utils.halfToFloat(sb.get(i));
+                }
+                break;
+            case INT32:
+                IntBuffer ib = bb.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    values[i] = ib.get(i);
+                }
+                break;
+            case INT64:
+                LongBuffer lb = bb.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    long value = lb.get(i);
+                    if (value > MAX_EXACT_LONG || value < -MAX_EXACT_LONG) {
+                        throw new UnsupportedOperationException(
+                                "The int64 value "
+                                        + value
+                                        + " is too large for an operation computed in float64");
+                    }
+                    values[i] = value;
+                }
+                break;
+            case INT8:
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    values[i] = bb.get(i);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    values[i] = bb.get(i) & 0xFF;
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+        return values;
+    }
+
+    /**
+     * Writes {@code double}s into a buffer, converting them to the data type of the buffer.
+     *
+     * @param values the values to write
+     * @param dataType the data type of the buffer
+     * @param data the buffer in native order
+     */
+    static void write(double[] values, DataType dataType, ByteBuffer data) {
+        ByteBuffer bb = view(data);
+        int size = values.length;
+        switch (dataType) {
+            case FLOAT32:
+                FloatBuffer fb = bb.asFloatBuffer();
+                for (int i = 0; i < size; ++i) {
+                    fb.put(i, (float) values[i]);
+                }
+                break;
+            case FLOAT64:
+                bb.asDoubleBuffer().put(values);
+                break;
+            case FLOAT16:
+                ShortBuffer sb = bb.asShortBuffer();
+                for (int i = 0; i < size; ++i) {
+                    sb.put(i, Float16Utils.floatToHalf((float) values[i]));
+                }
+                break;
+            case INT32:
+                IntBuffer ib = bb.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ib.put(i, (int) values[i]);
+                }
+                break;
+            case INT64:
+                LongBuffer lb = bb.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    lb.put(i, (long) values[i]);
+                }
+                break;
+            case INT8:
+                for (int i = 0; i < size; ++i) {
+                    bb.put(i, (byte) values[i]);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    bb.put(i, (byte) (int) values[i]);
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    bb.put(i, values[i] != 0 ? (byte) 1 : 0);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+    }
+
+    /**
+     * Reads the elements of a buffer of an integer or boolean data type as {@code long}s.
+     *
+     * @param data the buffer in native order
+     * @param dataType the integer or boolean data type of the buffer
+     * @param size the number of elements
+     * @return the elements as {@code long}s
+     */
+    static long[] readLong(ByteBuffer data, DataType dataType, int size) {
+        ByteBuffer bb = view(data);
+        long[] values = new long[size];
+        switch (dataType) {
+            case INT64:
+                bb.asLongBuffer().get(values);
+                break;
+            case INT32:
+                IntBuffer ib = bb.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    values[i] = ib.get(i);
+                }
+                break;
+            case INT8:
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    values[i] = bb.get(i);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    values[i] = bb.get(i) & 0xFF;
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+        return values;
+    }
+
+    /**
+     * Writes {@code long}s into a buffer, converting them to the data type of the buffer.
+     *
+     * @param values the values to write
+     * @param dataType the data type of the buffer
+     * @param data the buffer in native order
+     */
+    static void writeLong(long[] values, DataType dataType, ByteBuffer data) {
+        ByteBuffer bb = view(data);
+        int size = values.length;
+        switch (dataType) {
+            case INT64:
+                bb.asLongBuffer().put(values);
+                break;
+            case INT32:
+                IntBuffer ib = bb.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ib.put(i, (int) values[i]);
+                }
+                break;
+            case INT8:
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    bb.put(i, (byte) values[i]);
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    bb.put(i, values[i] != 0 ? (byte) 1 : 0);
+                }
+                break;
+            case FLOAT32:
+                FloatBuffer fb = bb.asFloatBuffer();
+                for (int i = 0; i < size; ++i) {
+                    fb.put(i, (float) values[i]);
+                }
+                break;
+            case FLOAT64:
+                DoubleBuffer db = bb.asDoubleBuffer();
+                for (int i = 0; i < size; ++i) {
+                    db.put(i, (double) values[i]);
+                }
+                break;
+            case FLOAT16:
+                ShortBuffer sb = bb.asShortBuffer();
+                for (int i = 0; i < size; ++i) {
+                    sb.put(i, Float16Utils.floatToHalf((float) values[i]));
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+    }
+
+    /**
+     * Returns the row-major strides of a shape, in number of elements.
+     *
+     * @param shape the shape
+     * @return the strides of the shape
+     */
+    static long[] strides(long[] shape) {
+        long[] strides = new long[shape.length];
+        long stride = 1;
+        for (int i = shape.length - 1; i >= 0; --i) { // NOPMD
+            strides[i] = stride;
+            stride *= shape[i];
+        }
+        return strides;
+    }
+
+    /**
+     * Returns the offsets in a source array of each element of a strided view, in row-major order.
+     *
+     * @param shape the shape of the view
+     * @param strides the strides of the view in the source array
+     * @param offset the offset of the first element of the view in the source array
+     * @return the offsets in the source array
+     */
+    static int[] index(long[] shape, long[] strides, long offset) {
+        int size = Math.toIntExact(new Shape(shape).size());
+        int[] index = new int[size];
+        int dims = shape.length;
+        long[] counter = new long[dims];
+        long current = offset;
+        for (int i = 0; i < size; ++i) {
+            index[i] = (int) current;
+            for (int d = dims - 1; d >= 0; --d) {
+                if (++counter[d] < shape[d]) {
+                    current += strides[d];
+                    break;
+                }
+                current -= strides[d] * (shape[d] - 1);
+                counter[d] = 0;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the shape two shapes broadcast to.
+     *
+     * @param a the first shape
+     * @param b the second shape
+     * @return the broadcast shape
+     */
+    static Shape broadcast(Shape a, Shape b) {
+        if (a.equals(b)) {
+            return a;
+        }
+        int dims = Math.max(a.dimension(), b.dimension());
+        long[] shape = new long[dims];
+        for (int i = 0; i < dims; ++i) {
+            int ia = a.dimension() - dims + i;
+            int ib = b.dimension() - dims + i;
+            long da = ia < 0 ? 1 : a.get(ia);
+            long db = ib < 0 ? 1 : b.get(ib);
+            if (da != db && da != 1 && db != 1) {
+                throw new IllegalArgumentException(
+                        "The shapes " + a + " and " + b + " are not broadcastable");
+            }
+            shape[i] = da == 1 ? db : da;
+        }
+        return new Shape(shape);
+    }
+
+    /**
+     * Returns the offsets of the elements of an array for each element of its broadcast view.
+     *
+     * @param from the shape of the array
+     * @param to the shape to broadcast to
+     * @return the offsets in the array
+     */
+    static int[] broadcastIndex(Shape from, Shape to) {
+        long[] fromStrides = strides(from.getShape());
+        int dims = to.dimension();
+        long[] strides = new long[dims];
+        for (int i = 0; i < dims; ++i) {
+            int j = from.dimension() - dims + i;
+            if (j >= 0 && from.get(j) == to.get(i)) {
+                strides[i] = fromStrides[j];
+            } else if (j >= 0 && from.get(j) != 1) {
+                throw new IllegalArgumentException("Cannot broadcast " + from + " to " + to);
+            }
+        }
+        return index(to.getShape(), strides, 0);
+    }
+
+    /**
+     * Broadcasts values to a shape.
+     *
+     * @param values the values
+     * @param from the shape of the values
+     * @param to the shape to broadcast to
+     * @return the broadcast values
+     */
+    static double[] broadcastTo(double[] values, Shape from, Shape to) {
+        if (from.equals(to)) {
+            return values;
+        }
+        int size = Math.toIntExact(to.size());
+        double[] out = new double[size];
+        if (values.length == 1) {
+            Arrays.fill(out, values[0]);
+            return out;
+        }
+        int[] index = broadcastIndex(from, to);
+        for (int i = 0; i < size; ++i) {
+            out[i] = values[index[i]];
+        }
+        return out;
+    }
+
+    /**
+     * Broadcasts {@code long} values to a shape.
+     *
+     * @param values the values to broadcast
+     * @param from the shape of the values
+     * @param to the shape to broadcast to
+     * @return the broadcast values
+     */
+    static long[] broadcastTo(long[] values, Shape from, Shape to) {
+        if (from.equals(to)) {
+            return values;
+        }
+        int size = Math.toIntExact(to.size());
+        long[] out = new long[size];
+        if (values.length == 1) {
+            Arrays.fill(out, values[0]);
+            return out;
+        }
+        int[] index = broadcastIndex(from, to);
+        for (int i = 0; i < size; ++i) {
+            out[i] = values[index[i]];
+        }
+        return out;
+    }
+
+    /**
+     * Applies an element-wise unary operation.
+     *
+     * @param op the operation
+     * @param x the input
+     * @return the result
+     */
+    static double[] unary(Unary op, double[] x) {
+        int size = x.length;
+        double[] out = new double[size];
+        switch (op) {
+            case NEG:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = -x[i];
+                }
+                break;
+            case ABS:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.abs(x[i]);
+                }
+                break;
+            case SIGN:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.signum(x[i]);
+                }
+                break;
+            case SQUARE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = x[i] * x[i];
+                }
+                break;
+            case SQRT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.sqrt(x[i]);
+                }
+                break;
+            case CBRT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.cbrt(x[i]);
+                }
+                break;
+            case EXP:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.exp(x[i]);
+                }
+                break;
+            case LOG:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.log(x[i]);
+                }
+                break;
+            case FLOOR:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.floor(x[i]);
+                }
+                break;
+            case CEIL:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.ceil(x[i]);
+                }
+                break;
+            case ROUND:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.rint(x[i]);
+                }
+                break;
+            case TRUNC:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = x[i] < 0 ? Math.ceil(x[i]) : Math.floor(x[i]);
+                }
+                break;
+            case TANH:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.tanh(x[i]);
+                }
+                break;
+            case SIGMOID:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = 1 / (1 + Math.exp(-x[i]));
+                }
+                break;
+            case RELU:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.max(x[i], 0);
+                }
+                break;
+            case SOFT_PLUS:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.log1p(Math.exp(x[i]));
+                }
+                break;
+            case SOFT_SIGN:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = x[i] / (1 + Math.abs(x[i]));
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported operation: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Applies an element-wise unary operation on integers.
+     *
+     * @param op the operation, with {@link Unary#hasLongKernel()}
+     * @param x the input
+     * @return the result
+     */
+    static long[] unary(Unary op, long[] x) {
+        int size = x.length;
+        long[] out = new long[size];
+        switch (op) {
+            case NEG:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = -x[i];
+                }
+                break;
+            case ABS:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.abs(x[i]);
+                }
+                break;
+            case SIGN:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Long.signum(x[i]);
+                }
+                break;
+            case SQUARE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = x[i] * x[i];
+                }
+                break;
+            case RELU:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.max(x[i], 0);
+                }
+                break;
+            case FLOOR:
+            case CEIL:
+            case ROUND:
+            case TRUNC:
+                System.arraycopy(x, 0, out, 0, size);
+                break;
+            default:
+                throw new AssertionError("Unsupported operation: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Applies an element-wise binary operation on two arrays of the same size.
+     *
+     * @param op the operation
+     * @param a the left operand
+     * @param b the right operand
+     * @return the result
+     */
+    static double[] binary(Binary op, double[] a, double[] b) {
+        int size = a.length;
+        double[] out = new double[size];
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] + b[i];
+                }
+                break;
+            case SUB:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] - b[i];
+                }
+                break;
+            case MUL:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] * b[i];
+                }
+                break;
+            case DIV:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] / b[i];
+                }
+                break;
+            case MOD:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] - Math.floor(a[i] / b[i]) * b[i];
+                }
+                break;
+            case POW:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.pow(a[i], b[i]);
+                }
+                break;
+            case MAXIMUM:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.max(a[i], b[i]);
+                }
+                break;
+            case MINIMUM:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.min(a[i], b[i]);
+                }
+                break;
+            case EQ:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] == b[i] ? 1 : 0;
+                }
+                break;
+            case NEQ:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] != b[i] ? 1 : 0;
+                }
+                break;
+            case GT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] > b[i] ? 1 : 0;
+                }
+                break;
+            case GTE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] >= b[i] ? 1 : 0;
+                }
+                break;
+            case LT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] < b[i] ? 1 : 0;
+                }
+                break;
+            case LTE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] <= b[i] ? 1 : 0;
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported operation: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Applies an element-wise binary operation on two arrays of integers of the same size.
+     *
+     * @param op the operation, with {@link Binary#hasLongKernel()}
+     * @param a the left operand
+     * @param b the right operand
+     * @return the result
+     */
+    static long[] binary(Binary op, long[] a, long[] b) {
+        int size = a.length;
+        long[] out = new long[size];
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] + b[i];
+                }
+                break;
+            case SUB:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] - b[i];
+                }
+                break;
+            case MUL:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] * b[i];
+                }
+                break;
+            case DIV:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] / b[i];
+                }
+                break;
+            case MOD:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.floorMod(a[i], b[i]);
+                }
+                break;
+            case MAXIMUM:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.max(a[i], b[i]);
+                }
+                break;
+            case MINIMUM:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = Math.min(a[i], b[i]);
+                }
+                break;
+            case EQ:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] == b[i] ? 1 : 0;
+                }
+                break;
+            case NEQ:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] != b[i] ? 1 : 0;
+                }
+                break;
+            case GT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] > b[i] ? 1 : 0;
+                }
+                break;
+            case GTE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] >= b[i] ? 1 : 0;
+                }
+                break;
+            case LT:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] < b[i] ? 1 : 0;
+                }
+                break;
+            case LTE:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = a[i] <= b[i] ? 1 : 0;
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported operation: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Reduces an array along some axes.
+     *
+     * @param op the reduction
+     * @param x the input
+     * @param shape the shape of the input
+     * @param axes the normalized axes to reduce, or {@code null} to reduce all the axes
+     * @return the result, in the shape of the input with the reduced axes of size 1
+     */
+    static double[] reduce(Reduce op, double[] x, Shape shape, int[] axes) {
+        long[] outShape = shape.getShape().clone();
+        if (axes == null) {
+            Arrays.fill(outShape, 1);
+        } else {
+            for (int axis : axes) {
+                outShape[axis] = 1;
+            }
+        }
+        int outSize = Math.toIntExact(new Shape(outShape).size());
+        double[] out = new double[outSize];
+        double init;
+        switch (op) {
+            case MAX:
+                init = Double.NEGATIVE_INFINITY;
+                break;
+            case MIN:
+                init = Double.POSITIVE_INFINITY;
+                break;
+            case PROD:
+                init = 1;
+                break;
+            default:
+                init = 0;
+                break;
+        }
+        Arrays.fill(out, init);
+        int size = x.length;
+        if (outSize == 1) {
+            double acc = init;
+            switch (op) {
+                case MAX:
+                    for (int i = 0; i < size; ++i) {
+                        acc = Math.max(acc, x[i]);
+                    }
+                    break;
+                case MIN:
+                    for (int i = 0; i < size; ++i) {
+                        acc = Math.min(acc, x[i]);
+                    }
+                    break;
+                case PROD:
+                    for (int i = 0; i < size; ++i) {
+                        acc *= x[i];
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < size; ++i) {
+                        acc += x[i];
+                    }
+                    break;
+            }
+            out[0] = acc;
+        } else {
+            int[] index = reduceIndex(shape, outShape);
+            switch (op) {
+                case MAX:
+                    for (int i = 0; i < size; ++i) {
+                        out[index[i]] = Math.max(out[index[i]], x[i]);
+                    }
+                    break;
+                case MIN:
+                    for (int i = 0; i < size; ++i) {
+                        out[index[i]] = Math.min(out[index[i]], x[i]);
+                    }
+                    break;
+                case PROD:
+                    for (int i = 0; i < size; ++i) {
+                        out[index[i]] *= x[i];
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < size; ++i) {
+                        out[index[i]] += x[i];
+                    }
+                    break;
+            }
+        }
+        if (op == Reduce.MEAN && outSize > 0) {
+            double count = (double) size / outSize;
+            for (int i = 0; i < outSize; ++i) {
+                out[i] /= count;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Reduces an array of integers along some axes.
+     *
+     * @param op the reduction, with {@link Reduce#hasLongKernel()}
+     * @param x the input
+     * @param shape the shape of the input
+     * @param axes the normalized axes to reduce, or {@code null} to reduce all the axes
+     * @return the result, in the shape of the input with the reduced axes of size 1
+     */
+    static long[] reduce(Reduce op, long[] x, Shape shape, int[] axes) {
+        long[] outShape = shape.getShape().clone();
+        if (axes == null) {
+            Arrays.fill(outShape, 1);
+        } else {
+            for (int axis : axes) {
+                outShape[axis] = 1;
+            }
+        }
+        long[] out = new long[Math.toIntExact(new Shape(outShape).size())];
+        long init;
+        switch (op) {
+            case MAX:
+                init = Long.MIN_VALUE;
+                break;
+            case MIN:
+                init = Long.MAX_VALUE;
+                break;
+            case PROD:
+                init = 1;
+                break;
+            default:
+                init = 0;
+                break;
+        }
+        Arrays.fill(out, init);
+        int[] index = reduceIndex(shape, outShape);
+        int size = x.length;
+        switch (op) {
+            case MAX:
+                for (int i = 0; i < size; ++i) {
+                    out[index[i]] = Math.max(out[index[i]], x[i]);
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < size; ++i) {
+                    out[index[i]] = Math.min(out[index[i]], x[i]);
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < size; ++i) {
+                    out[index[i]] *= x[i];
+                }
+                break;
+            case SUM:
+                for (int i = 0; i < size; ++i) {
+                    out[index[i]] += x[i];
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported operation: " + op);
+        }
+        return out;
+    }
+
+    // Returns the offset in the reduced output of each element of the input
+    private static int[] reduceIndex(Shape shape, long[] outShape) {
+        long[] strides = strides(outShape);
+        for (int i = 0; i < strides.length; ++i) {
+            if (outShape[i] == 1) {
+                strides[i] = 0;
+            }
+        }
+        return index(shape.getShape(), strides, 0);
+    }
+
+    /**
+     * Computes the softmax, or the log of the softmax, along an axis.
+     *
+     * @param x the input
+     * @param shape the shape of the input
+     * @param axis the normalized axis
+     * @param log whether to compute the log of the softmax
+     * @return the result
+     */
+    static double[] softmax(double[] x, Shape shape, int axis, boolean log) {
+        int length = (int) shape.get(axis);
+        int inner = (int) shape.slice(axis + 1).size();
+        int outer = (int) shape.slice(0, axis).size();
+        double[] out = new double[x.length];
+        for (int o = 0; o < outer; ++o) {
+            for (int in = 0; in < inner; ++in) {
+                int base = o * length * inner + in;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int k = 0; k < length; ++k) {
+                    max = Math.max(max, x[base + k * inner]);
+                }
+                double sum = 0;
+                for (int k = 0; k < length; ++k) {
+                    int i = base + k * inner;
+                    double e = Math.exp(x[i] - max);
+                    out[i] = e;
+                    sum += e;
+                }
+                if (log) {
+                    double logSum = Math.log(sum) + max;
+                    for (int k = 0; k < length; ++k) {
+                        int i = base + k * inner;
+                        out[i] = x[i] - logSum;
+                    }
+                } else {
+                    for (int k = 0; k < length; ++k) {
+                        out[base + k * inner] /= sum;
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the indices of the maximum or minimum values along an axis.
+     *
+     * @param x the input
+     * @param shape the shape of the input
+     * @param axis the normalized axis
+     * @param max whether to look for the maximum, or the minimum values
+     * @return the indices, in the shape of the input without the axis
+     */
+    static double[] argReduce(double[] x, Shape shape, int axis, boolean max) {
+        int length = (int) shape.get(axis);
+        if (length == 0) {
+            throw new IllegalArgumentException("Cannot find the index on an empty axis");
+        }
+        int inner = (int) shape.slice(axis + 1).size();
+        int outer = (int) shape.slice(0, axis).size();
+        double[] out = new double[outer * inner];
+        for (int o = 0; o < outer; ++o) {
+            for (int in = 0; in < inner; ++in) {
+                int base = o * length * inner + in;
+                int best = 0;
+                double value = x[base];
+                for (int k = 1; k < length; ++k) {
+                    double v = x[base + k * inner];
+                    if (max ? v > value : v < value) {
+                        value = v;
+                        best = k;
+                    }
+                }
+                out[o * inner + in] = best;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Copies the elements of a source buffer at the given offsets into a target buffer.
+     *
+     * @param src the source buffer in native order
+     * @param index the offsets in the source buffer of each element of the target buffer
+     * @param elementSize the size of an element in bytes
+     * @param target the target buffer in native order
+     */
+    static void gather(ByteBuffer src, int[] index, int elementSize, ByteBuffer target) {
+        ByteBuffer s = view(src);
+        ByteBuffer t = view(target);
+        int size = index.length;
+        switch (elementSize) {
+            case 1:
+                for (int i = 0; i < size; ++i) {
+                    t.put(i, s.get(index[i]));
+                }
+                break;
+            case 2:
+                ShortBuffer ss = s.asShortBuffer();
+                ShortBuffer ts = t.asShortBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ts.put(i, ss.get(index[i]));
+                }
+                break;
+            case 4:
+                IntBuffer si = s.asIntBuffer();
+                IntBuffer ti = t.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ti.put(i, si.get(index[i]));
+                }
+                break;
+            case 8:
+                LongBuffer sl = s.asLongBuffer();
+                LongBuffer tl = t.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    tl.put(i, sl.get(index[i]));
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported element size: " + elementSize);
+        }
+    }
+
+    /**
+     * Copies the elements of a source buffer into a target buffer at the given offsets.
+     *
+     * @param src the source buffer in native order
+     * @param index the offsets in the target buffer of each element of the source buffer
+     * @param elementSize the size of an element in bytes
+     * @param target the target buffer in native order
+     */
+    static void scatter(ByteBuffer src, int[] index, int elementSize, ByteBuffer target) {
+        ByteBuffer s = view(src);
+        ByteBuffer t = view(target);
+        int size = index.length;
+        switch (elementSize) {
+            case 1:
+                for (int i = 0; i < size; ++i) {
+                    t.put(index[i], s.get(i));
+                }
+                break;
+            case 2:
+                ShortBuffer ss = s.asShortBuffer();
+                ShortBuffer ts = t.asShortBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ts.put(index[i], ss.get(i));
+                }
+                break;
+            case 4:
+                IntBuffer si = s.asIntBuffer();
+                IntBuffer ti = t.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ti.put(index[i], si.get(i));
+                }
+                break;
+            case 8:
+                LongBuffer sl = s.asLongBuffer();
+                LongBuffer tl = t.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    tl.put(index[i], sl.get(i));
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported element size: " + elementSize);
+        }
+    }
+
+    /**
+     * Applies the SGD update to a {@code float32} weight in place.
+     *
+     * <p>Without momentum: \( w = (1 - lr * wd) * w - lr * clip(rescale * g) \).<br>
+     * With momentum: \( m = momentum * m - lr * (clip(rescale * g) + wd * w) \), \( w += m \).
+     *
+     * @param weight the weight buffer in native order
+     * @param grad the gradient buffer in native order
+     * @param state the momentum buffer in native order, or {@code null} without momentum
+     * @param lr the learning rate
+     * @param wd the weight decay
+     * @param rescale the value used to rescale the gradient
+     * @param clip the value used to clip the gradient, or a negative value to not clip it
+     * @param momentum the momentum
+     */
+    static void sgdUpdate(
+            ByteBuffer weight,
+            ByteBuffer grad,
+            ByteBuffer state,
+            float lr,
+            float wd,
+            float rescale,
+            float clip,
+            float momentum) {
+        FloatBuffer w = view(weight).asFloatBuffer();
+        FloatBuffer g = view(grad).asFloatBuffer();
+        int size = w.remaining();
+        if (state == null) {
+            float decay = 1 - lr * wd;
+            for (int i = 0; i < size; ++i) {
+                w.put(i, decay * w.get(i) - lr * clip(rescale * g.get(i), clip));
+            }
+            return;
+        }
+        FloatBuffer m = view(state).asFloatBuffer();
+        for (int i = 0; i < size; ++i) {
+            float value = w.get(i);
+            float mom = momentum * m.get(i) - lr * (clip(rescale * g.get(i), clip) + wd * value);
+            m.put(i, mom);
+            w.put(i, value + mom);
+        }
+    }
+
+    /**
+     * Applies the Adam update to a {@code float32} weight in place.
+     *
+     * <p>\( g = clip(rescale * g + wd * w) \), \( m = beta1 * m + (1 - beta1) * g \), \( v = beta2
+     * * v + (1 - beta2) * g^2 \), \( w -= lr * m / (sqrt(v) + epsilon) \).
+     *
+     * @param weight the weight buffer in native order
+     * @param grad the gradient buffer in native order
+     * @param mean the first moment buffer in native order
+     * @param variance the second moment buffer in native order
+     * @param lr the learning rate
+     * @param wd the weight decay
+     * @param rescale the value used to rescale the gradient
+     * @param clip the value used to clip the gradient, or a negative value to not clip it
+     * @param beta1 the decay rate of the first moment
+     * @param beta2 the decay rate of the second moment
+     * @param epsilon the value added to the denominator
+     */
+    static void adamUpdate(
+            ByteBuffer weight,
+            ByteBuffer grad,
+            ByteBuffer mean,
+            ByteBuffer variance,
+            float lr,
+            float wd,
+            float rescale,
+            float clip,
+            float beta1,
+            float beta2,
+            float epsilon) {
+        FloatBuffer w = view(weight).asFloatBuffer();
+        FloatBuffer g = view(grad).asFloatBuffer();
+        FloatBuffer m = view(mean).asFloatBuffer();
+        FloatBuffer v = view(variance).asFloatBuffer();
+        int size = w.remaining();
+        for (int i = 0; i < size; ++i) {
+            float value = w.get(i);
+            float gi = clip(rescale * g.get(i) + wd * value, clip);
+            float mi = beta1 * m.get(i) + (1 - beta1) * gi;
+            float vi = beta2 * v.get(i) + (1 - beta2) * gi * gi;
+            m.put(i, mi);
+            v.put(i, vi);
+            w.put(i, value - lr * mi / ((float) Math.sqrt(vi) + epsilon));
+        }
+    }
+
+    /**
+     * Returns the data type of the result of a binary operation between two data types.
+     *
+     * @param a the first data type
+     * @param b the second data type
+     * @return the promoted data type
+     */
+    static DataType promote(DataType a, DataType b) {
+        if (a == b) {
+            return a;
+        }
+        if (a.isFloating() != b.isFloating()) {
+            return a.isFloating() ? a : b;
+        }
+        return a.getNumOfBytes() >= b.getNumOfBytes() ? a : b;
+    }
+
+    /**
+     * Returns an axis in the range {@code [0, dimension)}.
+     *
+     * @param axis the axis, negative values count from the last axis
+     * @param dimension the number of dimensions
+     * @return the normalized axis
+     */
+    static int normalizeAxis(int axis, int dimension) {
+        if (axis < -dimension || axis >= Math.max(dimension, 1)) {
+            throw new IllegalArgumentException(
+                    "Axis " + axis + " is out of bounds for " + dimension + " dimensions");
+        }
+        return axis < 0 ? axis + dimension : axis;
+    }
+
+    private static float clip(float value, float clip) {
+        if (clip < 0) {
+            return value;
+        }
+        return Math.max(-clip, Math.min(clip, value));
+    }
+
+    private static ByteBuffer view(ByteBuffer data) {
+        ByteBuffer bb = data.duplicate().order(ByteOrder.nativeOrder());
+        bb.rewind();
+        return bb;
+    }
+
+    /** The element-wise unary operations. */
+    enum Unary {
+        NEG,
+        ABS,
+        SIGN,
+        SQUARE,
+        SQRT,
+        CBRT,
+        EXP,
+        LOG,
+        FLOOR,
+        CEIL,
+        ROUND,
+        TRUNC,
+        TANH,
+        SIGMOID,
+        RELU,
+        SOFT_PLUS,
+        SOFT_SIGN;
+
+        boolean hasLongKernel() {
+            switch (this) {
+                case NEG:
+                case ABS:
+                case SIGN:
+                case SQUARE:
+                case FLOOR:
+                case CEIL:
+                case ROUND:
+                case TRUNC:
+                case RELU:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /** The element-wise binary operations. */
+    enum Binary {
+        ADD,
+        SUB,
+        MUL,
+        DIV,
+        MOD,
+        POW,
+        MAXIMUM,
+        MINIMUM,
+        EQ,
+        NEQ,
+        GT,
+        GTE,
+        LT,
+        LTE;
+
+        boolean isComparison() {
+            return ordinal() >= EQ.ordinal();
+        }
+
+        boolean hasLongKernel() {
+            return this != POW;
+        }
+    }
+
+    /** The reductions. */
+    enum Reduce {
+        SUM,
+        PROD,
+        MEAN,
+        MAX,
+        MIN;
+
+        boolean hasLongKernel() {
+            return this != MEAN;
+        }
+    }
+}
@@ -0,0 +1,1117 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.java.engine.JavaKernels.Binary;
+import ai.djl.java.engine.JavaKernels.Reduce;
+import ai.djl.java.engine.JavaKernels.Unary;
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrayAdapter;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * {@code JavaNDArray} is the pure Java implementation of {@link NDArray}.
+ *
+ * <p>The data is kept in a direct {@link ByteBuffer} in native order. The operations overridden in
+ * this class run in Java, the others are delegated to the alternative engine by {@link
+ * NDArrayAdapter}.
+ */
+public class JavaNDArray extends NDArrayAdapter {
+
+    private ByteBuffer data;
+    private JavaNDArrayEx arrayEx;
+
+    JavaNDArray(
+            NDManager manager,
+            NDManager alternativeManager,
+            ByteBuffer data,
+            Shape shape,
+            DataType dataType) {
+        super(manager, alternativeManager, shape, dataType, UUID.randomUUID().toString());
+        this.data = data;
+        arrayEx = new JavaNDArrayEx(this);
+        manager.attachInternal(uid, this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attach(NDManager manager) {
+        // the buffer goes back to the pool when the new manager is closed
+        ((BaseNDManager) this.manager).transferDirect(data, manager);
+        super.attach(manager);
+        if (alternativeManager instanceof JavaNDManager) {
+            // the new manager doesn't have an alternative engine
+            alternativeManager = ((JavaNDManager) alternativeManager).getAlternative();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void intern(NDArray replaced) {
+        JavaNDArray array = (JavaNDArray) replaced;
+        ((BaseNDManager) array.manager).transferDirect(array.data, manager);
+        this.data = array.data;
+        this.shape = array.shape;
+        this.dataType = array.dataType;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void detach() {
+        manager.detachInternal(getUid());
+        ((BaseNDManager) manager).transferDirect(data, null);
+        manager = JavaNDManager.getSystemManager();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer bb = data.duplicate().order(ByteOrder.nativeOrder());
+        bb.rewind();
+        return bb;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray duplicate() {
+        JavaNDArray array = getJavaManager().create(shape, dataType);
+        array.data.put(toByteBuffer());
+        array.data.rewind();
+        array.setName(getName());
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, NDArray value) {
+        arrayEx.getIndexer().set(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, Number value) {
+        arrayEx.getIndexer().set(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, Function<NDArray, NDArray> function) {
+        try (NDArray array = get(index)) {
+            set(index, function.apply(array));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setScalar(NDIndex index, Number value) {
+        arrayEx.getIndexer().setScalar(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void copyTo(NDArray array) {
+        if (!shape.equals(array.getShape()) || dataType != array.getDataType()) {
+            throw new IllegalArgumentException(
+                    "Cannot copy an array of " + shape + " " + dataType + " to " + array);
+        }
+        array.set(toByteBuffer());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toType(DataType dataType, boolean copy) {
+        if (dataType == this.dataType) {
+            return copy ? duplicate() : this;
+        }
+        if (this.dataType.isInteger()) {
+            return getJavaManager().createInternal(longValues(), shape, dataType);
+        }
+        return getJavaManager().createInternal(values(), shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(Number n) {
+        return binary(Binary.EQ, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(NDArray other) {
+        return binary(Binary.EQ, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(Number n) {
+        return binary(Binary.NEQ, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(NDArray other) {
+        return binary(Binary.NEQ, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(Number n) {
+        return binary(Binary.GT, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(NDArray other) {
+        return binary(Binary.GT, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(Number n) {
+        return binary(Binary.GTE, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(NDArray other) {
+        return binary(Binary.GTE, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(Number n) {
+        return binary(Binary.LT, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(NDArray other) {
+        return binary(Binary.LT, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(Number n) {
+        return binary(Binary.LTE, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(NDArray other) {
+        return binary(Binary.LTE, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(Number n) {
+        return binary(Binary.ADD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(NDArray other) {
+        return binary(Binary.ADD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(Number n) {
+        return binary(Binary.SUB, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(NDArray other) {
+        return binary(Binary.SUB, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(Number n) {
+        return binary(Binary.MUL, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(NDArray other) {
+        return binary(Binary.MUL, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(Number n) {
+        return binary(Binary.DIV, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(NDArray other) {
+        return binary(Binary.DIV, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(Number n) {
+        return binary(Binary.MOD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(NDArray other) {
+        return binary(Binary.MOD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(Number n) {
+        return binary(Binary.POW, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(NDArray other) {
+        return binary(Binary.POW, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(Number n) {
+        return binaryi(Binary.ADD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(NDArray other) {
+        return binaryi(Binary.ADD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(Number n) {
+        return binaryi(Binary.SUB, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(NDArray other) {
+        return binaryi(Binary.SUB, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(Number n) {
+        return binaryi(Binary.MUL, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(NDArray other) {
+        return binaryi(Binary.MUL, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(Number n) {
+        return binaryi(Binary.DIV, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(NDArray other) {
+        return binaryi(Binary.DIV, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(Number n) {
+        return binaryi(Binary.MOD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(NDArray other) {
+        return binaryi(Binary.MOD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(Number n) {
+        return binaryi(Binary.POW, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(NDArray other) {
+        return binaryi(Binary.POW, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(Number n) {
+        return binary(Binary.MAXIMUM, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(NDArray other) {
+        return binary(Binary.MAXIMUM, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(Number n) {
+        return binary(Binary.MINIMUM, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(NDArray other) {
+        return binary(Binary.MINIMUM, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sign() {
+        return unary(Unary.SIGN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray signi() {
+        unaryi(Unary.SIGN);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neg() {
+        return unary(Unary.NEG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray negi() {
+        unaryi(Unary.NEG);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray abs() {
+        return unary(Unary.ABS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray square() {
+        return unary(Unary.SQUARE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sqrt() {
+        return unary(Unary.SQRT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cbrt() {
+        return unary(Unary.CBRT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray floor() {
+        return unary(Unary.FLOOR);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray ceil() {
+        return unary(Unary.CEIL);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray round() {
+        return unary(Unary.ROUND);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray trunc() {
+        return unary(Unary.TRUNC);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray exp() {
+        return unary(Unary.EXP);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log() {
+        return unary(Unary.LOG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tanh() {
+        return unary(Unary.TANH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max() {
+        return reduce(Reduce.MAX, null, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max(int[] axes, boolean keepDims) {
+        return reduce(Reduce.MAX, axes, keepDims);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min() {
+        return reduce(Reduce.MIN, null, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min(int[] axes, boolean keepDims) {
+        return reduce(Reduce.MIN, axes, keepDims);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum() {
+        return reduce(Reduce.SUM, null, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum(int[] axes, boolean keepDims) {
+        return reduce(Reduce.SUM, axes, keepDims);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod() {
+        return reduce(Reduce.PROD, null, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod(int[] axes, boolean keepDims) {
+        return reduce(Reduce.PROD, axes, keepDims);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean() {
+        return reduce(Reduce.MEAN, null, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean(int[] axes, boolean keepDims) {
+        return reduce(Reduce.MEAN, axes, keepDims);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long sections, int axis) {
+        int pos = JavaKernels.normalizeAxis(axis, shape.dimension());
+        long axisSize = shape.get(pos);
+        if (sections <= 0 || axisSize % sections != 0) {
+            throw new IllegalArgumentException("array split does not result in an equal division");
+        }
+        long sectionSize = axisSize / sections;
+        long[] indices = new long[(int) sections - 1];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = (i + 1) * sectionSize;
+        }
+        return split(indices, pos);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long[] indices, int axis) {
+        int pos = JavaKernels.normalizeAxis(axis, shape.dimension());
+        long[] strides = JavaKernels.strides(shape.getShape());
+        long axisSize = shape.get(pos);
+        NDList list = new NDList(indices.length + 1);
+        long begin = 0;
+        for (int i = 0; i <= indices.length; ++i) {
+            long end = i < indices.length ? Math.min(indices[i], axisSize) : axisSize;
+            Shape part = Shape.update(shape, pos, Math.max(0, end - begin));
+            list.add(
+                    gather(
+                            JavaKernels.index(part.getShape(), strides, begin * strides[pos]),
+                            part));
+            begin = Math.max(begin, end);
+        }
+        return list;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray flatten() {
+        return reshape(new Shape(shape.size()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray reshape(Shape shape) {
+        long[] dims = shape.getShape().clone();
+        int unknown = -1;
+        long known = 1;
+        for (int i = 0; i < dims.length; ++i) {
+            if (dims[i] == -1 && unknown == -1) {
+                unknown = i;
+            } else if (dims[i] < 0) {
+                throw new IllegalArgumentException("Invalid shape: " + shape);
+            } else {
+                known *= dims[i];
+            }
+        }
+        long size = this.shape.size();
+        if (unknown != -1 && known != 0) {
+            dims[unknown] = size / known;
+            known *= dims[unknown];
+        }
+        if (known != size) {
+            throw new IllegalArgumentException(
+                    "Cannot reshape array of " + this.shape + " into " + shape);
+        }
+        // the reshaped array shares the buffer, which stays out of the pool while it is in use
+        JavaNDManager target = getJavaManager();
+        ByteBuffer view = ((BaseNDManager) manager).shareDirect(data);
+        if (target != manager) {
+            ((BaseNDManager) manager).transferDirect(view, target);
+        }
+        return target.createInternal(view, new Shape(dims), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray expandDims(int axis) {
+        int dims = shape.dimension();
+        int pos = JavaKernels.normalizeAxis(axis, dims + 1);
+        long[] newShape = new long[dims + 1];
+        for (int i = 0; i <= dims; ++i) {
+            if (i == pos) {
+                newShape[i] = 1;
+            } else {
+                newShape[i] = shape.get(i < pos ? i : i - 1);
+            }
+        }
+        return reshape(new Shape(newShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray squeeze(int[] axes) {
+        int dims = shape.dimension();
+        boolean[] squeezed = new boolean[dims];
+        for (int axis : axes) {
+            int pos = JavaKernels.normalizeAxis(axis, dims);
+            if (shape.get(pos) != 1) {
+                throw new IllegalArgumentException(
+                        "Cannot squeeze axis " + axis + " of size " + shape.get(pos));
+            }
+            squeezed[pos] = true;
+        }
+        long[] newShape = new long[dims - axes.length];
+        int j = 0;
+        for (int i = 0; i < dims; ++i) {
+            if (!squeezed[i]) {
+                newShape[j++] = shape.get(i);
+            }
+        }
+        return reshape(new Shape(newShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softmax(int axis) {
+        int pos = JavaKernels.normalizeAxis(axis, shape.dimension());
+        return create(JavaKernels.softmax(values(), shape, pos, false), shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logSoftmax(int axis) {
+        int pos = JavaKernels.normalizeAxis(axis, shape.dimension());
+        return create(JavaKernels.softmax(values(), shape, pos, true), shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray clip(Number min, Number max) {
+        double low = min.doubleValue();
+        double high = max.doubleValue();
+        double[] values = values();
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = Math.min(high, Math.max(low, values[i]));
+        }
+        return create(values, shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose() {
+        int dims = shape.dimension();
+        int[] axes = new int[dims];
+        for (int i = 0; i < dims; ++i) {
+            axes[i] = dims - 1 - i;
+        }
+        return transpose(axes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose(int... axes) {
+        int dims = shape.dimension();
+        if (axes.length != dims) {
+            throw new IllegalArgumentException(
+                    "The axes " + Arrays.toString(axes) + " don't match " + shape);
+        }
+        long[] strides = JavaKernels.strides(shape.getShape());
+        long[] newShape = new long[dims];
+        long[] newStrides = new long[dims];
+        boolean[] used = new boolean[dims];
+        for (int i = 0; i < dims; ++i) {
+            int axis = JavaKernels.normalizeAxis(axes[i], dims);
+            if (used[axis]) {
+                throw new IllegalArgumentException("Repeated axis in transpose: " + axes[i]);
+            }
+            used[axis] = true;
+            newShape[i] = shape.get(axis);
+            newStrides[i] = strides[axis];
+        }
+        return gather(JavaKernels.index(newShape, newStrides, 0), new Shape(newShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray broadcast(Shape shape) {
+        return gather(JavaKernels.broadcastIndex(this.shape, shape), shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(long repeats) {
+        long[] repeatsArray = new long[Math.max(shape.dimension(), 1)];
+        Arrays.fill(repeatsArray, repeats);
+        return repeat(repeatsArray);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(int axis, long repeats) {
+        if (isScalar()) {
+            return reshape(1).repeat(0, repeats);
+        }
+        int dims = shape.dimension();
+        int dim = JavaKernels.normalizeAxis(axis, dims);
+        long[] strides = JavaKernels.strides(shape.getShape());
+        // a stride of 0 on an extra dimension after the axis repeats each element in place
+        long[] newShape = new long[dims + 1];
+        long[] newStrides = new long[dims + 1];
+        for (int i = 0; i < dims; ++i) {
+            int j = i > dim ? i + 1 : i;
+            newShape[j] = shape.get(i);
+            newStrides[j] = strides[i];
+        }
+        newShape[dim + 1] = repeats;
+        long[] resultShape = shape.getShape().clone();
+        resultShape[dim] *= repeats;
+        return gather(JavaKernels.index(newShape, newStrides, 0), new Shape(resultShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(long[] repeats) {
+        NDArray result = this;
+        for (int axis = 0; axis < repeats.length; ++axis) {
+            if (repeats[axis] != 1) {
+                NDArray temp = result;
+                result = result.repeat(axis, repeats[axis]);
+                if (temp != this) {
+                    temp.close();
+                }
+            }
+        }
+        return result == this ? duplicate() : result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(Shape desiredShape) {
+        int dims = shape.dimension();
+        int extra = dims - desiredShape.dimension();
+        if (extra < 0) {
+            throw new IllegalArgumentException("The desired shape has too many dimensions");
+        }
+        Shape target = shape.slice(0, extra).addAll(desiredShape);
+        long[] repeats = new long[dims];
+        for (int i = 0; i < dims; ++i) {
+            if (shape.get(i) == 0 || target.get(i) % shape.get(i) != 0) {
+                throw new IllegalArgumentException(
+                        "The desired shape is not a multiple of the original shape");
+            }
+            repeats[i] = target.get(i) / shape.get(i);
+        }
+        return repeat(repeats);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax() {
+        return argReduce(true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax(int axis) {
+        return argReduce(axis, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin() {
+        return argReduce(false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin(int axis) {
+        return argReduce(axis, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayEx getNDArrayInternal() {
+        return arrayEx;
+    }
+
+    /**
+     * Returns the {@link NDArrayEx} of the alternative engine.
+     *
+     * @return the {@link NDArrayEx} of the alternative engine
+     */
+    NDArrayEx getAlternativeNDArrayInternal() {
+        return super.getNDArrayInternal();
+    }
+
+    /**
+     * Returns the elements of this array as {@code double}s.
+     *
+     * @return the elements of this array as {@code double}s
+     */
+    double[] values() {
+        return JavaKernels.read(data, dataType, Math.toIntExact(shape.size()));
+    }
+
+    /**
+     * Returns the elements of this array of an integer data type as {@code long}s.
+     *
+     * @return the elements of this array as {@code long}s
+     */
+    long[] longValues() {
+        return JavaKernels.readLong(data, dataType, Math.toIntExact(shape.size()));
+    }
+
+    /**
+     * Returns a new array with the same data type as this array.
+     *
+     * @param values the values of the new array
+     * @param shape the shape of the new array
+     * @return a new array
+     */
+    JavaNDArray create(double[] values, Shape shape) {
+        return getJavaManager().createInternal(values, shape, dataType);
+    }
+
+    /**
+     * Returns a new array with the elements of this array at the given offsets.
+     *
+     * @param index the offsets in this array of each element of the new array
+     * @param shape the shape of the new array
+     * @return a new array
+     */
+    JavaNDArray gather(int[] index, Shape shape) {
+        JavaNDArray array = getJavaManager().create(shape, dataType);
+        JavaKernels.gather(data, index, dataType.getNumOfBytes(), array.data);
+        return array;
+    }
+
+    /**
+     * Copies the elements of an array of the same data type into this array at the given offsets.
+     *
+     * @param index the offsets in this array of each element of the source array
+     * @param src the source array
+     */
+    void scatter(int[] index, JavaNDArray src) {
+        JavaKernels.scatter(src.data, index, dataType.getNumOfBytes(), data);
+    }
+
+    /**
+     * Applies an element-wise unary operation.
+     *
+     * @param op the operation
+     * @return the result
+     */
+    JavaNDArray unary(Unary op) {
+        if (dataType.isInteger() && op.hasLongKernel()) {
+            long[] out = JavaKernels.unary(op, longValues());
+            return getJavaManager().createInternal(out, shape, dataType);
+        }
+        return create(JavaKernels.unary(op, values()), shape);
+    }
+
+    /**
+     * Applies an element-wise binary operation with an array.
+     *
+     * @param op the operation
+     * @param other the other operand
+     * @param reverse whether this array is the right operand
+     * @return the result
+     */
+    JavaNDArray binary(Binary op, NDArray other, boolean reverse) {
+        Shape outShape = JavaKernels.broadcast(shape, other.getShape());
+        DataType type =
+                op.isComparison()
+                        ? DataType.BOOLEAN
+                        : JavaKernels.promote(dataType, other.getDataType());
+        if (isLongOp(op, other)) {
+            long[] a = JavaKernels.broadcastTo(longValues(), shape, outShape);
+            long[] b = JavaKernels.broadcastTo(longValuesOf(other), other.getShape(), outShape);
+            long[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+            return getJavaManager().createInternal(out, outShape, type);
+        }
+        double[] a = JavaKernels.broadcastTo(values(), shape, outShape);
+        double[] b = JavaKernels.broadcastTo(valuesOf(other), other.getShape(), outShape);
+        double[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+        return getJavaManager().createInternal(out, outShape, type);
+    }
+
+    /**
+     * Applies an element-wise binary operation with a number.
+     *
+     * @param op the operation
+     * @param n the other operand
+     * @param reverse whether this array is the right operand
+     * @return the result
+     */
+    JavaNDArray binary(Binary op, Number n, boolean reverse) {
+        DataType type;
+        if (op.isComparison()) {
+            type = DataType.BOOLEAN;
+        } else if (!dataType.isFloating() && isFloating(n)) {
+            // an integer or boolean array combined with a floating scalar gives float32
+            type = DataType.FLOAT32;
+        } else {
+            type = dataType;
+        }
+        if (isLongOp(op, n)) {
+            long[] a = longValues();
+            long[] b = JavaKernels.broadcastTo(new long[] {n.longValue()}, new Shape(), shape);
+            long[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+            return getJavaManager().createInternal(out, shape, type);
+        }
+        double[] a = values();
+        double[] b = JavaKernels.broadcastTo(new double[] {n.doubleValue()}, new Shape(), shape);
+        double[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+        return getJavaManager().createInternal(out, shape, type);
+    }
+
+    /**
+     * Applies an element-wise binary operation with an array in place.
+     *
+     * @param op the operation
+     * @param other the other operand
+     * @param reverse whether this array is the right operand
+     * @return this array
+     */
+    JavaNDArray binaryi(Binary op, NDArray other, boolean reverse) {
+        checkInPlace(op, other.getDataType().isFloating());
+        if (isLongOp(op, other)) {
+            long[] a = longValues();
+            long[] b = JavaKernels.broadcastTo(longValuesOf(other), other.getShape(), shape);
+            long[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+            JavaKernels.writeLong(out, dataType, data);
+            return this;
+        }
+        double[] a = values();
+        double[] b = JavaKernels.broadcastTo(valuesOf(other), other.getShape(), shape);
+        double[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+        JavaKernels.write(out, dataType, data);
+        return this;
+    }
+
+    /**
+     * Applies an element-wise binary operation with a number in place.
+     *
+     * @param op the operation
+     * @param n the other operand
+     * @param reverse whether this array is the right operand
+     * @return this array
+     */
+    JavaNDArray binaryi(Binary op, Number n, boolean reverse) {
+        checkInPlace(op, isFloating(n));
+        if (isLongOp(op, n)) {
+            long[] a = longValues();
+            long[] b = JavaKernels.broadcastTo(new long[] {n.longValue()}, new Shape(), shape);
+            long[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+            JavaKernels.writeLong(out, dataType, data);
+            return this;
+        }
+        double[] a = values();
+        double[] b = JavaKernels.broadcastTo(new double[] {n.doubleValue()}, new Shape(), shape);
+        double[] out = reverse ? JavaKernels.binary(op, b, a) : JavaKernels.binary(op, a, b);
+        JavaKernels.write(out, dataType, data);
+        return this;
+    }
+
+    private void unaryi(Unary op) {
+        if (dataType.isInteger() && op.hasLongKernel()) {
+            JavaKernels.writeLong(JavaKernels.unary(op, longValues()), dataType, data);
+            return;
+        }
+        JavaKernels.write(JavaKernels.unary(op, values()), dataType, data);
+    }
+
+    // The floating result of an in-place operation cannot be stored in an integer array
+    private void checkInPlace(Binary op, boolean floatingOperand) {
+        if (!op.isComparison() && floatingOperand && !dataType.isFloating()) {
+            throw new IllegalArgumentException(
+                    "The floating point result cannot be stored in place in a "
+                            + dataType
+                            + " array");
+        }
+    }
+
+    // Whether the operation is computed with longs, to keep the large int64 values exact
+    private boolean isLongOp(Binary op, NDArray other) {
+        return op.hasLongKernel() && dataType.isInteger() && other.getDataType().isInteger();
+    }
+
+    private boolean isLongOp(Binary op, Number n) {
+        return op.hasLongKernel() && dataType.isInteger() && !isFloating(n);
+    }
+
+    private static boolean isFloating(Number n) {
+        return !(n instanceof Long
+                || n instanceof Integer
+                || n instanceof Short
+                || n instanceof Byte);
+    }
+
+    private NDArray reduce(Reduce op, int[] axes, boolean keepDims) {
+        int dims = shape.dimension();
+        int[] normalized = null;
+        boolean[] reduced = new boolean[dims];
+        if (axes == null) {
+            Arrays.fill(reduced, true);
+        } else {
+            normalized = new int[axes.length];
+            for (int i = 0; i < axes.length; ++i) {
+                normalized[i] = JavaKernels.normalizeAxis(axes[i], dims);
+                reduced[normalized[i]] = true;
+            }
+        }
+        long[] outShape = new long[dims];
+        int outDims = 0;
+        for (int i = 0; i < dims; ++i) {
+            if (!reduced[i]) {
+                outShape[outDims++] = shape.get(i);
+            } else if (keepDims) {
+                outShape[outDims++] = 1;
+            }
+        }
+        Shape reducedShape = new Shape(Arrays.copyOf(outShape, outDims));
+        if ((dataType.isInteger() || dataType == DataType.BOOLEAN) && op.hasLongKernel()) {
+            long[] out = JavaKernels.reduce(op, longValues(), shape, normalized);
+            // sums and products of integers and booleans are accumulated in int64
+            DataType type = op == Reduce.SUM || op == Reduce.PROD ? DataType.INT64 : dataType;
+            return getJavaManager().createInternal(out, reducedShape, type);
+        }
+        return create(JavaKernels.reduce(op, values(), shape, normalized), reducedShape);
+    }
+
+    private NDArray argReduce(boolean max) {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("Cannot find the index of an empty array");
+        }
+        Shape flat = new Shape(shape.size());
+        double[] out = JavaKernels.argReduce(values(), flat, 0, max);
+        return getJavaManager().createInternal(out, new Shape(), DataType.INT64);
+    }
+
+    private NDArray argReduce(int axis, boolean max) {
+        int pos = JavaKernels.normalizeAxis(axis, shape.dimension());
+        double[] out = JavaKernels.argReduce(values(), shape, pos, max);
+        long[] outShape = new long[shape.dimension() - 1];
+        int j = 0;
+        for (int i = 0; i < shape.dimension(); ++i) {
+            if (i != pos) {
+                outShape[j++] = shape.get(i);
+            }
+        }
+        return getJavaManager().createInternal(out, new Shape(outShape), DataType.INT64);
+    }
+
+    /**
+     * Returns the {@link JavaNDManager} that creates the results of the operations.
+     *
+     * @return the {@link JavaNDManager} that creates the results of the operations
+     */
+    JavaNDManager getJavaManager() {
+        if (manager instanceof JavaNDManager) {
+            return (JavaNDManager) manager;
+        }
+        return JavaNDManager.getSystemManager();
+    }
+
+    private static long[] longValuesOf(NDArray array) {
+        if (array instanceof JavaNDArray) {
+            return ((JavaNDArray) array).longValues();
+        }
+        int size = Math.toIntExact(array.size());
+        return JavaKernels.readLong(array.toByteBuffer(), array.getDataType(), size);
+    }
+
+    private static double[] valuesOf(NDArray array) {
+        if (array instanceof JavaNDArray) {
+            return ((JavaNDArray) array).values();
+        }
+        int size = Math.toIntExact(array.size());
+        return JavaKernels.read(array.toByteBuffer(), array.getDataType(), size);
+    }
+}
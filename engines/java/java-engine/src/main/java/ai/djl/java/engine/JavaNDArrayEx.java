@@ -0,0 +1,841 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.java.engine.JavaKernels.Binary;
+import ai.djl.java.engine.JavaKernels.Unary;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDUtils;
+import ai.djl.ndarray.index.NDArrayIndexer;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
+import ai.djl.nn.recurrent.RNN;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * {@code JavaNDArrayEx} is the pure Java implementation of the {@link NDArrayEx}.
+ *
+ * <p>The reverse arithmetic operations, the simple activations, {@code where}, {@code stack},
+ * {@code concat}, the slice indexing and the {@code float32} SGD and Adam updates run in Java. The
+ * neural network, other optimizer and image operations are delegated to the alternative engine.
+ */
+public class JavaNDArrayEx implements NDArrayEx {
+
+    private static final NDArrayIndexer INDEXER = new JavaNDArrayIndexer();
+
+    private JavaNDArray array;
+
+    /**
+     * Constructs an {@code JavaNDArrayEx} given a {@link NDArray}.
+     *
+     * @param parent the {@link NDArray} to extend
+     */
+    JavaNDArrayEx(JavaNDArray parent) {
+        this.array = parent;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rdiv(Number n) {
+        return array.binary(Binary.DIV, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rdiv(NDArray b) {
+        return array.binary(Binary.DIV, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rdivi(Number n) {
+        return array.binaryi(Binary.DIV, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rdivi(NDArray b) {
+        return array.binaryi(Binary.DIV, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rsub(Number n) {
+        return array.binary(Binary.SUB, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rsub(NDArray b) {
+        return array.binary(Binary.SUB, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rsubi(Number n) {
+        return array.binaryi(Binary.SUB, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rsubi(NDArray b) {
+        return array.binaryi(Binary.SUB, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rmod(Number n) {
+        return array.binary(Binary.MOD, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rmod(NDArray b) {
+        return array.binary(Binary.MOD, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rmodi(Number n) {
+        return array.binaryi(Binary.MOD, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rmodi(NDArray b) {
+        return array.binaryi(Binary.MOD, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rpow(Number n) {
+        return array.binary(Binary.POW, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray rpowi(Number n) {
+        return array.binaryi(Binary.POW, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray relu() {
+        return array.unary(Unary.RELU);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray sigmoid() {
+        return array.unary(Unary.SIGMOID);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray tanh() {
+        return array.unary(Unary.TANH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray softPlus() {
+        return array.unary(Unary.SOFT_PLUS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray softSign() {
+        return array.unary(Unary.SOFT_SIGN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray leakyRelu(float alpha) {
+        return alternative().leakyRelu(alpha);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray elu(float alpha) {
+        return alternative().elu(alpha);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray selu() {
+        return alternative().selu();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gelu() {
+        return alternative().gelu();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maxPool(Shape kernelShape, Shape stride, Shape padding, boolean ceilMode) {
+        return alternative().maxPool(kernelShape, stride, padding, ceilMode);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalMaxPool() {
+        return alternative().globalMaxPool();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray avgPool(
+            Shape kernelShape,
+            Shape stride,
+            Shape padding,
+            boolean ceilMode,
+            boolean countIncludePad) {
+        return alternative().avgPool(kernelShape, stride, padding, ceilMode, countIncludePad);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalAvgPool() {
+        return alternative().globalAvgPool();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lpPool(
+            float normType, Shape kernelShape, Shape stride, Shape padding, boolean ceilMode) {
+        return alternative().lpPool(normType, kernelShape, stride, padding, ceilMode);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalLpPool(float normType) {
+        return alternative().globalLpPool(normType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adadeltaUpdate(
+            NDList inputs,
+            NDList weights,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float rho,
+            float epsilon) {
+        alternative()
+                .adadeltaUpdate(inputs, weights, weightDecay, rescaleGrad, clipGrad, rho, epsilon);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adagradUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float epsilon) {
+        alternative()
+                .adagradUpdate(
+                        inputs, weights, learningRate, weightDecay, rescaleGrad, clipGrad, epsilon);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adamUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon,
+            boolean lazyUpdate) {
+        if (!isFloat32(inputs)) {
+            alternative()
+                    .adamUpdate(
+                            inputs,
+                            weights,
+                            learningRate,
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            beta1,
+                            beta2,
+                            epsilon,
+                            lazyUpdate);
+            return;
+        }
+        JavaKernels.adamUpdate(
+                inputs.get(0).toByteBuffer(),
+                inputs.get(1).toByteBuffer(),
+                inputs.get(2).toByteBuffer(),
+                inputs.get(3).toByteBuffer(),
+                learningRate,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                beta1,
+                beta2,
+                epsilon);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The {@code float32} weights are updated by a single loop over all the buffers.
+     */
+    @Override
+    public void multiAdamUpdate(
+            NDList weights,
+            NDList grads,
+            NDList means,
+            NDList variances,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon) {
+        if (!isFloat32(weights)
+                || !isFloat32(grads)
+                || !isFloat32(means)
+                || !isFloat32(variances)) {
+            NDArrayEx.super.multiAdamUpdate(
+                    weights,
+                    grads,
+                    means,
+                    variances,
+                    learningRates,
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    beta1,
+                    beta2,
+                    epsilon);
+            return;
+        }
+        for (int i = 0; i < weights.size(); ++i) {
+            JavaKernels.adamUpdate(
+                    weights.get(i).toByteBuffer(),
+                    grads.get(i).toByteBuffer(),
+                    means.get(i).toByteBuffer(),
+                    variances.get(i).toByteBuffer(),
+                    learningRates[i],
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    beta1,
+                    beta2,
+                    epsilon);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void nagUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        alternative()
+                .nagUpdate(
+                        inputs,
+                        weights,
+                        learningRate,
+                        weightDecay,
+                        rescaleGrad,
+                        clipGrad,
+                        momentum);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void rmspropUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float rho,
+            float momentum,
+            float epsilon,
+            boolean centered) {
+        alternative()
+                .rmspropUpdate(
+                        inputs,
+                        weights,
+                        learningRate,
+                        weightDecay,
+                        rescaleGrad,
+                        clipGrad,
+                        rho,
+                        momentum,
+                        epsilon,
+                        centered);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void sgdUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum,
+            boolean lazyUpdate) {
+        if (!isFloat32(inputs)) {
+            alternative()
+                    .sgdUpdate(
+                            inputs,
+                            weights,
+                            learningRate,
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            momentum,
+                            lazyUpdate);
+            return;
+        }
+        JavaKernels.sgdUpdate(
+                inputs.get(0).toByteBuffer(),
+                inputs.get(1).toByteBuffer(),
+                momentum == 0f ? null : inputs.get(2).toByteBuffer(),
+                learningRate,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                momentum);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The {@code float32} weights are updated by a single loop over all the buffers.
+     */
+    @Override
+    public void multiSgdUpdate(
+            NDList weights,
+            NDList grads,
+            NDList states,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        boolean hasMomentum = momentum != 0f;
+        if (!isFloat32(weights) || !isFloat32(grads) || hasMomentum && !isFloat32(states)) {
+            NDArrayEx.super.multiSgdUpdate(
+                    weights,
+                    grads,
+                    states,
+                    learningRates,
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    momentum);
+            return;
+        }
+        for (int i = 0; i < weights.size(); ++i) {
+            JavaKernels.sgdUpdate(
+                    weights.get(i).toByteBuffer(),
+                    grads.get(i).toByteBuffer(),
+                    hasMomentum ? states.get(i).toByteBuffer() : null,
+                    learningRates[i],
+                    weightDecay,
+                    rescaleGrad,
+                    clipGrad,
+                    momentum);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList convolution(
+            NDArray input,
+            NDArray weight,
+            NDArray bias,
+            Shape stride,
+            Shape padding,
+            Shape dilation,
+            int groups) {
+        return alternative().convolution(input, weight, bias, stride, padding, dilation, groups);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList deconvolution(
+            NDArray input,
+            NDArray weight,
+            NDArray bias,
+            Shape stride,
+            Shape padding,
+            Shape outPadding,
+            Shape dilation,
+            int groups) {
+        return alternative()
+                .deconvolution(input, weight, bias, stride, padding, outPadding, dilation, groups);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList linear(NDArray input, NDArray weight, NDArray bias) {
+        return alternative().linear(input, weight, bias);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList embedding(NDArray input, NDArray weight, SparseFormat sparse) {
+        return alternative().embedding(input, weight, sparse);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList prelu(NDArray input, NDArray alpha) {
+        return alternative().prelu(input, alpha);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList dropout(NDArray input, float rate, boolean training) {
+        return alternative().dropout(input, rate, training);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList layerNorm(
+            NDArray input, Shape normalizedShape, NDArray gamma, NDArray beta, float eps) {
+        return alternative().layerNorm(input, normalizedShape, gamma, beta, eps);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList batchNorm(
+            NDArray input,
+            NDArray runningMean,
+            NDArray runningVar,
+            NDArray gamma,
+            NDArray beta,
+            int axis,
+            float momentum,
+            float eps,
+            boolean training) {
+        return alternative()
+                .batchNorm(
+                        input, runningMean, runningVar, gamma, beta, axis, momentum, eps, training);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList rnn(
+            NDArray input,
+            NDArray state,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            RNN.Activation activation,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return alternative()
+                .rnn(
+                        input,
+                        state,
+                        params,
+                        hasBiases,
+                        numLayers,
+                        activation,
+                        dropRate,
+                        training,
+                        bidirectional,
+                        batchFirst);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList gru(
+            NDArray input,
+            NDArray state,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return alternative()
+                .gru(
+                        input,
+                        state,
+                        params,
+                        hasBiases,
+                        numLayers,
+                        dropRate,
+                        training,
+                        bidirectional,
+                        batchFirst);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList lstm(
+            NDArray input,
+            NDList states,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return alternative()
+                .lstm(
+                        input,
+                        states,
+                        params,
+                        hasBiases,
+                        numLayers,
+                        dropRate,
+                        training,
+                        bidirectional,
+                        batchFirst);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray resize(int width, int height, int interpolation) {
+        return alternative().resize(width, height, interpolation);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomFlipLeftRight() {
+        return alternative().randomFlipLeftRight();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomFlipTopBottom() {
+        return alternative().randomFlipTopBottom();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomBrightness(float brightness) {
+        return alternative().randomBrightness(brightness);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomHue(float hue) {
+        return alternative().randomHue(hue);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomColorJitter(
+            float brightness, float contrast, float saturation, float hue) {
+        return alternative().randomColorJitter(brightness, contrast, saturation, hue);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayIndexer getIndexer() {
+        return INDEXER;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray where(NDArray condition, NDArray other) {
+        Shape shape = JavaKernels.broadcast(condition.getShape(), array.getShape());
+        shape = JavaKernels.broadcast(shape, other.getShape());
+        JavaNDArray cond = array.getJavaManager().from(condition);
+        double[] c = JavaKernels.broadcastTo(cond.values(), condition.getShape(), shape);
+        double[] a = JavaKernels.broadcastTo(array.values(), array.getShape(), shape);
+        JavaNDArray b = toJava(other, array.getDataType());
+        double[] values = JavaKernels.broadcastTo(b.values(), other.getShape(), shape);
+        for (int i = 0; i < values.length; ++i) {
+            if (c[i] != 0) {
+                values[i] = a[i];
+            }
+        }
+        return array.create(values, shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray stack(NDList arrays, int axis) {
+        int pos = JavaKernels.normalizeAxis(axis, array.getShape().dimension() + 1);
+        NDList expanded = new NDList(arrays.size());
+        for (NDArray arr : arrays) {
+            if (!arr.getShape().equals(array.getShape())) {
+                throw new IllegalArgumentException(
+                        "All the arrays must have the same shape, expected "
+                                + array.getShape()
+                                + " but got "
+                                + arr.getShape());
+            }
+            expanded.add(toJava(arr, array.getDataType()).expandDims(pos));
+        }
+        JavaNDArray first = (JavaNDArray) array.expandDims(pos);
+        return (JavaNDArray) first.getNDArrayInternal().concat(expanded, pos);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray concat(NDList arrays, int axis) {
+        if (arrays.isEmpty()) {
+            // stacking or concatenating a single array
+            return (JavaNDArray) array.duplicate();
+        }
+        NDUtils.checkConcatInput(arrays);
+        Shape shape = array.getShape();
+        int dims = shape.dimension();
+        int pos = JavaKernels.normalizeAxis(axis, dims);
+        JavaNDArray[] srcArray = new JavaNDArray[arrays.size() + 1];
+        srcArray[0] = array;
+        long length = shape.get(pos);
+        for (int i = 1; i < srcArray.length; ++i) {
+            JavaNDArray arr = toJava(arrays.get(i - 1), array.getDataType());
+            Shape s = arr.getShape();
+            if (s.dimension() != dims) {
+                throw new IllegalArgumentException("All the arrays must have " + dims + " dims");
+            }
+            for (int d = 0; d < dims; ++d) {
+                if (d != pos && s.get(d) != shape.get(d)) {
+                    throw new IllegalArgumentException(
+                            "The shapes " + shape + " and " + s + " cannot be concatenated");
+                }
+            }
+            length += s.get(pos);
+            srcArray[i] = arr;
+        }
+        long outer = shape.slice(0, pos).size();
+        int elementSize = array.getDataType().getNumOfBytes();
+        JavaNDArray result =
+                array.getJavaManager()
+                        .create(Shape.update(shape, pos, length), array.getDataType());
+        ByteBuffer target = result.toByteBuffer();
+        ByteBuffer[] sources = new ByteBuffer[srcArray.length];
+        int[] chunks = new int[srcArray.length];
+        for (int i = 0; i < srcArray.length; ++i) {
+            sources[i] = srcArray[i].toByteBuffer();
+            chunks[i] = Math.toIntExact(srcArray[i].getShape().slice(pos).size() * elementSize);
+        }
+        // each array contributes one contiguous chunk per index of the outer axes
+        for (long o = 0; o < outer; ++o) {
+            for (int i = 0; i < sources.length; ++i) {
+                ByteBuffer src = sources[i];
+                src.limit(src.position() + chunks[i]);
+                target.put(src);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxTarget(
+            NDList inputs,
+            float iouThreshold,
+            float ignoreLabel,
+            float negativeMiningRatio,
+            float negativeMiningThreshold,
+            int minNegativeSamples) {
+        return alternative()
+                .multiBoxTarget(
+                        inputs,
+                        iouThreshold,
+                        ignoreLabel,
+                        negativeMiningRatio,
+                        negativeMiningThreshold,
+                        minNegativeSamples);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxPrior(
+            List<Float> sizes,
+            List<Float> ratios,
+            List<Float> steps,
+            List<Float> offsets,
+            boolean clip) {
+        return alternative().multiBoxPrior(sizes, ratios, steps, offsets, clip);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxDetection(
+            NDList inputs,
+            boolean clip,
+            float threshold,
+            int backgroundId,
+            float nmsThreshold,
+            boolean forceSuppress,
+            int nmsTopK) {
+        return alternative()
+                .multiBoxDetection(
+                        inputs,
+                        clip,
+                        threshold,
+                        backgroundId,
+                        nmsThreshold,
+                        forceSuppress,
+                        nmsTopK);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray getArray() {
+        return array;
+    }
+
+    private NDArrayEx alternative() {
+        return array.getAlternativeNDArrayInternal();
+    }
+
+    // the Java kernels update float32 buffers of the pure Java engine in place
+    private static boolean isFloat32(NDList arrays) {
+        for (NDArray arr : arrays) {
+            if (!(arr instanceof JavaNDArray) || arr.getDataType() != DataType.FLOAT32) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JavaNDArray toJava(NDArray other, DataType dataType) {
+        JavaNDArray arr = array.getJavaManager().from(other);
+        if (arr.getDataType() != dataType) {
+            return (JavaNDArray) arr.toType(dataType, false);
+        }
+        return arr;
+    }
+}
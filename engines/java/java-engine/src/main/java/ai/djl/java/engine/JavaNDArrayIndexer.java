@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.index.NDArrayIndexer;
+import ai.djl.ndarray.index.full.NDIndexFullPick;
+import ai.djl.ndarray.index.full.NDIndexFullSlice;
+import ai.djl.ndarray.types.Shape;
+
+/** The {@link NDArrayIndexer} used by the {@link JavaNDArray}. */
+public class JavaNDArrayIndexer extends NDArrayIndexer {
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDArray array, NDIndexFullPick fullPick) {
+        JavaNDArray arr = (JavaNDArray) array;
+        return arr.getAlternativeNDArrayInternal().getIndexer().get(arr, fullPick);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDArray array, NDIndexFullSlice fullSlice) {
+        JavaNDArray arr = (JavaNDArray) array;
+        int[] index = index(arr.getShape(), fullSlice);
+        return arr.gather(index, fullSlice.getShape()).reshape(fullSlice.getSqueezedShape());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDArray array, NDIndexFullSlice fullSlice, NDArray value) {
+        JavaNDArray arr = (JavaNDArray) array;
+        NDList toClean = new NDList();
+        JavaNDArray val = arr.getJavaManager().from(value);
+        if (val != value) {
+            toClean.add(val);
+        }
+        if (val.getDataType() != arr.getDataType()) {
+            val = (JavaNDArray) val.toType(arr.getDataType(), false);
+            toClean.add(val);
+        }
+        // Deal with the case target: (1, 10, 1), original (10)
+        // try to find (10, 1) and reshape (10) to that
+        Shape targetShape = fullSlice.getShape();
+        while (targetShape.size() > val.size()) {
+            targetShape = targetShape.slice(1);
+        }
+        val = (JavaNDArray) val.reshape(targetShape);
+        toClean.add(val);
+        if (!targetShape.equals(fullSlice.getShape())) {
+            val = (JavaNDArray) val.broadcast(fullSlice.getShape());
+            toClean.add(val);
+        }
+        arr.scatter(index(arr.getShape(), fullSlice), val);
+        toClean.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDArray array, NDIndexFullSlice fullSlice, Number value) {
+        try (NDArray scalar = array.getManager().create(value)) {
+            set(array, fullSlice, scalar);
+        }
+    }
+
+    private static int[] index(Shape shape, NDIndexFullSlice fullSlice) {
+        long[] min = fullSlice.getMin();
+        long[] step = fullSlice.getStep();
+        long[] strides = JavaKernels.strides(shape.getShape());
+        long offset = 0;
+        for (int i = 0; i < strides.length; ++i) {
+            offset += min[i] * strides[i];
+            strides[i] *= step[i];
+        }
+        return JavaKernels.index(fullSlice.getShape().getShape(), strides, offset);
+    }
+}
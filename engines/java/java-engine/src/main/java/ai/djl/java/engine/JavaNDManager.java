@@ -0,0 +1,203 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.Device;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.RandomUtils;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** {@code JavaNDManager} is the pure Java implementation of {@link NDManager}. */
+public class JavaNDManager extends BaseNDManager {
+
+    private static final JavaNDManager SYSTEM_MANAGER = new SystemManager();
+
+    private JavaNDManager(NDManager parent, Device device) {
+        super(parent, device);
+    }
+
+    static JavaNDManager getSystemManager() {
+        return SYSTEM_MANAGER;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray from(NDArray array) {
+        if (array == null || array instanceof JavaNDArray) {
+            return (JavaNDArray) array;
+        }
+        return create(array.toByteBuffer(), array.getShape(), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray create(Buffer data, Shape shape, DataType dataType) {
+        int size = Math.toIntExact(shape.size());
+        BaseNDManager.validateBufferSize(data, dataType, size);
+        ByteBuffer buf = allocatePooledDirect(size * dataType.getNumOfBytes());
+        copyBuffer(data, buf);
+        return new JavaNDArray(this, alternativeManager, buf, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDArray create(Shape shape, DataType dataType) {
+        int size = Math.toIntExact(shape.size());
+        ByteBuffer buf = allocatePooledDirect(size * dataType.getNumOfBytes());
+        return new JavaNDArray(this, alternativeManager, buf, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean copiesStaging() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray full(Shape shape, float value, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        Arrays.fill(values, value);
+        return createInternal(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray arange(float start, float stop, float step, DataType dataType) {
+        int size = Math.max(0, (int) Math.ceil((stop - start) / step));
+        double[] values = new double[size];
+        for (int i = 0; i < size; ++i) {
+            values[i] = start + i * (double) step;
+        }
+        return createInternal(values, new Shape(size), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eye(int rows, int cols, int k, DataType dataType) {
+        double[] values = new double[rows * cols];
+        for (int i = 0; i < rows; ++i) {
+            int j = i + k;
+            if (j >= 0 && j < cols) {
+                values[i * cols + j] = 1;
+            }
+        }
+        return createInternal(values, new Shape(rows, cols), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray linspace(float start, float stop, int num, boolean endpoint) {
+        if (num < 0) {
+            throw new IllegalArgumentException("Num argument must be non-negative");
+        }
+        double[] values = new double[num];
+        int intervals = endpoint ? num - 1 : num;
+        double step = intervals > 0 ? ((double) stop - start) / intervals : 0;
+        for (int i = 0; i < num; ++i) {
+            values[i] = start + i * step;
+        }
+        return createInternal(values, new Shape(num), DataType.FLOAT32);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomInteger(long low, long high, Shape shape, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = low + (long) (RandomUtils.random() * (high - low));
+        }
+        return createInternal(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomUniform(float low, float high, Shape shape, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = low + RandomUtils.random() * (high - low);
+        }
+        return createInternal(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomNormal(float loc, float scale, Shape shape, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = loc + RandomUtils.nextGaussian() * scale;
+        }
+        return createInternal(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JavaNDManager newSubManager(Device device) {
+        JavaNDManager manager = new JavaNDManager(this, device);
+        attachInternal(manager.uid, manager);
+        return manager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Engine getEngine() {
+        return Engine.getEngine(JavaEngine.ENGINE_NAME);
+    }
+
+    JavaNDArray createInternal(double[] values, Shape shape, DataType dataType) {
+        JavaNDArray array = create(shape, dataType);
+        JavaKernels.write(values, dataType, array.toByteBuffer());
+        return array;
+    }
+
+    JavaNDArray createInternal(long[] values, Shape shape, DataType dataType) {
+        JavaNDArray array = create(shape, dataType);
+        JavaKernels.writeLong(values, dataType, array.toByteBuffer());
+        return array;
+    }
+
+    JavaNDArray createInternal(ByteBuffer data, Shape shape, DataType dataType) {
+        return new JavaNDArray(this, alternativeManager, data, shape, dataType);
+    }
+
+    NDManager getAlternative() {
+        return alternativeManager;
+    }
+
+    /** The SystemManager is the root {@link JavaNDManager} of which all others are children. */
+    private static final class SystemManager extends JavaNDManager {
+
+        SystemManager() {
+            super(null, null);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void attachInternal(String resourceId, AutoCloseable resource) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public void detachInternal(String resourceId) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.java.engine;
+
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.DirectBufferPool;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.testing.Assertions;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.translate.Batchifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class JavaNDArrayTest {
+
+    @Test
+    public void testCreation() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray array = manager.create(new float[] {0f, 1f, 2f, 3f}, new Shape(2, 2));
+            Assert.assertTrue(array instanceof JavaNDArray);
+            Assert.assertEquals(array.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+            Assert.assertEquals(manager.ones(new Shape(2)).toFloatArray(), new float[] {1f, 1f});
+            Assert.assertEquals(
+                    manager.arange(0, 5, 2, DataType.INT32).toIntArray(), new int[] {0, 2, 4});
+            Assert.assertEquals(manager.eye(2).toFloatArray(), new float[] {1f, 0f, 0f, 1f});
+            Assert.assertEquals(
+                    manager.full(new Shape(2), 3f).toFloatArray(), new float[] {3f, 3f});
+            Assert.assertEquals(array.duplicate().toFloatArray(), array.toFloatArray());
+            Assert.assertEquals(
+                    array.toType(DataType.INT64, false).toLongArray(), new long[] {0, 1, 2, 3});
+        }
+    }
+
+    @Test
+    public void testArithmetic() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray a = manager.create(new float[] {1f, 2f, 3f, 4f}, new Shape(2, 2));
+            NDArray b = manager.create(new float[] {10f, 20f}, new Shape(2));
+            Assert.assertEquals(a.add(b).toFloatArray(), new float[] {11f, 22f, 13f, 24f});
+            Assert.assertEquals(a.sub(1).toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+            Assert.assertEquals(a.mul(b).toFloatArray(), new float[] {10f, 40f, 30f, 80f});
+            Assert.assertEquals(a.div(2).toFloatArray(), new float[] {0.5f, 1f, 1.5f, 2f});
+            Assert.assertEquals(NDArrays.sub(5, a).toFloatArray(), new float[] {4f, 3f, 2f, 1f});
+            Assert.assertEquals(a.neg().toFloatArray(), new float[] {-1f, -2f, -3f, -4f});
+            Assert.assertEquals(a.square().toFloatArray(), new float[] {1f, 4f, 9f, 16f});
+            Assert.assertEquals(a.gt(2).toBooleanArray(), new boolean[] {false, false, true, true});
+
+            NDArray c = a.duplicate();
+            c.addi(1).muli(b);
+            Assert.assertEquals(c.toFloatArray(), new float[] {20f, 60f, 40f, 100f});
+
+            NDArray ints = manager.create(new int[] {1, 2});
+            NDArray promoted = ints.add(manager.create(new float[] {0.5f, 0.5f}));
+            Assert.assertEquals(promoted.getDataType(), DataType.FLOAT32);
+            Assert.assertEquals(promoted.toFloatArray(), new float[] {1.5f, 2.5f});
+            Assert.assertThrows(
+                    IllegalArgumentException.class, () -> a.add(manager.zeros(new Shape(3))));
+        }
+    }
+
+    @Test
+    public void testMixedTypeScalar() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray ints = manager.create(new int[] {1, 2});
+            NDArray promoted = ints.add(1.5f);
+            Assert.assertEquals(promoted.getDataType(), DataType.FLOAT32);
+            Assert.assertEquals(promoted.toFloatArray(), new float[] {2.5f, 3.5f});
+            Assert.assertEquals(ints.add(1).getDataType(), DataType.INT32);
+            Assert.assertEquals(ints.mul(0.5).toFloatArray(), new float[] {0.5f, 1f});
+            Assert.assertEquals(ints.gt(1.5).toBooleanArray(), new boolean[] {false, true});
+            Assert.assertThrows(IllegalArgumentException.class, () -> ints.addi(1.5f));
+            Assert.assertEquals(ints.toIntArray(), new int[] {1, 2});
+
+            NDArray bytes =
+                    manager.create(new byte[] {(byte) 255, 51}).toType(DataType.UINT8, false);
+            NDArray scaled = bytes.div(255.0);
+            Assert.assertEquals(scaled.getDataType(), DataType.FLOAT32);
+            Assert.assertEquals(scaled.toFloatArray(), new float[] {1f, 0.2f});
+            NDArray sum = bytes.sum();
+            Assert.assertEquals(sum.getDataType(), DataType.INT64);
+            Assert.assertEquals(sum.getLong(), 306L);
+
+            NDArray bools = manager.create(new boolean[] {true, false, true});
+            Assert.assertEquals(bools.sum().getDataType(), DataType.INT64);
+            Assert.assertEquals(bools.sum().getLong(), 2L);
+            Assert.assertEquals(bools.mul(0.5).toFloatArray(), new float[] {0.5f, 0f, 0.5f});
+
+            NDArray longs = manager.create(new long[] {7, -7});
+            Assert.assertEquals(longs.div(2).toLongArray(), new long[] {3, -3});
+            Assert.assertEquals(longs.div(2.0).toFloatArray(), new float[] {3.5f, -3.5f});
+        }
+    }
+
+    @Test
+    public void testToTensor() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray image =
+                    manager.create(new byte[] {0, (byte) 255, 51, (byte) 204}, new Shape(1, 2, 2))
+                            .toType(DataType.UINT8, false);
+            NDArray tensor = image.getNDArrayInternal().toTensor();
+            Assert.assertEquals(tensor.getDataType(), DataType.FLOAT32);
+            Assert.assertEquals(tensor.getShape(), new Shape(2, 1, 2));
+            Assert.assertEquals(tensor.toFloatArray(), new float[] {0f, 0.2f, 1f, 0.8f});
+        }
+    }
+
+    @Test
+    public void testReduction() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray a = manager.create(new float[] {1f, 5f, 3f, 4f, 2f, 6f}, new Shape(2, 3));
+            Assert.assertEquals(a.sum().getFloat(), 21f);
+            Assert.assertEquals(a.sum(new int[] {0}).toFloatArray(), new float[] {5f, 7f, 9f});
+            Assert.assertEquals(a.mean(new int[] {1}).toFloatArray(), new float[] {3f, 4f});
+            Assert.assertEquals(a.max(new int[] {-1}, true).getShape(), new Shape(2, 1));
+            Assert.assertEquals(a.max(new int[] {-1}, true).toFloatArray(), new float[] {5f, 6f});
+            Assert.assertEquals(a.min().getFloat(), 1f);
+            Assert.assertEquals(a.argMax().getLong(), 5L);
+            Assert.assertEquals(a.argMax(1).toLongArray(), new long[] {1, 2});
+            Assert.assertEquals(a.argMin(0).toLongArray(), new long[] {0, 1, 0});
+
+            NDArray softmax = a.softmax(1);
+            float[] sums = softmax.sum(new int[] {1}).toFloatArray();
+            Assert.assertEquals(sums[0], 1f, 1e-6f);
+            Assert.assertEquals(sums[1], 1f, 1e-6f);
+            Assert.assertEquals(softmax.argMax(1).toLongArray(), new long[] {1, 2});
+            Assert.assertEquals(
+                    a.logSoftmax(1).exp().toFloatArray(), softmax.toFloatArray(), 1e-6f);
+        }
+    }
+
+    @Test
+    public void testInt64() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            long large = Long.MAX_VALUE - 1;
+            NDArray a = manager.create(new long[] {large, -large, 3});
+            Assert.assertEquals(a.add(1).toLongArray(), new long[] {Long.MAX_VALUE, 1 - large, 4});
+            Assert.assertEquals(a.sub(a).toLongArray(), new long[] {0, 0, 0});
+            Assert.assertEquals(a.neg().toLongArray(), new long[] {-large, large, -3});
+            Assert.assertEquals(a.abs().toLongArray(), new long[] {large, large, 3});
+            Assert.assertEquals(a.mod(2).toLongArray(), new long[] {0, 0, 1});
+            Assert.assertEquals(
+                    a.eq(manager.create(new long[] {large, large, 3})).toBooleanArray(),
+                    new boolean[] {true, false, true});
+            Assert.assertEquals(a.max().getLong(), large);
+            Assert.assertEquals(a.sum().getLong(), 3L);
+            Assert.assertEquals(a.toType(DataType.INT32, false).toIntArray()[2], 3);
+
+            NDArray b = manager.create(new long[] {large});
+            b.subi(1L);
+            Assert.assertEquals(b.getLong(), large - 1);
+
+            Assert.assertEquals(a.div(2).toLongArray(), new long[] {large / 2, -large / 2, 1});
+
+            // the operations computed in float64 reject the values they would round
+            Assert.assertThrows(UnsupportedOperationException.class, a::exp);
+        }
+    }
+
+    @Test
+    public void testShapes() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray a = manager.arange(6f).reshape(2, 3);
+            Assert.assertEquals(a.reshape(-1, 2).getShape(), new Shape(3, 2));
+            Assert.assertEquals(a.expandDims(0).getShape(), new Shape(1, 2, 3));
+            Assert.assertEquals(a.expandDims(-1).squeeze().getShape(), new Shape(2, 3));
+            Assert.assertEquals(a.transpose().toFloatArray(), new float[] {0f, 3f, 1f, 4f, 2f, 5f});
+            Assert.assertEquals(a.transpose().getShape(), new Shape(3, 2));
+            Assert.assertEquals(
+                    a.broadcast(new Shape(2, 2, 3)).toFloatArray(),
+                    new float[] {0f, 1f, 2f, 3f, 4f, 5f, 0f, 1f, 2f, 3f, 4f, 5f});
+            Assert.assertEquals(
+                    a.repeat(1, 2).toFloatArray(),
+                    new float[] {0f, 0f, 1f, 1f, 2f, 2f, 3f, 3f, 4f, 4f, 5f, 5f});
+            Assert.assertEquals(a.repeat(new Shape(4, 3)).getShape(), new Shape(4, 3));
+            Assert.assertEquals(
+                    a.repeat(new Shape(4, 3)).toFloatArray(),
+                    new float[] {0f, 1f, 2f, 0f, 1f, 2f, 3f, 4f, 5f, 3f, 4f, 5f});
+
+            Assert.assertEquals(a.get(1).toFloatArray(), new float[] {3f, 4f, 5f});
+            Assert.assertEquals(a.get(":, 1:").toFloatArray(), new float[] {1f, 2f, 4f, 5f});
+            Assert.assertEquals(a.get(":, ::2").getShape(), new Shape(2, 2));
+            a.set(new NDIndex("0"), 9);
+            Assert.assertEquals(a.toFloatArray(), new float[] {9f, 9f, 9f, 3f, 4f, 5f});
+            a.set(new NDIndex(":, 0"), manager.create(new float[] {7f, 8f}));
+            Assert.assertEquals(a.toFloatArray(), new float[] {7f, 9f, 9f, 8f, 4f, 5f});
+        }
+    }
+
+    @Test
+    public void testStack() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray a = manager.create(new float[] {0f, 1f});
+            NDArray b = manager.create(new float[] {2f, 3f});
+            NDArray stacked = NDArrays.stack(new NDList(a, b));
+            Assert.assertEquals(stacked.getShape(), new Shape(2, 2));
+            Assert.assertEquals(stacked.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+            stacked = NDArrays.stack(new NDList(a, b), 1);
+            Assert.assertEquals(stacked.toFloatArray(), new float[] {0f, 2f, 1f, 3f});
+            Assert.assertEquals(NDArrays.stack(new NDList(a)).getShape(), new Shape(1, 2));
+            Assert.assertEquals(NDArrays.concat(new NDList(a)).toFloatArray(), a.toFloatArray());
+
+            NDArray concat = NDArrays.concat(new NDList(stacked, stacked), 1);
+            Assert.assertEquals(concat.getShape(), new Shape(2, 4));
+            Assert.assertEquals(
+                    concat.toFloatArray(), new float[] {0f, 2f, 0f, 2f, 1f, 3f, 1f, 3f});
+
+            NDList batch = Batchifier.STACK.batchify(new NDList[] {new NDList(a), new NDList(b)});
+            Assert.assertEquals(batch.singletonOrThrow().getShape(), new Shape(2, 2));
+            NDList[] unbatched = Batchifier.STACK.unbatchify(batch);
+            Assert.assertEquals(unbatched[1].singletonOrThrow().toFloatArray(), b.toFloatArray());
+        }
+    }
+
+    @Test
+    public void testDirectBufferPool() {
+        DirectBufferPool pool = new DirectBufferPool();
+        DirectBufferPool.setInstance(pool);
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray kept;
+            try (NDManager sub = manager.newSubManager()) {
+                sub.ones(new Shape(4));
+                kept = sub.arange(4f);
+                kept.attach(manager);
+            }
+            // the buffer of the array moved to another manager is still in use
+            Assert.assertEquals(kept.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+            long outstanding = pool.getOutstandingBytes();
+            Assert.assertTrue(outstanding > 0);
+
+            long misses = pool.getMissCount();
+            try (NDManager sub = manager.newSubManager()) {
+                Assert.assertEquals(sub.zeros(new Shape(4)).toFloatArray(), new float[4]);
+                sub.ones(new Shape(4));
+            }
+            Assert.assertEquals(pool.getMissCount(), misses);
+            Assert.assertEquals(pool.getOutstandingBytes(), outstanding);
+            Assert.assertEquals(kept.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+
+            // the staging buffers go back to the pool once the engine has copied them
+            BaseNDManager base = (BaseNDManager) manager;
+            ByteBuffer staging = base.allocateStagingDirect(100);
+            Assert.assertEquals(staging.remaining(), 100);
+            Assert.assertTrue(pool.getOutstandingBytes() > outstanding);
+            base.releaseStagingDirect(staging);
+            Assert.assertEquals(pool.getOutstandingBytes(), outstanding);
+
+            // the buffers handed to the callers are never pooled
+            try (NDManager sub = manager.newSubManager()) {
+                Assert.assertEquals(sub.allocateDirect(100).capacity(), 100);
+                Assert.assertEquals(pool.getOutstandingBytes(), outstanding);
+                ByteBuffer buf = ((BaseNDManager) sub).allocatePooledDirect(100);
+                Assert.assertEquals(buf.capacity(), 100);
+                Assert.assertEquals(buf.order(), ByteOrder.nativeOrder());
+                Assert.assertTrue(pool.getOutstandingBytes() > outstanding);
+            }
+            Assert.assertEquals(pool.getOutstandingBytes(), outstanding);
+        } finally {
+            DirectBufferPool.setInstance(null);
+        }
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+    }
+
+    @Test
+    public void testDirectBufferPoolViews() {
+        DirectBufferPool pool = new DirectBufferPool();
+        DirectBufferPool.setInstance(pool);
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray view;
+            NDArray detached;
+            try (NDManager sub = manager.newSubManager()) {
+                NDArray base = sub.arange(4f);
+                view = base.reshape(2, 2);
+                view.attach(manager);
+                detached = base.reshape(4, 1);
+                detached.detach();
+            }
+            // the buffer shared with the views is not reused by the next allocations
+            try (NDManager sub = manager.newSubManager()) {
+                for (int i = 0; i < 64; ++i) {
+                    sub.zeros(new Shape(4));
+                }
+                Assert.assertEquals(view.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+                Assert.assertEquals(detached.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+            }
+            // the pool forgets the buffer of the detached view, it is left to the GC
+            Assert.assertEquals(pool.getOutstandingBytes(), 0);
+            manager.close();
+            // the detached view keeps the buffer out of the pool
+            Assert.assertEquals(pool.getOutstandingBytes(), 0);
+            Assert.assertEquals(detached.toFloatArray(), new float[] {0f, 1f, 2f, 3f});
+        } finally {
+            DirectBufferPool.setInstance(null);
+        }
+    }
+
+    @Test
+    public void testOptimizerUpdates() {
+        try (NDManager manager = Engine.getEngine("Java").newBaseManager()) {
+            NDArray grad = manager.create(new float[] {0.5f, -1f});
+            Optimizer sgd =
+                    Optimizer.sgd()
+                            .setLearningRateTracker(Tracker.fixed(0.1f))
+                            .optMomentum(0.9f)
+                            .build();
+            NDArray weight = manager.create(new float[] {1f, 2f});
+            sgd.update("w", weight, grad);
+            sgd.update("w", weight, grad);
+            Assertions.assertAlmostEquals(weight, manager.create(new float[] {0.855f, 2.29f}));
+
+            Optimizer adam = Optimizer.adam().build();
+            weight = manager.create(new float[] {1f, 2f});
+            adam.update("w", weight, grad);
+            Assertions.assertAlmostEquals(weight, manager.create(new float[] {0.999f, 2.001f}));
+
+            // the multi-tensor update gives the same result as the updates of each parameter
+            for (Optimizer optimizer : new Optimizer[] {sgd, adam}) {
+                NDArray[] weights = {manager.ones(new Shape(2, 2)), manager.ones(new Shape(3))};
+                NDArray[] expected = {weights[0].duplicate(), weights[1].duplicate()};
+                NDArray[] grads = {
+                    manager.create(new float[] {1f, -2f, 3f, -4f}, new Shape(2, 2)),
+                    manager.create(new float[] {0.5f, 0f, -0.5f})
+                };
+                for (int step = 0; step < 2; ++step) {
+                    optimizer.update(new String[] {"a", "b"}, weights, grads);
+                    optimizer.update("c", expected[0], grads[0]);
+                    optimizer.update("d", expected[1], grads[1]);
+                }
+                Assertions.assertAlmostEquals(weights[0], expected[0]);
+                Assertions.assertAlmostEquals(weights[1], expected[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testAlternativeEngine() {
+        Engine engine = Engine.getEngine("Java");
+        if (engine.getAlternativeEngine() == null) {
+            throw new SkipException("No alternative engine available");
+        }
+        try (NDManager manager = engine.newBaseManager()) {
+            NDArray a = manager.create(new float[] {1f, 2f, 3f});
+            Assert.assertEquals(a.cumSum().toFloatArray(), new float[] {1f, 3f, 6f});
+            Assert.assertEquals(a.getNDArrayInternal().elu(1f).toFloatArray(), a.toFloatArray());
+        }
+    }
+}
@@ -301,9 +301,14 @@ public class MxNDArray extends NativeResource<Pointer> implements LazyNDArray {
             return;
         }
 
-        ByteBuffer buf = manager.allocateDirect(size * type.getNumOfBytes());
-        BaseNDManager.copyBuffer(data, buf);
-        JnaUtils.syncCopyFromCPU(getHandle(), buf, size);
+        // MXNet copies the data, the buffer can be reused right away
+        ByteBuffer buf = manager.allocateStagingDirect(size * type.getNumOfBytes());
+        try {
+            BaseNDManager.copyBuffer(data, buf);
+            JnaUtils.syncCopyFromCPU(getHandle(), buf, size);
+        } finally {
+            manager.releaseStagingDirect(buf);
+        }
     }
 
     /** {@inheritDoc} */
@@ -32,6 +32,9 @@ import java.util.List;
 /** {@code MxNDArrayEx} is the MXNet implementation of the {@link NDArrayEx}. */
 class MxNDArrayEx implements NDArrayEx {
 
+    // the multi-tensor optimizer operators update at most 60 weights at once
+    private static final int MAX_AGGREGATION = 60;
+
     private MxNDArray array;
 
     /**
@@ -518,6 +521,54 @@ class MxNDArrayEx implements NDArrayEx {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The weights are updated with the {@code multi_sgd_update} and {@code multi_sgd_mom_update}
+     * operators, in chunks of at most 60 weights.
+     */
+    @Override
+    public void multiSgdUpdate(
+            NDList weights,
+            NDList grads,
+            NDList states,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        boolean hasMomentum = momentum != 0;
+        for (int start = 0; start < weights.size(); start += MAX_AGGREGATION) {
+            int end = Math.min(start + MAX_AGGREGATION, weights.size());
+            int num = end - start;
+            // the inputs are interleaved: weight, gradient and momentum of each weight
+            NDList inputs = new NDList(num * (hasMomentum ? 3 : 2));
+            NDList outputs = new NDList(num);
+            float[] wds = new float[num];
+            for (int i = start; i < end; ++i) {
+                inputs.add(weights.get(i));
+                inputs.add(grads.get(i));
+                if (hasMomentum) {
+                    inputs.add(states.get(i));
+                }
+                outputs.add(weights.get(i));
+                wds[i - start] = weightDecay;
+            }
+            MxOpParams params = new MxOpParams();
+            params.addTupleParam("lrs", Arrays.copyOfRange(learningRates, start, end));
+            params.addTupleParam("wds", wds);
+            params.addParam("rescale_grad", rescaleGrad);
+            params.addParam("clip_gradient", clipGrad);
+            params.addParam("num_weights", num);
+            if (hasMomentum) {
+                params.addParam("momentum", momentum);
+                getManager().invoke("multi_sgd_mom_update", inputs, outputs, params);
+            } else {
+                getManager().invoke("multi_sgd_update", inputs, outputs, params);
+            }
+        }
+    }
+
     ////////////////////////////////////////
     // Neural network
     ////////////////////////////////////////
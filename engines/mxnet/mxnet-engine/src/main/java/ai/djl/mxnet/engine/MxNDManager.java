@@ -26,9 +26,9 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import ai.djl.util.PairList;
 import com.sun.jna.Pointer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.file.Path;
 
 /** {@code MxNDManager} is the MXNet implementation of {@link NDManager}. */
@@ -56,12 +56,6 @@ public class MxNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public MxNDArray from(NDArray array) {
@@ -101,6 +95,12 @@ public class MxNDManager extends BaseNDManager {
         return new MxNDArray(this, handle, device, shape, dataType, false);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean copiesStaging() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public MxNDArray createCSR(Buffer data, long[] indptr, long[] indices, Shape shape) {
@@ -155,6 +155,14 @@ public class MxNDManager extends BaseNDManager {
     /** {@inheritDoc} */
     @Override
     public NDList load(Path path) {
+        try {
+            // the MXNet loader doesn't know the indexed NDList format
+            if (NDList.isIndexed(path)) {
+                return super.load(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load NDList: " + path, e);
+        }
         return JnaUtils.loadNdArray(this, path, device);
     }
 
@@ -15,6 +15,7 @@ package ai.djl.pytorch.engine;
 import ai.djl.Device;
 import ai.djl.engine.Engine;
 import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.DirectBufferPool;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -23,7 +24,6 @@ import ai.djl.ndarray.types.SparseFormat;
 import ai.djl.pytorch.jni.JniUtils;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 /** {@code PtNDManager} is the PyTorch implementation of {@link NDManager}. */
 public class PtNDManager extends BaseNDManager {
@@ -38,12 +38,6 @@ public class PtNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public PtNDArray from(NDArray array) {
@@ -68,10 +62,41 @@ public class PtNDManager extends BaseNDManager {
             return JniUtils.createNdFromByteBuffer(
                     this, (ByteBuffer) data, shape, dataType, SparseFormat.DENSE, device);
         }
-        ByteBuffer buf = allocateDirect(size * dataType.getNumOfBytes());
+        ByteBuffer buf = allocateStagingDirect(size * dataType.getNumOfBytes());
         copyBuffer(data, buf);
-        return JniUtils.createNdFromByteBuffer(
-                this, buf, shape, dataType, SparseFormat.DENSE, device);
+        return createFromStaging(buf, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PtNDArray createFromStaging(ByteBuffer buffer, Shape shape, DataType dataType) {
+        DirectBufferPool pool = DirectBufferPool.getInstance();
+        if (pool == null || !pool.isPooled(buffer)) {
+            // the array keeps the buffer, it is reclaimed with the array
+            return JniUtils.createNdFromByteBuffer(
+                    this, buffer, shape, dataType, SparseFormat.DENSE, device);
+        }
+        try {
+            PtNDArray array =
+                    JniUtils.createNdFromByteBuffer(
+                            this, buffer, shape, dataType, SparseFormat.DENSE, device);
+            if (device.isGpu()) {
+                // already copied to the device
+                return array;
+            }
+            try (PtNDArray staged = array) {
+                // from_blob wraps the buffer, copy it into memory owned by PyTorch
+                return JniUtils.clone(staged);
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean copiesStaging() {
+        return true;
     }
 
     /** {@inheritDoc} */
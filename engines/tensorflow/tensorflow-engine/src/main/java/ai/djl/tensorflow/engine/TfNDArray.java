@@ -201,9 +201,14 @@ public class TfNDArray extends NativeResource<TFE_TensorHandle> implements NDArr
             JavacppUtils.setByteBuffer(getHandle(), (ByteBuffer) data);
             return;
         }
-        ByteBuffer buf = getManager().allocateDirect(size * getDataType().getNumOfBytes());
-        BaseNDManager.copyBuffer(data, buf);
-        JavacppUtils.setByteBuffer(getHandle(), buf);
+        // TensorFlow copies the data, the buffer can be reused right away
+        ByteBuffer buf = manager.allocateStagingDirect(size * getDataType().getNumOfBytes());
+        try {
+            BaseNDManager.copyBuffer(data, buf);
+            JavacppUtils.setByteBuffer(getHandle(), buf);
+        } finally {
+            manager.releaseStagingDirect(buf);
+        }
     }
 
     /** {@inheritDoc} */
@@ -23,7 +23,6 @@ import ai.djl.tensorflow.engine.javacpp.JavacppUtils;
 import ai.djl.util.Pair;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import org.tensorflow.internal.c_api.TFE_Context;
 import org.tensorflow.internal.c_api.TFE_TensorHandle;
@@ -42,12 +41,6 @@ public class TfNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public TfNDArray from(NDArray array) {
@@ -89,12 +82,23 @@ public class TfNDManager extends BaseNDManager {
                             (ByteBuffer) data, shape, dataType, getEagerSession(), device);
             return new TfNDArray(this, handle);
         }
-        ByteBuffer buf = allocateDirect(size * dataType.getNumOfBytes());
-        copyBuffer(data, buf);
-        TFE_TensorHandle handle =
-                JavacppUtils.createTFETensorFromByteBuffer(
-                        buf, shape, dataType, getEagerSession(), device);
-        return new TfNDArray(this, handle);
+        // TensorFlow copies the data, the buffer can be reused right away
+        ByteBuffer buf = allocateStagingDirect(size * dataType.getNumOfBytes());
+        try {
+            copyBuffer(data, buf);
+            TFE_TensorHandle handle =
+                    JavacppUtils.createTFETensorFromByteBuffer(
+                            buf, shape, dataType, getEagerSession(), device);
+            return new TfNDArray(this, handle);
+        } finally {
+            releaseStagingDirect(buf);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean copiesStaging() {
+        return true;
     }
 
     /** {@inheritDoc} */
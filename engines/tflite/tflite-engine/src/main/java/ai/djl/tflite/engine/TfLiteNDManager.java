@@ -21,7 +21,6 @@ import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import org.tensorflow.lite.Tensor;
 
 /** {@code TfLiteNDManager} is the TFLite implementation of {@link NDManager}. */
@@ -37,12 +36,6 @@ public class TfLiteNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public TfLiteNDArray from(NDArray array) {
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.inference;
+
+import ai.djl.Model;
+import ai.djl.inference.BatchingPredictor;
+import ai.djl.metric.Metric;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Blocks;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.PaddingStackBatchifier;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BatchingPredictorTest {
+
+    @Test
+    public void testBatchingPredictor() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            Metrics metrics = new Metrics();
+            try (BatchingPredictor<float[], float[]> predictor =
+                    new BatchingPredictor<>(model.newPredictor(new ArrayTranslator()), 4, 100)) {
+                predictor.setMetrics(metrics);
+
+                List<CompletableFuture<float[]>> futures = new ArrayList<>();
+                for (int i = 0; i < 10; ++i) {
+                    futures.add(predictor.predict(new float[] {i, i + 1}));
+                }
+                for (int i = 0; i < 10; ++i) {
+                    Assert.assertEquals(futures.get(i).get(), new float[] {i, i + 1});
+                }
+            }
+
+            List<Metric> batchSizes = metrics.getMetric("BatchSize");
+            Assert.assertFalse(batchSizes.isEmpty());
+            int total = 0;
+            for (Metric metric : batchSizes) {
+                int batchSize = metric.getValue().intValue();
+                Assert.assertTrue(batchSize <= 4);
+                total += batchSize;
+            }
+            Assert.assertEquals(total, 10);
+            Assert.assertEquals(metrics.getMetric("QueueWait").size(), 10);
+        }
+    }
+
+    @Test
+    public void testBucketing() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            Metrics metrics = new Metrics();
+            try (BatchingPredictor<float[], float[]> predictor =
+                    BatchingPredictor.builder(model.newPredictor(new PaddingTranslator()))
+                            .optMaxBatchSize(4)
+                            .optMaxDelayMillis(100)
+                            .optBuckets(input -> input.length, 2, 4)
+                            .optMaxPaddingRatio(0.25f)
+                            .build()) {
+                predictor.setMetrics(metrics);
+
+                List<float[]> inputs = new ArrayList<>();
+                List<CompletableFuture<float[]>> futures = new ArrayList<>();
+                for (int i = 0; i < 12; ++i) {
+                    float[] input = new float[i % 6 + 1];
+                    Arrays.fill(input, i);
+                    inputs.add(input);
+                    futures.add(predictor.predict(input));
+                }
+                for (int i = 0; i < 12; ++i) {
+                    Assert.assertEquals(futures.get(i).get(), inputs.get(i));
+                }
+            }
+
+            int total = 0;
+            for (Metric metric : metrics.getMetric("BatchSize")) {
+                total += metric.getValue().intValue();
+            }
+            Assert.assertEquals(total, 12);
+            for (Metric metric : metrics.getMetric("PaddingRatio")) {
+                Assert.assertTrue(metric.getValue().floatValue() <= 25);
+            }
+        }
+    }
+
+    @Test
+    public void testClosedBatchingPredictor() {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            BatchingPredictor<float[], float[]> predictor =
+                    new BatchingPredictor<>(model.newPredictor(new ArrayTranslator()), 4, 100);
+            predictor.close();
+            CompletableFuture<float[]> future = predictor.predict(new float[] {1});
+            Assert.assertThrows(ExecutionException.class, future::get);
+        }
+    }
+
+    @Test
+    public void testWorkerError() throws InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (BatchingPredictor<float[], float[]> predictor =
+                    new BatchingPredictor<>(model.newPredictor(new ErrorTranslator()), 4, 10)) {
+                CompletableFuture<float[]> future = predictor.predict(new float[] {1});
+                Assert.assertThrows(ExecutionException.class, future::get);
+                // the worker is stopped by the error, the next requests fail instead of hanging
+                CompletableFuture<float[]> next = predictor.predict(new float[] {2});
+                Assert.assertThrows(ExecutionException.class, next::get);
+            }
+        }
+    }
+
+    private static final class ArrayTranslator implements Translator<float[], float[]> {
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, float[] input) {
+            return new NDList(ctx.getNDManager().create(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public float[] processOutput(TranslatorContext ctx, NDList list) {
+            return list.singletonOrThrow().toFloatArray();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Batchifier getBatchifier() {
+            return Batchifier.STACK;
+        }
+    }
+
+    private static final class PaddingTranslator implements Translator<float[], float[]> {
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, float[] input) {
+            return new NDList(ctx.getNDManager().create(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public float[] processOutput(TranslatorContext ctx, NDList list) {
+            return list.get(0).toFloatArray();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Batchifier getBatchifier() {
+            return PaddingStackBatchifier.builder()
+                    .optIncludeValidLengths(true)
+                    .addPad(0, 0, m -> m.zeros(new Shape(1)))
+                    .build();
+        }
+    }
+
+    private static final class ErrorTranslator implements Translator<float[], float[]> {
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, float[] input) {
+            return new NDList(ctx.getNDManager().create(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public float[] processOutput(TranslatorContext ctx, NDList list) {
+            throw new AssertionError("Unexpected output");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Batchifier getBatchifier() {
+            return Batchifier.STACK;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.inference.PipelinedPredictor;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.nn.Blocks;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PipelinedPredictorTest {
+
+    @Test
+    public void testPipelinedPredictor()
+            throws TranslateException, InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            Metrics metrics = new Metrics();
+            try (PipelinedPredictor<Float, Float> predictor =
+                    new PipelinedPredictor<>(
+                            model, new ScalarTranslator(), Device.cpu(), 3, 2, 10)) {
+                predictor.setMetrics(metrics);
+
+                List<Float> inputs = new ArrayList<>();
+                for (int i = 0; i < 10; ++i) {
+                    inputs.add((float) i);
+                }
+                List<Float> outputs = predictor.batchPredict(inputs);
+                Assert.assertEquals(outputs, inputs);
+
+                // batches from concurrent callers share the pipeline
+                List<CompletableFuture<Float>> futures = new ArrayList<>();
+                for (int i = 0; i < 10; ++i) {
+                    futures.add(predictor.predictAsync((float) i));
+                }
+                for (int i = 0; i < 10; ++i) {
+                    Assert.assertEquals(futures.get(i).get().floatValue(), (float) i);
+                }
+            }
+
+            Assert.assertEquals(metrics.getMetric("Preprocess").size(), 14);
+            Assert.assertEquals(metrics.getMetric("Inference").size(), 14);
+            Assert.assertEquals(metrics.getMetric("Postprocess").size(), 14);
+            Assert.assertEquals(metrics.getMetric("Total").size(), 14);
+            Assert.assertEquals(metrics.getMetric("PreprocessQueueSize").size(), 14);
+            Assert.assertEquals(metrics.getMetric("InferenceQueueSize").size(), 14);
+            Assert.assertEquals(metrics.getMetric("PostprocessActiveThreads").size(), 14);
+        }
+    }
+
+    @Test(expectedExceptions = TranslateException.class)
+    public void testPipelinedPredictorException() throws TranslateException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (PipelinedPredictor<Float, Float> predictor =
+                    new PipelinedPredictor<>(
+                            model, new ScalarTranslator(), Device.cpu(), 3, 2, 2)) {
+                List<Float> inputs = new ArrayList<>();
+                inputs.add(1f);
+                inputs.add(null);
+                predictor.batchPredict(inputs);
+            }
+        }
+    }
+
+    @Test
+    public void testPipelinedPredictorQueueFull()
+            throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            CountDownLatch latch = new CountDownLatch(1);
+            try (PipelinedPredictor<Float, Float> predictor =
+                    new PipelinedPredictor<>(
+                            model, new ScalarTranslator(latch), Device.cpu(), 1, 1, 1)) {
+                // one batch is preprocessed and one waits in the queue
+                CompletableFuture<Float> first = predictor.predictAsync(1f);
+                CompletableFuture<Float> second = predictor.predictAsync(2f);
+                CompletableFuture<Float> rejected = predictor.predictAsync(3f);
+                Assert.assertTrue(rejected.isCompletedExceptionally());
+                try {
+                    rejected.get();
+                    Assert.fail("The batch should be rejected.");
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+                }
+
+                latch.countDown();
+                Assert.assertEquals(first.get().floatValue(), 1f);
+                Assert.assertEquals(second.get().floatValue(), 2f);
+            }
+        }
+    }
+
+    private static final class ScalarTranslator implements Translator<Float, Float> {
+
+        private CountDownLatch latch;
+
+        ScalarTranslator() {
+            this(new CountDownLatch(0));
+        }
+
+        ScalarTranslator(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Float input) throws TranslateException {
+            if (input == null) {
+                throw new TranslateException("Input is null.");
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TranslateException(e);
+            }
+            return new NDList(ctx.getNDManager().create(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Float processOutput(TranslatorContext ctx, NDList list) {
+            return list.singletonOrThrow().getFloat();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Batchifier getBatchifier() {
+            return Batchifier.STACK;
+        }
+    }
+}
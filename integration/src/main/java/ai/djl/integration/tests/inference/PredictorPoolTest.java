@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.inference;
+
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
+import ai.djl.inference.PredictorPool;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.nn.Blocks;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PredictorPoolTest {
+
+    @Test
+    public void testPredictorPool() throws InterruptedException, TranslateException {
+        Model identity = Model.newInstance("identity");
+        identity.setBlock(Blocks.identityBlock());
+        try (ZooModel<Float, Float> model = new ZooModel<>(identity, new ScalarTranslator());
+                PredictorPool<Float, Float> pool = model.newPredictorPool(1, 2)) {
+            Metrics metrics = new Metrics();
+            pool.setMetrics(metrics);
+            Assert.assertEquals(pool.getSize(), 1);
+
+            Predictor<Float, Float> p1 = pool.borrow();
+            Predictor<Float, Float> p2 = pool.borrow();
+            Assert.assertNotSame(p1, p2);
+            Assert.assertEquals(pool.getSize(), 2);
+            Assert.assertEquals(pool.getUtilization(), 1.0);
+            Assert.assertNull(pool.borrow(10, TimeUnit.MILLISECONDS));
+
+            pool.release(p1);
+            Assert.assertSame(pool.borrow(), p1);
+            pool.release(p1);
+            pool.release(p2);
+            Assert.assertEquals(pool.getBorrowedCount(), 0);
+            Assert.assertThrows(IllegalArgumentException.class, () -> pool.release(p2));
+
+            Assert.assertEquals(pool.predict(3f), 3f);
+            Assert.assertEquals(metrics.getMetric("BorrowWait").size(), 4);
+            Assert.assertEquals(metrics.getMetric("PoolUtilization").size(), 4);
+        }
+    }
+
+    @Test
+    public void testIdleTimeout() throws InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (PredictorPool<Float, Float> pool =
+                    PredictorPool.builder(model, new ScalarTranslator())
+                            .optMinSize(1)
+                            .optMaxSize(3)
+                            .optIdleTimeout(0, TimeUnit.MILLISECONDS)
+                            .optWarmupInput(1f)
+                            .build()) {
+                Predictor<Float, Float> p1 = pool.borrow();
+                Predictor<Float, Float> p2 = pool.borrow();
+                Predictor<Float, Float> p3 = pool.borrow();
+                Assert.assertEquals(pool.getSize(), 3);
+                pool.release(p1);
+                pool.release(p2);
+                pool.release(p3);
+                Assert.assertEquals(pool.getSize(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testIdleSweep() throws InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (PredictorPool<Float, Float> pool =
+                    PredictorPool.builder(model, new ScalarTranslator())
+                            .optMinSize(1)
+                            .optMaxSize(3)
+                            .optIdleTimeout(50, TimeUnit.MILLISECONDS)
+                            .build()) {
+                List<Predictor<Float, Float>> predictors = new ArrayList<>();
+                for (int i = 0; i < 3; ++i) {
+                    predictors.add(pool.borrow());
+                }
+                predictors.forEach(pool::release);
+                Assert.assertEquals(pool.getSize(), 3);
+
+                // the pool shrinks without any traffic
+                long deadline = System.currentTimeMillis() + 5000;
+                while (pool.getSize() > 1 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(pool.getSize(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testCloseWakesWaiters() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            PredictorPool<Float, Float> pool =
+                    PredictorPool.builder(model, new ScalarTranslator())
+                            .optMinSize(1)
+                            .optMaxSize(1)
+                            .build();
+            Predictor<Float, Float> predictor = pool.borrow();
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                List<Future<Predictor<Float, Float>>> waiters = new ArrayList<>();
+                for (int i = 0; i < 2; ++i) {
+                    waiters.add(executor.submit(() -> pool.borrow()));
+                }
+                Thread.sleep(100);
+                pool.close();
+                for (Future<Predictor<Float, Float>> waiter : waiters) {
+                    ExecutionException e =
+                            Assert.expectThrows(ExecutionException.class, waiter::get);
+                    Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+                // a predictor released after close is closed instead of pooled
+                pool.release(predictor);
+                Assert.assertEquals(pool.getSize(), 0);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static final class ScalarTranslator implements Translator<Float, Float> {
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Float input) {
+            return new NDList(ctx.getNDManager().create(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Float processOutput(TranslatorContext ctx, NDList list) {
+            return list.singletonOrThrow().getFloat();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Batchifier getBatchifier() {
+            return Batchifier.STACK;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.nn.Blocks;
 import ai.djl.testing.TestRequirements;
 import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.Trainer;
@@ -27,6 +28,12 @@ import ai.djl.training.TrainingConfig;
 import ai.djl.training.loss.Loss;
 import ai.djl.translate.NoopTranslator;
 import ai.djl.translate.TranslateException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -48,6 +55,149 @@ public class PredictorTest {
         predictWithDeviceHelper(Device.gpu(), Device.cpu());
     }
 
+    @Test
+    public void testPredictAsync() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(null))) {
+                predictor.setMaxInFlight(2);
+                NDManager manager = model.getNDManager();
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; ++i) {
+                    NDList input = new NDList(manager.create(new float[] {i}));
+                    futures.add(predictor.predictAsync(input));
+                }
+                for (int i = 0; i < 4; ++i) {
+                    NDList result = futures.get(i).get();
+                    Assert.assertEquals(result.singletonOrThrow().toFloatArray()[0], i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCancelPredictAsync() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(null))) {
+                List<Runnable> tasks = new ArrayList<>();
+                predictor.setAsyncExecutor(tasks::add);
+                NDList input = new NDList(model.getNDManager().ones(new Shape(1)));
+                CompletableFuture<List<NDList>> first =
+                        predictor.batchPredictAsync(Collections.singletonList(input));
+                CompletableFuture<List<NDList>> second =
+                        predictor.batchPredictAsync(Collections.singletonList(input));
+
+                // only one request is in flight, the second one is still pending
+                Assert.assertEquals(tasks.size(), 1);
+                Assert.assertEquals(predictor.getInFlightCount(), 1);
+                second.cancel(true);
+
+                tasks.get(0).run();
+                Assert.assertEquals(first.get().size(), 1);
+                Assert.assertEquals(tasks.size(), 2);
+                tasks.get(1).run();
+                Assert.assertTrue(second.isCancelled());
+                Assert.assertEquals(predictor.getInFlightCount(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testMaxPendingPredictAsync() throws InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            List<Runnable> tasks = new ArrayList<>();
+            CompletableFuture<List<NDList>> first;
+            CompletableFuture<List<NDList>> second;
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(null))) {
+                predictor.setAsyncExecutor(tasks::add);
+                predictor.setMaxPending(1);
+                List<NDList> inputs =
+                        Collections.singletonList(
+                                new NDList(model.getNDManager().ones(new Shape(1))));
+                first = predictor.batchPredictAsync(inputs);
+                second = predictor.batchPredictAsync(inputs);
+                Assert.assertEquals(predictor.getPendingCount(), 1);
+
+                // the queue is full, the caller is told right away
+                CompletableFuture<List<NDList>> third = predictor.batchPredictAsync(inputs);
+                assertRejected(third);
+                Assert.assertEquals(predictor.getPendingCount(), 1);
+            }
+            // the queued predictions fail when the predictor is closed
+            assertRejected(second);
+            tasks.get(0).run();
+            assertRejected(first);
+            Assert.assertEquals(tasks.size(), 1);
+        }
+    }
+
+    @Test
+    public void testCancelPendingPredictAsync() throws ExecutionException, InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            List<Runnable> tasks = new ArrayList<>();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(null))) {
+                predictor.setAsyncExecutor(tasks::add);
+                predictor.setMaxPending(1);
+                List<NDList> inputs =
+                        Collections.singletonList(
+                                new NDList(model.getNDManager().ones(new Shape(1))));
+                CompletableFuture<List<NDList>> first = predictor.batchPredictAsync(inputs);
+                CompletableFuture<List<NDList>> second = predictor.batchPredictAsync(inputs);
+                Assert.assertEquals(predictor.getPendingCount(), 1);
+
+                // a cancelled prediction frees its place in the queue
+                second.cancel(false);
+                Assert.assertEquals(predictor.getPendingCount(), 0);
+                CompletableFuture<List<NDList>> third = predictor.batchPredictAsync(inputs);
+                Assert.assertEquals(predictor.getPendingCount(), 1);
+
+                tasks.get(0).run();
+                Assert.assertEquals(first.get().size(), 1);
+                tasks.get(1).run();
+                Assert.assertEquals(third.get().size(), 1);
+                Assert.assertEquals(tasks.size(), 2);
+            }
+        }
+    }
+
+    @Test
+    public void testSameThreadPredictAsync() throws ExecutionException, InterruptedException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(null))) {
+                Assert.assertThrows(
+                        IllegalArgumentException.class, () -> predictor.setMaxPending(0));
+                // the predictions run on the caller thread
+                predictor.setAsyncExecutor(Runnable::run);
+                predictor.setMaxPending(1);
+                NDList input = new NDList(model.getNDManager().ones(new Shape(1)));
+                for (int i = 0; i < 3; ++i) {
+                    NDList result = predictor.predictAsync(input).get();
+                    Assert.assertEquals(result.singletonOrThrow().toFloatArray(), new float[] {1});
+                }
+                Assert.assertEquals(predictor.getInFlightCount(), 0);
+            }
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) throws InterruptedException {
+        Assert.assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            Assert.fail("The prediction should be rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
     public void predictWithDeviceHelper(Device modelDevice, Device predictorDevice)
             throws TranslateException {
         // Create simple model on modelDevice
@@ -12,14 +12,18 @@
  */
 package ai.djl.integration.tests.modality.cv;
 
+import ai.djl.modality.cv.BufferedImageFactory;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.testing.Assertions;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Random;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -47,4 +51,94 @@ public class BufferedImageFactoryTest {
             Assertions.assertAlmostEquals(array, converted);
         }
     }
+
+    @Test
+    public void testImageTypes() {
+        int[] types = {
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_4BYTE_ABGR
+        };
+        BufferedImageFactory factory = new BufferedImageFactory();
+        float[] mean = {0.485f, 0.456f, 0.406f};
+        float[] std = {0.229f, 0.224f, 0.225f};
+        try (NDManager manager = NDManager.newBaseManager()) {
+            for (int type : types) {
+                BufferedImage img = new BufferedImage(7, 5, type);
+                Random random = new Random(type);
+                for (int y = 0; y < img.getHeight(); ++y) {
+                    for (int x = 0; x < img.getWidth(); ++x) {
+                        img.setRGB(x, y, random.nextInt());
+                    }
+                }
+                Image image = factory.fromImage(img);
+                Image subImage = image.getSubImage(2, 1, 4, 3);
+                for (Image.Flag flag : Image.Flag.values()) {
+                    assertImage(manager, image, flag, mean, std);
+                    assertImage(manager, subImage, flag, mean, std);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParallelConversion() {
+        BufferedImageFactory factory = new BufferedImageFactory();
+        factory.setParallelConversion(true);
+        BufferedImage img = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(0);
+        for (int y = 0; y < img.getHeight(); ++y) {
+            for (int x = 0; x < img.getWidth(); ++x) {
+                img.setRGB(x, y, random.nextInt());
+            }
+        }
+        try (NDManager manager = NDManager.newBaseManager()) {
+            Image image = factory.fromImage(img);
+            assertImage(manager, image, Image.Flag.COLOR, new float[] {0.5f, 0.5f, 0.5f}, null);
+        }
+    }
+
+    private static void assertImage(
+            NDManager manager, Image image, Image.Flag flag, float[] mean, float[] std) {
+        BufferedImage img = (BufferedImage) image.getWrappedImage();
+        int width = img.getWidth();
+        int height = img.getHeight();
+        int channel = flag == Image.Flag.GRAYSCALE ? 1 : 3;
+        int[] expected = new int[height * width * channel];
+        int index = 0;
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int rgb = img.getRGB(x, y);
+                int red = (rgb >> 16) & 0xFF;
+                int green = (rgb >> 8) & 0xFF;
+                int blue = rgb & 0xFF;
+                if (img.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+                    int gray = img.getRaster().getSample(x, y, 0);
+                    red = gray;
+                    green = gray;
+                    blue = gray;
+                }
+                if (channel == 1) {
+                    expected[index++] = Math.round(0.299f * red + 0.587f * green + 0.114f * blue);
+                } else {
+                    expected[index++] = red;
+                    expected[index++] = green;
+                    expected[index++] = blue;
+                }
+            }
+        }
+        NDArray array = image.toNDArray(manager, flag);
+        Assert.assertEquals(array.getShape(), new Shape(height, width, channel));
+        Assert.assertEquals(array.toUint8Array(), expected);
+
+        NDArray tensor = image.toTensor(manager, flag, null, null);
+        Assertions.assertAlmostEquals(tensor, NDImageUtils.toTensor(array));
+        if (std != null && channel == 3) {
+            NDArray normalized = image.toTensor(manager, flag, mean, std);
+            Assertions.assertAlmostEquals(
+                    normalized, NDImageUtils.normalize(NDImageUtils.toTensor(array), mean, std));
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.model_zoo;
+
+import ai.djl.Model;
+import ai.djl.ModelException;
+import ai.djl.inference.Predictor;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.core.Linear;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelRegistry;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.training.initializer.Initializer;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ModelRegistryTest {
+
+    private Path modelDir = Paths.get("build/models/registry");
+
+    @BeforeClass
+    public void setup() throws IOException {
+        Utils.deleteQuietly(modelDir);
+        try (Model model = Model.newInstance("linear")) {
+            Block block = Linear.builder().setUnits(2).build();
+            block.setInitializer(Initializer.ONES, Parameter.Type.WEIGHT);
+            model.setBlock(block);
+            NDManager manager = model.getNDManager();
+            block.initialize(manager, model.getDataType(), new Shape(1, 4));
+            model.save(modelDir, "linear");
+        }
+    }
+
+    @AfterClass
+    public void tearDown() {
+        Utils.deleteQuietly(modelDir);
+    }
+
+    @Test
+    public void testSharedModel() throws IOException, ModelException, TranslateException {
+        ModelRegistry registry = ModelRegistry.getInstance();
+        long hits = registry.getHitCount();
+        long misses = registry.getMissCount();
+        long residentBytes = registry.getResidentBytes();
+        int models = registry.getModelCount();
+
+        Block block = Linear.builder().setUnits(2).build();
+        ZooModel<NDList, NDList> first = newCriteria(block).loadModel();
+        ZooModel<NDList, NDList> second = newCriteria(block).loadModel();
+        Assert.assertSame(first.getWrappedModel(), second.getWrappedModel());
+        Assert.assertEquals(registry.getMissCount(), misses + 1);
+        Assert.assertEquals(registry.getHitCount(), hits + 1);
+        Assert.assertEquals(registry.getModelCount(), models + 1);
+        // 2x4 weight and 2 bias in float32
+        Assert.assertEquals(registry.getResidentBytes(), residentBytes + 40);
+
+        // a different criteria loads another model
+        Block other = Linear.builder().setUnits(2).build();
+        try (ZooModel<NDList, NDList> third = newCriteria(other).loadModel()) {
+            Assert.assertNotSame(third.getWrappedModel(), first.getWrappedModel());
+            Assert.assertEquals(registry.getModelCount(), models + 2);
+        }
+        Assert.assertEquals(registry.getModelCount(), models + 1);
+
+        // the model stays loaded until the last handle is closed
+        first.close();
+        first.close();
+        try (Predictor<NDList, NDList> predictor = second.newPredictor();
+                NDManager manager = NDManager.newBaseManager()) {
+            NDList output = predictor.predict(new NDList(manager.ones(new Shape(1, 4))));
+            Assert.assertEquals(output.singletonOrThrow().toFloatArray(), new float[] {4, 4});
+        }
+        second.close();
+        Assert.assertEquals(registry.getModelCount(), models);
+        Assert.assertEquals(registry.getResidentBytes(), residentBytes);
+    }
+
+    @Test
+    public void testTranslatorKey() throws IOException, ModelException {
+        Block block = Linear.builder().setUnits(2).build();
+        try (ZooModel<NDList, NDList> first = newCriteria(block).loadModel();
+                ZooModel<NDList, NDList> second =
+                        Criteria.builder()
+                                .setTypes(NDList.class, NDList.class)
+                                .optModelPath(modelDir)
+                                .optModelName("linear")
+                                .optBlock(block)
+                                .optTranslator(new NoopTranslator())
+                                .optSharedModel(true)
+                                .build()
+                                .loadModel()) {
+            // the translator is part of the key
+            Assert.assertNotSame(second.getWrappedModel(), first.getWrappedModel());
+        }
+    }
+
+    private Criteria<NDList, NDList> newCriteria(Block block) {
+        return Criteria.builder()
+                .setTypes(NDList.class, NDList.class)
+                .optModelPath(modelDir)
+                .optModelName("linear")
+                .optBlock(block)
+                .optSharedModel(true)
+                .build();
+    }
+}
@@ -12,6 +12,7 @@
  */
 package ai.djl.integration.tests.ndarray;
 
+import ai.djl.ndarray.DirectBufferPool;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
@@ -267,6 +268,32 @@ public class NDArrayShapesManipulationOpTest {
         }
     }
 
+    @Test
+    public void testViewAfterBaseClosed() {
+        DirectBufferPool.setInstance(new DirectBufferPool());
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDList views = new NDList();
+            try (NDManager sub = manager.newSubManager()) {
+                NDArray base = sub.create(new float[] {1f, 2f, 3f, 4f});
+                views.add(base.reshape(2, 2));
+                views.add(base.get("1:"));
+                views.add(base.reshape(2, 2).transpose());
+                views.attach(manager);
+            }
+            // the memory of the views must not be reused
+            try (NDManager sub = manager.newSubManager()) {
+                for (int i = 0; i < 64; ++i) {
+                    sub.create(new float[4]);
+                }
+                Assert.assertEquals(views.get(0).toFloatArray(), new float[] {1f, 2f, 3f, 4f});
+                Assert.assertEquals(views.get(1).toFloatArray(), new float[] {2f, 3f, 4f});
+                Assert.assertEquals(views.get(2).toFloatArray(), new float[] {1f, 3f, 2f, 4f});
+            }
+        } finally {
+            DirectBufferPool.setInstance(null);
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testConcatNDlist() {
         try (NDManager manager = NDManager.newBaseManager()) {
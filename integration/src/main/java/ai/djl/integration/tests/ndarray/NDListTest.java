@@ -12,8 +12,16 @@
  */
 package ai.djl.integration.tests.ndarray;
 
+import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -54,4 +62,59 @@ public class NDListTest {
                     });
         }
     }
+
+    @Test
+    public void testEncodeIndexed() throws IOException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray weight = manager.arange(12f).reshape(3, 4);
+            weight.setName("weight");
+            NDArray bias = manager.create(new int[] {1, 2, 3});
+            NDArray empty = manager.create(new float[0]);
+            NDArray flag = manager.create(new boolean[] {true, false});
+            NDList list = new NDList(weight, bias, empty, flag);
+
+            Path dir = Paths.get("build/tmp/test/ndlist");
+            Files.createDirectories(dir);
+            Path file = dir.resolve("indexed.ndlist");
+            try (OutputStream os = Files.newOutputStream(file)) {
+                list.encodeIndexed(os);
+            }
+
+            Assert.assertTrue(NDList.isIndexed(file));
+            // engines with a native loader load the indexed format too
+            Assert.assertEquals(manager.load(file).get("weight"), weight);
+
+            NDList mapped = NDList.decode(manager, file);
+            Assert.assertEquals(mapped.size(), 4);
+            Assert.assertEquals(mapped.get("weight"), weight);
+            Assert.assertEquals(mapped.get(1), bias);
+            Assert.assertEquals(mapped.get(2).getShape(), empty.getShape());
+            Assert.assertEquals(mapped.get(3).getDataType(), DataType.BOOLEAN);
+            Assert.assertEquals(mapped.get(3), flag);
+
+            // changes to the mapped arrays are not written back to the file
+            mapped.get(0).addi(1);
+            Assert.assertEquals(NDList.decode(manager, file).head(), weight);
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            list.encodeIndexed(bos);
+            byte[] data = bos.toByteArray();
+            Assert.assertEquals(data.length, Files.size(file));
+            NDList decoded = NDList.decode(manager, data);
+            Assert.assertEquals(decoded.get("weight"), weight);
+            Assert.assertEquals(decoded.get(1), bias);
+
+            // the streaming format is still supported
+            Files.write(file, list.encode());
+            Assert.assertFalse(NDList.isIndexed(file));
+            Assert.assertEquals(NDList.decode(manager, file).get("weight"), weight);
+
+            Assert.assertThrows(
+                    () -> {
+                        // truncated header
+                        byte[] truncated = {'N', 'D', 'L', 'X', 0, 0, 0, 1, 0, 0, 0, 8, 0, 0};
+                        NDList.decode(manager, truncated);
+                    });
+        }
+    }
 }
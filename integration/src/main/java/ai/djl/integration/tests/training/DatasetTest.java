@@ -14,6 +14,7 @@ package ai.djl.integration.tests.training;
 
 import ai.djl.Model;
 import ai.djl.basicdataset.cv.classification.Cifar10;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -27,8 +28,10 @@ import ai.djl.training.dataset.ArrayDataset;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.BatchSampler;
 import ai.djl.training.dataset.Dataset;
+import ai.djl.training.dataset.ParallelDataIterable;
 import ai.djl.training.dataset.RandomAccessDataset;
 import ai.djl.training.dataset.RandomSampler;
+import ai.djl.training.dataset.Record;
 import ai.djl.training.dataset.SequenceSampler;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
@@ -37,6 +40,7 @@ import ai.djl.util.Pair;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -296,6 +300,106 @@ public class DatasetTest {
         }
     }
 
+    @Test
+    public void testParallelDataIterable()
+            throws IOException, InterruptedException, TranslateException {
+        try (Model model = Model.newInstance("model")) {
+            model.setBlock(Blocks.identityBlock());
+            NDManager manager = model.getNDManager();
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            NDArray data = manager.arange(200f).reshape(100, 2);
+            NDArray label = manager.arange(100f).reshape(100);
+            ArrayDataset dataset =
+                    new ArrayDataset.Builder()
+                            .setData(data)
+                            .optLabels(label)
+                            .setSampling(10, false)
+                            // room for about 3 batches of 120 bytes
+                            .optPrefetchBytes(360)
+                            .optWorkStealing(true)
+                            .build();
+
+            Metrics metrics = new Metrics();
+            TrainingConfig threadedConfig = config().optExecutorService(executor);
+            try (Trainer trainer = model.newTrainer(threadedConfig)) {
+                trainer.setMetrics(metrics);
+                Iterable<Batch> iterable = trainer.iterateDataset(dataset);
+                Assert.assertTrue(iterable instanceof ParallelDataIterable);
+                int index = 0;
+                for (Batch batch : iterable) {
+                    // batches are returned in order
+                    Assert.assertEquals(
+                            batch.getData().singletonOrThrow(),
+                            manager.arange(2f * index, 2f * index + 20).reshape(10, 2));
+                    Assert.assertEquals(
+                            batch.getLabels().singletonOrThrow(),
+                            manager.arange(index, index + 10f));
+                    index += 10;
+                    Assert.assertEquals(batch.getProgress(), index);
+                    batch.close();
+                }
+                Assert.assertEquals(index, 100);
+                Assert.assertEquals(metrics.getMetric("DataLoadStall").size(), 10);
+                Assert.assertTrue(metrics.hasMetric("DataLoadThroughput"));
+                Assert.assertTrue(
+                        metrics.latestMetric("PrefetchBytes").getValue().longValue() <= 360);
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testParallelDataIterableFailure()
+            throws IOException, InterruptedException, TranslateException {
+        try (Model model = Model.newInstance("model")) {
+            model.setBlock(Blocks.identityBlock());
+            NDManager manager = model.getNDManager();
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            ArrayDataset.Builder builder =
+                    new ArrayDataset.Builder()
+                            .setData(manager.arange(200f).reshape(100, 2))
+                            .optLabels(manager.arange(100f).reshape(100))
+                            .setSampling(10, false)
+                            .optPrefetchBytes(360)
+                            .optWorkStealing(true);
+            // the record 15 of the second batch can't be loaded
+            ArrayDataset dataset =
+                    new ArrayDataset(builder) {
+                        @Override
+                        public Record get(NDManager manager, long index) {
+                            if (index == 15) {
+                                throw new IllegalArgumentException("Bad record");
+                            }
+                            return super.get(manager, index);
+                        }
+                    };
+
+            TrainingConfig threadedConfig = config().optExecutorService(executor);
+            try (Trainer trainer = model.newTrainer(threadedConfig)) {
+                Iterator<Batch> it = trainer.iterateDataset(dataset).iterator();
+                int loaded = 0;
+                int failed = 0;
+                while (it.hasNext()) {
+                    try (Batch batch = it.next()) {
+                        Assert.assertEquals(batch.getSize(), 10);
+                        ++loaded;
+                    } catch (IllegalStateException e) {
+                        Assert.assertTrue(
+                                e.getCause().getCause() instanceof IllegalArgumentException);
+                        ++failed;
+                    }
+                }
+                Assert.assertEquals(loaded, 9);
+                Assert.assertEquals(failed, 1);
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        }
+    }
+
     @Test
     public void testDatasetToArray() throws IOException, TranslateException {
         try (NDManager manager = NDManager.newBaseManager()) {
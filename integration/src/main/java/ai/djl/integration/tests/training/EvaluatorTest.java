@@ -20,6 +20,11 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.training.evaluator.AbstractAccuracy;
 import ai.djl.training.evaluator.Accuracy;
 import ai.djl.training.evaluator.TopKAccuracy;
+import ai.djl.training.loss.L1Loss;
+import ai.djl.training.loss.Loss;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -89,4 +94,69 @@ public class EvaluatorTest {
                     "Wrong accuracy, expected: " + expectedAccuracy + ", actual: " + accuracy);
         }
     }
+
+    @Test
+    public void testDeferredAccumulation() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            Accuracy acc = new Accuracy();
+            Loss loss = Loss.l1Loss();
+            acc.setDeferredAccumulation(true);
+            loss.setDeferredAccumulation(true);
+            String[] keys = {"epoch", "batch"};
+            for (String key : keys) {
+                acc.addAccumulator(key);
+                loss.addAccumulator(key);
+            }
+
+            float[][] batches = {{0.3f, 0.7f, 0, 1, 0.4f, 0.6f}, {0.8f, 0.2f, 1, 0, 0.4f, 0.6f}};
+            for (float[] batch : batches) {
+                acc.resetAccumulator("batch");
+                loss.resetAccumulator("batch");
+                // the evaluated arrays are closed with the batch
+                try (NDManager batchManager = manager.newSubManager()) {
+                    NDArray predictions = batchManager.create(batch, new Shape(3, 2));
+                    NDArray labels = batchManager.create(new int[] {0, 1, 1}, new Shape(3));
+                    acc.updateAccumulators(keys, new NDList(labels), new NDList(predictions));
+                    NDList lossLabels = new NDList(batchManager.ones(new Shape(3)));
+                    NDList lossPredictions = new NDList(batchManager.zeros(new Shape(3)));
+                    loss.updateAccumulators(keys, lossLabels, lossPredictions);
+                }
+            }
+            Assert.assertEquals(acc.getAccumulator("epoch"), 4.f / 6);
+            Assert.assertEquals(acc.getAccumulator("batch"), 2.f / 3);
+            Assert.assertEquals(loss.getAccumulator("epoch"), 1f);
+            Assert.assertEquals(loss.getAccumulator("batch"), 1f);
+
+            acc.resetAccumulator("epoch");
+            Assert.assertTrue(Float.isNaN(acc.getAccumulator("epoch")));
+            Assert.assertEquals(acc.getAccumulator("batch"), 2.f / 3);
+        }
+    }
+
+    @Test
+    public void testUpdateAccumulatorOverride() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            List<String> updated = new ArrayList<>();
+            // an evaluator that only customizes the single key update
+            Loss loss =
+                    new L1Loss() {
+                        @Override
+                        public void updateAccumulator(
+                                String key, NDList labels, NDList predictions) {
+                            updated.add(key);
+                            super.updateAccumulator(key, labels, predictions);
+                        }
+                    };
+            String[] keys = {"epoch", "batch"};
+            for (String key : keys) {
+                loss.addAccumulator(key);
+            }
+            NDList labels = new NDList(manager.ones(new Shape(3)));
+            NDList predictions = new NDList(manager.zeros(new Shape(3)));
+            loss.updateAccumulators(keys, labels, predictions);
+            Assert.assertEquals(updated, Arrays.asList(keys));
+            Assert.assertEquals(loss.getAccumulator("epoch"), 1f);
+            Assert.assertEquals(loss.getAccumulator("batch"), 1f);
+        }
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.core.Linear;
+import ai.djl.testing.Assertions;
+import ai.djl.testing.TestRequirements;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.EasyTrain;
+import ai.djl.training.Trainer;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.initializer.Initializer;
+import ai.djl.training.listener.EvaluatorTrainingListener;
+import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.translate.Batchifier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GradientAccumulationTest {
+
+    private static final int BATCH_SIZE = 8;
+
+    @Test
+    public void testGradientAccumulation() {
+        NDArray expected = trainBatches(new DefaultTrainingConfig(Loss.l2Loss()), 1, 1);
+        // uneven micro-batches of 3, 3 and 2 items
+        NDArray actual =
+                trainBatches(new DefaultTrainingConfig(Loss.l2Loss()).optMicroBatches(3), 1, 3);
+        Assertions.assertAlmostEquals(actual, expected);
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        TestRequirements.notWindows();
+
+        // the budget is always exceeded, but the memory is only sampled on the first batch
+        NDArray expected = trainBatches(new DefaultTrainingConfig(Loss.l2Loss()), 3, 1);
+        NDArray actual =
+                trainBatches(
+                        new DefaultTrainingConfig(Loss.l2Loss())
+                                .optMicroBatches(2)
+                                .optMemoryBudget(1),
+                        3,
+                        4);
+        Assertions.assertAlmostEquals(actual, expected);
+    }
+
+    @Test
+    public void testAdjustMicroBatches() {
+        DefaultTrainingConfig config =
+                new DefaultTrainingConfig(Loss.l2Loss())
+                        .optDevices(Engine.getInstance().getDevices(1))
+                        .optMemoryBudget(1000);
+        try (Model model = Model.newInstance("model")) {
+            model.setBlock(Linear.builder().setUnits(2).build());
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, 4));
+                // the steps exceed the budget
+                Assert.assertEquals(adjustMicroBatches(trainer, 2000), 2);
+                // the steps are smaller with more micro-batches, but don't fit in half the budget
+                Assert.assertEquals(adjustMicroBatches(trainer, 1000), 2);
+                // the steps fit in half the budget, but without a margin
+                Assert.assertEquals(adjustMicroBatches(trainer, 480), 2);
+                // the steps fit in half the budget with a margin
+                Assert.assertEquals(adjustMicroBatches(trainer, 350), 1);
+                Assert.assertEquals(adjustMicroBatches(trainer, 2000), 2);
+                // more micro-batches don't make the steps smaller, they are not tried again
+                Assert.assertEquals(adjustMicroBatches(trainer, 2000), 1);
+                Assert.assertEquals(adjustMicroBatches(trainer, 2000), 1);
+            }
+        }
+    }
+
+    // Runs until the next memory sample with steps of the given size, returns the micro-batches
+    private int adjustMicroBatches(Trainer trainer, long stepBytes) {
+        for (int i = 0; i < 10; ++i) {
+            try (NDManager step = trainer.getManager().newSubManager()) {
+                step.zeros(new Shape(stepBytes / 4));
+                trainer.recordStepMemory(step);
+            }
+            trainer.adjustMicroBatches(BATCH_SIZE);
+        }
+        return trainer.getMicroBatches();
+    }
+
+    // Returns the parameters followed by the loss of the last batch
+    private NDArray trainBatches(
+            DefaultTrainingConfig config, int numOfBatches, int expectedMicroBatches) {
+        Device device = Engine.getInstance().getDevices(1)[0];
+        config.optInitializer(Initializer.ONES, Parameter.Type.WEIGHT)
+                .optOptimizer(Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build())
+                .optDevices(new Device[] {device})
+                .addTrainingListeners(new EvaluatorTrainingListener());
+        Block block = Linear.builder().setUnits(2).build();
+        try (Model model = Model.newInstance("model", device)) {
+            model.setBlock(block);
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, 4));
+                NDManager manager = trainer.getManager();
+                for (int i = 0; i < numOfBatches; ++i) {
+                    NDArray data = manager.arange(0f, 32f).reshape(BATCH_SIZE, 4).div(32);
+                    NDArray labels = data.get(":, :2").mul(2).add(1);
+                    try (Batch batch =
+                            new Batch(
+                                    manager.newSubManager(),
+                                    new NDList(data),
+                                    new NDList(labels),
+                                    BATCH_SIZE,
+                                    Batchifier.STACK,
+                                    Batchifier.STACK,
+                                    0,
+                                    0)) {
+                        EasyTrain.trainBatch(trainer, batch);
+                        trainer.step();
+                    }
+                }
+                Assert.assertEquals(trainer.getMicroBatches(), expectedMicroBatches);
+                float loss = trainer.getLoss().getAccumulator(EvaluatorTrainingListener.TRAIN_ALL);
+                NDArray weight = block.getParameters().get("weight").getArray();
+                NDArray bias = block.getParameters().get("bias").getArray();
+                NDArray result =
+                        weight.flatten().concat(bias).concat(manager.create(new float[] {loss}));
+                result.detach();
+                return result;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.core.Linear;
+import ai.djl.testing.Assertions;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.EasyTrain;
+import ai.djl.training.LossScaler;
+import ai.djl.training.Trainer;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.initializer.Initializer;
+import ai.djl.training.listener.MixedPrecisionTrainingListener;
+import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.translate.Batchifier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MixedPrecisionTest {
+
+    private static final int BATCH_SIZE = 4;
+    private static final int CHANNELS = 4;
+
+    @Test
+    public void testMixedPrecision() {
+        NDArray expected = train(null, null);
+        // the default scale overflows float16, the loss is scaled in float32
+        LossScaler scaler = LossScaler.builder().optGrowthInterval(1).build();
+        float initialScale = scaler.getScale();
+        NDArray actual = train(DataType.FLOAT16, scaler);
+        // the master parameters are kept in float32
+        Assert.assertEquals(actual.getDataType(), DataType.FLOAT32);
+        Assertions.assertAlmostEquals(actual, expected, 1e-2, 1e-2);
+        Assert.assertEquals(scaler.getSkippedSteps(), 0);
+        Assert.assertEquals(scaler.getScale(), initialScale * 4);
+    }
+
+    @Test
+    public void testSkippedStep() {
+        // the scaled loss overflows
+        LossScaler scaler = LossScaler.builder().optInitialScale(Float.MAX_VALUE).build();
+        NDArray weight = train(DataType.FLOAT16, scaler);
+        Assert.assertEquals(weight.toFloatArray(), new float[CHANNELS * CHANNELS + CHANNELS]);
+        Assert.assertEquals(scaler.getSkippedSteps(), 2);
+        Assert.assertEquals(scaler.getScale(), Float.MAX_VALUE / 4);
+    }
+
+    private NDArray train(DataType computeDataType, LossScaler scaler) {
+        Device device = Engine.getInstance().getDevices(1)[0];
+        DefaultTrainingConfig config =
+                new DefaultTrainingConfig(Loss.l2Loss())
+                        .optInitializer(Initializer.ZEROS, Parameter.Type.WEIGHT)
+                        .optOptimizer(
+                                Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build())
+                        .optDevices(new Device[] {device})
+                        .addTrainingListeners(new MixedPrecisionTrainingListener());
+        if (computeDataType != null) {
+            config.optMixedPrecision(computeDataType, scaler);
+        }
+        Block block = Linear.builder().setUnits(CHANNELS).build();
+        try (Model model = Model.newInstance("model", device)) {
+            model.setBlock(block);
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, CHANNELS));
+                NDManager manager = trainer.getManager();
+                for (int i = 0; i < 2; ++i) {
+                    NDArray data = manager.arange(BATCH_SIZE * CHANNELS).reshape(BATCH_SIZE, -1);
+                    data = data.toType(DataType.FLOAT32, false).div(10);
+                    Batch batch =
+                            new Batch(
+                                    manager.newSubManager(),
+                                    new NDList(data),
+                                    new NDList(data.mul(2)),
+                                    BATCH_SIZE,
+                                    Batchifier.STACK,
+                                    Batchifier.STACK,
+                                    0,
+                                    0);
+                    EasyTrain.trainBatch(trainer, batch);
+                    trainer.step();
+                    batch.close();
+                }
+                NDArray weight = block.getParameters().get("weight").getArray();
+                NDArray bias = block.getParameters().get("bias").getArray();
+                NDArray result = weight.flatten().concat(bias);
+                result.detach();
+                return result;
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import ai.djl.training.loss.Loss;
 import ai.djl.training.optimizer.Optimizer;
 import ai.djl.training.tracker.Tracker;
 import ai.djl.translate.Batchifier;
+import java.util.function.Supplier;
 import org.testng.annotations.Test;
 
 public class OptimizerTest {
@@ -297,6 +298,65 @@ public class OptimizerTest {
         }
     }
 
+    @Test
+    public void testMultiTensorSgd() {
+        checkMultiTensorUpdate(
+                () ->
+                        Optimizer.sgd()
+                                .setLearningRateTracker(Tracker.fixed(0.1f))
+                                .optWeightDecays(0.01f)
+                                .build());
+    }
+
+    @Test
+    public void testMultiTensorSgdWithMomentum() {
+        checkMultiTensorUpdate(
+                () ->
+                        Optimizer.sgd()
+                                .setLearningRateTracker(Tracker.fixed(0.1f))
+                                .optMomentum(0.9f)
+                                .optWeightDecays(0.01f)
+                                .build());
+    }
+
+    @Test
+    public void testMultiTensorAdam() {
+        checkMultiTensorUpdate(
+                () ->
+                        Optimizer.adam()
+                                .optLearningRateTracker(Tracker.fixed(0.1f))
+                                .optWeightDecays(0.01f)
+                                .build());
+    }
+
+    private void checkMultiTensorUpdate(Supplier<Optimizer> factory) {
+        Shape[] shapes = {new Shape(2, 3), new Shape(4), new Shape(1)};
+        String[] parameterIds = new String[shapes.length];
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray[] expected = new NDArray[shapes.length];
+            NDArray[] weights = new NDArray[shapes.length];
+            for (int i = 0; i < shapes.length; ++i) {
+                parameterIds[i] = "param" + i;
+                expected[i] = manager.arange((float) shapes[i].size()).reshape(shapes[i]).div(10);
+                weights[i] = expected[i].duplicate();
+            }
+            Optimizer perParameter = factory.get();
+            Optimizer multiTensor = factory.get();
+            for (int step = 0; step < 3; ++step) {
+                NDArray[] grads = new NDArray[shapes.length];
+                for (int i = 0; i < shapes.length; ++i) {
+                    grads[i] = manager.randomNormal(shapes[i]);
+                    // the engines may reset the gradient after the update
+                    perParameter.update(parameterIds[i], expected[i], grads[i].duplicate());
+                }
+                multiTensor.update(parameterIds, weights, grads);
+            }
+            for (int i = 0; i < shapes.length; ++i) {
+                Assertions.assertAlmostEquals(weights[i], expected[i]);
+            }
+        }
+    }
+
     private NDArray runOptimizer(NDManager manager, Trainer trainer, Block block, int batchSize) {
         NDArray data = manager.ones(new Shape(batchSize, CHANNELS)).mul(2);
         NDArray label = data.mul(2);
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.Device;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Parameter;
+import ai.djl.training.GradientCollector;
+import ai.djl.training.LocalParameterServer;
+import ai.djl.training.ParameterServer;
+import ai.djl.training.ParameterStore;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParameterServerTest {
+
+    @Test
+    public void testBucketUpdate() {
+        try (NDManager manager = NDManager.newBaseManager();
+                ParameterServer ps = new LocalParameterServer(newOptimizer())) {
+            // two replicas of two parameters, as if they were on two devices
+            NDArray[][] params = {
+                {manager.ones(new Shape(2, 2)), manager.ones(new Shape(2, 2))},
+                {manager.zeros(new Shape(3)), manager.zeros(new Shape(3))}
+            };
+            for (NDArray[] replicas : params) {
+                for (NDArray replica : replicas) {
+                    replica.setRequiresGradient(true);
+                }
+            }
+            try (GradientCollector collector = Engine.getInstance().newGradientCollector()) {
+                NDArray loss =
+                        params[0][0]
+                                .sum()
+                                .add(params[0][1].mul(2).sum())
+                                .add(params[1][0].mul(3).sum())
+                                .add(params[1][1].mul(4).sum());
+                collector.backward(loss);
+            }
+            ps.update(new String[] {"weight", "bias"}, params);
+
+            for (int d = 0; d < 2; ++d) {
+                // the gradients of the replicas are summed: 1 + 2 and 3 + 4
+                Assert.assertEquals(params[0][d], manager.full(new Shape(2, 2), 0.7f));
+                Assert.assertEquals(params[1][d], manager.full(new Shape(3), -0.7f));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentBuckets() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            ParameterStore parameterStore = new ParameterStore(manager, false);
+            Device device = manager.getDevice();
+            parameterStore.setParameterServer(
+                    new LocalParameterServer(newOptimizer()), new Device[] {device});
+            parameterStore.setExecutorService(executor);
+            parameterStore.setBucketSize(1);
+
+            Parameter[] parameters = new Parameter[4];
+            NDArray loss = manager.zeros(new Shape());
+            try (GradientCollector collector = Engine.getInstance().newGradientCollector()) {
+                for (int i = 0; i < parameters.length; ++i) {
+                    NDArray array = manager.ones(new Shape(i + 1));
+                    array.setRequiresGradient(true);
+                    parameters[i] =
+                            Parameter.builder()
+                                    .setName("p" + i)
+                                    .setType(Parameter.Type.WEIGHT)
+                                    .optArray(array)
+                                    .build();
+                    NDArray value = parameterStore.getValue(parameters[i], device, true);
+                    loss = loss.add(value.mul(i + 1).sum());
+                }
+                collector.backward(loss);
+            }
+            parameterStore.updateAllParameters();
+
+            for (int i = 0; i < parameters.length; ++i) {
+                float expected = 1 - 0.1f * (i + 1);
+                Assert.assertEquals(
+                        parameters[i].getArray(), manager.full(new Shape(i + 1), expected));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Optimizer newOptimizer() {
+        return Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+    }
+}
@@ -15,6 +15,7 @@ package ai.djl.integration.tests.translate;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.Batchifier;
 import ai.djl.translate.PaddingStackBatchifier;
@@ -50,6 +51,30 @@ public class PaddingStackBatchifierTest {
         }
     }
 
+    @Test
+    public void testBatchifyValues() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDList[] input = new NDList[3];
+            for (int i = 0; i < 3; i++) {
+                NDArray label = manager.create(i);
+                NDArray data =
+                        manager.arange(2 * (i + 1)).reshape(2, i + 1).toType(DataType.INT32, false);
+                input[i] = new NDList(label, data);
+            }
+            Batchifier batchifier =
+                    PaddingStackBatchifier.builder()
+                            .optIncludeValidLengths(false)
+                            .addPad(1, 1, (mngr) -> mngr.full(new Shape(2, 1), -1))
+                            .build();
+            NDList actual = batchifier.batchify(input);
+
+            Assert.assertEquals(actual.size(), 2);
+            Assert.assertEquals(actual.get(0), manager.create(new int[] {0, 1, 2}));
+            int[] expected = {0, -1, -1, 1, -1, -1, 0, 1, -1, 2, 3, -1, 0, 1, 2, 3, 4, 5};
+            Assert.assertEquals(actual.get(1), manager.create(expected, new Shape(3, 2, 3)));
+        }
+    }
+
     @Test
     public void testBatchifyWithValidLength() {
         try (NDManager manager = NDManager.newBaseManager()) {
@@ -12,12 +12,22 @@
  */
 package ai.djl.integration.tests.translate;
 
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataDesc;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Blocks;
 import ai.djl.translate.Batchifier;
+import ai.djl.translate.DirectBatchTranslator;
 import ai.djl.translate.StackBatchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.TranslatorContext;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -39,6 +49,22 @@ public class StackBatchifierTest {
         }
     }
 
+    @Test
+    public void testDirectBatchify() throws TranslateException {
+        try (Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            try (Predictor<Integer, float[]> predictor = model.newPredictor(new SlotTranslator())) {
+                List<float[]> outputs = predictor.batchPredict(Arrays.asList(1, 2, 3));
+                Assert.assertEquals(outputs.size(), 3);
+                for (int i = 0; i < 3; i++) {
+                    float value = i + 1;
+                    Assert.assertEquals(outputs.get(i), new float[] {value, value, value, value});
+                }
+                Assert.assertEquals(predictor.predict(4), new float[] {4, 4, 4, 4});
+            }
+        }
+    }
+
     @Test
     public void testUnbatchify() {
         try (NDManager manager = NDManager.newBaseManager()) {
@@ -95,4 +121,36 @@ public class StackBatchifierTest {
             Assert.assertEquals(lastArrays.get(1).getShape(), new Shape(2));
         }
     }
+
+    private static final class SlotTranslator implements DirectBatchTranslator<Integer, float[]> {
+
+        /** {@inheritDoc} */
+        @Override
+        public DataDesc[] getInputDescriptors() {
+            return new DataDesc[] {
+                new DataDesc(new Shape(3), DataType.FLOAT32, "data"),
+                new DataDesc(new Shape(), DataType.INT32, "label")
+            };
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void processInput(TranslatorContext ctx, Integer input, ByteBuffer[] slots) {
+            for (int i = 0; i < 3; i++) {
+                slots[0].putFloat(input);
+            }
+            slots[1].putInt(input);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public float[] processOutput(TranslatorContext ctx, NDList list) {
+            Assert.assertEquals(list.get(0).getName(), "data");
+            Assert.assertEquals(list.get(1).getName(), "label");
+            float[] data = list.get(0).toFloatArray();
+            float[] ret = Arrays.copyOf(data, data.length + 1);
+            ret[data.length] = list.get(1).getInt();
+            return ret;
+        }
+    }
 }
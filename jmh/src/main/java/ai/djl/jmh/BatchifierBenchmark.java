@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.PaddingStackBatchifier;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the {@link Batchifier#STACK} and {@link PaddingStackBatchifier}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchifierBenchmark {
+
+    private static final int CHANNELS = 16;
+
+    @Param({"8", "32"})
+    int batchSize;
+
+    @Param("64")
+    int length;
+
+    private NDManager manager;
+    private NDList[] inputs;
+    private NDList[] variableInputs;
+    private NDList batch;
+    private Batchifier padding;
+
+    /** Creates the input arrays. */
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        inputs = new NDList[batchSize];
+        variableInputs = new NDList[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            Shape shape = new Shape(length, CHANNELS);
+            inputs[i] = new NDList(manager.randomUniform(0, 1, shape));
+            // the sequences are between half and the full length
+            long variableLength = length / 2 + (long) i * length / 2 / batchSize;
+            variableInputs[i] = new NDList(manager.ones(new Shape(variableLength, CHANNELS)));
+        }
+        batch = Batchifier.STACK.batchify(inputs);
+        padding =
+                PaddingStackBatchifier.builder()
+                        .optIncludeValidLengths(true)
+                        .addPad(0, 0, m -> m.zeros(new Shape(1, CHANNELS)))
+                        .build();
+    }
+
+    /** Closes the input arrays. */
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Benchmarks {@link Batchifier#batchify(NDList[])} of the stack batchifier.
+     *
+     * @return the shape of the batch
+     */
+    @Benchmark
+    public Shape stackBatchify() {
+        NDList list = Batchifier.STACK.batchify(inputs);
+        Shape shape = list.head().getShape();
+        list.close();
+        return shape;
+    }
+
+    /**
+     * Benchmarks {@link Batchifier#unbatchify(NDList)} of the stack batchifier.
+     *
+     * @return the number of items in the batch
+     */
+    @Benchmark
+    public int stackUnbatchify() {
+        NDList[] lists = Batchifier.STACK.unbatchify(batch);
+        for (NDList list : lists) {
+            list.close();
+        }
+        return lists.length;
+    }
+
+    /**
+     * Benchmarks {@link PaddingStackBatchifier#batchify(NDList[])} with sequences of different
+     * lengths.
+     *
+     * @return the shape of the batch
+     */
+    @Benchmark
+    public Shape paddingBatchify() {
+        try (NDManager scope = manager.newSubManager()) {
+            // the padding batchifier replaces the inputs with the padded arrays
+            NDList[] lists = new NDList[batchSize];
+            for (int i = 0; i < batchSize; ++i) {
+                NDArray array = variableInputs[i].head();
+                array.tempAttach(scope);
+                lists[i] = new NDList(array);
+            }
+            NDList list = padding.batchify(lists);
+            return list.head().getShape();
+        }
+    }
+}
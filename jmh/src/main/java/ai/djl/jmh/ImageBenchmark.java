@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.modality.cv.BufferedImageFactory;
+import ai.djl.modality.cv.Image;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the conversion of a {@link BufferedImage} to an {@link NDArray}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImageBenchmark {
+
+    private static final float[] MEAN = {0.485f, 0.456f, 0.406f};
+    private static final float[] STD = {0.229f, 0.224f, 0.225f};
+
+    @Param("224")
+    int size;
+
+    private NDManager manager;
+    private Image image;
+
+    /** Creates a random image. */
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(0);
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                img.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        image = new BufferedImageFactory().fromImage(img);
+    }
+
+    /** Closes the arrays. */
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Benchmarks {@link Image#toNDArray(NDManager)}.
+     *
+     * @return the shape of the array
+     */
+    @Benchmark
+    public Shape toNDArray() {
+        NDArray array = image.toNDArray(manager);
+        Shape shape = array.getShape();
+        array.close();
+        return shape;
+    }
+
+    /**
+     * Benchmarks {@link Image#toNDArray(NDManager, Image.Flag)} to a grayscale array.
+     *
+     * @return the shape of the array
+     */
+    @Benchmark
+    public Shape toGrayscaleNDArray() {
+        NDArray array = image.toNDArray(manager, Image.Flag.GRAYSCALE);
+        Shape shape = array.getShape();
+        array.close();
+        return shape;
+    }
+
+    /**
+     * Benchmarks {@link Image#toTensor(NDManager, Image.Flag, float[], float[])}, the fused
+     * conversion to a normalized CHW float array.
+     *
+     * @return the shape of the array
+     */
+    @Benchmark
+    public Shape toTensor() {
+        NDArray array = image.toTensor(manager, Image.Flag.COLOR, MEAN, STD);
+        Shape shape = array.getShape();
+        array.close();
+        return shape;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the serialization of an {@link NDList}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NDListBenchmark {
+
+    @Param({"8", "262144"})
+    int size;
+
+    private NDManager manager;
+    private NDList list;
+    private byte[] encoded;
+
+    /** Creates the arrays to serialize. */
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        list =
+                new NDList(
+                        manager.randomUniform(0, 1, new Shape(size)),
+                        manager.ones(new Shape(size, 2)));
+        encoded = list.encode();
+    }
+
+    /** Closes the arrays. */
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Benchmarks {@link NDList#encode()}.
+     *
+     * @return the encoded bytes
+     */
+    @Benchmark
+    public byte[] encode() {
+        return list.encode();
+    }
+
+    /**
+     * Benchmarks {@link NDList#decode(NDManager, byte[])}.
+     *
+     * @return the number of arrays decoded
+     */
+    @Benchmark
+    public int decode() {
+        NDList decoded = NDList.decode(manager, encoded);
+        int ret = decoded.size();
+        decoded.close();
+        return ret;
+    }
+}
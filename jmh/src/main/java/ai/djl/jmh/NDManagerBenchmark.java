@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the resource tracking of {@link BaseNDManager}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NDManagerBenchmark {
+
+    @Param("16")
+    int count;
+
+    private NDManager manager;
+    private NDManager other;
+    private NDArray[] arrays;
+
+    /** Creates the managers and arrays. */
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        other = manager.newSubManager();
+        arrays = new NDArray[count];
+        for (int i = 0; i < count; ++i) {
+            arrays[i] = manager.create(i);
+        }
+    }
+
+    /** Closes the managers. */
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Benchmarks {@link NDArray#attach(NDManager)}, moving arrays to another manager and back.
+     *
+     * @return the manager of the last array
+     */
+    @Benchmark
+    public NDManager attach() {
+        for (NDArray array : arrays) {
+            array.attach(other);
+        }
+        for (NDArray array : arrays) {
+            array.attach(manager);
+        }
+        return arrays[count - 1].getManager();
+    }
+
+    /**
+     * Benchmarks {@link NDArray#tempAttach(NDManager)} to a sub-manager that is closed.
+     *
+     * @return the manager of the last array
+     */
+    @Benchmark
+    public NDManager tempAttach() {
+        try (NDManager scope = manager.newSubManager()) {
+            for (NDArray array : arrays) {
+                array.tempAttach(scope);
+            }
+        }
+        return arrays[count - 1].getManager();
+    }
+
+    /**
+     * Benchmarks {@link NDArray#detach()} and attaching the arrays back.
+     *
+     * @return the manager of the last array
+     */
+    @Benchmark
+    public NDManager detach() {
+        for (NDArray array : arrays) {
+            array.detach();
+        }
+        for (NDArray array : arrays) {
+            array.attach(manager);
+        }
+        return arrays[count - 1].getManager();
+    }
+
+    /**
+     * Benchmarks the creation and closing of a sub-manager with arrays.
+     *
+     * @return the number of arrays created
+     */
+    @Benchmark
+    public int subManager() {
+        try (NDManager scope = manager.newSubManager()) {
+            for (int i = 0; i < count; ++i) {
+                scope.create(i);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.modality.nlp.CompactVocabulary;
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.bert.WordpieceTokenizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link WordpieceTokenizer}, the {@link DefaultVocabulary} and the {@link
+ * CompactVocabulary}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NlpBenchmark {
+
+    private static final int VOCABULARY_SIZE = 30000;
+    private static final int SENTENCE_LENGTH = 128;
+
+    private DefaultVocabulary vocabulary;
+    private CompactVocabulary compactVocabulary;
+    private WordpieceTokenizer tokenizer;
+    private String sentence;
+    private String[] tokens;
+
+    /** Creates a synthetic vocabulary and a sentence of words made of several word pieces. */
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        List<String> pieces = new ArrayList<>(VOCABULARY_SIZE);
+        for (int i = 0; i < VOCABULARY_SIZE; ++i) {
+            String piece = randomWord(random);
+            pieces.add(i % 2 == 0 ? piece : "##" + piece);
+        }
+        vocabulary = DefaultVocabulary.builder().add(pieces).optUnknownToken("[UNK]").build();
+        compactVocabulary = new CompactVocabulary(pieces, "[UNK]");
+        tokenizer = new WordpieceTokenizer(vocabulary, "[UNK]", 200);
+
+        StringBuilder sb = new StringBuilder();
+        tokens = new String[SENTENCE_LENGTH];
+        for (int i = 0; i < SENTENCE_LENGTH; ++i) {
+            String head = pieces.get(random.nextInt(VOCABULARY_SIZE / 2) * 2);
+            String tail = pieces.get(random.nextInt(VOCABULARY_SIZE / 2) * 2 + 1);
+            sb.append(head).append(tail.substring(2)).append(' ');
+            // a quarter of the lookups are unknown tokens
+            tokens[i] = i % 4 == 0 ? randomWord(random) + '#' : pieces.get(i);
+        }
+        sentence = sb.toString();
+    }
+
+    /**
+     * Benchmarks {@link WordpieceTokenizer#tokenize(String)}.
+     *
+     * @return the word pieces
+     */
+    @Benchmark
+    public List<String> tokenize() {
+        return tokenizer.tokenize(sentence);
+    }
+
+    /**
+     * Benchmarks {@link WordpieceTokenizer#tokenizeToIndices(String)}.
+     *
+     * @return the vocabulary indices of the word pieces
+     */
+    @Benchmark
+    public long[] tokenizeToIndices() {
+        return tokenizer.tokenizeToIndices(sentence);
+    }
+
+    /**
+     * Benchmarks {@link DefaultVocabulary#getIndex(String)}.
+     *
+     * @return the sum of the indices
+     */
+    @Benchmark
+    public long getIndex() {
+        long sum = 0;
+        for (String token : tokens) {
+            sum += vocabulary.getIndex(token);
+        }
+        return sum;
+    }
+
+    /**
+     * Benchmarks {@link CompactVocabulary#getIndex(String)}.
+     *
+     * @return the sum of the indices
+     */
+    @Benchmark
+    public long getIndexCompact() {
+        long sum = 0;
+        for (String token : tokens) {
+            sum += compactVocabulary.getIndex(token);
+        }
+        return sum;
+    }
+
+    private static String randomWord(Random random) {
+        int length = 2 + random.nextInt(7);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks an optimizer step of a model with many small parameters, updated one parameter at a
+ * time and with the multi-tensor {@link Optimizer#update(String[], NDArray[], NDArray[])}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OptimizerBenchmark {
+
+    @Param({"sgd", "adam"})
+    String optimizerName;
+
+    @Param("256")
+    int numParameters;
+
+    @Param("64")
+    int parameterSize;
+
+    private NDManager manager;
+    private Optimizer optimizer;
+    private String[] parameterIds;
+    private NDArray[] weights;
+    private NDArray[] grads;
+
+    /** Creates the parameters and their gradients. */
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        if ("adam".equals(optimizerName)) {
+            optimizer = Optimizer.adam().build();
+        } else {
+            optimizer =
+                    Optimizer.sgd()
+                            .setLearningRateTracker(Tracker.fixed(0.01f))
+                            .optMomentum(0.9f)
+                            .build();
+        }
+        parameterIds = new String[numParameters];
+        weights = new NDArray[numParameters];
+        grads = new NDArray[numParameters];
+        Shape shape = new Shape(parameterSize);
+        for (int i = 0; i < numParameters; ++i) {
+            parameterIds[i] = "param_" + i;
+            weights[i] = manager.randomUniform(-1, 1, shape);
+            grads[i] = manager.randomUniform(-1, 1, shape);
+        }
+    }
+
+    /** Closes the parameters. */
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Benchmarks a step that calls {@link Optimizer#update(String, NDArray, NDArray)} for each
+     * parameter.
+     *
+     * @return the number of parameters updated
+     */
+    @Benchmark
+    public int perParameterStep() {
+        for (int i = 0; i < numParameters; ++i) {
+            optimizer.update(parameterIds[i], weights[i], grads[i]);
+        }
+        return numParameters;
+    }
+
+    /**
+     * Benchmarks a step that calls {@link Optimizer#update(String[], NDArray[], NDArray[])} once
+     * for all the parameters.
+     *
+     * @return the number of parameters updated
+     */
+    @Benchmark
+    public int multiTensorStep() {
+        optimizer.update(parameterIds, weights, grads);
+        return numParameters;
+    }
+}
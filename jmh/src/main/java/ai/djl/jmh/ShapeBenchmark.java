@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jmh;
+
+import ai.djl.ndarray.types.Shape;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the common {@link Shape} operations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeBenchmark {
+
+    private long[] dims;
+    private Shape shape;
+    private Shape other;
+
+    /** Creates the shapes. */
+    @Setup
+    public void setup() {
+        dims = new long[] {32, 3, 224, 224};
+        shape = new Shape(dims);
+        other = new Shape(32, 3, 224, 224);
+    }
+
+    /**
+     * Benchmarks the creation of a {@link Shape}.
+     *
+     * @return the new shape
+     */
+    @Benchmark
+    public Shape create() {
+        return new Shape(dims);
+    }
+
+    /**
+     * Benchmarks {@link Shape#size()}.
+     *
+     * @return the size of the shape
+     */
+    @Benchmark
+    public long size() {
+        return shape.size();
+    }
+
+    /**
+     * Benchmarks {@link Shape#equals(Object)}.
+     *
+     * @return whether the shapes are equal
+     */
+    @Benchmark
+    public boolean equalsShape() {
+        return shape.equals(other);
+    }
+
+    /**
+     * Benchmarks {@link Shape#slice(int)} and {@link Shape#addAll(Shape)}, the way batch shapes are
+     * built.
+     *
+     * @return the new shape
+     */
+    @Benchmark
+    public Shape sliceAndAdd() {
+        return new Shape(1).addAll(shape.slice(1));
+    }
+
+    /**
+     * Benchmarks {@link Shape#update(Shape, int, long)}.
+     *
+     * @return the new shape
+     */
+    @Benchmark
+    public Shape update() {
+        return Shape.update(shape, 0, 1);
+    }
+
+    /**
+     * Benchmarks {@link Shape#getEncoded()}.
+     *
+     * @return the encoded shape
+     */
+    @Benchmark
+    public byte[] encode() {
+        return shape.getEncoded();
+    }
+}